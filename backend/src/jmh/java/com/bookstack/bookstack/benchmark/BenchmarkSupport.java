@@ -0,0 +1,114 @@
+package com.bookstack.bookstack.benchmark;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import com.bookstack.bookstack.BookstackApplication;
+import com.bookstack.bookstack.auth.service.JwtService;
+
+/**
+ * Shared fixtures for the benchmarks: standalone services and an embedded application on H2.
+ */
+final class BenchmarkSupport {
+    static final String JWT_SECRET = "YmVuY2htYXJrLW9ubHktand0LXNlY3JldC1rZXktZm9yLWJvb2tzdGFjay0wMTIzNDU2Nzg5";
+
+    private BenchmarkSupport() {
+    }
+
+    static JwtService jwtService(long cacheMaxSize) {
+        JwtService jwtService = new JwtService();
+        ReflectionTestUtils.setField(jwtService, "secretKey", JWT_SECRET);
+        ReflectionTestUtils.setField(jwtService, "jwtExpiration", 3_600_000L);
+        ReflectionTestUtils.setField(jwtService, "cacheMaxSize", cacheMaxSize);
+        ReflectionTestUtils.invokeMethod(jwtService, "init");
+        return jwtService;
+    }
+
+    // Boots the application against a fresh in-memory database
+    static ConfigurableApplicationContext startApplication(String... extraProperties) {
+        return startApplication(builder -> {
+        }, extraProperties);
+    }
+
+    // Same, letting the benchmark register initializers or extra sources before the context starts
+    static ConfigurableApplicationContext startApplication(Consumer<SpringApplicationBuilder> customizer,
+            String... extraProperties) {
+        List<String> properties = new ArrayList<>(List.of(
+                "spring.datasource.url=jdbc:h2:mem:bench-" + UUID.randomUUID() + ";MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+                "spring.datasource.username=sa",
+                "spring.datasource.password=",
+                "spring.jpa.hibernate.ddl-auto=validate",
+                "spring.devtools.restart.enabled=false",
+                "rate.limit.enabled=false",
+                "app.graphql.cost.budget-per-minute=0",
+                "logging.level.root=WARN",
+                "JWT_SECRET=" + JWT_SECRET,
+                "JWT_EXPIRATION=3600000"));
+        properties.addAll(List.of(extraProperties));
+        SpringApplicationBuilder builder = new SpringApplicationBuilder(BookstackApplication.class)
+                .web(WebApplicationType.SERVLET)
+                .properties("server.port=0")
+                .properties(properties.toArray(String[]::new));
+        customizer.accept(builder);
+        return builder.run();
+    }
+
+    static void seedCatalog(ConfigurableApplicationContext context, int size) {
+        JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+        List<Object[]> rows = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            rows.add(new Object[] {"Benchmark Title " + i, "Author " + (i % 500), "BENCH-" + i,
+                    "Category " + (i % 20), "English", 5, 3});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO books (title, author, isbn, category, language, total_copies, available_copies) "
+                + "VALUES (?, ?, ?, ?, ?, ?, ?)", rows);
+    }
+
+    // Borrow history spread evenly over userCount members and the first bookCount seeded books;
+    // one in ten is still ACTIVE, the rest RETURNED
+    static void seedBorrows(ConfigurableApplicationContext context, int rows, int userCount, int bookCount) {
+        JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+        List<Object[]> users = new ArrayList<>(userCount);
+        for (int i = 0; i < userCount; i++) {
+            users.add(new Object[] {"bench-member-" + i, "{noop}benchmark", "MEMBER"});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO users (username, password, role) VALUES (?, ?, ?)", users);
+        long firstUserId = jdbcTemplate.queryForObject("SELECT MIN(id) FROM users WHERE username LIKE 'bench-member-%'", Long.class);
+        long firstBookId = jdbcTemplate.queryForObject("SELECT MIN(id) FROM books", Long.class);
+
+        LocalDateTime start = LocalDateTime.now().minusYears(2);
+        int batchSize = 10_000;
+        List<Object[]> batch = new ArrayList<>(batchSize);
+        for (int i = 0; i < rows; i++) {
+            LocalDateTime borrowed = start.plusMinutes(i);
+            boolean active = i % 10 == 0;
+            batch.add(new Object[] {firstUserId + i % userCount, firstBookId + i % bookCount,
+                    active ? "ACTIVE" : "RETURNED", borrowed, borrowed.plusDays(14),
+                    active ? null : borrowed.plusDays(7), i % 4 == 0 ? "Benchmark note " + i : null});
+            if (batch.size() == batchSize || i == rows - 1) {
+                jdbcTemplate.batchUpdate("INSERT INTO borrows (user_id, book_id, status, borrow_date, due_date, return_date, notes) "
+                        + "VALUES (?, ?, ?, ?, ?, ?, ?)", batch);
+                batch.clear();
+            }
+        }
+    }
+
+    // Binds a fresh request carrying the token to the current thread, as the servlet stack would
+    static void bindRequest(String authorization) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/graphql");
+        request.addHeader("Authorization", authorization);
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+    }
+}
@@ -0,0 +1,187 @@
+package com.bookstack.bookstack.benchmark;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.WebSocket;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.bookstack.bookstack.auth.service.JwtService;
+import com.bookstack.bookstack.book.service.BookAvailabilityPublisher;
+import com.bookstack.bookstack.book.service.BookService;
+
+/**
+ * Load test for bookAvailabilityChanged: opens {@code subscribers} real WebSocket connections
+ * (graphql-transport-ws, token in connection_init) to one embedded server, then measures how long
+ * one availability change takes from the write until every subscriber has the update. Half the
+ * subscribers follow the changed book and half follow every book, so both filters are exercised.
+ *
+ * Each connection is a file descriptor on both ends; raise {@code ulimit -n} above twice the
+ * subscriber count before running.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, batchSize = 1)
+@Measurement(iterations = 10, batchSize = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class BookAvailabilitySubscriptionBenchmark {
+    private static final int CATALOG_SIZE = 100;
+    private static final int CONNECT_CONCURRENCY = 200;
+
+    @Param({"10000"})
+    private int subscribers;
+
+    private ConfigurableApplicationContext context;
+    private HttpClient client;
+    private BookService bookService;
+    private BookAvailabilityPublisher publisher;
+    private final Queue<WebSocket> sockets = new ConcurrentLinkedQueue<>();
+    // One permit per update delivered to any subscriber
+    private final Semaphore delivered = new Semaphore(0);
+    private long bookId;
+    private boolean checkedOut;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        // Flushes are driven by the benchmark itself so each invocation measures exactly one fan-out
+        context = BenchmarkSupport.startApplication(
+                "app.graphql.subscriptions.coalesce-interval-ms=3600000",
+                "server.tomcat.max-connections=" + (subscribers + 1000));
+        BenchmarkSupport.seedCatalog(context, CATALOG_SIZE);
+        bookService = context.getBean(BookService.class);
+        publisher = context.getBean(BookAvailabilityPublisher.class);
+        bookId = context.getBean(JdbcTemplate.class).queryForObject("SELECT MIN(id) FROM books", Long.class);
+
+        String port = context.getEnvironment().getProperty("local.server.port");
+        URI uri = URI.create("ws://localhost:" + port + "/api/graphql-ws");
+        String token = context.getBean(JwtService.class)
+                .generateToken(Map.of("role", "MEMBER", "userId", 1L), "benchmark");
+        client = HttpClient.newHttpClient();
+
+        Semaphore connecting = new Semaphore(CONNECT_CONCURRENCY);
+        List<CompletableFuture<Void>> subscribed = new ArrayList<>(subscribers);
+        for (int i = 0; i < subscribers; i++) {
+            String filter = i % 2 == 0 ? "(bookIds: [\"" + bookId + "\"])" : "";
+            Subscriber subscriber = new Subscriber(token, filter);
+            connecting.acquire();
+            subscribed.add(subscriber.ready);
+            subscriber.ready.whenComplete((ignored, error) -> connecting.release());
+            client.newWebSocketBuilder()
+                    .subprotocols("graphql-transport-ws")
+                    .buildAsync(uri, subscriber)
+                    .whenComplete((socket, error) -> {
+                        if (error != null) {
+                            subscriber.ready.completeExceptionally(error);
+                        } else {
+                            sockets.add(socket);
+                        }
+                    });
+        }
+        CompletableFuture.allOf(subscribed.toArray(CompletableFuture[]::new)).get(5, TimeUnit.MINUTES);
+
+        // The subscribe message is acknowledged only by the first update, so wait for the server side
+        long deadline = System.currentTimeMillis() + 60_000;
+        while (publisher.subscriberCount() < subscribers) {
+            if (System.currentTimeMillis() > deadline) {
+                throw new IllegalStateException("Only " + publisher.subscriberCount() + " of " + subscribers + " subscribed");
+            }
+            Thread.sleep(50);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        sockets.forEach(WebSocket::abort);
+        client.close();
+        context.close();
+    }
+
+    @Benchmark
+    public int fanOut() throws InterruptedException {
+        // Alternate so the copy count stays between 2 and 3
+        if (checkedOut) {
+            bookService.checkInCopy(bookId);
+        } else {
+            bookService.checkOutCopy(bookId);
+        }
+        checkedOut = !checkedOut;
+        publisher.flush();
+        if (!delivered.tryAcquire(subscribers, 60, TimeUnit.SECONDS)) {
+            throw new IllegalStateException(delivered.availablePermits() + " of " + subscribers + " updates delivered");
+        }
+        return subscribers;
+    }
+
+    // Sends connection_init on open and subscribe on connection_ack, then counts "next" messages
+    private class Subscriber implements WebSocket.Listener {
+        private final CompletableFuture<Void> ready = new CompletableFuture<>();
+        private final String token;
+        private final String filter;
+        private final StringBuilder partial = new StringBuilder();
+
+        Subscriber(String token, String filter) {
+            this.token = token;
+            this.filter = filter;
+        }
+
+        @Override
+        public void onOpen(WebSocket webSocket) {
+            webSocket.sendText("{\"type\":\"connection_init\",\"payload\":{\"Authorization\":\"Bearer " + token + "\"}}", true);
+            webSocket.request(1);
+        }
+
+        @Override
+        public CompletionStage<?> onText(WebSocket webSocket, CharSequence data, boolean last) {
+            partial.append(data);
+            if (last) {
+                String message = partial.toString();
+                partial.setLength(0);
+                if (message.contains("\"connection_ack\"")) {
+                    webSocket.sendText("{\"id\":\"1\",\"type\":\"subscribe\",\"payload\":{\"query\":"
+                            + "\"subscription { bookAvailabilityChanged" + filter.replace("\"", "\\\"")
+                            + " { bookId availableCopies } }\"}}", true)
+                            .thenRun(() -> ready.complete(null));
+                } else if (message.contains("\"next\"")) {
+                    delivered.release();
+                }
+            }
+            webSocket.request(1);
+            return null;
+        }
+
+        @Override
+        public CompletionStage<?> onClose(WebSocket webSocket, int statusCode, String reason) {
+            ready.completeExceptionally(new IllegalStateException("Closed with " + statusCode + ": " + reason));
+            return null;
+        }
+
+        @Override
+        public void onError(WebSocket webSocket, Throwable error) {
+            ready.completeExceptionally(error);
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.bookstack.bookstack.benchmark;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.bookstack.bookstack.book.model.Book;
+import com.bookstack.bookstack.borrow.dto.BorrowResponse;
+import com.bookstack.bookstack.borrow.mapper.BorrowMapper;
+import com.bookstack.bookstack.borrow.model.Borrow;
+import com.bookstack.bookstack.user.model.User;
+
+/**
+ * Bulk mapping of borrow entities to responses, as done by every BorrowService list method.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BorrowMapperBenchmark {
+
+    @Param({"1000", "100000"})
+    private int borrows;
+
+    private final BorrowMapper mapper = new BorrowMapper();
+    private List<Borrow> entities;
+
+    @Setup
+    public void setUp() {
+        LocalDateTime now = LocalDateTime.now();
+        entities = new ArrayList<>(borrows);
+        for (int i = 0; i < borrows; i++) {
+            User user = new User();
+            user.setId((long) (i % 1000));
+            user.setUsername("member" + (i % 1000));
+
+            Book book = new Book();
+            book.setId((long) (i % 5000));
+            book.setTitle("Title " + (i % 5000));
+
+            Borrow borrow = new Borrow(user, book, now.minusDays(i % 30), now.plusDays(14 - i % 30));
+            borrow.setId((long) i);
+            entities.add(borrow);
+        }
+    }
+
+    @Benchmark
+    public List<BorrowResponse> mapAll() {
+        return entities.stream().map(mapper::toResponse).toList();
+    }
+}
@@ -0,0 +1,108 @@
+package com.bookstack.bookstack.benchmark;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.bookstack.bookstack.borrow.dto.BorrowResponse;
+import com.bookstack.bookstack.borrow.mapper.BorrowMapper;
+import com.bookstack.bookstack.borrow.model.Borrow;
+import com.bookstack.bookstack.borrow.model.BorrowStatus;
+import com.bookstack.bookstack.borrow.service.BorrowService;
+
+import jakarta.persistence.EntityManager;
+
+/**
+ * Borrow list reads on a borrows table of a million rows: the BorrowService projections against
+ * the JOIN FETCH + BorrowMapper path they replaced, in the same read-only transaction.
+ * {@code byUser} returns one member's history (1000 rows), {@code byStatus} every ACTIVE borrow
+ * (100k rows). Run with {@code -prof gc} and compare {@code gc.alloc.rate.norm} for the memory
+ * side of the difference.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class BorrowQueryBenchmark {
+    private static final String ENTITY_QUERY = "SELECT b FROM Borrow b JOIN FETCH b.user JOIN FETCH b.book";
+    private static final int USERS = 1000;
+    private static final int BOOKS = 10_000;
+
+    @Param({"1000000"})
+    private int borrowRows;
+
+    private ConfigurableApplicationContext context;
+    private BorrowService borrowService;
+    private BorrowMapper borrowMapper;
+    private EntityManager entityManager;
+    private TransactionTemplate readOnly;
+    private long userId;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkSupport.startApplication();
+        BenchmarkSupport.seedCatalog(context, BOOKS);
+        BenchmarkSupport.seedBorrows(context, borrowRows, USERS, BOOKS);
+        borrowService = context.getBean(BorrowService.class);
+        borrowMapper = context.getBean(BorrowMapper.class);
+        entityManager = context.getBean(EntityManager.class);
+        readOnly = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        readOnly.setReadOnly(true);
+        userId = borrowService.getBorrowsByStatus(BorrowStatus.ACTIVE).get(0).getUserId();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<BorrowResponse> byUserProjection() {
+        return borrowService.getBorrowsByUserId(userId, false);
+    }
+
+    @Benchmark
+    public List<BorrowResponse> byUserEntities() {
+        return readOnly.execute(status -> entityManager
+                .createQuery(ENTITY_QUERY + " WHERE b.user.id = :userId", Borrow.class)
+                .setParameter("userId", userId)
+                .getResultList()
+                .stream()
+                .map(borrowMapper::toResponse)
+                .toList());
+    }
+
+    @Benchmark
+    public List<BorrowResponse> byStatusProjection() {
+        return borrowService.getBorrowsByStatus(BorrowStatus.ACTIVE);
+    }
+
+    @Benchmark
+    public List<BorrowResponse> byStatusEntities() {
+        return readOnly.execute(status -> entityManager
+                .createQuery(ENTITY_QUERY + " WHERE b.status = :status", Borrow.class)
+                .setParameter("status", BorrowStatus.ACTIVE)
+                .getResultList()
+                .stream()
+                .map(borrowMapper::toResponse)
+                .toList());
+    }
+}
@@ -0,0 +1,70 @@
+package com.bookstack.bookstack.benchmark;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.graphql.ExecutionGraphQlResponse;
+import org.springframework.graphql.ExecutionGraphQlService;
+import org.springframework.graphql.support.DefaultExecutionGraphQlRequest;
+
+import com.bookstack.bookstack.auth.service.JwtService;
+
+/**
+ * End-to-end GraphQL execution (parse, validate, authorize, fetch, serialize to a map) of
+ * allBooks against an embedded H2 catalog of configurable size.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class GraphQlAllBooksBenchmark {
+    private static final String QUERY = "{ allBooks { id title author isbn category language totalCopies availableCopies } }";
+
+    @Param({"1000", "10000"})
+    private int catalogSize;
+
+    private ConfigurableApplicationContext context;
+    private ExecutionGraphQlService graphQlService;
+    private String authorization;
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkSupport.startApplication();
+        BenchmarkSupport.seedCatalog(context, catalogSize);
+        graphQlService = context.getBean(ExecutionGraphQlService.class);
+        authorization = "Bearer " + context.getBean(JwtService.class)
+                .generateToken(Map.of("role", "ADMIN", "userId", 1L), "benchmark");
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Map<String, Object> allBooks() {
+        BenchmarkSupport.bindRequest(authorization);
+        ExecutionGraphQlResponse response = graphQlService
+                .execute(new DefaultExecutionGraphQlRequest(QUERY, null, null, null, "benchmark", null))
+                .block();
+        if (!response.isValid() || !response.getErrors().isEmpty()) {
+            throw new IllegalStateException("Query failed: " + response.getErrors());
+        }
+        return response.toMap();
+    }
+}
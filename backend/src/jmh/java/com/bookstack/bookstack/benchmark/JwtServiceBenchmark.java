@@ -0,0 +1,61 @@
+package com.bookstack.bookstack.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.bookstack.bookstack.auth.model.AuthenticatedPrincipal;
+import com.bookstack.bookstack.auth.service.JwtService;
+import com.bookstack.bookstack.user.model.User;
+
+/**
+ * Token generation and verification, with and without the verified-claims cache.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtServiceBenchmark {
+    private JwtService cachedJwtService;
+    private JwtService uncachedJwtService;
+    private User user;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        cachedJwtService = BenchmarkSupport.jwtService(10_000);
+        uncachedJwtService = BenchmarkSupport.jwtService(0);
+
+        user = new User();
+        user.setId(42L);
+        user.setUsername("benchmark");
+        user.setRole("MEMBER");
+        token = cachedJwtService.generateToken(user);
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return cachedJwtService.generateToken(user);
+    }
+
+    @Benchmark
+    public AuthenticatedPrincipal authenticateCached() {
+        return cachedJwtService.authenticate(token).orElseThrow();
+    }
+
+    @Benchmark
+    public AuthenticatedPrincipal authenticateUncached() {
+        return uncachedJwtService.authenticate(token).orElseThrow();
+    }
+}
@@ -0,0 +1,69 @@
+package com.bookstack.bookstack.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.bookstack.bookstack.common.RateLimitInterceptor;
+import com.bookstack.bookstack.common.config.CacheConfig;
+import com.bookstack.bookstack.common.ratelimit.LocalRateLimitBucketProvider;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Bucket resolution and consumption in RateLimitInterceptor.preHandle, cycling through a
+ * configurable number of distinct client IPs.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RateLimitInterceptorBenchmark {
+
+    @Param({"100", "10000", "100000"})
+    private int distinctIps;
+
+    private RateLimitInterceptor interceptor;
+    private String[] ips;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        CacheConfig cacheConfig = new CacheConfig();
+        CaffeineCacheManager cacheManager = cacheConfig.cacheManager(cacheConfig.caffeineConfig());
+
+        interceptor = new RateLimitInterceptor(new LocalRateLimitBucketProvider(cacheManager), new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(interceptor, "enabled", true);
+        // High enough that buckets never run dry during a measurement
+        ReflectionTestUtils.setField(interceptor, "requestsPerMinute", Integer.MAX_VALUE);
+
+        ips = new String[distinctIps];
+        for (int i = 0; i < distinctIps; i++) {
+            ips[i] = "10." + ((i >> 16) & 0xFF) + "." + ((i >> 8) & 0xFF) + "." + (i & 0xFF);
+        }
+    }
+
+    @Benchmark
+    public boolean preHandle() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/graphql");
+        request.setRemoteAddr(ips[next]);
+        next = (next + 1) % ips.length;
+        return interceptor.preHandle(request, new MockHttpServletResponse(), new Object());
+    }
+}
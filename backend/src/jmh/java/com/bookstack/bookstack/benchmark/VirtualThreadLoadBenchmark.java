@@ -0,0 +1,184 @@
+package com.bookstack.bookstack.benchmark;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import javax.sql.DataSource;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.bookstack.bookstack.auth.service.JwtService;
+
+/**
+ * Throughput and latency distribution (p99 from SampleTime) of the embedded server under 1024
+ * concurrent HTTP clients, with Tomcat, @Async, scheduling and GraphQL on platform threads versus
+ * virtual threads. Every JDBC statement is delayed by a fixed latency to stand in for a networked
+ * database; with H2 in-process the request would otherwise never block.
+ *
+ * The Hikari pool is sized above Tomcat's default 200 workers so that, in platform mode, request
+ * threads rather than connections are the bottleneck being measured.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Threads(1024)
+@Warmup(iterations = 2, time = 10)
+@Measurement(iterations = 3, time = 10)
+@Fork(1)
+public class VirtualThreadLoadBenchmark {
+    private static final int CATALOG_SIZE = 1000;
+
+    @Param({"false", "true"})
+    private boolean virtualThreads;
+
+    @Param({"20"})
+    private long queryLatencyMillis;
+
+    @Param({"400"})
+    private int poolSize;
+
+    private ConfigurableApplicationContext context;
+    private HttpClient client;
+    private String baseUrl;
+    private String authorization;
+
+    @Setup
+    public void setUp() throws Exception {
+        context = BenchmarkSupport.startApplication(
+                builder -> builder.initializers(ctx -> ctx.getBeanFactory()
+                        .addBeanPostProcessor(new QueryLatencyPostProcessor(queryLatencyMillis))),
+                "spring.threads.virtual.enabled=" + virtualThreads,
+                "spring.datasource.hikari.maximum-pool-size=" + poolSize,
+                "app.threads.pinning-monitor.enabled=false");
+        BenchmarkSupport.seedCatalog(context, CATALOG_SIZE);
+
+        baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+        authorization = "Bearer " + context.getBean(JwtService.class)
+                .generateToken(Map.of("role", "ADMIN", "userId", 1L), "benchmark");
+        client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+
+        // Fail fast on auth or routing mistakes instead of measuring error responses
+        int status = borrowHistory();
+        if (status != 200) {
+            throw new IllegalStateException("Borrow history returned HTTP " + status);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        client.close();
+        context.close();
+    }
+
+    // DB-bound REST call: one borrow-history query per request
+    @Benchmark
+    public int borrowHistory() throws Exception {
+        long userId = ThreadLocalRandom.current().nextLong(1, 101);
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/api/borrows/user/" + userId))
+                .header("Authorization", authorization)
+                .timeout(Duration.ofSeconds(60))
+                .GET()
+                .build();
+        return client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+
+    // GraphQL data fetcher path; mostly answered from the second-level cache after warmup
+    @Benchmark
+    public int graphQlBookById() throws Exception {
+        long bookId = ThreadLocalRandom.current().nextLong(1, CATALOG_SIZE + 1);
+        String body = "{\"query\":\"{ bookById(id: " + bookId + ") { id title availableCopies } }\"}";
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/api/graphql"))
+                .header("Authorization", authorization)
+                .header("Content-Type", "application/json")
+                .timeout(Duration.ofSeconds(60))
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+        return client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+
+    // Wraps the application DataSource so every statement execution sleeps before reaching H2
+    private record QueryLatencyPostProcessor(long latencyMillis) implements BeanPostProcessor {
+
+        @Override
+        public Object postProcessAfterInitialization(Object bean, String beanName) {
+            if (bean instanceof DataSource dataSource && "dataSource".equals(beanName)) {
+                return proxy(DataSource.class, dataSource, (target, method, args) -> {
+                    Object result = invoke(target, method, args);
+                    return result instanceof Connection connection ? wrapConnection(connection) : result;
+                });
+            }
+            return bean;
+        }
+
+        private Connection wrapConnection(Connection connection) {
+            return proxy(Connection.class, connection, (target, method, args) -> {
+                Object result = invoke(target, method, args);
+                return result instanceof Statement statement ? wrapStatement(statement) : result;
+            });
+        }
+
+        private Statement wrapStatement(Statement statement) {
+            // Proxy the most specific JDBC interface so PreparedStatement/CallableStatement casts keep working
+            Class<?> type = statement instanceof CallableStatement ? CallableStatement.class
+                    : statement instanceof PreparedStatement ? PreparedStatement.class
+                    : Statement.class;
+            return (Statement) Proxy.newProxyInstance(VirtualThreadLoadBenchmark.class.getClassLoader(),
+                    new Class<?>[] {type}, (proxy, method, args) -> {
+                        if (method.getName().startsWith("execute")) {
+                            Thread.sleep(latencyMillis);
+                        }
+                        return invoke(statement, method, args);
+                    });
+        }
+
+        private static <T> T proxy(Class<T> type, T target, TargetHandler<T> handler) {
+            InvocationHandler invocationHandler = (proxy, method, args) -> handler.handle(target, method, args);
+            return type.cast(Proxy.newProxyInstance(VirtualThreadLoadBenchmark.class.getClassLoader(),
+                    new Class<?>[] {type}, invocationHandler));
+        }
+
+        private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+            try {
+                return method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+
+    @FunctionalInterface
+    private interface TargetHandler<T> {
+        Object handle(T target, Method method, Object[] args) throws Throwable;
+    }
+}
@@ -6,50 +6,58 @@ import org.aspectj.lang.ProceedingJoinPoint;
 import org.aspectj.lang.annotation.Around;
 import org.aspectj.lang.annotation.Aspect;
 import org.springframework.stereotype.Component;
-import org.springframework.web.context.request.RequestContextHolder;
-import org.springframework.web.context.request.ServletRequestAttributes;
 
 import com.bookstack.bookstack.auth.annotation.RequireRole;
-import com.bookstack.bookstack.auth.service.JwtService;
-import com.bookstack.bookstack.common.exception.UnauthorizedException;
+import com.bookstack.bookstack.auth.model.AuthenticatedPrincipal;
+import com.bookstack.bookstack.auth.service.AuthenticationContext;
 import com.bookstack.bookstack.common.exception.ForbiddenException;
+import com.bookstack.bookstack.common.exception.UnauthorizedException;
+import com.bookstack.bookstack.common.metrics.MetricTags;
 
-import jakarta.servlet.http.HttpServletRequest;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
 
 @Aspect
 @Component
 public class RoleAuthorizationAspect {
     
-    private final JwtService jwtService;
+    private final AuthenticationContext authenticationContext;
+    private final MeterRegistry meterRegistry;
     
-    public RoleAuthorizationAspect(JwtService jwtService) {
-        this.jwtService = jwtService;
+    public RoleAuthorizationAspect(AuthenticationContext authenticationContext, MeterRegistry meterRegistry) {
+        this.authenticationContext = authenticationContext;
+        this.meterRegistry = meterRegistry;
     }
     
     @Around("@annotation(requireRole)")
     public Object authorize(ProceedingJoinPoint joinPoint, RequireRole requireRole) throws Throwable {
-        HttpServletRequest request = ((ServletRequestAttributes) RequestContextHolder.currentRequestAttributes())
-                .getRequest();
-        
-        String authHeader = request.getHeader("Authorization");
-        
-        if (authHeader == null || !authHeader.startsWith("Bearer ")) {
-            throw new UnauthorizedException("Authentication required");
+        // Verifies the token once per request; throws UnauthorizedException when missing or invalid
+        AuthenticatedPrincipal principal;
+        try {
+            principal = authenticationContext.requirePrincipal();
+        } catch (UnauthorizedException e) {
+            record("unauthenticated", null);
+            throw e;
         }
         
-        String token = authHeader.substring(7);
-        
-        // Validate token
-        if (!jwtService.isTokenValid(token)) {
-            throw new UnauthorizedException("Invalid or expired token");
-        }
-        
-        String userRole = jwtService.extractRole(token);
+        String userRole = principal.role();
         
         if (userRole == null || !Arrays.asList(requireRole.value()).contains(userRole)) {
+            record("forbidden", principal);
             throw new ForbiddenException("Insufficient permissions. Required roles: " + Arrays.toString(requireRole.value()));
         }
         
+        record("granted", principal);
         return joinPoint.proceed();
     }
-}
\ No newline at end of file
+
+    // unauthenticated: no token, or one that failed verification, had expired or was revoked
+    private void record(String outcome, AuthenticatedPrincipal principal) {
+        Counter.builder("bookstack.auth.checks")
+                .description("Role checks on protected endpoints and GraphQL fields")
+                .tag("outcome", outcome)
+                .tag("role", MetricTags.role(principal))
+                .register(meterRegistry)
+                .increment();
+    }
+}
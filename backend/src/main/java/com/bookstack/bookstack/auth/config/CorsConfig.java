@@ -27,6 +27,9 @@ public class CorsConfig {
         // Allow all headers
         config.addAllowedHeader("*");
         
+        // Let the frontend read ETags for conditional requests
+        config.addExposedHeader("ETag");
+        
         // Allow credentials (cookies, authorization headers, etc.)
         config.setAllowCredentials(true);
         
@@ -1,5 +1,6 @@
 package com.bookstack.bookstack.auth.config;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
@@ -8,8 +9,9 @@ import org.springframework.security.crypto.password.PasswordEncoder;
 @Configuration
 public class SecurityConfig {
 
+    // Changing the strength takes effect for existing users on their next successful login
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(@Value("${app.password-hashing.bcrypt-strength:10}") int strength) {
+        return new BCryptPasswordEncoder(strength);
     }
-}
\ No newline at end of file
+}
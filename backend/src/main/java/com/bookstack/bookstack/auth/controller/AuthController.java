@@ -14,14 +14,17 @@ import com.bookstack.bookstack.auth.dto.LoginRequest;
 import com.bookstack.bookstack.auth.dto.LoginResponse;
 import com.bookstack.bookstack.auth.dto.RegisterRequest;
 import com.bookstack.bookstack.auth.service.AuthService;
+import com.bookstack.bookstack.auth.service.AuthenticationContext;
 
 @RestController
 @RequestMapping("/api/auth")
 public class AuthController {
     private final AuthService authService;
+    private final AuthenticationContext authenticationContext;
 
-    public AuthController(AuthService authService) {
+    public AuthController(AuthService authService, AuthenticationContext authenticationContext) {
         this.authService = authService;
+        this.authenticationContext = authenticationContext;
     }
 
     @PostMapping("/register")
@@ -37,4 +40,10 @@ public class AuthController {
         LoginResponse response = authService.login(request.getUsername(), request.getPassword());
         return ResponseEntity.ok(response);
     }
+
+    @PostMapping("/logout")
+    public ResponseEntity<Void> logout() {
+        authService.logout(authenticationContext.requirePrincipal());
+        return ResponseEntity.noContent().build();
+    }
 }
\ No newline at end of file
@@ -0,0 +1,15 @@
+package com.bookstack.bookstack.auth.model;
+
+import java.time.Instant;
+
+/**
+ * Identity extracted from a verified JWT. Resolved once per request and shared by every
+ * authorization check made while handling it.
+ */
+public record AuthenticatedPrincipal(Long userId, String username, String role, Instant issuedAt, Instant expiresAt,
+                                     String tokenId) {
+
+    public boolean hasRole(String candidate) {
+        return role != null && role.equals(candidate);
+    }
+}
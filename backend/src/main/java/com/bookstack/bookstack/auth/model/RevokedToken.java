@@ -0,0 +1,31 @@
+package com.bookstack.bookstack.auth.model;
+
+import java.time.Instant;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// A single revoked JWT, kept until the token would have expired anyway
+@Entity
+@Table(name = "revoked_tokens", indexes = @Index(name = "idx_revoked_tokens_revoked_at", columnList = "revoked_at"))
+@Data
+@NoArgsConstructor
+public class RevokedToken {
+    @Id
+    @Column(length = 64)
+    private String jti;
+
+    @Column(name = "user_id")
+    private Long userId;
+
+    @Column(name = "expires_at", nullable = false)
+    private Instant expiresAt;
+
+    @Column(name = "revoked_at", nullable = false)
+    private Instant revokedAt;
+}
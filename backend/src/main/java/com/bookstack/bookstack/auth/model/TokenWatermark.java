@@ -0,0 +1,28 @@
+package com.bookstack.bookstack.auth.model;
+
+import java.time.Instant;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Tokens issued to the user at or before notBefore are rejected
+@Entity
+@Table(name = "token_watermarks", indexes = @Index(name = "idx_token_watermarks_updated_at", columnList = "updated_at"))
+@Data
+@NoArgsConstructor
+public class TokenWatermark {
+    @Id
+    @Column(name = "user_id")
+    private Long userId;
+
+    @Column(name = "not_before", nullable = false)
+    private Instant notBefore;
+
+    @Column(name = "updated_at", nullable = false)
+    private Instant updatedAt;
+}
@@ -0,0 +1,33 @@
+package com.bookstack.bookstack.auth.repository;
+
+import java.time.Instant;
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.bookstack.bookstack.auth.model.RevokedToken;
+
+@Repository
+public interface RevokedTokenRepository extends JpaRepository<RevokedToken, String> {
+
+    @Query("SELECT t FROM RevokedToken t WHERE t.expiresAt > :now")
+    List<RevokedToken> findUnexpired(@Param("now") Instant now);
+
+    @Query("SELECT t FROM RevokedToken t WHERE t.revokedAt >= :since AND t.expiresAt > :now")
+    List<RevokedToken> findRevokedSince(@Param("since") Instant since, @Param("now") Instant now);
+
+    // Revoking the same token twice (double logout, two replicas) is a no-op
+    @Modifying
+    @Query(value = "INSERT INTO revoked_tokens (jti, user_id, expires_at, revoked_at) "
+            + "VALUES (:jti, :userId, :expiresAt, :revokedAt) ON CONFLICT DO NOTHING", nativeQuery = true)
+    int insertIfAbsent(@Param("jti") String jti, @Param("userId") Long userId,
+                       @Param("expiresAt") Instant expiresAt, @Param("revokedAt") Instant revokedAt);
+
+    @Modifying
+    @Query("DELETE FROM RevokedToken t WHERE t.expiresAt <= :now")
+    int deleteExpired(@Param("now") Instant now);
+}
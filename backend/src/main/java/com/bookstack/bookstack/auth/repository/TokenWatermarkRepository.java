@@ -0,0 +1,38 @@
+package com.bookstack.bookstack.auth.repository;
+
+import java.time.Instant;
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.bookstack.bookstack.auth.model.TokenWatermark;
+
+@Repository
+public interface TokenWatermarkRepository extends JpaRepository<TokenWatermark, Long> {
+
+    @Query("SELECT w FROM TokenWatermark w WHERE w.updatedAt >= :since")
+    List<TokenWatermark> findUpdatedSince(@Param("since") Instant since);
+
+    // Insert-or-ignore followed by advance keeps the upsert portable (PostgreSQL and H2) and
+    // never aborts the surrounding transaction on a concurrent insert
+    @Modifying
+    @Query(value = "INSERT INTO token_watermarks (user_id, not_before, updated_at) "
+            + "VALUES (:userId, :notBefore, :updatedAt) ON CONFLICT DO NOTHING", nativeQuery = true)
+    int insertIfAbsent(@Param("userId") Long userId, @Param("notBefore") Instant notBefore,
+                       @Param("updatedAt") Instant updatedAt);
+
+    @Modifying
+    @Query(value = "UPDATE token_watermarks SET not_before = :notBefore, updated_at = :updatedAt "
+            + "WHERE user_id = :userId AND not_before < :notBefore", nativeQuery = true)
+    int advance(@Param("userId") Long userId, @Param("notBefore") Instant notBefore,
+                @Param("updatedAt") Instant updatedAt);
+
+    // Watermarks older than the longest token lifetime no longer reject anything
+    @Modifying
+    @Query("DELETE FROM TokenWatermark w WHERE w.notBefore < :cutoff")
+    int deleteOlderThan(@Param("cutoff") Instant cutoff);
+}
@@ -1,24 +1,34 @@
 package com.bookstack.bookstack.auth.service;
 
-import org.springframework.security.crypto.password.PasswordEncoder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 
 import com.bookstack.bookstack.common.exception.BadRequestException;
 import com.bookstack.bookstack.common.exception.NotFoundException;
+import com.bookstack.bookstack.common.exception.ServiceUnavailableException;
+import com.bookstack.bookstack.common.metrics.Monitored;
 import com.bookstack.bookstack.user.model.User;
 import com.bookstack.bookstack.user.service.UserService;
 import com.bookstack.bookstack.auth.dto.LoginResponse;
+import com.bookstack.bookstack.auth.model.AuthenticatedPrincipal;
 
 @Service
+@Monitored("auth")
 public class AuthService {
-    private final PasswordEncoder passwordEncoder;
+    private static final Logger log = LoggerFactory.getLogger(AuthService.class);
+
+    private final PasswordHashingService passwordHashingService;
     private final JwtService jwtService;
     private final UserService userService;
+    private final TokenRevocationService tokenRevocationService;
 
-    public AuthService(PasswordEncoder passwordEncoder, JwtService jwtService, UserService userService) {
-        this.passwordEncoder = passwordEncoder;
+    public AuthService(PasswordHashingService passwordHashingService, JwtService jwtService, UserService userService,
+                       TokenRevocationService tokenRevocationService) {
+        this.passwordHashingService = passwordHashingService;
         this.jwtService = jwtService;
         this.userService = userService;
+        this.tokenRevocationService = tokenRevocationService;
     }
 
     public User register(String username, String password) {
@@ -30,13 +40,34 @@ public class AuthService {
     public LoginResponse login(String username, String password) {
         User user = userService.getUserByUsername(username)
             .orElseThrow(() -> new NotFoundException("User not found"));
-        if (!passwordEncoder.matches(password, user.getPassword())) {
+        if (!passwordHashingService.matches(password, user.getPassword())) {
             throw new BadRequestException("Invalid credentials");
         }
+        if (passwordHashingService.needsRehash(user.getPassword())) {
+            rehash(user, password);
+        }
         
         String token = jwtService.generateToken(user);
         LoginResponse.UserDto userDto = new LoginResponse.UserDto(user);
         
         return new LoginResponse(token, userDto);
     }
-}
\ No newline at end of file
+
+    // Revokes the presented token; tokens issued before ids were added can only be revoked per user
+    public void logout(AuthenticatedPrincipal principal) {
+        if (principal.tokenId() != null) {
+            tokenRevocationService.revokeToken(principal.tokenId(), principal.userId(), principal.expiresAt());
+        } else if (principal.userId() != null) {
+            tokenRevocationService.revokeTokensIssuedBefore(principal.userId());
+        }
+    }
+
+    // Best effort: under load the old hash stays valid and the upgrade waits for a later login
+    private void rehash(User user, String password) {
+        try {
+            userService.rehashPassword(user.getId(), user.getPassword(), passwordHashingService.encode(password));
+        } catch (ServiceUnavailableException e) {
+            log.debug("Skipped password rehash for user {}: {}", user.getId(), e.getMessage());
+        }
+    }
+}
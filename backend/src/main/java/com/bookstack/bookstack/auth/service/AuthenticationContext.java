@@ -0,0 +1,89 @@
+package com.bookstack.bookstack.auth.service;
+
+import java.util.Optional;
+
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import com.bookstack.bookstack.auth.model.AuthenticatedPrincipal;
+import com.bookstack.bookstack.common.exception.UnauthorizedException;
+
+import jakarta.servlet.http.HttpServletRequest;
+
+/**
+ * Request-scoped access to the authenticated principal. The bearer token is verified on first
+ * use and the result is kept as a request attribute, so later checks in the same request don't
+ * touch the token again.
+ */
+@Component
+public class AuthenticationContext {
+    private static final String PRINCIPAL_ATTRIBUTE = AuthenticationContext.class.getName() + ".principal";
+    private static final String BEARER_PREFIX = "Bearer ";
+
+    private final JwtService jwtService;
+    private final TokenRevocationService tokenRevocationService;
+
+    public AuthenticationContext(JwtService jwtService, TokenRevocationService tokenRevocationService) {
+        this.jwtService = jwtService;
+        this.tokenRevocationService = tokenRevocationService;
+    }
+
+    public AuthenticatedPrincipal requirePrincipal() {
+        return requirePrincipal(currentRequest());
+    }
+
+    // For callers that only need to know who is asking, if anyone: never throws
+    public Optional<AuthenticatedPrincipal> currentPrincipal() {
+        if (!(RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes attributes)) {
+            return Optional.empty();
+        }
+        try {
+            return Optional.of(requirePrincipal(attributes.getRequest()));
+        } catch (UnauthorizedException e) {
+            return Optional.empty();
+        }
+    }
+
+    // The principal this request was already authenticated as, if any: never verifies a token
+    public Optional<AuthenticatedPrincipal> resolvedPrincipal() {
+        if (!(RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes attributes)) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(attributes.getRequest().getAttribute(PRINCIPAL_ATTRIBUTE))
+                .map(AuthenticatedPrincipal.class::cast);
+    }
+
+    public AuthenticatedPrincipal requirePrincipal(HttpServletRequest request) {
+        if (request.getAttribute(PRINCIPAL_ATTRIBUTE) instanceof AuthenticatedPrincipal principal) {
+            return principal;
+        }
+
+        AuthenticatedPrincipal principal = authenticate(request.getHeader("Authorization"));
+        request.setAttribute(PRINCIPAL_ATTRIBUTE, principal);
+        return principal;
+    }
+
+    // Verifies an Authorization value ("Bearer <token>") received outside a servlet request
+    public AuthenticatedPrincipal authenticate(String authHeader) {
+        if (authHeader == null || !authHeader.startsWith(BEARER_PREFIX)) {
+            throw new UnauthorizedException("Authentication required");
+        }
+
+        AuthenticatedPrincipal principal = jwtService.authenticate(authHeader.substring(BEARER_PREFIX.length()))
+                .orElseThrow(() -> new UnauthorizedException("Invalid or expired token"));
+        requireNotRevoked(principal);
+        return principal;
+    }
+
+    // Checked on every request: verified claims are cached, revocation state is not
+    public void requireNotRevoked(AuthenticatedPrincipal principal) {
+        if (tokenRevocationService.isRevoked(principal)) {
+            throw new UnauthorizedException("Token has been revoked");
+        }
+    }
+
+    private HttpServletRequest currentRequest() {
+        return ((ServletRequestAttributes) RequestContextHolder.currentRequestAttributes()).getRequest();
+    }
+}
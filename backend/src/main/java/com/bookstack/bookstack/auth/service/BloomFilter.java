@@ -0,0 +1,70 @@
+package com.bookstack.bookstack.auth.service;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Fixed-size, thread-safe Bloom filter over strings. Lookups never allocate; additions are
+ * lock-free. There is no removal: callers rebuild a fresh filter when entries should go away.
+ */
+final class BloomFilter {
+    private final AtomicLongArray bits;
+    private final long bitCount;
+    private final int hashCount;
+
+    BloomFilter(long expectedEntries, double falsePositiveRate) {
+        long n = Math.max(1, expectedEntries);
+        long m = (long) Math.ceil(-n * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+        this.bitCount = Math.max(64, ((m + 63) / 64) * 64);
+        this.bits = new AtomicLongArray(Math.toIntExact(bitCount / 64));
+        this.hashCount = Math.max(1, (int) Math.round((double) bitCount / n * Math.log(2)));
+    }
+
+    void add(String value) {
+        long hash = hash(value);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 1; i <= hashCount; i++) {
+            long bit = index(h1 + i * h2);
+            int word = (int) (bit >>> 6);
+            long mask = 1L << bit;
+            long current;
+            do {
+                current = bits.get(word);
+                if ((current & mask) != 0) break;
+            } while (!bits.compareAndSet(word, current, current | mask));
+        }
+    }
+
+    boolean mightContain(String value) {
+        long hash = hash(value);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 1; i <= hashCount; i++) {
+            long bit = index(h1 + i * h2);
+            if ((bits.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Kirsch-Mitzenmacher double hashing: k indexes derived from one 64-bit hash
+    private long index(int combined) {
+        return (combined & Integer.MAX_VALUE) % bitCount;
+    }
+
+    // 64-bit FNV-1a over the chars followed by a murmur3 finalizer to spread the low-entropy UUID characters
+    private static long hash(String value) {
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0; i < value.length(); i++) {
+            h ^= value.charAt(i);
+            h *= 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
@@ -1,29 +1,110 @@
 package com.bookstack.bookstack.auth.service;
 
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import com.bookstack.bookstack.auth.model.AuthenticatedPrincipal;
 import com.bookstack.bookstack.user.model.User;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 
+import java.nio.charset.StandardCharsets;
 import java.security.Key;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.HexFormat;
 import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
 
 @Service
 public class JwtService {
+    // iat only has second precision; revocation watermarks compare against this one instead
+    static final String ISSUED_AT_MILLIS_CLAIM = "issuedAtMillis";
+
     @Value("${JWT_SECRET:defaultDevelopmentSecretKey}")
     private String secretKey;
 
     @Value("${JWT_EXPIRATION:86400000}")
     private long jwtExpiration;
 
+    @Value("${jwt.cache.max-size:10000}")
+    private long cacheMaxSize;
+
+    // Built once: decoding the secret and building the parser per call showed up on every request
+    private Key signInKey;
+    private JwtParser parser;
+
+    // Verified token -> claims, keyed by SHA-256 of the token; entries expire with the token itself
+    private Cache<String, Claims> verifiedTokens;
+
+    @PostConstruct
+    void init() {
+        signInKey = Keys.hmacShaKeyFor(Decoders.BASE64.decode(secretKey));
+        parser = Jwts.parserBuilder().setSigningKey(signInKey).build();
+        verifiedTokens = Caffeine.newBuilder()
+                .maximumSize(cacheMaxSize)
+                .expireAfter(new Expiry<String, Claims>() {
+                    @Override
+                    public long expireAfterCreate(String key, Claims claims, long currentTime) {
+                        long remainingMillis = claims.getExpiration().getTime() - System.currentTimeMillis();
+                        return TimeUnit.MILLISECONDS.toNanos(Math.max(remainingMillis, 0));
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String key, Claims claims, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+
+                    @Override
+                    public long expireAfterRead(String key, Claims claims, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .build();
+    }
+
+    /**
+     * Verifies the token (at most one signature check per distinct token while it is cached)
+     * and returns the principal it carries, or empty when it is invalid or expired.
+     */
+    public Optional<AuthenticatedPrincipal> authenticate(String token) {
+        Claims claims = verifiedClaims(token);
+        if (claims == null) {
+            return Optional.empty();
+        }
+        return Optional.of(new AuthenticatedPrincipal(
+                claims.get("userId", Long.class),
+                claims.getSubject(),
+                claims.get("role", String.class),
+                issuedAt(claims),
+                claims.getExpiration().toInstant(),
+                claims.getId()));
+    }
+
+    // Tokens issued before the millisecond claim existed fall back to the start of their iat second
+    private static Instant issuedAt(Claims claims) {
+        Long issuedAtMillis = claims.get(ISSUED_AT_MILLIS_CLAIM, Long.class);
+        if (issuedAtMillis != null) {
+            return Instant.ofEpochMilli(issuedAtMillis);
+        }
+        return claims.getIssuedAt() != null ? claims.getIssuedAt().toInstant() : null;
+    }
+
     public String extractUsername(String token) {
         return extractClaim(token, Claims::getSubject);
     }
@@ -53,42 +134,57 @@ public class JwtService {
     }
 
     private String buildToken(Map<String, Object> extraClaims, String username, long expiration) {
+        long now = System.currentTimeMillis();
         return Jwts.builder()
                 .setClaims(extraClaims)
                 .setSubject(username)
-                .setIssuedAt(new Date(System.currentTimeMillis()))
-                .setExpiration(new Date(System.currentTimeMillis() + expiration))
-                .signWith(getSignInKey(), SignatureAlgorithm.HS256)
+                // Unique per token so a single session can be revoked (see TokenRevocationService)
+                .setId(UUID.randomUUID().toString())
+                .setIssuedAt(new Date(now))
+                .claim(ISSUED_AT_MILLIS_CLAIM, now)
+                .setExpiration(new Date(now + expiration))
+                .signWith(signInKey, SignatureAlgorithm.HS256)
                 .compact();
     }
 
     public boolean isTokenValid(String token) {
-        try {
-            extractAllClaims(token);
-            return !isTokenExpired(token);
-        } catch (Exception e) {
-            return false;
-        }
-    }
-
-    private boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
+        return verifiedClaims(token) != null;
     }
 
-    private Date extractExpiration(String token) {
-        return extractClaim(token, Claims::getExpiration);
+    private Claims verifiedClaims(String token) {
+        if (token == null || token.isEmpty()) {
+            return null;
+        }
+        String key = hash(token);
+        Claims claims = verifiedTokens.getIfPresent(key);
+        if (claims != null && claims.getExpiration().after(new Date())) {
+            return claims;
+        }
+        try {
+            // The parser rejects bad signatures and expired tokens
+            claims = parser.parseClaimsJws(token).getBody();
+        } catch (JwtException | IllegalArgumentException e) {
+            return null;
+        }
+        verifiedTokens.put(key, claims);
+        return claims;
     }
 
     private Claims extractAllClaims(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(getSignInKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+        Claims claims = verifiedClaims(token);
+        if (claims == null) {
+            // Preserve the previous contract of surfacing parse failures to the caller
+            return parser.parseClaimsJws(token).getBody();
+        }
+        return claims;
     }
 
-    private Key getSignInKey() {
-        byte[] keyBytes = Decoders.BASE64.decode(secretKey);
-        return Keys.hmacShaKeyFor(keyBytes);
+    private static String hash(String token) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
     }
-}
\ No newline at end of file
+}
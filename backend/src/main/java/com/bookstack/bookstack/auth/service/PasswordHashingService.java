@@ -0,0 +1,137 @@
+package com.bookstack.bookstack.auth.service;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import com.bookstack.bookstack.common.exception.ServiceUnavailableException;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Runs BCrypt hashing and verification on a small dedicated pool so that login and registration
+ * bursts can use at most {@code pool-size} cores, leaving the rest to catalog traffic.
+ *
+ * The pool has a bounded queue. When it is full, or a caller waits longer than the timeout, the
+ * request fails fast with a 503 instead of piling up request threads behind the hashing work.
+ */
+@Service
+public class PasswordHashingService {
+    private static final Pattern BCRYPT_COST = Pattern.compile("^\\$2[abyx]?\\$(\\d{2})\\$");
+    private static final long RETRY_AFTER_SECONDS = 1;
+
+    private final PasswordEncoder passwordEncoder;
+    private final ThreadPoolExecutor executor;
+    private final int bcryptStrength;
+    private final long timeoutMillis;
+
+    private final Timer encodeTimer;
+    private final Timer matchesTimer;
+    private final Counter rejectedCounter;
+
+    public PasswordHashingService(PasswordEncoder passwordEncoder, MeterRegistry meterRegistry,
+                                  @Value("${app.password-hashing.bcrypt-strength:10}") int bcryptStrength,
+                                  @Value("${app.password-hashing.pool-size:0}") int poolSize,
+                                  @Value("${app.password-hashing.queue-capacity:64}") int queueCapacity,
+                                  @Value("${app.password-hashing.timeout-ms:5000}") long timeoutMillis) {
+        this.passwordEncoder = passwordEncoder;
+        this.bcryptStrength = bcryptStrength;
+        this.timeoutMillis = timeoutMillis;
+
+        // 0 means half the cores: hashing bursts can never take the whole machine
+        int threads = poolSize > 0 ? poolSize : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        BlockingQueue<Runnable> queue = queueCapacity > 0 ? new ArrayBlockingQueue<>(queueCapacity) : new SynchronousQueue<>();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS, queue,
+                Thread.ofPlatform().name("password-hash-", 0).daemon(true).factory(),
+                new ThreadPoolExecutor.AbortPolicy());
+
+        this.encodeTimer = Timer.builder("bookstack.password.hash")
+                .description("Time spent hashing or verifying a password, excluding queueing")
+                .tag("operation", "encode")
+                .register(meterRegistry);
+        this.matchesTimer = Timer.builder("bookstack.password.hash")
+                .description("Time spent hashing or verifying a password, excluding queueing")
+                .tag("operation", "matches")
+                .register(meterRegistry);
+        this.rejectedCounter = Counter.builder("bookstack.password.hash.rejected")
+                .description("Hashing requests refused because the pool was saturated or too slow")
+                .register(meterRegistry);
+        Gauge.builder("bookstack.password.hash.queue.depth", executor, e -> e.getQueue().size())
+                .description("Hashing requests waiting for a pool thread")
+                .register(meterRegistry);
+        Gauge.builder("bookstack.password.hash.active", executor, ThreadPoolExecutor::getActiveCount)
+                .description("Pool threads currently hashing")
+                .register(meterRegistry);
+    }
+
+    public String encode(String rawPassword) {
+        return execute(encodeTimer, () -> passwordEncoder.encode(rawPassword));
+    }
+
+    public boolean matches(String rawPassword, String encodedPassword) {
+        return execute(matchesTimer, () -> passwordEncoder.matches(rawPassword, encodedPassword));
+    }
+
+    // True when the stored hash was produced with a different BCrypt cost than the configured one
+    public boolean needsRehash(String encodedPassword) {
+        if (encodedPassword == null) return false;
+        Matcher matcher = BCRYPT_COST.matcher(encodedPassword);
+        if (!matcher.find()) {
+            return passwordEncoder.upgradeEncoding(encodedPassword);
+        }
+        return Integer.parseInt(matcher.group(1)) != bcryptStrength;
+    }
+
+    private <T> T execute(Timer timer, Callable<T> task) {
+        Future<T> future;
+        try {
+            future = executor.submit(() -> timer.recordCallable(task));
+        } catch (RejectedExecutionException e) {
+            throw overloaded();
+        }
+
+        try {
+            return future.get(timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            throw overloaded();
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw overloaded();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException("Password hashing failed", e.getCause());
+        }
+    }
+
+    private ServiceUnavailableException overloaded() {
+        rejectedCounter.increment();
+        return new ServiceUnavailableException("Authentication is temporarily overloaded, please retry shortly",
+                RETRY_AFTER_SECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
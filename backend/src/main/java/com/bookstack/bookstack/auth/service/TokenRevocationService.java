@@ -0,0 +1,208 @@
+package com.bookstack.bookstack.auth.service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.bookstack.bookstack.auth.model.AuthenticatedPrincipal;
+import com.bookstack.bookstack.auth.model.RevokedToken;
+import com.bookstack.bookstack.auth.model.TokenWatermark;
+import com.bookstack.bookstack.auth.repository.RevokedTokenRepository;
+import com.bookstack.bookstack.auth.repository.TokenWatermarkRepository;
+import com.bookstack.bookstack.common.transaction.AfterCommit;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Revocation of issued JWTs, either one token by its {@code jti} (logout) or every token a user
+ * received before a point in time (role or password change, deletion).
+ *
+ * Revocations are stored in the database and mirrored in memory. The per-request check is a
+ * Bloom filter probe, confirmed against an exact set only on a hit, plus one map lookup for the
+ * user's watermark. Each replica polls for rows written since its last refresh, so a revocation
+ * made elsewhere takes effect within the refresh interval.
+ */
+@Service
+public class TokenRevocationService {
+    private static final Logger log = LoggerFactory.getLogger(TokenRevocationService.class);
+
+    private final RevokedTokenRepository revokedTokenRepository;
+    private final TokenWatermarkRepository watermarkRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    // jti -> token expiry, and userId -> "not before" watermark
+    private final Map<String, Instant> revokedTokens = new ConcurrentHashMap<>();
+    private final Map<Long, Instant> watermarks = new ConcurrentHashMap<>();
+    private volatile BloomFilter revokedFilter;
+    private volatile Instant lastRefreshStart;
+
+    private final Counter rejectedCounter;
+    private final Counter refreshFailures;
+
+    @Value("${app.auth.revocation.bloom.expected-entries:100000}")
+    private long bloomExpectedEntries;
+
+    @Value("${app.auth.revocation.bloom.false-positive-rate:0.001}")
+    private double bloomFalsePositiveRate;
+
+    // Rows are re-read for this long to cover commit delays and clock skew between replicas
+    @Value("${app.auth.revocation.refresh-overlap-ms:30000}")
+    private long refreshOverlapMillis;
+
+    @Value("${JWT_EXPIRATION:86400000}")
+    private long jwtExpiration;
+
+    public TokenRevocationService(RevokedTokenRepository revokedTokenRepository,
+                                  TokenWatermarkRepository watermarkRepository,
+                                  PlatformTransactionManager transactionManager,
+                                  MeterRegistry meterRegistry) {
+        this.revokedTokenRepository = revokedTokenRepository;
+        this.watermarkRepository = watermarkRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+
+        Gauge.builder("bookstack.auth.revocation.tokens", revokedTokens, Map::size)
+                .description("Revoked, not yet expired tokens held in memory")
+                .register(meterRegistry);
+        Gauge.builder("bookstack.auth.revocation.watermarks", watermarks, Map::size)
+                .description("Users with a tokens-issued-before watermark held in memory")
+                .register(meterRegistry);
+        this.rejectedCounter = Counter.builder("bookstack.auth.revocation.rejected")
+                .description("Requests rejected because their token was revoked")
+                .register(meterRegistry);
+        this.refreshFailures = Counter.builder("bookstack.auth.revocation.refresh.failures")
+                .description("Revocation refreshes that failed and kept the previous state")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    void init() {
+        reload();
+    }
+
+    public boolean isRevoked(AuthenticatedPrincipal principal) {
+        String tokenId = principal.tokenId();
+        if (tokenId != null && revokedFilter.mightContain(tokenId) && revokedTokens.containsKey(tokenId)) {
+            rejectedCounter.increment();
+            return true;
+        }
+        if (principal.userId() != null && principal.issuedAt() != null) {
+            Instant notBefore = watermarks.get(principal.userId());
+            if (notBefore != null && !principal.issuedAt().isAfter(notBefore)) {
+                rejectedCounter.increment();
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public void revokeToken(String tokenId, Long userId, Instant expiresAt) {
+        Instant now = Instant.now();
+        transactionTemplate.executeWithoutResult(status ->
+                revokedTokenRepository.insertIfAbsent(tokenId, userId, expiresAt, now));
+        addRevokedToken(tokenId, expiresAt);
+    }
+
+    /**
+     * Rejects every token issued to the user up to now. Joins the caller's transaction, so the
+     * watermark is written atomically with the change that triggered it and applied locally only
+     * once that commits.
+     *
+     * Tokens carry their issue time in milliseconds, and so does the watermark. A token issued in
+     * the same millisecond as the change counts as revoked; one obtained afterwards (for example
+     * by logging in with the new password) stays valid. Tokens that only have the second-precision
+     * iat are read as issued at the start of that second, so one from the change's second is revoked.
+     */
+    public void revokeTokensIssuedBefore(Long userId) {
+        Instant now = Instant.now();
+        Instant notBefore = now.truncatedTo(ChronoUnit.MILLIS);
+        transactionTemplate.executeWithoutResult(status -> {
+            if (watermarkRepository.insertIfAbsent(userId, notBefore, now) == 0) {
+                watermarkRepository.advance(userId, notBefore, now);
+            }
+        });
+
+        AfterCommit.run(() -> advanceWatermark(userId, notBefore));
+    }
+
+    // Picks up revocations written by any replica since the previous refresh
+    @Scheduled(initialDelayString = "${app.auth.revocation.refresh-interval-ms:2000}",
+               fixedDelayString = "${app.auth.revocation.refresh-interval-ms:2000}")
+    public void refresh() {
+        Instant start = Instant.now();
+        Instant since = lastRefreshStart.minusMillis(refreshOverlapMillis);
+        try {
+            revokedTokenRepository.findRevokedSince(since, start)
+                    .forEach(token -> addRevokedToken(token.getJti(), token.getExpiresAt()));
+            watermarkRepository.findUpdatedSince(since)
+                    .forEach(watermark -> advanceWatermark(watermark.getUserId(), watermark.getNotBefore()));
+            lastRefreshStart = start;
+        } catch (RuntimeException e) {
+            refreshFailures.increment();
+            log.warn("Token revocation refresh failed, keeping previous state: {}", e.getMessage());
+        }
+    }
+
+    // Drops expired revocations from the database and rebuilds the in-memory state without them
+    @Scheduled(initialDelayString = "${app.auth.revocation.purge-interval-ms:3600000}",
+               fixedDelayString = "${app.auth.revocation.purge-interval-ms:3600000}")
+    public void purge() {
+        Instant now = Instant.now();
+        transactionTemplate.executeWithoutResult(status -> {
+            revokedTokenRepository.deleteExpired(now);
+            watermarkRepository.deleteOlderThan(now.minus(Duration.ofMillis(jwtExpiration)));
+        });
+        reload();
+    }
+
+    private synchronized void reload() {
+        Instant start = Instant.now();
+        List<RevokedToken> tokens = revokedTokenRepository.findUnexpired(start);
+        List<TokenWatermark> stored = watermarkRepository.findAll();
+
+        revokedTokens.keySet().retainAll(tokens.stream().map(RevokedToken::getJti).toList());
+        tokens.forEach(token -> revokedTokens.put(token.getJti(), token.getExpiresAt()));
+        Instant cutoff = start.minus(Duration.ofMillis(jwtExpiration));
+        watermarks.values().removeIf(notBefore -> notBefore.isBefore(cutoff));
+        stored.forEach(watermark -> watermarks.merge(watermark.getUserId(), watermark.getNotBefore(),
+                (current, candidate) -> candidate.isAfter(current) ? candidate : current));
+
+        rebuildFilter();
+        lastRefreshStart = start;
+    }
+
+    private synchronized void addRevokedToken(String tokenId, Instant expiresAt) {
+        if (revokedTokens.putIfAbsent(tokenId, expiresAt) != null) return;
+        if (revokedTokens.size() > bloomExpectedEntries) {
+            // Grow before the false-positive rate degrades; the exact set stays authoritative
+            bloomExpectedEntries = bloomExpectedEntries * 2;
+            rebuildFilter();
+        } else {
+            revokedFilter.add(tokenId);
+        }
+    }
+
+    private void advanceWatermark(Long userId, Instant notBefore) {
+        watermarks.merge(userId, notBefore, (current, candidate) -> candidate.isAfter(current) ? candidate : current);
+    }
+
+    private void rebuildFilter() {
+        BloomFilter filter = new BloomFilter(Math.max(bloomExpectedEntries, revokedTokens.size() * 2L),
+                bloomFalsePositiveRate);
+        revokedTokens.keySet().forEach(filter::add);
+        revokedFilter = filter;
+    }
+}
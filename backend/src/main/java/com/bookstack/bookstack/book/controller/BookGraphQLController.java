@@ -1,23 +1,51 @@
 package com.bookstack.bookstack.book.controller;
 
 import com.bookstack.bookstack.auth.annotation.RequireRole;
+import com.bookstack.bookstack.auth.model.AuthenticatedPrincipal;
+import com.bookstack.bookstack.book.dto.BookAvailability;
 import com.bookstack.bookstack.book.dto.BookInput;
 import com.bookstack.bookstack.book.model.Book;
+import com.bookstack.bookstack.book.service.BookAvailabilityPublisher;
 import com.bookstack.bookstack.book.service.BookService;
+import com.bookstack.bookstack.common.exception.UnauthorizedException;
+import com.bookstack.bookstack.common.graphql.WebSocketAuthenticationInterceptor;
+import com.bookstack.bookstack.common.pagination.Connection;
+import com.bookstack.bookstack.common.pagination.Cursors;
 import org.springframework.graphql.data.method.annotation.Argument;
+import org.springframework.graphql.data.method.annotation.ContextValue;
 import org.springframework.graphql.data.method.annotation.MutationMapping;
 import org.springframework.graphql.data.method.annotation.QueryMapping;
+import org.springframework.graphql.data.method.annotation.SubscriptionMapping;
 import org.springframework.stereotype.Controller;
 
+import java.time.Duration;
+import java.time.Instant;
 import java.util.List;
 import jakarta.validation.Valid;
+import reactor.core.publisher.Flux;
 
 @Controller
 public class BookGraphQLController {
     private final BookService bookService;
+    private final BookAvailabilityPublisher availabilityPublisher;
 
-    public BookGraphQLController(BookService bookService) {
+    public BookGraphQLController(BookService bookService, BookAvailabilityPublisher availabilityPublisher) {
         this.bookService = bookService;
+        this.availabilityPublisher = availabilityPublisher;
+    }
+
+    // Subscriptions - any signed-in user, over the WebSocket endpoint only; the stream ends when the token expires
+    @SubscriptionMapping
+    public Flux<BookAvailability> bookAvailabilityChanged(
+            @Argument List<Long> bookIds,
+            @ContextValue(name = WebSocketAuthenticationInterceptor.PRINCIPAL, required = false) AuthenticatedPrincipal principal) {
+        if (principal == null) {
+            throw new UnauthorizedException("Subscriptions require an authenticated WebSocket connection");
+        }
+        Flux<BookAvailability> updates = availabilityPublisher.updates(bookIds);
+        if (principal.expiresAt() == null) return updates;
+        Duration remaining = Duration.between(Instant.now(), principal.expiresAt());
+        return updates.take(remaining.isNegative() ? Duration.ZERO : remaining);
     }
 
     // Queries - Allow all authenticated users to view active books
@@ -45,6 +73,34 @@ public class BookGraphQLController {
         return bookService.getAvailableBooks();
     }
 
+    // Paginated variants - keyset pages fetch one extra row to detect the next page
+    @QueryMapping
+    @RequireRole({"MEMBER", "LIBRARIAN", "ADMIN"})
+    public Connection<Book> booksConnection(@Argument Integer first, @Argument String after) {
+        int pageSize = Cursors.pageSize(first);
+        long afterId = Cursors.decode(after);
+        return Connection.of(bookService.getBooksPage(afterId, pageSize + 1), pageSize, afterId, Book::getId);
+    }
+
+    @QueryMapping
+    @RequireRole({"MEMBER", "LIBRARIAN", "ADMIN"})
+    public Connection<Book> availableBooksConnection(@Argument Integer first, @Argument String after) {
+        int pageSize = Cursors.pageSize(first);
+        long afterId = Cursors.decode(after);
+        return Connection.of(bookService.getAvailableBooksPage(afterId, pageSize + 1), pageSize, afterId, Book::getId);
+    }
+
+    @QueryMapping
+    @RequireRole({"MEMBER", "LIBRARIAN", "ADMIN"})
+    public Connection<Book> searchBooksConnection(@Argument String title, @Argument String author,
+                                                  @Argument String category, @Argument String language,
+                                                  @Argument Integer first, @Argument String after) {
+        int pageSize = Cursors.pageSize(first);
+        long afterId = Cursors.decode(after);
+        List<Book> rows = bookService.searchBooksPage(title, author, category, language, afterId, pageSize + 1);
+        return Connection.of(rows, pageSize, afterId, Book::getId);
+    }
+
     @QueryMapping
     @RequireRole({"MEMBER", "LIBRARIAN", "ADMIN"})
     public Book bookById(@Argument Long id) {
@@ -0,0 +1,39 @@
+package com.bookstack.bookstack.book.controller;
+
+import java.io.IOException;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.bookstack.bookstack.auth.annotation.RequireRole;
+import com.bookstack.bookstack.book.dto.BookImportResult;
+import com.bookstack.bookstack.book.importer.BookImportFormat;
+import com.bookstack.bookstack.book.service.BookImportService;
+
+import jakarta.servlet.http.HttpServletRequest;
+
+@RestController
+@RequestMapping("/api/books")
+public class BookImportController {
+    private final BookImportService bookImportService;
+
+    public BookImportController(BookImportService bookImportService) {
+        this.bookImportService = bookImportService;
+    }
+
+    // Streams the raw request body (text/csv or application/x-ndjson); rows that fail are reported, the rest are imported
+    @PostMapping("/import")
+    @RequireRole({"LIBRARIAN", "ADMIN"})
+    public ResponseEntity<BookImportResult> importBooks(HttpServletRequest request,
+                                                        @RequestHeader(value = HttpHeaders.CONTENT_TYPE, required = false) String contentType,
+                                                        @RequestParam(required = false) String format) throws IOException {
+        BookImportFormat importFormat = BookImportFormat.resolve(format, contentType);
+        BookImportResult result = bookImportService.importBooks(request.getInputStream(), importFormat);
+        return ResponseEntity.ok(result);
+    }
+}
@@ -0,0 +1,15 @@
+package com.bookstack.bookstack.book.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Pushed to bookAvailabilityChanged subscribers; argument order is used by the BookRepository projection
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BookAvailability {
+    private Long bookId;
+    private Integer availableCopies;
+    private Integer totalCopies;
+}
@@ -0,0 +1,30 @@
+package com.bookstack.bookstack.book.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+public class BookImportResult {
+    private long totalRows;
+    private long importedRows;
+    private long failedRows;
+    private long durationMillis;
+    private double rowsPerSecond;
+    private List<RowError> errors = new ArrayList<>();
+    // True when more rows failed than are listed in errors
+    private boolean errorsTruncated;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class RowError {
+        private long line;
+        private String isbn;
+        private String message;
+    }
+}
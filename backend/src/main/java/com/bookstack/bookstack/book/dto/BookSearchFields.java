@@ -0,0 +1,5 @@
+package com.bookstack.bookstack.book.dto;
+
+// The fields BookSearchIndex indexes, read for it by the BookRepository projections
+public record BookSearchFields(Long id, String title, String author, String category, String language) {
+}
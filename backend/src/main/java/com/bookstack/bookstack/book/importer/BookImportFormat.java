@@ -0,0 +1,36 @@
+package com.bookstack.bookstack.book.importer;
+
+import java.io.BufferedReader;
+import java.util.Locale;
+
+import com.bookstack.bookstack.common.exception.BadRequestException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+public enum BookImportFormat {
+    CSV,
+    NDJSON;
+
+    /**
+     * Picks the format from an explicit {@code format} parameter, falling back to the request content type.
+     */
+    public static BookImportFormat resolve(String format, String contentType) {
+        if (format != null && !format.isBlank()) {
+            try {
+                return valueOf(format.trim().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new BadRequestException("Unsupported import format: " + format + ". Use csv or ndjson");
+            }
+        }
+        String mediaType = contentType == null ? "" : contentType.split(";")[0].trim().toLowerCase(Locale.ROOT);
+        return switch (mediaType) {
+            case "text/csv" -> CSV;
+            case "application/x-ndjson", "application/ndjson", "application/jsonl" -> NDJSON;
+            default -> throw new BadRequestException(
+                    "Unsupported import content type: " + contentType + ". Use text/csv or application/x-ndjson");
+        };
+    }
+
+    public BookRowReader open(BufferedReader reader, ObjectMapper objectMapper) {
+        return this == CSV ? new CsvBookRowReader(reader) : new NdjsonBookRowReader(reader, objectMapper);
+    }
+}
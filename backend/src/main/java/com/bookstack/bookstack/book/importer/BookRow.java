@@ -0,0 +1,19 @@
+package com.bookstack.bookstack.book.importer;
+
+import com.bookstack.bookstack.book.model.Book;
+
+/**
+ * One parsed input record. Exactly one of {@code book} and {@code error} is set.
+ *
+ * @param line  line number (1-based) the record starts on
+ */
+public record BookRow(long line, Book book, String error) {
+
+    static BookRow of(long line, Book book) {
+        return new BookRow(line, book, null);
+    }
+
+    static BookRow failed(long line, String error) {
+        return new BookRow(line, null, error);
+    }
+}
@@ -0,0 +1,12 @@
+package com.bookstack.bookstack.book.importer;
+
+import java.io.IOException;
+
+/**
+ * Pull-based reader over an import body; holds at most one record in memory at a time.
+ */
+public interface BookRowReader {
+
+    // Next record, or null at end of input
+    BookRow next() throws IOException;
+}
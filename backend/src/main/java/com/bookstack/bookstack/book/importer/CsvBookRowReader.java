@@ -0,0 +1,135 @@
+package com.bookstack.bookstack.book.importer;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import com.bookstack.bookstack.book.model.Book;
+import com.bookstack.bookstack.common.exception.BadRequestException;
+
+/**
+ * RFC 4180 style CSV with a header row. Headers are matched case-insensitively and ignoring
+ * underscores/spaces, so {@code totalCopies}, {@code total_copies} and {@code Total Copies} all work.
+ * Quoted fields may contain commas, doubled quotes and line breaks.
+ */
+class CsvBookRowReader implements BookRowReader {
+    private static final List<String> REQUIRED_COLUMNS = List.of("title", "author", "isbn", "totalcopies", "availablecopies");
+
+    private final BufferedReader reader;
+    private Map<String, Integer> columns;
+    private long lineNumber;
+
+    CsvBookRowReader(BufferedReader reader) {
+        this.reader = reader;
+    }
+
+    @Override
+    public BookRow next() throws IOException {
+        if (columns == null) {
+            readHeader();
+        }
+
+        List<String> fields;
+        long startLine;
+        do {
+            startLine = lineNumber + 1;
+            fields = readRecord();
+            if (fields == null) return null;
+        } while (fields.size() == 1 && fields.get(0).isBlank());
+
+        if (fields.size() != columns.size()) {
+            return BookRow.failed(startLine, "Expected " + columns.size() + " columns but found " + fields.size());
+        }
+
+        Book book = new Book();
+        book.setTitle(field(fields, "title"));
+        book.setAuthor(field(fields, "author"));
+        book.setIsbn(field(fields, "isbn"));
+        book.setCategory(field(fields, "category"));
+        book.setLanguage(field(fields, "language"));
+        try {
+            book.setTotalCopies(intField(fields, "totalcopies"));
+            book.setAvailableCopies(intField(fields, "availablecopies"));
+        } catch (NumberFormatException e) {
+            return BookRow.failed(startLine, "Copy counts must be whole numbers");
+        }
+        return BookRow.of(startLine, book);
+    }
+
+    private void readHeader() throws IOException {
+        List<String> header = readRecord();
+        if (header == null) {
+            throw new BadRequestException("CSV import is empty; a header row is required");
+        }
+        columns = new HashMap<>();
+        for (int i = 0; i < header.size(); i++) {
+            columns.put(normalizeHeader(header.get(i)), i);
+        }
+        for (String required : REQUIRED_COLUMNS) {
+            if (!columns.containsKey(required)) {
+                throw new BadRequestException("CSV header is missing required column: " + required);
+            }
+        }
+    }
+
+    private String field(List<String> fields, String column) {
+        Integer index = columns.get(column);
+        if (index == null) return null;
+        String value = fields.get(index).trim();
+        return value.isEmpty() ? null : value;
+    }
+
+    private Integer intField(List<String> fields, String column) {
+        String value = field(fields, column);
+        return value == null ? null : Integer.valueOf(value);
+    }
+
+    // Reads one logical record, following quoted fields across line breaks
+    private List<String> readRecord() throws IOException {
+        String line = reader.readLine();
+        if (line == null) return null;
+        lineNumber++;
+
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        while (true) {
+            for (int i = 0; i < line.length(); i++) {
+                char c = line.charAt(i);
+                if (quoted) {
+                    if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                        field.append('"');
+                        i++;
+                    } else if (c == '"') {
+                        quoted = false;
+                    } else {
+                        field.append(c);
+                    }
+                } else if (c == '"') {
+                    quoted = true;
+                } else if (c == ',') {
+                    fields.add(field.toString());
+                    field.setLength(0);
+                } else {
+                    field.append(c);
+                }
+            }
+            if (!quoted) break;
+
+            line = reader.readLine();
+            if (line == null) break;
+            lineNumber++;
+            field.append('\n');
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    private static String normalizeHeader(String header) {
+        return header.replace("_", "").replace(" ", "").replace("\uFEFF", "").trim().toLowerCase(Locale.ROOT);
+    }
+}
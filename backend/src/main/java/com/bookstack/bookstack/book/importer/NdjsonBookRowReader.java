@@ -0,0 +1,48 @@
+package com.bookstack.bookstack.book.importer;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+
+import com.bookstack.bookstack.book.dto.BookInput;
+import com.bookstack.bookstack.book.model.Book;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * One {@link BookInput} JSON object per line; blank lines are skipped.
+ */
+class NdjsonBookRowReader implements BookRowReader {
+    private final BufferedReader reader;
+    private final ObjectMapper objectMapper;
+    private long lineNumber;
+
+    NdjsonBookRowReader(BufferedReader reader, ObjectMapper objectMapper) {
+        this.reader = reader;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public BookRow next() throws IOException {
+        String line;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank()) continue;
+
+            try {
+                BookInput input = objectMapper.readValue(line, BookInput.class);
+                Book book = new Book();
+                book.setTitle(input.getTitle());
+                book.setAuthor(input.getAuthor());
+                book.setIsbn(input.getIsbn());
+                book.setCategory(input.getCategory());
+                book.setLanguage(input.getLanguage());
+                book.setTotalCopies(input.getTotalCopies());
+                book.setAvailableCopies(input.getAvailableCopies());
+                return BookRow.of(lineNumber, book);
+            } catch (JsonProcessingException e) {
+                return BookRow.failed(lineNumber, "Invalid JSON: " + e.getOriginalMessage());
+            }
+        }
+        return null;
+    }
+}
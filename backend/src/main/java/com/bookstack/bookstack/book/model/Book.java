@@ -3,9 +3,15 @@ package com.bookstack.bookstack.book.model;
 import jakarta.persistence.*;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.NaturalId;
+import org.hibernate.annotations.NaturalIdCache;
 import org.hibernate.annotations.SQLDelete;
 import org.hibernate.annotations.SQLRestriction;
 
+import com.bookstack.bookstack.common.config.HibernateCacheConfig;
+
 import java.time.LocalDateTime;
 
 @Entity
@@ -14,6 +20,8 @@ import java.time.LocalDateTime;
 @NoArgsConstructor
 @SQLDelete(sql = "UPDATE books SET deleted_at = NOW() WHERE id = ?")
 @SQLRestriction("deleted_at IS NULL") // Automatically excludes soft-deleted books
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = HibernateCacheConfig.BOOK_REGION)
+@NaturalIdCache(region = HibernateCacheConfig.BOOK_ISBN_REGION)
 public class Book {
     
     @Id
@@ -26,6 +34,7 @@ public class Book {
     @Column(nullable = false, length = 100)
     private String author;
 
+    @NaturalId(mutable = true)
     @Column(unique = true, nullable = false, length = 20)
     private String isbn;
 
@@ -1,17 +1,24 @@
 package com.bookstack.bookstack.book.repository;
 
+import com.bookstack.bookstack.book.dto.BookAvailability;
+import com.bookstack.bookstack.book.dto.BookSearchFields;
 import com.bookstack.bookstack.book.model.Book;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface BookRepository extends JpaRepository<Book, Long> {
+public interface BookRepository extends JpaRepository<Book, Long>, BookRepositoryCustom {
     
     // Standard queries (automatically exclude soft-deleted books)
     List<Book> findByTitleContainingIgnoreCase(String title);
@@ -46,6 +53,7 @@ public interface BookRepository extends JpaRepository<Book, Long> {
                                              @Param("language") String language);
 
     // Soft delete specific queries
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     @Query("SELECT b FROM Book b WHERE b.deletedAt IS NULL")
     List<Book> findAllActive();
     
@@ -76,9 +84,43 @@ public interface BookRepository extends JpaRepository<Book, Long> {
     @Query("SELECT b FROM Book b WHERE b.availableCopies > 0 AND b.deletedAt IS NULL")
     List<Book> findAvailableBooks();
     
-    // Hard delete (physical deletion) - for admin use only
+    // Keyset pagination (seek on the primary key, cost independent of page depth)
+    @Query("SELECT b FROM Book b WHERE b.id > :afterId AND b.deletedAt IS NULL ORDER BY b.id")
+    List<Book> findActivePage(@Param("afterId") Long afterId, Limit limit);
+    
+    @Query("SELECT b FROM Book b WHERE b.id > :afterId AND b.availableCopies > 0 AND b.deletedAt IS NULL ORDER BY b.id")
+    List<Book> findAvailablePage(@Param("afterId") Long afterId, Limit limit);
+    
+    @Query("SELECT b FROM Book b WHERE b.id > :afterId AND " +
+           "(:title IS NULL OR UPPER(b.title) LIKE UPPER(CONCAT('%', CAST(:title AS string), '%'))) AND " +
+           "(:author IS NULL OR UPPER(b.author) LIKE UPPER(CONCAT('%', CAST(:author AS string), '%'))) AND " +
+           "(:category IS NULL OR UPPER(b.category) = UPPER(CAST(:category AS string))) AND " +
+           "(:language IS NULL OR UPPER(b.language) = UPPER(CAST(:language AS string))) AND " +
+           "b.deletedAt IS NULL ORDER BY b.id")
+    List<Book> findActivePageByFilters(@Param("title") String title, 
+                                       @Param("author") String author, 
+                                       @Param("category") String category, 
+                                       @Param("language") String language,
+                                       @Param("afterId") Long afterId,
+                                       Limit limit);
+    
+    // Current copy counts for availability subscribers, read straight from the table
+    @Query("SELECT new com.bookstack.bookstack.book.dto.BookAvailability(b.id, b.availableCopies, b.totalCopies) " +
+           "FROM Book b WHERE b.id IN :ids")
+    List<BookAvailability> findAvailabilityByIdIn(@Param("ids") Collection<Long> ids);
+    
+    // Searchable fields for the search index, read straight from the table (no entities, no cache)
+    @Query("SELECT new com.bookstack.bookstack.book.dto.BookSearchFields(b.id, b.title, b.author, b.category, b.language) " +
+           "FROM Book b WHERE b.deletedAt IS NULL")
+    List<BookSearchFields> findAllActiveSearchFields();
+    
+    @Query("SELECT new com.bookstack.bookstack.book.dto.BookSearchFields(b.id, b.title, b.author, b.category, b.language) " +
+           "FROM Book b WHERE b.id IN :ids AND b.deletedAt IS NULL")
+    List<BookSearchFields> findActiveSearchFieldsByIdIn(@Param("ids") Collection<Long> ids);
+    
+    // Hard delete (physical deletion) - for admin use only; native, so soft-deleted rows are removed too
     @Modifying
-    @Query("DELETE FROM Book b WHERE b.id = :id")
+    @Query(value = "DELETE FROM books WHERE id = :id", nativeQuery = true)
     void hardDeleteById(@Param("id") Long id);
     
     // Restore deleted book
@@ -86,10 +128,20 @@ public interface BookRepository extends JpaRepository<Book, Long> {
     @Query("UPDATE Book b SET b.deletedAt = NULL WHERE b.id = :id")
     void restoreById(@Param("id") Long id);
     
-    // Check if book exists (including deleted)
-    @Query("SELECT CASE WHEN COUNT(b) > 0 THEN true ELSE false END FROM Book b WHERE b.id = :id")
+    // Native, so the @SQLRestriction on Book doesn't hide soft-deleted rows
+    @Query(value = "SELECT * FROM books WHERE id = :id", nativeQuery = true)
+    Optional<Book> findByIdIncludingDeleted(@Param("id") Long id);
+    
+    // Check if book exists (including deleted); native for the same reason
+    @Query(value = "SELECT COUNT(*) > 0 FROM books WHERE id = :id", nativeQuery = true)
     boolean existsByIdIncludingDeleted(@Param("id") Long id);
     
     @Query("SELECT CASE WHEN COUNT(b) > 0 THEN true ELSE false END FROM Book b WHERE b.isbn = :isbn")
     boolean existsByIsbnIncludingDeleted(@Param("isbn") String isbn);
+    
+    // Set-based ISBN conflict check for bulk imports (native, so soft-deleted books are included)
+    @Query(value = "SELECT isbn FROM books WHERE isbn IN (:isbns)", nativeQuery = true)
+    List<String> findExistingIsbnsIncludingDeleted(@Param("isbns") Collection<String> isbns);
+    
+    List<Book> findByIsbnIn(Collection<String> isbns);
 }
\ No newline at end of file
@@ -0,0 +1,34 @@
+package com.bookstack.bookstack.book.repository;
+
+import com.bookstack.bookstack.book.model.Book;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+// Lookups that go through the second-level cache, and copy accounting that keeps it coherent
+public interface BookRepositoryCustom {
+
+    // ISBN lookup via the natural-id cache; may return a soft-deleted book
+    Optional<Book> findByNaturalId(String isbn);
+
+    // Batch load by id, serving cached books from the second-level cache; missing ids are skipped
+    List<Book> loadAllById(Collection<Long> ids);
+
+    // Atomic copy accounting - a single conditional UPDATE, so concurrent checkouts can't oversell.
+    // Returns the number of rows updated (0 when the guard rejected the change)
+    int decrementAvailableCopies(Long id);
+
+    int incrementAvailableCopies(Long id);
+
+    // Batch checkout: locks the rows in id order, then takes one copy from each book that still has
+    // one in a single UPDATE. Returns the ids that got a copy
+    List<Long> decrementAvailableCopies(Collection<Long> ids);
+
+    // One copy back per entry (a book may appear more than once) in a single JDBC batch.
+    // Returns the number of copies put back
+    int incrementAvailableCopies(List<Long> ids);
+
+    // Multi-row insert in a single JDBC batch; ids are generated by the database and not read back
+    void insertAll(List<Book> books);
+}
@@ -0,0 +1,119 @@
+package com.bookstack.bookstack.book.repository;
+
+import com.bookstack.bookstack.book.model.Book;
+import com.bookstack.bookstack.common.cache.SecondLevelCacheEvictor;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.Session;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+
+public class BookRepositoryCustomImpl implements BookRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final SecondLevelCacheEvictor cacheEvictor;
+
+    public BookRepositoryCustomImpl(JdbcTemplate jdbcTemplate, SecondLevelCacheEvictor cacheEvictor) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.cacheEvictor = cacheEvictor;
+    }
+
+    @Override
+    public Optional<Book> findByNaturalId(String isbn) {
+        return entityManager.unwrap(Session.class).bySimpleNaturalId(Book.class).loadOptional(isbn);
+    }
+
+    @Override
+    public List<Book> loadAllById(Collection<Long> ids) {
+        if (ids.isEmpty()) return List.of();
+        List<Book> books = entityManager.unwrap(Session.class)
+                .byMultipleIds(Book.class)
+                .multiLoad(new ArrayList<>(ids));
+        return books.stream().filter(Objects::nonNull).toList();
+    }
+
+    // Issued over JDBC: a bulk HQL update would invalidate the whole book cache region on every borrow,
+    // so only the touched row is evicted instead
+    @Override
+    public int decrementAvailableCopies(Long id) {
+        return updateCopies(id, "UPDATE books SET available_copies = available_copies - 1 " +
+                "WHERE id = ? AND available_copies > 0 AND deleted_at IS NULL");
+    }
+
+    @Override
+    public int incrementAvailableCopies(Long id) {
+        return updateCopies(id, "UPDATE books SET available_copies = available_copies + 1 " +
+                "WHERE id = ? AND available_copies < total_copies");
+    }
+
+    @Override
+    public List<Long> decrementAvailableCopies(Collection<Long> ids) {
+        if (ids.isEmpty()) return List.of();
+        entityManager.flush();
+        List<Long> sorted = ids.stream().distinct().sorted().toList();
+        // Locking in id order keeps two overlapping batches from deadlocking
+        List<Long> available = jdbcTemplate.queryForList("SELECT id FROM books WHERE id IN (" + placeholders(sorted.size()) +
+                ") AND available_copies > 0 AND deleted_at IS NULL ORDER BY id FOR UPDATE", Long.class, sorted.toArray());
+        if (available.isEmpty()) return List.of();
+        jdbcTemplate.update("UPDATE books SET available_copies = available_copies - 1 WHERE id IN (" +
+                placeholders(available.size()) + ")", available.toArray());
+        available.forEach(id -> cacheEvictor.evict(Book.class, id));
+        return available;
+    }
+
+    @Override
+    public int incrementAvailableCopies(List<Long> ids) {
+        if (ids.isEmpty()) return 0;
+        entityManager.flush();
+        int[][] counts = jdbcTemplate.batchUpdate("UPDATE books SET available_copies = available_copies + 1 " +
+                "WHERE id = ? AND available_copies < total_copies", ids, ids.size(), (ps, id) -> ps.setLong(1, id));
+        int updated = 0;
+        for (int[] chunk : counts) {
+            for (int count : chunk) {
+                // Some drivers report SUCCESS_NO_INFO (-2) for batched statements
+                updated += count == 0 ? 0 : 1;
+            }
+        }
+        ids.stream().distinct().forEach(id -> cacheEvictor.evict(Book.class, id));
+        return updated;
+    }
+
+    // IDENTITY ids stop Hibernate from batching inserts, so imports go through a plain JDBC batch.
+    // The search index and query cache are not aware of these rows; callers refresh them
+    @Override
+    public void insertAll(List<Book> books) {
+        entityManager.flush();
+        jdbcTemplate.batchUpdate("INSERT INTO books (title, author, isbn, category, language, total_copies, available_copies) " +
+                "VALUES (?, ?, ?, ?, ?, ?, ?)", books, books.size(), (ps, book) -> {
+                    ps.setString(1, book.getTitle());
+                    ps.setString(2, book.getAuthor());
+                    ps.setString(3, book.getIsbn());
+                    ps.setString(4, book.getCategory());
+                    ps.setString(5, book.getLanguage());
+                    ps.setInt(6, book.getTotalCopies());
+                    ps.setInt(7, book.getAvailableCopies());
+                });
+    }
+
+    private static String placeholders(int count) {
+        return String.join(", ", Collections.nCopies(count, "?"));
+    }
+
+    private int updateCopies(Long id, String sql) {
+        entityManager.flush();
+        int updated = jdbcTemplate.update(sql, id);
+        if (updated > 0) {
+            cacheEvictor.evict(Book.class, id);
+        }
+        return updated;
+    }
+}
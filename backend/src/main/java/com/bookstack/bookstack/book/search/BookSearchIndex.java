@@ -0,0 +1,318 @@
+package com.bookstack.bookstack.book.search;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.bookstack.bookstack.book.dto.BookSearchFields;
+import com.bookstack.bookstack.book.model.Book;
+import com.bookstack.bookstack.book.repository.BookRepository;
+import com.bookstack.bookstack.common.cache.RemoteResourceChanges;
+import com.bookstack.bookstack.common.cache.ResourceVersions;
+import com.bookstack.bookstack.common.transaction.AfterCommit;
+
+/**
+ * In-memory inverted index over the active catalog.
+ *
+ * Title and author are case-folded and split into trigrams so that "contains" searches can be
+ * answered by intersecting posting lists instead of running {@code LIKE '%x%'} scans. Category and
+ * language are exact (case-insensitive) postings. Every candidate is verified against the indexed
+ * text, so results match the semantics of the repository queries it replaces.
+ *
+ * Every instance keeps its own index. Writes made here are applied once they commit; writes made
+ * on other replicas arrive through the resource version sync ({@link RemoteResourceChanges}), so
+ * they show up within the sync interval.
+ */
+@Component
+public class BookSearchIndex {
+    private static final int GRAM_SIZE = 3;
+    // Upper bound on ids per IN (...) when re-reading books changed elsewhere
+    private static final int READ_CHUNK_SIZE = 1000;
+
+    private final BookRepository bookRepository;
+
+    // Ordered by id, so keyset pages without a selective filter walk it from the cursor
+    private final NavigableMap<Long, IndexedBook> documents = new TreeMap<>();
+    private final Map<String, Set<Long>> titleGrams = new HashMap<>();
+    private final Map<String, Set<Long>> authorGrams = new HashMap<>();
+    private final Map<String, Set<Long>> categoryPostings = new HashMap<>();
+    private final Map<String, Set<Long>> languagePostings = new HashMap<>();
+
+    // Writes are rare (catalog edits), reads are hot: a read/write lock keeps postings consistent
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    // Ids changed while a rebuild loads its snapshot; their current entries win over the snapshot
+    private Set<Long> changedDuringRebuild;
+
+    @Value("${app.search.index.enabled:true}")
+    private boolean enabled;
+
+    private volatile boolean ready;
+
+    public BookSearchIndex(BookRepository bookRepository) {
+        this.bookRepository = bookRepository;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public synchronized void rebuild() {
+        if (!enabled) return;
+
+        // The snapshot loads without the lock, so searches keep running; a change committed while
+        // it loads may be missing from it and is kept from the live entries instead
+        lock.writeLock().lock();
+        try {
+            changedDuringRebuild = new HashSet<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        List<BookSearchFields> books = null;
+        try {
+            books = bookRepository.findAllActiveSearchFields();
+        } finally {
+            lock.writeLock().lock();
+            try {
+                if (books != null) replaceAll(books);
+                changedDuringRebuild = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+    }
+
+    // Books changed on other replicas are read again and re-indexed, or dropped when no longer active.
+    // Read-write so the read goes to the primary, which the replica may still be catching up with
+    @EventListener
+    @Transactional
+    public void onRemoteChanges(RemoteResourceChanges changes) {
+        if (!enabled) return;
+        List<Long> ids = new ArrayList<>(changes.ids(ResourceVersions.BOOK));
+        if (ids.isEmpty()) return;
+
+        Map<Long, IndexedBook> docs = new HashMap<>();
+        for (int from = 0; from < ids.size(); from += READ_CHUNK_SIZE) {
+            bookRepository.findActiveSearchFieldsByIdIn(ids.subList(from, Math.min(from + READ_CHUNK_SIZE, ids.size())))
+                    .forEach(book -> docs.put(book.id(), IndexedBook.of(book)));
+        }
+        lock.writeLock().lock();
+        try {
+            ids.forEach(id -> replace(id, docs.get(id)));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Whether searches can be answered from the index. Callers fall back to the database otherwise.
+     */
+    public boolean isReady() {
+        return enabled && ready;
+    }
+
+    /**
+     * Returns the ids of active books matching all non-null filters, in ascending id order.
+     * Title and author match as case-insensitive substrings, category and language as
+     * case-insensitive equality.
+     */
+    public List<Long> search(String title, String author, String category, String language) {
+        return search(title, author, category, language, 0L, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Returns the first {@code limit} ids greater than {@code afterId} of the active books matching
+     * all non-null filters, in ascending id order: one keyset page of {@link #search(String, String, String, String)}.
+     */
+    public List<Long> search(String title, String author, String category, String language, long afterId, int limit) {
+        String titleQuery = normalize(title);
+        String authorQuery = normalize(author);
+        String categoryQuery = normalize(category);
+        String languageQuery = normalize(language);
+
+        lock.readLock().lock();
+        try {
+            List<Set<Long>> postings = new ArrayList<>();
+            if (titleQuery != null) collectGramPostings(titleGrams, titleQuery, postings);
+            if (authorQuery != null) collectGramPostings(authorGrams, authorQuery, postings);
+            if (categoryQuery != null) postings.add(categoryPostings.getOrDefault(categoryQuery, Set.of()));
+            if (languageQuery != null) postings.add(languagePostings.getOrDefault(languageQuery, Set.of()));
+
+            List<Long> result = new ArrayList<>();
+            if (postings.isEmpty()) {
+                // Nothing narrows the candidates down: verify in id order and stop once the page is full
+                for (IndexedBook doc : documents.tailMap(afterId, false).values()) {
+                    if (result.size() == limit) break;
+                    if (doc.matches(titleQuery, authorQuery, categoryQuery, languageQuery)) result.add(doc.id());
+                }
+                return result;
+            }
+
+            // Candidates come unordered; keep the smallest limit matching ids in a max-heap
+            PriorityQueue<Long> page = new PriorityQueue<>(Comparator.reverseOrder());
+            for (Long id : intersect(postings)) {
+                if (id <= afterId || (page.size() == limit && id > page.peek())) continue;
+                IndexedBook doc = documents.get(id);
+                if (doc != null && doc.matches(titleQuery, authorQuery, categoryQuery, languageQuery)) {
+                    page.add(id);
+                    if (page.size() > limit) page.poll();
+                }
+            }
+            result.addAll(page);
+            result.sort(Comparator.naturalOrder());
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Index (or re-index) a book once the surrounding transaction commits
+    public void indexAfterCommit(Book book) {
+        IndexedBook doc = IndexedBook.of(book);
+        afterCommit(() -> {
+            lock.writeLock().lock();
+            try {
+                replace(doc.id(), doc);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        });
+    }
+
+    // Drop a book from the index once the surrounding transaction commits
+    public void removeAfterCommit(Long id) {
+        afterCommit(() -> {
+            lock.writeLock().lock();
+            try {
+                replace(id, null);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        });
+    }
+
+    private void afterCommit(Runnable action) {
+        if (enabled) {
+            AfterCommit.run(action);
+        }
+    }
+
+    // Callers hold the write lock
+    private void replaceAll(List<BookSearchFields> books) {
+        Map<Long, IndexedBook> changed = new HashMap<>();
+        for (Long id : changedDuringRebuild) {
+            IndexedBook doc = documents.get(id);
+            if (doc != null) changed.put(id, doc);
+        }
+        documents.clear();
+        titleGrams.clear();
+        authorGrams.clear();
+        categoryPostings.clear();
+        languagePostings.clear();
+        for (BookSearchFields book : books) {
+            if (!changedDuringRebuild.contains(book.id())) add(IndexedBook.of(book));
+        }
+        changed.values().forEach(this::add);
+        ready = true;
+    }
+
+    // Replaces a book's entry, or drops it when doc is null
+    private void replace(Long id, IndexedBook doc) {
+        remove(id);
+        if (doc != null) add(doc);
+        if (changedDuringRebuild != null) changedDuringRebuild.add(id);
+    }
+
+    private void add(IndexedBook doc) {
+        documents.put(doc.id(), doc);
+        grams(doc.title()).forEach(gram -> titleGrams.computeIfAbsent(gram, k -> new HashSet<>()).add(doc.id()));
+        grams(doc.author()).forEach(gram -> authorGrams.computeIfAbsent(gram, k -> new HashSet<>()).add(doc.id()));
+        if (doc.category() != null) {
+            categoryPostings.computeIfAbsent(doc.category(), k -> new HashSet<>()).add(doc.id());
+        }
+        if (doc.language() != null) {
+            languagePostings.computeIfAbsent(doc.language(), k -> new HashSet<>()).add(doc.id());
+        }
+    }
+
+    private void remove(Long id) {
+        IndexedBook doc = documents.remove(id);
+        if (doc == null) return;
+
+        grams(doc.title()).forEach(gram -> removePosting(titleGrams, gram, id));
+        grams(doc.author()).forEach(gram -> removePosting(authorGrams, gram, id));
+        if (doc.category() != null) removePosting(categoryPostings, doc.category(), id);
+        if (doc.language() != null) removePosting(languagePostings, doc.language(), id);
+    }
+
+    private static void removePosting(Map<String, Set<Long>> postings, String key, Long id) {
+        Set<Long> ids = postings.get(key);
+        if (ids == null) return;
+        ids.remove(id);
+        if (ids.isEmpty()) postings.remove(key);
+    }
+
+    private static void collectGramPostings(Map<String, Set<Long>> index, String query, List<Set<Long>> postings) {
+        // Queries shorter than a gram can't be narrowed down; they are verified against every candidate
+        for (String gram : grams(query)) {
+            postings.add(index.getOrDefault(gram, Set.of()));
+        }
+    }
+
+    private static Collection<Long> intersect(List<Set<Long>> postings) {
+        postings.sort(Comparator.comparingInt(Set::size));
+        Set<Long> result = new HashSet<>(postings.get(0));
+        for (int i = 1; i < postings.size() && !result.isEmpty(); i++) {
+            result.retainAll(postings.get(i));
+        }
+        return result;
+    }
+
+    static Set<String> grams(String text) {
+        Set<String> grams = new HashSet<>();
+        if (text == null) return grams;
+        for (int i = 0; i + GRAM_SIZE <= text.length(); i++) {
+            grams.add(text.substring(i, i + GRAM_SIZE));
+        }
+        return grams;
+    }
+
+    static String normalize(String value) {
+        return value == null ? null : value.toLowerCase(Locale.ROOT);
+    }
+
+    private record IndexedBook(Long id, String title, String author, String category, String language) {
+
+        static IndexedBook of(Book book) {
+            return new IndexedBook(book.getId(), normalize(book.getTitle()), normalize(book.getAuthor()),
+                    normalize(book.getCategory()), normalize(book.getLanguage()));
+        }
+
+        static IndexedBook of(BookSearchFields book) {
+            return new IndexedBook(book.id(), normalize(book.title()), normalize(book.author()),
+                    normalize(book.category()), normalize(book.language()));
+        }
+
+        boolean matches(String titleQuery, String authorQuery, String categoryQuery, String languageQuery) {
+            return (titleQuery == null || (title != null && title.contains(titleQuery)))
+                    && (authorQuery == null || (author != null && author.contains(authorQuery)))
+                    && (categoryQuery == null || categoryQuery.equals(category))
+                    && (languageQuery == null || languageQuery.equals(language));
+        }
+    }
+}
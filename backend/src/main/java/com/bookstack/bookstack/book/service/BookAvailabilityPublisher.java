@@ -0,0 +1,129 @@
+package com.bookstack.bookstack.book.service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.bookstack.bookstack.book.dto.BookAvailability;
+import com.bookstack.bookstack.book.repository.BookRepository;
+import com.bookstack.bookstack.common.cache.RemoteResourceChanges;
+import com.bookstack.bookstack.common.cache.ResourceVersions;
+import com.bookstack.bookstack.common.transaction.AfterCommit;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import reactor.core.publisher.BufferOverflowStrategy;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+
+/**
+ * Fans out copy-count changes to {@code bookAvailabilityChanged} subscribers.
+ *
+ * Writers only mark a book as changed once their transaction commits. Every
+ * {@code coalesce-interval-ms} the marked books are read back in one query and each is
+ * published once with its current counts, so a book changing many times within an interval
+ * costs subscribers a single update. Each subscriber gets a buffer of {@code buffer-size}
+ * updates; when a slow connection lets it fill, the oldest are dropped, since a later update
+ * for the same book supersedes them anyway. A deleted book is published once with no copies.
+ *
+ * Subscribers are connected to one instance each, so changes committed on other replicas are
+ * taken from the {@code resource_changes} sync and reach them up to one sync interval later.
+ */
+@Component
+public class BookAvailabilityPublisher {
+    // Upper bound on ids per IN (...) when reading changed books back
+    private static final int READ_CHUNK_SIZE = 1000;
+
+    private final BookRepository bookRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final Sinks.Many<BookAvailability> sink = Sinks.many().multicast().directBestEffort();
+    private final Set<Long> changed = ConcurrentHashMap.newKeySet();
+    private final Counter publishedCounter;
+    private final Counter droppedCounter;
+
+    @Value("${app.graphql.subscriptions.buffer-size:16}")
+    private int bufferSize;
+
+    public BookAvailabilityPublisher(BookRepository bookRepository, PlatformTransactionManager transactionManager,
+                                     MeterRegistry meterRegistry) {
+        this.bookRepository = bookRepository;
+        // Read-write so the read goes to the primary the change was just committed on
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+
+        Gauge.builder("bookstack.graphql.subscriptions.active", sink, Sinks.Many::currentSubscriberCount)
+                .description("Open bookAvailabilityChanged subscriptions")
+                .register(meterRegistry);
+        this.publishedCounter = Counter.builder("bookstack.graphql.subscriptions.published")
+                .description("Coalesced availability updates published to subscribers")
+                .register(meterRegistry);
+        this.droppedCounter = Counter.builder("bookstack.graphql.subscriptions.dropped")
+                .description("Availability updates dropped from full subscriber buffers")
+                .register(meterRegistry);
+    }
+
+    // Publishes the book's counts at the next flush after the current transaction commits
+    public void changed(Long bookId) {
+        AfterCommit.run(() -> changed.add(bookId));
+    }
+
+    @EventListener
+    public void onRemoteChanges(RemoteResourceChanges changes) {
+        changed.addAll(changes.ids(ResourceVersions.BOOK));
+    }
+
+    // Updates for the given books, or for every book when bookIds is null
+    public Flux<BookAvailability> updates(Collection<Long> bookIds) {
+        Flux<BookAvailability> updates = sink.asFlux();
+        if (bookIds != null) {
+            Set<Long> wanted = Set.copyOf(bookIds);
+            updates = updates.filter(update -> wanted.contains(update.getBookId()));
+        }
+        return updates.onBackpressureBuffer(bufferSize, dropped -> droppedCounter.increment(),
+                BufferOverflowStrategy.DROP_OLDEST);
+    }
+
+    public int subscriberCount() {
+        return sink.currentSubscriberCount();
+    }
+
+    // Synchronized: the sink takes one emitter at a time
+    @Scheduled(fixedDelayString = "${app.graphql.subscriptions.coalesce-interval-ms:500}")
+    public synchronized void flush() {
+        if (changed.isEmpty()) return;
+        // Removed before reading, so a change committed after this point is either seen by the
+        // read below or marked again for the next flush
+        List<Long> bookIds = new ArrayList<>(changed);
+        changed.removeAll(bookIds);
+        if (sink.currentSubscriberCount() == 0) return;
+
+        for (int from = 0; from < bookIds.size(); from += READ_CHUNK_SIZE) {
+            List<Long> chunk = bookIds.subList(from, Math.min(from + READ_CHUNK_SIZE, bookIds.size()));
+            List<BookAvailability> updates = transactionTemplate.execute(status -> bookRepository.findAvailabilityByIdIn(chunk));
+            Set<Long> deleted = new HashSet<>(chunk);
+            for (BookAvailability update : updates) {
+                deleted.remove(update.getBookId());
+                emit(update);
+            }
+            // Soft-deleted or removed books are not read back; they can no longer be borrowed
+            for (Long bookId : deleted) {
+                emit(new BookAvailability(bookId, 0, 0));
+            }
+        }
+    }
+
+    private void emit(BookAvailability update) {
+        sink.tryEmitNext(update);
+        publishedCounter.increment();
+    }
+}
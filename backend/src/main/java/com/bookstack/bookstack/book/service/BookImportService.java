@@ -0,0 +1,193 @@
+package com.bookstack.bookstack.book.service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.bookstack.bookstack.book.dto.BookImportResult;
+import com.bookstack.bookstack.book.importer.BookImportFormat;
+import com.bookstack.bookstack.book.importer.BookRow;
+import com.bookstack.bookstack.book.importer.BookRowReader;
+import com.bookstack.bookstack.book.model.Book;
+import com.bookstack.bookstack.book.repository.BookRepository;
+import com.bookstack.bookstack.book.search.BookSearchIndex;
+import com.bookstack.bookstack.common.cache.ResourceVersions;
+import com.bookstack.bookstack.common.cache.SecondLevelCacheEvictor;
+import com.bookstack.bookstack.common.exception.BadRequestException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Bulk catalog import from a streamed CSV or NDJSON body.
+ *
+ * Rows are validated as they are read and collected into chunks of {@code batch-size}. Each chunk
+ * gets one set-based ISBN conflict query and one JDBC batch insert in its own transaction, so memory
+ * use is bounded by the chunk size and a bad row never rolls back rows that were already accepted.
+ */
+@Service
+public class BookImportService {
+    private static final Logger log = LoggerFactory.getLogger(BookImportService.class);
+
+    private final BookRepository bookRepository;
+    private final BookService bookService;
+    private final BookSearchIndex searchIndex;
+    private final SecondLevelCacheEvictor cacheEvictor;
+    private final ResourceVersions resourceVersions;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${app.book-import.batch-size:500}")
+    private int batchSize;
+
+    @Value("${app.book-import.max-reported-errors:1000}")
+    private int maxReportedErrors;
+
+    public BookImportService(BookRepository bookRepository, BookService bookService, BookSearchIndex searchIndex,
+                             SecondLevelCacheEvictor cacheEvictor, ResourceVersions resourceVersions,
+                             ObjectMapper objectMapper, PlatformTransactionManager transactionManager) {
+        this.bookRepository = bookRepository;
+        this.bookService = bookService;
+        this.searchIndex = searchIndex;
+        this.cacheEvictor = cacheEvictor;
+        this.resourceVersions = resourceVersions;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    public BookImportResult importBooks(InputStream body, BookImportFormat format) {
+        long start = System.nanoTime();
+        BookImportResult result = new BookImportResult();
+        List<BookRow> chunk = new ArrayList<>(batchSize);
+
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8))) {
+            BookRowReader rows = format.open(reader, objectMapper);
+            BookRow row;
+            while ((row = rows.next()) != null) {
+                result.setTotalRows(result.getTotalRows() + 1);
+
+                String error = row.error() != null ? row.error() : validate(row.book());
+                if (error != null) {
+                    reject(result, row, error);
+                    continue;
+                }
+
+                chunk.add(row);
+                if (chunk.size() >= batchSize) {
+                    importChunk(chunk, result);
+                    chunk.clear();
+                }
+            }
+            if (!chunk.isEmpty()) {
+                importChunk(chunk, result);
+            }
+        } catch (IOException e) {
+            // Chunks before this point are committed; report where the upload broke off
+            result.getErrors().add(new BookImportResult.RowError(result.getTotalRows() + 1, null,
+                    "Import stopped: could not read request body"));
+        }
+
+        long elapsedNanos = System.nanoTime() - start;
+        result.setDurationMillis(TimeUnit.NANOSECONDS.toMillis(elapsedNanos));
+        result.setRowsPerSecond(elapsedNanos == 0 ? 0 : result.getTotalRows() * 1_000_000_000.0 / elapsedNanos);
+        log.info("Book import finished: {} rows, {} imported, {} failed in {} ms ({} rows/s)",
+                result.getTotalRows(), result.getImportedRows(), result.getFailedRows(),
+                result.getDurationMillis(), Math.round(result.getRowsPerSecond()));
+        return result;
+    }
+
+    // Same rules as addBook, plus the column limits a batch insert would otherwise fail on as a whole
+    private String validate(Book book) {
+        try {
+            bookService.validateBookData(book);
+        } catch (BadRequestException e) {
+            return e.getMessage();
+        }
+        if (book.getAvailableCopies() > book.getTotalCopies()) {
+            return "Available copies cannot exceed total copies";
+        }
+        if (book.getTitle().length() > 200) return "Book title must be at most 200 characters";
+        if (book.getAuthor().length() > 100) return "Book author must be at most 100 characters";
+        if (book.getIsbn().length() > 20) return "Book ISBN must be at most 20 characters";
+        if (book.getCategory() != null && book.getCategory().length() > 50) return "Book category must be at most 50 characters";
+        if (book.getLanguage() != null && book.getLanguage().length() > 30) return "Book language must be at most 30 characters";
+        return null;
+    }
+
+    private void importChunk(List<BookRow> chunk, BookImportResult result) {
+        // The first occurrence of an ISBN within the chunk wins
+        Map<String, BookRow> byIsbn = new LinkedHashMap<>();
+        for (BookRow row : chunk) {
+            if (byIsbn.putIfAbsent(row.book().getIsbn(), row) != null) {
+                reject(result, row, "Duplicate ISBN in import: " + row.book().getIsbn());
+            }
+        }
+
+        Set<String> existing = new HashSet<>(bookRepository.findExistingIsbnsIncludingDeleted(byIsbn.keySet()));
+        List<BookRow> accepted = new ArrayList<>(byIsbn.size());
+        for (BookRow row : byIsbn.values()) {
+            if (existing.contains(row.book().getIsbn())) {
+                reject(result, row, "Book with ISBN " + row.book().getIsbn() + " already exists");
+            } else {
+                accepted.add(row);
+            }
+        }
+        if (accepted.isEmpty()) return;
+
+        try {
+            insert(accepted, result);
+        } catch (DataIntegrityViolationException e) {
+            // Another writer took an ISBN after the check; retry one row at a time to isolate it
+            for (BookRow row : accepted) {
+                try {
+                    insert(List.of(row), result);
+                } catch (DuplicateKeyException ex) {
+                    reject(result, row, "Book with ISBN " + row.book().getIsbn() + " already exists");
+                } catch (DataIntegrityViolationException ex) {
+                    reject(result, row, "Row rejected by the database");
+                }
+            }
+        }
+        cacheEvictor.evictQueryResults();
+        resourceVersions.changed(ResourceVersions.CATALOG);
+    }
+
+    private void insert(List<BookRow> rows, BookImportResult result) {
+        List<Book> books = rows.stream().map(BookRow::book).toList();
+        transactionTemplate.executeWithoutResult(status -> {
+            bookRepository.insertAll(books);
+            // Read the new rows back for their generated ids
+            for (Book book : bookRepository.findByIsbnIn(books.stream().map(Book::getIsbn).toList())) {
+                searchIndex.indexAfterCommit(book);
+                resourceVersions.changed(ResourceVersions.book(book.getId()));
+            }
+        });
+        result.setImportedRows(result.getImportedRows() + rows.size());
+    }
+
+    private void reject(BookImportResult result, BookRow row, String message) {
+        result.setFailedRows(result.getFailedRows() + 1);
+        if (result.getErrors().size() < maxReportedErrors) {
+            String isbn = row.book() != null ? row.book().getIsbn() : null;
+            result.getErrors().add(new BookImportResult.RowError(row.line(), isbn, message));
+        } else {
+            result.setErrorsTruncated(true);
+        }
+    }
+}
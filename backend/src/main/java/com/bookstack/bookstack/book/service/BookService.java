@@ -2,52 +2,125 @@ package com.bookstack.bookstack.book.service;
 
 import com.bookstack.bookstack.book.model.Book;
 import com.bookstack.bookstack.book.repository.BookRepository;
+import com.bookstack.bookstack.book.search.BookSearchIndex;
+import com.bookstack.bookstack.common.cache.ResourceVersions;
+import com.bookstack.bookstack.common.cache.SecondLevelCacheEvictor;
 import com.bookstack.bookstack.common.exception.BadRequestException;
 import com.bookstack.bookstack.common.exception.ConflictException;
 import com.bookstack.bookstack.common.exception.NotFoundException;
+import com.bookstack.bookstack.common.metrics.Monitored;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 @Service
+@Monitored("catalog")
 @Transactional
 public class BookService {
     private final BookRepository bookRepository;
+    private final BookSearchIndex searchIndex;
+    private final SecondLevelCacheEvictor cacheEvictor;
+    private final ResourceVersions resourceVersions;
+    private final BookAvailabilityPublisher availabilityPublisher;
 
-    public BookService(BookRepository bookRepository) {
+    // Upper bound on ids per IN (...) when hydrating search hits
+    private static final int HYDRATE_CHUNK_SIZE = 1000;
+
+    public BookService(BookRepository bookRepository, BookSearchIndex searchIndex, SecondLevelCacheEvictor cacheEvictor,
+                       ResourceVersions resourceVersions, BookAvailabilityPublisher availabilityPublisher) {
         this.bookRepository = bookRepository;
+        this.searchIndex = searchIndex;
+        this.cacheEvictor = cacheEvictor;
+        this.resourceVersions = resourceVersions;
+        this.availabilityPublisher = availabilityPublisher;
     }
 
+    @Transactional(readOnly = true)
     public List<Book> getAllBooks() {
         return bookRepository.findAllActive();
     }
 
+    @Transactional(readOnly = true)
     public List<Book> getAllBooksIncludingDeleted() {
         return bookRepository.findAll();
     }
 
+    @Transactional(readOnly = true)
     public List<Book> getDeletedBooks() {
         return bookRepository.findAllDeleted();
     }
 
+    @Transactional(readOnly = true)
     public List<Book> getAvailableBooks() {
         return bookRepository.findAvailableBooks();
     }
 
+    // Keyset pages return up to limit rows with id > afterId, ordered by id
+    @Transactional(readOnly = true)
+    public List<Book> getBooksPage(long afterId, int limit) {
+        return bookRepository.findActivePage(afterId, Limit.of(limit));
+    }
+
+    @Transactional(readOnly = true)
+    public List<Book> getAvailableBooksPage(long afterId, int limit) {
+        return bookRepository.findAvailablePage(afterId, Limit.of(limit));
+    }
+
+    @Transactional(readOnly = true)
+    public List<Book> searchBooksPage(String title, String author, String category, String language,
+                                      long afterId, int limit) {
+        if (searchIndex.isReady()) {
+            // An indexed id can fail to load (deleted by a replica the index hasn't heard from yet):
+            // keep reading past it so the page is still full and the caller's extra row still
+            // tells whether another page follows
+            List<Book> books = new ArrayList<>(limit);
+            long cursor = afterId;
+            while (books.size() < limit) {
+                int wanted = limit - books.size();
+                List<Long> ids = searchIndex.search(title, author, category, language, cursor, wanted);
+                books.addAll(hydrate(ids));
+                if (ids.size() < wanted) break;
+                cursor = ids.get(ids.size() - 1);
+            }
+            return books;
+        }
+        return bookRepository.findActivePageByFilters(title, author, category, language, afterId, Limit.of(limit));
+    }
+
+    // Served from the second-level cache when possible; soft-deleted rows are filtered out here
+    @Transactional(readOnly = true)
     public Book getBookById(Long id) {
-        return bookRepository.findActiveById(id)
+        return bookRepository.findById(id)
+            .filter(book -> !book.isDeleted())
             .orElseThrow(() -> new NotFoundException("Book not found with id: " + id));
     }
 
+    @Transactional(readOnly = true)
     public Book getBookByIdIncludingDeleted(Long id) {
-        return bookRepository.findById(id)
+        return bookRepository.findByIdIncludingDeleted(id)
             .orElseThrow(() -> new NotFoundException("Book not found with id: " + id));
     }
 
+    // Batch lookup by id (cache first, one IN query for the rest); soft-deleted books are not returned
+    @Transactional(readOnly = true)
+    public List<Book> getBooksByIds(Collection<Long> ids) {
+        return bookRepository.loadAllById(ids).stream()
+            .filter(book -> !book.isDeleted())
+            .toList();
+    }
+
+    @Transactional(readOnly = true)
     public Optional<Book> getBookByIsbn(String isbn) {
-        return bookRepository.findActiveByIsbn(isbn);
+        return bookRepository.findByNaturalId(isbn)
+            .filter(book -> !book.isDeleted());
     }
 
     public Book addBook(Book book) {
@@ -64,7 +137,10 @@ public class BookService {
             throw new BadRequestException("Available copies cannot exceed total copies");
         }
         
-        return bookRepository.save(book);
+        Book saved = bookRepository.save(book);
+        searchIndex.indexAfterCommit(saved);
+        resourceVersions.changed(ResourceVersions.CATALOG, ResourceVersions.book(saved.getId()));
+        return saved;
     }
 
     public Book updateBook(Long id, Book updatedBook) {
@@ -93,7 +169,12 @@ public class BookService {
         book.setTotalCopies(updatedBook.getTotalCopies());
         book.setAvailableCopies(updatedBook.getAvailableCopies());
         
-        return bookRepository.save(book);
+        Book saved = bookRepository.save(book);
+        searchIndex.indexAfterCommit(saved);
+        // Borrow records show the title
+        resourceVersions.changed(ResourceVersions.CATALOG, ResourceVersions.BOOK_DETAILS, ResourceVersions.book(id));
+        availabilityPublisher.changed(id);
+        return saved;
     }
 
     public Book updateBookAvailability(Long id, Integer totalCopies, Integer availableCopies) {
@@ -105,7 +186,49 @@ public class BookService {
         
         book.setTotalCopies(totalCopies);
         book.setAvailableCopies(availableCopies);
-        return bookRepository.save(book);
+        Book saved = bookRepository.save(book);
+        resourceVersions.changed(ResourceVersions.CATALOG, ResourceVersions.book(id));
+        availabilityPublisher.changed(id);
+        return saved;
+    }
+
+    // Take one copy off the shelf atomically; false when no copy is available
+    public boolean checkOutCopy(Long id) {
+        if (bookRepository.decrementAvailableCopies(id) == 0) return false;
+        resourceVersions.changed(ResourceVersions.CATALOG, ResourceVersions.book(id));
+        availabilityPublisher.changed(id);
+        return true;
+    }
+
+    // Put one copy back atomically; never exceeds total copies
+    public boolean checkInCopy(Long id) {
+        if (bookRepository.incrementAvailableCopies(id) == 0) return false;
+        resourceVersions.changed(ResourceVersions.CATALOG, ResourceVersions.book(id));
+        availabilityPublisher.changed(id);
+        return true;
+    }
+
+    // Batch checkout for a circulation desk cart; returns the ids that got a copy
+    public Set<Long> checkOutCopies(Collection<Long> ids) {
+        List<Long> taken = bookRepository.decrementAvailableCopies(ids);
+        if (!taken.isEmpty()) {
+            resourceVersions.changed(ResourceVersions.CATALOG);
+            taken.forEach(id -> {
+                resourceVersions.changed(ResourceVersions.book(id));
+                availabilityPublisher.changed(id);
+            });
+        }
+        return new HashSet<>(taken);
+    }
+
+    // One copy back per entry, in one batch; never exceeds total copies
+    public void checkInCopies(List<Long> ids) {
+        if (bookRepository.incrementAvailableCopies(ids) == 0) return;
+        resourceVersions.changed(ResourceVersions.CATALOG);
+        ids.stream().distinct().forEach(id -> {
+            resourceVersions.changed(ResourceVersions.book(id));
+            availabilityPublisher.changed(id);
+        });
     }
 
     // Soft delete
@@ -113,6 +236,10 @@ public class BookService {
         Book book = getBookById(id);
         book.markAsDeleted();
         bookRepository.save(book);
+        cacheEvictor.evict(Book.class, id);
+        searchIndex.removeAfterCommit(id);
+        resourceVersions.changed(ResourceVersions.CATALOG, ResourceVersions.BOOK_DETAILS, ResourceVersions.book(id));
+        availabilityPublisher.changed(id);
     }
 
     // Hard delete (physical deletion) - for admin use only
@@ -121,11 +248,15 @@ public class BookService {
             throw new NotFoundException("Book not found with id: " + id);
         }
         bookRepository.hardDeleteById(id);
+        searchIndex.removeAfterCommit(id);
+        resourceVersions.changed(ResourceVersions.CATALOG, ResourceVersions.BOOK_DETAILS, ResourceVersions.BORROWS,
+                ResourceVersions.book(id));
+        availabilityPublisher.changed(id);
     }
 
     // Restore soft-deleted book
     public Book restoreBook(Long id) {
-        Book book = bookRepository.findById(id)
+        Book book = bookRepository.findByIdIncludingDeleted(id)
             .orElseThrow(() -> new NotFoundException("Book not found with id: " + id));
         
         if (!book.isDeleted()) {
@@ -138,50 +269,92 @@ public class BookService {
         }
         
         book.restore();
-        return bookRepository.save(book);
+        Book saved = bookRepository.save(book);
+        cacheEvictor.evict(Book.class, id);
+        searchIndex.indexAfterCommit(saved);
+        resourceVersions.changed(ResourceVersions.CATALOG, ResourceVersions.BOOK_DETAILS, ResourceVersions.book(id));
+        availabilityPublisher.changed(id);
+        return saved;
     }
 
+    @Transactional(readOnly = true)
     public List<Book> searchBooks(String title, String author, String category) {
-        return bookRepository.findActiveBooksByFilters(title, author, category, null);
+        return searchBooks(title, author, category, null);
     }
 
+    // Catalog searches are answered by the in-memory index when it is available
+    @Transactional(readOnly = true)
     public List<Book> searchBooks(String title, String author, String category, String language) {
+        if (searchIndex.isReady()) {
+            return hydrate(searchIndex.search(title, author, category, language));
+        }
         return bookRepository.findActiveBooksByFilters(title, author, category, language);
     }
 
+    @Transactional(readOnly = true)
     public List<Book> getBooksByTitle(String title) {
+        if (searchIndex.isReady()) {
+            return hydrate(searchIndex.search(title, null, null, null));
+        }
         return bookRepository.findActiveByTitleContainingIgnoreCase(title);
     }
 
+    @Transactional(readOnly = true)
     public List<Book> getBooksByAuthor(String author) {
+        if (searchIndex.isReady()) {
+            return hydrate(searchIndex.search(null, author, null, null));
+        }
         return bookRepository.findActiveByAuthorContainingIgnoreCase(author);
     }
 
+    @Transactional(readOnly = true)
     public List<Book> getBooksByCategory(String category) {
+        if (searchIndex.isReady()) {
+            return hydrate(searchIndex.search(null, null, category, null));
+        }
         return bookRepository.findActiveByCategoryIgnoreCase(category);
     }
 
+    @Transactional(readOnly = true)
     public List<Book> getBooksByLanguage(String language) {
+        if (searchIndex.isReady()) {
+            return hydrate(searchIndex.search(null, null, null, language));
+        }
         return bookRepository.findActiveByLanguageIgnoreCase(language);
     }
 
+    // Load matching rows by primary key, preserving the index's id order
+    private List<Book> hydrate(List<Long> ids) {
+        List<Book> books = new ArrayList<>(ids.size());
+        for (int from = 0; from < ids.size(); from += HYDRATE_CHUNK_SIZE) {
+            List<Long> chunk = ids.subList(from, Math.min(from + HYDRATE_CHUNK_SIZE, ids.size()));
+            books.addAll(getBooksByIds(chunk));
+        }
+        books.sort(Comparator.comparing(Book::getId));
+        return books;
+    }
+
+    @Transactional(readOnly = true)
     public boolean bookExists(Long id) {
         return bookRepository.existsById(id); // This will use the @SQLRestriction clause
     }
 
+    @Transactional(readOnly = true)
     public boolean bookExistsIncludingDeleted(Long id) {
         return bookRepository.existsByIdIncludingDeleted(id);
     }
 
+    @Transactional(readOnly = true)
     public boolean isbnExists(String isbn) {
         return bookRepository.existsActiveByIsbn(isbn);
     }
 
+    @Transactional(readOnly = true)
     public boolean isbnExistsIncludingDeleted(String isbn) {
         return bookRepository.existsByIsbnIncludingDeleted(isbn);
     }
 
-    private void validateBookData(Book book) {
+    void validateBookData(Book book) {
         if (book.getTitle() == null || book.getTitle().trim().isEmpty()) {
             throw new BadRequestException("Book title is required");
         }
@@ -1,11 +1,17 @@
 package com.bookstack.bookstack.borrow.controller;
 
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Map;
+import java.util.zip.GZIPOutputStream;
 
-import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -13,28 +19,47 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import com.bookstack.bookstack.auth.annotation.RequireRole;
-import com.bookstack.bookstack.auth.service.JwtService;
+import com.bookstack.bookstack.auth.model.AuthenticatedPrincipal;
+import com.bookstack.bookstack.auth.service.AuthenticationContext;
+import com.bookstack.bookstack.borrow.dto.BorrowBatchRequest;
+import com.bookstack.bookstack.borrow.dto.BorrowBatchResult;
 import com.bookstack.bookstack.borrow.dto.BorrowRequest;
 import com.bookstack.bookstack.borrow.dto.BorrowResponse;
+import com.bookstack.bookstack.borrow.dto.ReturnBatchRequest;
 import com.bookstack.bookstack.borrow.dto.ReturnRequest;
+import com.bookstack.bookstack.borrow.export.BorrowExportFormat;
 import com.bookstack.bookstack.borrow.model.BorrowStatus;
+import com.bookstack.bookstack.borrow.service.BorrowExportService;
 import com.bookstack.bookstack.borrow.service.BorrowService;
+import com.bookstack.bookstack.common.cache.ResourceVersions;
 import com.bookstack.bookstack.common.exception.ForbiddenException;
 
 @RestController
 @RequestMapping("/api/borrows")
 public class BorrowController {
+    // Borrow lists show book titles and usernames next to the borrow records
+    private static final String[] ANY_BORROW = {
+            ResourceVersions.BORROWS, ResourceVersions.BOOK_DETAILS, ResourceVersions.USER_DETAILS};
+
     private final BorrowService borrowService;
-    private final JwtService jwtService;
+    private final BorrowExportService borrowExportService;
+    private final AuthenticationContext authenticationContext;
+    private final ResourceVersions resourceVersions;
 
-    public BorrowController(BorrowService borrowService, JwtService jwtService) {
+    public BorrowController(BorrowService borrowService, BorrowExportService borrowExportService,
+                            AuthenticationContext authenticationContext, ResourceVersions resourceVersions) {
         this.borrowService = borrowService;
-        this.jwtService = jwtService;
+        this.borrowExportService = borrowExportService;
+        this.authenticationContext = authenticationContext;
+        this.resourceVersions = resourceVersions;
     }
 
     @PostMapping
@@ -51,55 +76,114 @@ public class BorrowController {
         return ResponseEntity.ok(borrow);
     }
 
+    // Circulation desk: a whole cart in one call, with a result per book; 200 even when some failed
+    @PostMapping("/batch")
+    @RequireRole({"LIBRARIAN", "ADMIN"})
+    public ResponseEntity<BorrowBatchResult> borrowBooks(@Valid @RequestBody BorrowBatchRequest request) {
+        BorrowBatchResult result = borrowService.borrowBooks(request.getUserId(), request.getBookIds(), request.getNotes());
+        return ResponseEntity.ok(result);
+    }
+
+    @PutMapping("/batch/return")
+    @RequireRole({"LIBRARIAN", "ADMIN"})
+    public ResponseEntity<BorrowBatchResult> returnBooks(@Valid @RequestBody ReturnBatchRequest request) {
+        BorrowBatchResult result = borrowService.returnBooks(request.getBorrowIds(), request.getNotes());
+        return ResponseEntity.ok(result);
+    }
+
     @GetMapping
     @RequireRole({"ADMIN"})
-    public ResponseEntity<List<BorrowResponse>> getAllBorrows() {
+    public ResponseEntity<List<BorrowResponse>> getAllBorrows(WebRequest webRequest) {
+        if (resourceVersions.checkNotModified(webRequest, ANY_BORROW)) {
+            return null;
+        }
         List<BorrowResponse> borrows = borrowService.getAllBorrows();
         return ResponseEntity.ok(borrows);
     }
 
+    // Whole history as a download; 'to' is inclusive. Gzipped when the client accepts it.
+    @GetMapping("/export")
+    @RequireRole({"ADMIN"})
+    public ResponseEntity<StreamingResponseBody> exportBorrows(
+            @RequestParam(required = false) String format,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) BorrowStatus status,
+            @RequestParam(defaultValue = "false") boolean includeArchived,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        BorrowExportFormat exportFormat = BorrowExportFormat.resolve(format, accept);
+        LocalDateTime fromTime = from != null ? from.atStartOfDay() : null;
+        LocalDateTime toTime = to != null ? to.plusDays(1).atStartOfDay() : null;
+        // Checked here: once streaming starts the status can no longer change
+        BorrowExportService.validateRange(fromTime, toTime);
+        boolean gzip = acceptsGzip(acceptEncoding);
+
+        StreamingResponseBody body = out -> {
+            if (gzip) {
+                try (GZIPOutputStream compressed = new GZIPOutputStream(out, 8192)) {
+                    borrowExportService.export(compressed, exportFormat, fromTime, toTime, status, includeArchived);
+                }
+            } else {
+                borrowExportService.export(out, exportFormat, fromTime, toTime, status, includeArchived);
+            }
+        };
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(exportFormat.contentType() + ";charset=UTF-8"))
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                        .filename("borrows." + exportFormat.extension())
+                        .build()
+                        .toString())
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (gzip) {
+            response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return response.body(body);
+    }
+
     @GetMapping("/{id}")
     @RequireRole({"LIBRARIAN", "ADMIN"})
-    public ResponseEntity<BorrowResponse> getBorrowById(@PathVariable Long id) {
+    public ResponseEntity<BorrowResponse> getBorrowById(@PathVariable Long id, WebRequest webRequest) {
+        if (resourceVersions.checkNotModified(webRequest, ANY_BORROW)) {
+            return null;
+        }
         BorrowResponse borrow = borrowService.getBorrowById(id);
         return ResponseEntity.ok(borrow);
     }
 
     @GetMapping("/user/{userId}")
     @RequireRole({"LIBRARIAN", "ADMIN", "MEMBER"})
-    public ResponseEntity<List<BorrowResponse>> getBorrowsByUser(
-            @PathVariable Long userId,
-            HttpServletRequest request) {
-        
-        String authHeader = request.getHeader("Authorization");
-        String token = authHeader.substring(7);
-        String role = jwtService.extractRole(token);
-        Long tokenUserId = jwtService.extractUserId(token);
+    public ResponseEntity<List<BorrowResponse>> getBorrowsByUser(@PathVariable Long userId,
+                                                                 @RequestParam(defaultValue = "false") boolean includeArchived,
+                                                                 WebRequest webRequest) {
+        // Already verified by @RequireRole for this request
+        AuthenticatedPrincipal principal = authenticationContext.requirePrincipal();
         
         // If user is a MEMBER, verify they're only accessing their own records
-        if ("MEMBER".equals(role) && !userId.equals(tokenUserId)) {
+        if (principal.hasRole("MEMBER") && !userId.equals(principal.userId())) {
             throw new ForbiddenException("Members can only access their own borrow records");
         }
+        if (resourceVersions.checkNotModified(webRequest, userBorrows(userId))) {
+            return null;
+        }
         
-        List<BorrowResponse> borrows = borrowService.getBorrowsByUserId(userId);
+        List<BorrowResponse> borrows = borrowService.getBorrowsByUserId(userId, includeArchived);
         return ResponseEntity.ok(borrows);
     }
 
     @GetMapping("/user/{userId}/active")
     @RequireRole({"LIBRARIAN", "ADMIN", "MEMBER"})
-    public ResponseEntity<List<BorrowResponse>> getActiveBorrowsByUser(
-            @PathVariable Long userId,
-            HttpServletRequest request) {
-        
-        String authHeader = request.getHeader("Authorization");
-        String token = authHeader.substring(7);
-        String role = jwtService.extractRole(token);
-        Long tokenUserId = jwtService.extractUserId(token);
+    public ResponseEntity<List<BorrowResponse>> getActiveBorrowsByUser(@PathVariable Long userId, WebRequest webRequest) {
+        // Already verified by @RequireRole for this request
+        AuthenticatedPrincipal principal = authenticationContext.requirePrincipal();
         
         // If user is a MEMBER, verify they're only accessing their own records
-        if ("MEMBER".equals(role) && !userId.equals(tokenUserId)) {
+        if (principal.hasRole("MEMBER") && !userId.equals(principal.userId())) {
             throw new ForbiddenException("Members can only access their own borrow records");
         }
+        if (resourceVersions.checkNotModified(webRequest, userBorrows(userId))) {
+            return null;
+        }
         
         List<BorrowResponse> borrows = borrowService.getActiveBorrowsByUserId(userId);
         return ResponseEntity.ok(borrows);
@@ -107,18 +191,28 @@ public class BorrowController {
 
     @GetMapping("/book/{bookId}")
     @RequireRole({"LIBRARIAN", "ADMIN"})
-    public ResponseEntity<List<BorrowResponse>> getBorrowsByBook(@PathVariable Long bookId) {
-        List<BorrowResponse> borrows = borrowService.getBorrowsByBookId(bookId);
+    public ResponseEntity<List<BorrowResponse>> getBorrowsByBook(@PathVariable Long bookId,
+                                                                 @RequestParam(defaultValue = "false") boolean includeArchived,
+                                                                 WebRequest webRequest) {
+        if (resourceVersions.checkNotModified(webRequest, ANY_BORROW)) {
+            return null;
+        }
+        List<BorrowResponse> borrows = borrowService.getBorrowsByBookId(bookId, includeArchived);
         return ResponseEntity.ok(borrows);
     }
 
     @GetMapping("/status")
     @RequireRole({"LIBRARIAN", "ADMIN"})
-    public ResponseEntity<List<BorrowResponse>> getBorrowsByStatus(@RequestParam BorrowStatus status) {
+    public ResponseEntity<List<BorrowResponse>> getBorrowsByStatus(@RequestParam BorrowStatus status,
+                                                                   WebRequest webRequest) {
+        if (resourceVersions.checkNotModified(webRequest, ANY_BORROW)) {
+            return null;
+        }
         List<BorrowResponse> borrows = borrowService.getBorrowsByStatus(status);
         return ResponseEntity.ok(borrows);
     }
 
+    // No ETag: whether a borrow is overdue changes with time alone
     @GetMapping("/overdue")
     @RequireRole({"LIBRARIAN", "ADMIN"})
     public ResponseEntity<List<BorrowResponse>> getOverdueBorrows() {
@@ -132,4 +226,20 @@ public class BorrowController {
         borrowService.deleteBorrow(id);
         return ResponseEntity.ok(Map.of("message", "Borrow record deleted successfully"));
     }
+
+    private static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) return false;
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.split(";");
+            if (!parts[0].trim().equalsIgnoreCase("gzip")) continue;
+            return parts.length < 2 || !parts[1].trim().replace(" ", "").matches("q=0(\\.0*)?");
+        }
+        return false;
+    }
+
+    // A user's own records, plus bulk status changes and the book titles shown with them
+    private static String[] userBorrows(Long userId) {
+        return new String[] {ResourceVersions.userBorrows(userId), ResourceVersions.OVERDUE_SWEEP,
+                ResourceVersions.BOOK_DETAILS};
+    }
 }
\ No newline at end of file
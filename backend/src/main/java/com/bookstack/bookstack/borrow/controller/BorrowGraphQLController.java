@@ -0,0 +1,125 @@
+package com.bookstack.bookstack.borrow.controller;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.springframework.graphql.data.method.annotation.Argument;
+import org.springframework.graphql.data.method.annotation.BatchMapping;
+import org.springframework.graphql.data.method.annotation.MutationMapping;
+import org.springframework.graphql.data.method.annotation.QueryMapping;
+import org.springframework.stereotype.Controller;
+
+import com.bookstack.bookstack.auth.annotation.RequireRole;
+import com.bookstack.bookstack.auth.model.AuthenticatedPrincipal;
+import com.bookstack.bookstack.auth.service.AuthenticationContext;
+import com.bookstack.bookstack.book.model.Book;
+import com.bookstack.bookstack.book.service.BookService;
+import com.bookstack.bookstack.borrow.dto.BorrowBatchResult;
+import com.bookstack.bookstack.borrow.model.Borrow;
+import com.bookstack.bookstack.borrow.model.BorrowStatus;
+import com.bookstack.bookstack.borrow.service.BorrowService;
+import com.bookstack.bookstack.common.exception.ForbiddenException;
+import com.bookstack.bookstack.user.model.User;
+import com.bookstack.bookstack.user.service.UserService;
+
+@Controller
+public class BorrowGraphQLController {
+    private final BorrowService borrowService;
+    private final UserService userService;
+    private final BookService bookService;
+    private final AuthenticationContext authenticationContext;
+
+    public BorrowGraphQLController(BorrowService borrowService, UserService userService,
+                                   BookService bookService, AuthenticationContext authenticationContext) {
+        this.borrowService = borrowService;
+        this.userService = userService;
+        this.bookService = bookService;
+        this.authenticationContext = authenticationContext;
+    }
+
+    @QueryMapping
+    @RequireRole({"LIBRARIAN", "ADMIN"})
+    public Borrow borrowById(@Argument Long id) {
+        return borrowService.getBorrowEntity(id);
+    }
+
+    @QueryMapping
+    @RequireRole({"LIBRARIAN", "ADMIN", "MEMBER"})
+    public List<Borrow> borrowsByUser(@Argument Long userId) {
+        AuthenticatedPrincipal principal = authenticationContext.requirePrincipal();
+
+        // If user is a MEMBER, verify they're only accessing their own records
+        if (principal.hasRole("MEMBER") && !userId.equals(principal.userId())) {
+            throw new ForbiddenException("Members can only access their own borrow records");
+        }
+        return borrowService.getBorrowEntitiesByUserId(userId);
+    }
+
+    @QueryMapping
+    @RequireRole({"LIBRARIAN", "ADMIN"})
+    public List<Borrow> borrowsByBook(@Argument Long bookId) {
+        return borrowService.getBorrowEntitiesByBookId(bookId);
+    }
+
+    @QueryMapping
+    @RequireRole({"LIBRARIAN", "ADMIN"})
+    public List<Borrow> borrowsByStatus(@Argument BorrowStatus status) {
+        return borrowService.getBorrowEntitiesByStatus(status);
+    }
+
+    @MutationMapping
+    @RequireRole({"LIBRARIAN", "ADMIN"})
+    public BorrowBatchResult borrowBooks(@Argument Long userId, @Argument List<Long> bookIds, @Argument String notes) {
+        return borrowService.borrowBooks(userId, bookIds, notes);
+    }
+
+    @MutationMapping
+    @RequireRole({"LIBRARIAN", "ADMIN"})
+    public BorrowBatchResult returnBooks(@Argument List<Long> borrowIds, @Argument String notes) {
+        return borrowService.returnBooks(borrowIds, notes);
+    }
+
+    // Batch mappings - ids are gathered across the whole level and resolved with one IN query.
+    // Reading getId() on the lazy associations doesn't initialize them.
+
+    @BatchMapping(typeName = "Borrow", field = "user")
+    public List<User> borrowUser(List<Borrow> borrows) {
+        Map<Long, User> users = index(userService.getUsersByIds(
+                borrows.stream().map(borrow -> borrow.getUser().getId()).collect(Collectors.toSet())), User::getId);
+        return borrows.stream().map(borrow -> users.get(borrow.getUser().getId())).toList();
+    }
+
+    @BatchMapping(typeName = "Borrow", field = "book")
+    public List<Book> borrowBook(List<Borrow> borrows) {
+        Map<Long, Book> books = index(bookService.getBooksByIds(
+                borrows.stream().map(borrow -> borrow.getBook().getId()).collect(Collectors.toSet())), Book::getId);
+        return borrows.stream().map(borrow -> books.get(borrow.getBook().getId())).toList();
+    }
+
+    @BatchMapping(typeName = "User", field = "borrows")
+    public Map<User, List<Borrow>> userBorrows(List<User> users) {
+        Map<Long, List<Borrow>> borrows = borrowService.getBorrowEntitiesGroupedByUserIds(
+                users.stream().map(User::getId).toList());
+        Map<User, List<Borrow>> result = new LinkedHashMap<>();
+        users.forEach(user -> result.put(user, borrows.getOrDefault(user.getId(), List.of())));
+        return result;
+    }
+
+    // Borrow history of a book is staff-only, even though members can query books
+    @BatchMapping(typeName = "Book", field = "borrows")
+    @RequireRole({"LIBRARIAN", "ADMIN"})
+    public Map<Book, List<Borrow>> bookBorrows(List<Book> books) {
+        Map<Long, List<Borrow>> borrows = borrowService.getBorrowEntitiesGroupedByBookIds(
+                books.stream().map(Book::getId).toList());
+        Map<Book, List<Borrow>> result = new LinkedHashMap<>();
+        books.forEach(book -> result.put(book, borrows.getOrDefault(book.getId(), List.of())));
+        return result;
+    }
+
+    private static <T> Map<Long, T> index(List<T> entities, Function<T, Long> idOf) {
+        return entities.stream().collect(Collectors.toMap(idOf, Function.identity()));
+    }
+}
@@ -0,0 +1,25 @@
+package com.bookstack.bookstack.borrow.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// One entry of a batch, in request order: id is the requested book (borrow) or borrow (return),
+// and either borrow or error is set
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BorrowBatchItem {
+    private Long id;
+    private boolean success;
+    private String error;
+    private BorrowResponse borrow;
+
+    public static BorrowBatchItem succeeded(Long id, BorrowResponse borrow) {
+        return new BorrowBatchItem(id, true, null, borrow);
+    }
+
+    public static BorrowBatchItem failed(Long id, String error) {
+        return new BorrowBatchItem(id, false, error, null);
+    }
+}
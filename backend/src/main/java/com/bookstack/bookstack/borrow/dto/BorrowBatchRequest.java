@@ -0,0 +1,23 @@
+package com.bookstack.bookstack.borrow.dto;
+
+import java.util.List;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+@Data
+public class BorrowBatchRequest {
+    @NotNull(message = "User ID is required")
+    @Positive(message = "User ID must be positive")
+    private Long userId;
+
+    @NotEmpty(message = "Book IDs are required")
+    @Size(max = 100, message = "At most 100 books per batch")
+    private List<@NotNull(message = "Book ID is required") @Positive(message = "Book ID must be positive") Long> bookIds;
+
+    // Applied to every borrow in the batch
+    private String notes;
+}
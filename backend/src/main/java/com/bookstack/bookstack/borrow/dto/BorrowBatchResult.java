@@ -0,0 +1,21 @@
+package com.bookstack.bookstack.borrow.dto;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BorrowBatchResult {
+    private int succeeded;
+    private int failed;
+    private List<BorrowBatchItem> items;
+
+    public static BorrowBatchResult of(List<BorrowBatchItem> items) {
+        int succeeded = (int) items.stream().filter(BorrowBatchItem::isSuccess).count();
+        return new BorrowBatchResult(succeeded, items.size() - succeeded, items);
+    }
+}
@@ -20,4 +20,20 @@ public class BorrowResponse {
     private LocalDateTime dueDate;
     private LocalDateTime returnDate;
     private String notes;
-}
\ No newline at end of file
+
+    // Target of the BorrowRepository.RESPONSE_SELECT projection: the argument order is part of that
+    // query, so it is written out rather than generated from the field order
+    public BorrowResponse(Long id, Long userId, Long bookId, String userName, String bookTitle, BorrowStatus status,
+                          LocalDateTime borrowDate, LocalDateTime dueDate, LocalDateTime returnDate, String notes) {
+        this.id = id;
+        this.userId = userId;
+        this.bookId = bookId;
+        this.userName = userName;
+        this.bookTitle = bookTitle;
+        this.status = status;
+        this.borrowDate = borrowDate;
+        this.dueDate = dueDate;
+        this.returnDate = returnDate;
+        this.notes = notes;
+    }
+}
@@ -0,0 +1,18 @@
+package com.bookstack.bookstack.borrow.dto;
+
+import java.util.List;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+@Data
+public class ReturnBatchRequest {
+    @NotEmpty(message = "Borrow IDs are required")
+    @Size(max = 100, message = "At most 100 borrows per batch")
+    private List<@NotNull(message = "Borrow ID is required") @Positive(message = "Borrow ID must be positive") Long> borrowIds;
+
+    private String notes;
+}
@@ -0,0 +1,47 @@
+package com.bookstack.bookstack.borrow.export;
+
+import java.io.Writer;
+import java.util.Locale;
+
+import com.bookstack.bookstack.common.exception.BadRequestException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+public enum BorrowExportFormat {
+    CSV("text/csv", "csv"),
+    NDJSON("application/x-ndjson", "ndjson");
+
+    private final String contentType;
+    private final String extension;
+
+    BorrowExportFormat(String contentType, String extension) {
+        this.contentType = contentType;
+        this.extension = extension;
+    }
+
+    /**
+     * Picks the format from an explicit {@code format} parameter, falling back to the Accept
+     * header; NDJSON when neither asks for CSV.
+     */
+    public static BorrowExportFormat resolve(String format, String accept) {
+        if (format != null && !format.isBlank()) {
+            try {
+                return valueOf(format.trim().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new BadRequestException("Unsupported export format: " + format + ". Use csv or ndjson");
+            }
+        }
+        return accept != null && accept.toLowerCase(Locale.ROOT).contains("text/csv") ? CSV : NDJSON;
+    }
+
+    public String contentType() {
+        return contentType;
+    }
+
+    public String extension() {
+        return extension;
+    }
+
+    public BorrowRowWriter open(Writer writer, ObjectMapper objectMapper) {
+        return this == CSV ? new CsvBorrowRowWriter(writer) : new NdjsonBorrowRowWriter(writer, objectMapper);
+    }
+}
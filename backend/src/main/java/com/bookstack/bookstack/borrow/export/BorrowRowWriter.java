@@ -0,0 +1,17 @@
+package com.bookstack.bookstack.borrow.export;
+
+import java.io.IOException;
+
+import com.bookstack.bookstack.borrow.dto.BorrowResponse;
+
+/**
+ * Push-based writer for an export body; each record is written out as it arrives.
+ */
+public interface BorrowRowWriter {
+
+    // Called once before the first record, even when there are none
+    default void start() throws IOException {
+    }
+
+    void write(BorrowResponse borrow) throws IOException;
+}
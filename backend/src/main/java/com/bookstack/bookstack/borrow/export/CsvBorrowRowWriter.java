@@ -0,0 +1,73 @@
+package com.bookstack.bookstack.borrow.export;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.time.LocalDateTime;
+
+import com.bookstack.bookstack.borrow.dto.BorrowResponse;
+
+/**
+ * RFC 4180 CSV with a header row. Fields containing commas, quotes or line breaks are quoted,
+ * and timestamps are ISO-8601 as in the JSON API.
+ */
+class CsvBorrowRowWriter implements BorrowRowWriter {
+    static final String HEADER = "id,user_id,book_id,user_name,book_title,status,borrow_date,due_date,return_date,notes";
+
+    private final Writer writer;
+
+    CsvBorrowRowWriter(Writer writer) {
+        this.writer = writer;
+    }
+
+    @Override
+    public void start() throws IOException {
+        writer.write(HEADER);
+        writer.write("\r\n");
+    }
+
+    @Override
+    public void write(BorrowResponse borrow) throws IOException {
+        writer.write(String.valueOf(borrow.getId()));
+        writer.write(',');
+        writer.write(String.valueOf(borrow.getUserId()));
+        writer.write(',');
+        writer.write(String.valueOf(borrow.getBookId()));
+        writer.write(',');
+        writeText(borrow.getUserName());
+        writer.write(',');
+        writeText(borrow.getBookTitle());
+        writer.write(',');
+        writer.write(borrow.getStatus().name());
+        writer.write(',');
+        writeTimestamp(borrow.getBorrowDate());
+        writer.write(',');
+        writeTimestamp(borrow.getDueDate());
+        writer.write(',');
+        writeTimestamp(borrow.getReturnDate());
+        writer.write(',');
+        writeText(borrow.getNotes());
+        writer.write("\r\n");
+    }
+
+    private void writeTimestamp(LocalDateTime value) throws IOException {
+        if (value != null) {
+            writer.write(value.toString());
+        }
+    }
+
+    private void writeText(String value) throws IOException {
+        if (value == null) return;
+        boolean quote = false;
+        for (int i = 0; i < value.length() && !quote; i++) {
+            char c = value.charAt(i);
+            quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        if (!quote) {
+            writer.write(value);
+            return;
+        }
+        writer.write('"');
+        writer.write(value.replace("\"", "\"\""));
+        writer.write('"');
+    }
+}
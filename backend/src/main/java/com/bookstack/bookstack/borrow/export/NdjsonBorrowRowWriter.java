@@ -0,0 +1,27 @@
+package com.bookstack.bookstack.borrow.export;
+
+import java.io.IOException;
+import java.io.Writer;
+
+import com.bookstack.bookstack.borrow.dto.BorrowResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+
+/**
+ * One {@link BorrowResponse} JSON object per line, serialized as the JSON API does.
+ */
+class NdjsonBorrowRowWriter implements BorrowRowWriter {
+    private final Writer writer;
+    private final ObjectWriter objectWriter;
+
+    NdjsonBorrowRowWriter(Writer writer, ObjectMapper objectMapper) {
+        this.writer = writer;
+        this.objectWriter = objectMapper.writerFor(BorrowResponse.class);
+    }
+
+    @Override
+    public void write(BorrowResponse borrow) throws IOException {
+        writer.write(objectWriter.writeValueAsString(borrow));
+        writer.write('\n');
+    }
+}
@@ -0,0 +1,133 @@
+package com.bookstack.bookstack.borrow.repository;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import com.bookstack.bookstack.borrow.dto.BorrowResponse;
+import com.bookstack.bookstack.borrow.model.BorrowStatus;
+
+/**
+ * Plain JDBC over {@code borrows_archive}: archived rows are never loaded as entities, only moved
+ * in bulk and read back as {@link BorrowResponse}s. Every archived borrow is RETURNED.
+ *
+ * On PostgreSQL the table is partitioned by return month and {@link #moveToArchive} creates the
+ * partitions a chunk needs first; elsewhere it is a single table.
+ */
+@Repository
+public class BorrowArchiveRepository {
+    // Same columns, joins and soft-delete filtering as BorrowRepository.RESPONSE_SELECT
+    private static final String RESPONSE_SELECT = "SELECT a.id, a.user_id, a.book_id, u.username, bk.title, "
+            + "a.borrow_date, a.due_date, a.return_date, a.notes FROM borrows_archive a "
+            + "JOIN users u ON u.id = a.user_id AND u.deleted_at IS NULL "
+            + "JOIN books bk ON bk.id = a.book_id AND bk.deleted_at IS NULL";
+    private static final int EXPORT_FETCH_SIZE = Integer.parseInt(BorrowRepository.EXPORT_FETCH_SIZE);
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate cursorJdbcTemplate;
+    private volatile Boolean partitioned;
+
+    public BorrowArchiveRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+        JdbcTemplate cursor = new JdbcTemplate(jdbcTemplate.getDataSource());
+        cursor.setFetchSize(EXPORT_FETCH_SIZE);
+        this.cursorJdbcTemplate = new NamedParameterJdbcTemplate(cursor);
+    }
+
+    public List<BorrowResponse> findResponsesByUserId(Long userId) {
+        return jdbcTemplate.query(RESPONSE_SELECT + " WHERE a.user_id = :userId", Map.of("userId", userId),
+                (rs, rowNum) -> toResponse(rs));
+    }
+
+    public List<BorrowResponse> findResponsesByBookId(Long bookId) {
+        return jdbcTemplate.query(RESPONSE_SELECT + " WHERE a.book_id = :bookId", Map.of("bookId", bookId),
+                (rs, rowNum) -> toResponse(rs));
+    }
+
+    // Export counterpart of BorrowRepository.streamResponses; same filter semantics, caller closes
+    public Stream<BorrowResponse> streamResponses(LocalDateTime from, LocalDateTime to) {
+        StringBuilder sql = new StringBuilder(RESPONSE_SELECT).append(" WHERE 1 = 1");
+        MapSqlParameterSource params = new MapSqlParameterSource();
+        if (from != null) {
+            sql.append(" AND a.borrow_date >= :from");
+            params.addValue("from", from);
+        }
+        if (to != null) {
+            sql.append(" AND a.borrow_date < :to");
+            params.addValue("to", to);
+        }
+        return cursorJdbcTemplate.queryForStream(sql.append(" ORDER BY a.id").toString(), params,
+                (rs, rowNum) -> toResponse(rs));
+    }
+
+    // Ids and return dates of the oldest-id RETURNED borrows returned before the cutoff
+    public List<ReturnedBorrow> findReturnedBefore(LocalDateTime cutoff, int limit) {
+        return jdbcTemplate.query("SELECT id, return_date FROM borrows WHERE status = 'RETURNED' "
+                        + "AND return_date < :cutoff ORDER BY id LIMIT :limit",
+                new MapSqlParameterSource().addValue("cutoff", cutoff).addValue("limit", limit),
+                (rs, rowNum) -> new ReturnedBorrow(rs.getLong("id"), rs.getTimestamp("return_date").toLocalDateTime()));
+    }
+
+    /**
+     * Copies the given borrows into the archive and deletes them from {@code borrows}; returns how
+     * many moved. Must run in a transaction so a row is never in both tables or in neither.
+     */
+    public int moveToArchive(List<ReturnedBorrow> borrows, LocalDateTime archivedAt) {
+        if (borrows.isEmpty()) return 0;
+        if (isPartitioned()) {
+            borrows.stream().map(borrow -> YearMonth.from(borrow.returnDate())).distinct().forEach(this::createPartition);
+        }
+        List<Long> ids = borrows.stream().map(ReturnedBorrow::id).toList();
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("ids", ids)
+                .addValue("archivedAt", archivedAt);
+        jdbcTemplate.update("INSERT INTO borrows_archive "
+                + "(id, user_id, book_id, borrow_date, due_date, return_date, notes, archived_at) "
+                + "SELECT id, user_id, book_id, borrow_date, due_date, return_date, notes, :archivedAt FROM borrows "
+                + "WHERE id IN (:ids) AND status = 'RETURNED'", params);
+        return jdbcTemplate.update("DELETE FROM borrows WHERE id IN (:ids) AND status = 'RETURNED'", params);
+    }
+
+    private void createPartition(YearMonth month) {
+        LocalDate start = month.atDay(1);
+        String name = String.format(Locale.ROOT, "borrows_archive_%04d_%02d", month.getYear(), month.getMonthValue());
+        // Dates come from YearMonth, not from input, so inlining them is safe
+        jdbcTemplate.getJdbcTemplate().execute("CREATE TABLE IF NOT EXISTS " + name + " PARTITION OF borrows_archive "
+                + "FOR VALUES FROM ('" + start + "') TO ('" + start.plusMonths(1) + "')");
+    }
+
+    private boolean isPartitioned() {
+        if (partitioned == null) {
+            partitioned = jdbcTemplate.getJdbcTemplate().execute((ConnectionCallback<Boolean>) connection ->
+                    connection.getMetaData().getDatabaseProductName().toLowerCase(Locale.ROOT).contains("postgresql"));
+        }
+        return partitioned;
+    }
+
+    private static BorrowResponse toResponse(ResultSet rs) throws SQLException {
+        return new BorrowResponse(rs.getLong("id"), rs.getLong("user_id"), rs.getLong("book_id"),
+                rs.getString("username"), rs.getString("title"), BorrowStatus.RETURNED,
+                localDateTime(rs.getTimestamp("borrow_date")), localDateTime(rs.getTimestamp("due_date")),
+                localDateTime(rs.getTimestamp("return_date")), rs.getString("notes"));
+    }
+
+    private static LocalDateTime localDateTime(Timestamp timestamp) {
+        return timestamp != null ? timestamp.toLocalDateTime() : null;
+    }
+
+    public record ReturnedBorrow(long id, LocalDateTime returnDate) {
+    }
+}
@@ -1,19 +1,27 @@
 package com.bookstack.bookstack.borrow.repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import com.bookstack.bookstack.borrow.dto.BorrowResponse;
 import com.bookstack.bookstack.borrow.model.Borrow;
 import com.bookstack.bookstack.borrow.model.BorrowStatus;
 
+import jakarta.persistence.QueryHint;
+
 @Repository
-public interface BorrowRepository extends JpaRepository<Borrow, Long> {
+public interface BorrowRepository extends JpaRepository<Borrow, Long>, BorrowRepositoryCustom {
     
     // Existing methods for simple operations
     List<Borrow> findByUserId(Long userId);
@@ -22,31 +30,78 @@ public interface BorrowRepository extends JpaRepository<Borrow, Long> {
     List<Borrow> findByUserIdAndStatus(Long userId, BorrowStatus status);
     List<Borrow> findByBookIdAndStatus(Long bookId, BorrowStatus status);
     
+    // Batch lookups for GraphQL data loaders (one IN query per execution level)
+    List<Borrow> findByUserIdIn(Collection<Long> userIds);
+    List<Borrow> findByBookIdIn(Collection<Long> bookIds);
+    
+    long countByStatus(BorrowStatus status);
+    
     @Query("SELECT COUNT(b) FROM Borrow b WHERE b.book.id = :bookId AND b.status = 'ACTIVE'")
     long countActiveBorrowsByBookId(@Param("bookId") Long bookId);
     
-    @Query("SELECT b FROM Borrow b WHERE b.user.id = :userId AND b.book.id = :bookId AND b.status = 'ACTIVE'")
+    // Overdue borrows are still checked out, so they count as active here
+    @Query("SELECT b FROM Borrow b WHERE b.user.id = :userId AND b.book.id = :bookId AND b.status <> 'RETURNED'")
     List<Borrow> findActiveBorrowByUserAndBook(@Param("userId") Long userId, @Param("bookId") Long bookId);
     
-    // New methods with eager fetching for DTOs
-    @Query("SELECT b FROM Borrow b JOIN FETCH b.user JOIN FETCH b.book")
-    List<Borrow> findAllWithUserAndBook();
+    // Batch form of the duplicate check: which of the books the member still has out
+    @Query("SELECT DISTINCT b.book.id FROM Borrow b WHERE b.user.id = :userId AND b.book.id IN :bookIds AND b.status <> 'RETURNED'")
+    List<Long> findOpenBorrowBookIds(@Param("userId") Long userId, @Param("bookIds") Collection<Long> bookIds);
     
+    // Entity graph for updates that also touch the user and book
     @Query("SELECT b FROM Borrow b JOIN FETCH b.user JOIN FETCH b.book WHERE b.id = :id")
     Optional<Borrow> findByIdWithUserAndBook(@Param("id") Long id);
     
-    @Query("SELECT b FROM Borrow b JOIN FETCH b.user JOIN FETCH b.book WHERE b.user.id = :userId")
-    List<Borrow> findByUserIdWithUserAndBook(@Param("userId") Long userId);
-    
-    @Query("SELECT b FROM Borrow b JOIN FETCH b.user JOIN FETCH b.book WHERE b.book.id = :bookId")
-    List<Borrow> findByBookIdWithUserAndBook(@Param("bookId") Long bookId);
-    
-    @Query("SELECT b FROM Borrow b JOIN FETCH b.user JOIN FETCH b.book WHERE b.status = :status")
-    List<Borrow> findByStatusWithUserAndBook(@Param("status") BorrowStatus status);
-    
-    @Query("SELECT b FROM Borrow b JOIN FETCH b.user JOIN FETCH b.book WHERE b.user.id = :userId AND b.status = :status")
-    List<Borrow> findByUserIdAndStatusWithUserAndBook(@Param("userId") Long userId, @Param("status") BorrowStatus status);
-    
-    @Query("SELECT b FROM Borrow b JOIN FETCH b.user JOIN FETCH b.book WHERE b.dueDate < :currentDate AND b.status = 'ACTIVE'")
-    List<Borrow> findOverdueBorrowsWithUserAndBook(@Param("currentDate") LocalDateTime currentDate);
+    // Reads for the REST API select straight into BorrowResponse: no entities are hydrated,
+    // snapshotted for dirty checking or put in the persistence context
+    String RESPONSE_SELECT = "SELECT new com.bookstack.bookstack.borrow.dto.BorrowResponse("
+            + "b.id, u.id, bk.id, u.username, bk.title, b.status, b.borrowDate, b.dueDate, b.returnDate, b.notes) "
+            + "FROM Borrow b JOIN b.user u JOIN b.book bk";
+
+    @Query(RESPONSE_SELECT)
+    List<BorrowResponse> findAllResponses();
+
+    @Query(RESPONSE_SELECT + " WHERE b.id = :id")
+    Optional<BorrowResponse> findResponseById(@Param("id") Long id);
+
+    @Query(RESPONSE_SELECT + " WHERE b.id IN :ids")
+    List<BorrowResponse> findResponsesByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query(RESPONSE_SELECT + " WHERE b.user.id = :userId")
+    List<BorrowResponse> findResponsesByUserId(@Param("userId") Long userId);
+
+    @Query(RESPONSE_SELECT + " WHERE b.book.id = :bookId")
+    List<BorrowResponse> findResponsesByBookId(@Param("bookId") Long bookId);
+
+    @Query(RESPONSE_SELECT + " WHERE b.status = :status")
+    List<BorrowResponse> findResponsesByStatus(@Param("status") BorrowStatus status);
+
+    @Query(RESPONSE_SELECT + " WHERE b.user.id = :userId AND b.status = :status")
+    List<BorrowResponse> findResponsesByUserIdAndStatus(@Param("userId") Long userId, @Param("status") BorrowStatus status);
+
+    // Includes past-due borrows the sweeper hasn't flipped yet
+    @Query(RESPONSE_SELECT + " WHERE b.status = 'OVERDUE' OR (b.status = 'ACTIVE' AND b.dueDate < :currentDate)")
+    List<BorrowResponse> findOverdueResponses(@Param("currentDate") LocalDateTime currentDate);
+
+    // Forward-only cursor for exports: rows are fetched EXPORT_FETCH_SIZE at a time and nothing
+    // is kept in the persistence context, so the caller sees a flat heap whatever the range.
+    // Null filters are ignored; the stream must be consumed inside a transaction and closed.
+    String EXPORT_FETCH_SIZE = "500";
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = EXPORT_FETCH_SIZE))
+    @Query(RESPONSE_SELECT + " WHERE (:from IS NULL OR b.borrowDate >= :from) AND (:to IS NULL OR b.borrowDate < :to) "
+            + "AND (:status IS NULL OR b.status = :status) ORDER BY b.id")
+    Stream<BorrowResponse> streamResponses(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to,
+                                           @Param("status") BorrowStatus status);
+
+    // Batch return of rows already locked by lockAllById
+    @Modifying
+    @Query("UPDATE Borrow b SET b.status = 'RETURNED', b.returnDate = :returnDate WHERE b.id IN :ids AND b.status <> 'RETURNED'")
+    int markReturned(@Param("ids") Collection<Long> ids, @Param("returnDate") LocalDateTime returnDate);
+
+    // Set-based overdue sweep, bounded to one chunk of rows per call
+    @Modifying
+    @Query(value = "UPDATE borrows SET status = 'OVERDUE' WHERE id IN (" +
+                   "SELECT id FROM borrows WHERE status = 'ACTIVE' AND due_date < :currentDate ORDER BY id LIMIT :limit)",
+           nativeQuery = true)
+    int markOverdueBatch(@Param("currentDate") LocalDateTime currentDate, @Param("limit") int limit);
 }
\ No newline at end of file
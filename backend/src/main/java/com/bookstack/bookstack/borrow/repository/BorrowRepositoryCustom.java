@@ -0,0 +1,24 @@
+package com.bookstack.bookstack.borrow.repository;
+
+import com.bookstack.bookstack.borrow.model.Borrow;
+import com.bookstack.bookstack.borrow.model.BorrowStatus;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+// Batch circulation over JDBC: one statement (or one batch) however many borrows are involved
+public interface BorrowRepositoryCustom {
+
+    record LockedBorrow(Long id, Long userId, Long bookId, BorrowStatus status) {}
+
+    // Multi-row insert in a single JDBC batch. Returns the generated ids in the order of the list
+    List<Long> insertAll(List<Borrow> borrows);
+
+    // Locks the rows in id order, so a concurrent return of the same borrow waits for this one;
+    // missing ids are skipped
+    List<LockedBorrow> lockAllById(Collection<Long> ids);
+
+    // Sets each borrow's notes in a single JDBC batch
+    void updateNotes(Map<Long, String> notesById);
+}
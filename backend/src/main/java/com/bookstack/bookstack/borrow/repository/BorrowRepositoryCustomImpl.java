@@ -0,0 +1,97 @@
+package com.bookstack.bookstack.borrow.repository;
+
+import com.bookstack.bookstack.borrow.model.Borrow;
+import com.bookstack.bookstack.borrow.model.BorrowStatus;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+public class BorrowRepositoryCustomImpl implements BorrowRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public BorrowRepositoryCustomImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    // IDENTITY ids stop Hibernate from batching inserts, so a cart of borrows goes through a plain
+    // JDBC batch and the ids are read back from the generated keys
+    @Override
+    public List<Long> insertAll(List<Borrow> borrows) {
+        if (borrows.isEmpty()) return List.of();
+        entityManager.flush();
+        KeyHolder keys = new GeneratedKeyHolder();
+        jdbcTemplate.batchUpdate(connection -> connection.prepareStatement(
+                "INSERT INTO borrows (user_id, book_id, status, borrow_date, due_date, notes) VALUES (?, ?, ?, ?, ?, ?)",
+                new String[] {"id"}), new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        Borrow borrow = borrows.get(i);
+                        ps.setLong(1, borrow.getUser().getId());
+                        ps.setLong(2, borrow.getBook().getId());
+                        ps.setString(3, borrow.getStatus().name());
+                        ps.setTimestamp(4, Timestamp.valueOf(borrow.getBorrowDate()));
+                        ps.setTimestamp(5, Timestamp.valueOf(borrow.getDueDate()));
+                        if (borrow.getNotes() != null) {
+                            ps.setString(6, borrow.getNotes());
+                        } else {
+                            ps.setNull(6, Types.VARCHAR);
+                        }
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return borrows.size();
+                    }
+                }, keys);
+        return keys.getKeyList().stream()
+                .map(row -> ((Number) row.values().iterator().next()).longValue())
+                .toList();
+    }
+
+    @Override
+    public List<LockedBorrow> lockAllById(Collection<Long> ids) {
+        if (ids.isEmpty()) return List.of();
+        entityManager.flush();
+        List<Long> sorted = ids.stream().distinct().sorted().toList();
+        return jdbcTemplate.query("SELECT id, user_id, book_id, status FROM borrows WHERE id IN (" +
+                        String.join(", ", Collections.nCopies(sorted.size(), "?")) + ") ORDER BY id FOR UPDATE",
+                (rs, rowNum) -> new LockedBorrow(rs.getLong("id"), rs.getLong("user_id"), rs.getLong("book_id"),
+                        BorrowStatus.valueOf(rs.getString("status"))),
+                sorted.toArray());
+    }
+
+    @Override
+    public void updateNotes(Map<Long, String> notesById) {
+        if (notesById.isEmpty()) return;
+        entityManager.flush();
+        List<Map.Entry<Long, String>> rows = List.copyOf(notesById.entrySet());
+        jdbcTemplate.batchUpdate("UPDATE borrows SET notes = ? WHERE id = ?", new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                ps.setString(1, rows.get(i).getValue());
+                ps.setLong(2, rows.get(i).getKey());
+            }
+
+            @Override
+            public int getBatchSize() {
+                return rows.size();
+            }
+        });
+    }
+}
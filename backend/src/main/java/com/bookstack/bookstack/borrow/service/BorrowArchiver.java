@@ -0,0 +1,111 @@
+package com.bookstack.bookstack.borrow.service;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.bookstack.bookstack.borrow.repository.BorrowArchiveRepository;
+import com.bookstack.bookstack.borrow.repository.BorrowArchiveRepository.ReturnedBorrow;
+import com.bookstack.bookstack.common.cache.ResourceVersions;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Background job that moves RETURNED borrows older than {@code min-age-days} (by return date)
+ * from {@code borrows} into {@code borrows_archive}, keeping the hot table down to open and
+ * recent borrows.
+ *
+ * Like the overdue sweep, each chunk is its own short transaction (copy, then delete) and the run
+ * continues until a chunk comes back smaller than the batch size.
+ */
+@Component
+public class BorrowArchiver {
+    private static final Logger log = LoggerFactory.getLogger(BorrowArchiver.class);
+
+    private final BorrowArchiveRepository archiveRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ResourceVersions resourceVersions;
+
+    private final AtomicLong lastRunDurationMillis = new AtomicLong();
+    private final AtomicLong lastRunRows = new AtomicLong();
+    private final Counter rowsCounter;
+
+    @Value("${app.borrow.archive.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.borrow.archive.min-age-days:365}")
+    private int minAgeDays;
+
+    @Value("${app.borrow.archive.batch-size:1000}")
+    private int batchSize;
+
+    public BorrowArchiver(BorrowArchiveRepository archiveRepository, PlatformTransactionManager transactionManager,
+                          ResourceVersions resourceVersions, MeterRegistry meterRegistry) {
+        this.archiveRepository = archiveRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.resourceVersions = resourceVersions;
+
+        Gauge.builder("bookstack.borrow.archive.last.duration", lastRunDurationMillis, AtomicLong::get)
+                .description("Duration of the last archive run")
+                .baseUnit("milliseconds")
+                .register(meterRegistry);
+        Gauge.builder("bookstack.borrow.archive.last.rows", lastRunRows, AtomicLong::get)
+                .description("Borrows archived by the last run")
+                .register(meterRegistry);
+        this.rowsCounter = Counter.builder("bookstack.borrow.archive.rows")
+                .description("Borrows moved to the archive")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(initialDelayString = "${app.borrow.archive.initial-delay-ms:60000}",
+               fixedDelayString = "${app.borrow.archive.interval-ms:3600000}")
+    public void archive() {
+        if (!enabled) return;
+        archiveReturnedBefore(LocalDateTime.now().minusDays(minAgeDays));
+    }
+
+    // Returns the number of borrows moved
+    public long archiveReturnedBefore(LocalDateTime cutoff) {
+        long start = System.nanoTime();
+        LocalDateTime now = LocalDateTime.now();
+        long total = 0;
+        int moved;
+        try {
+            do {
+                Integer chunk = transactionTemplate.execute(status -> {
+                    List<ReturnedBorrow> borrows = archiveRepository.findReturnedBefore(cutoff, batchSize);
+                    archiveRepository.moveToArchive(borrows, now);
+                    return borrows.size();
+                });
+                moved = chunk != null ? chunk : 0;
+                total += moved;
+            } while (moved >= batchSize);
+        } catch (DataIntegrityViolationException e) {
+            // Another instance archived the same chunk first; the next run picks up from there
+            log.warn("Borrow archive run stopped after {} rows: {}", total, e.getMostSpecificCause().getMessage());
+        }
+
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        lastRunDurationMillis.set(elapsedMillis);
+        lastRunRows.set(total);
+        rowsCounter.increment(total);
+        if (total > 0) {
+            // Archived rows drop out of the default borrow lists, for users the run doesn't name
+            resourceVersions.changed(ResourceVersions.BORROWS, ResourceVersions.OVERDUE_SWEEP);
+            log.info("Archived {} returned borrows in {} ms", total, elapsedMillis);
+        }
+        return total;
+    }
+}
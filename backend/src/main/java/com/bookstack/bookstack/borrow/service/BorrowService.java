@@ -1,7 +1,17 @@
 package com.bookstack.bookstack.borrow.service;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 import org.springframework.stereotype.Service;
@@ -9,42 +19,76 @@ import org.springframework.transaction.annotation.Transactional;
 
 import com.bookstack.bookstack.book.model.Book;
 import com.bookstack.bookstack.book.service.BookService;
+import com.bookstack.bookstack.borrow.dto.BorrowBatchItem;
+import com.bookstack.bookstack.borrow.dto.BorrowBatchResult;
 import com.bookstack.bookstack.borrow.dto.BorrowResponse;
 import com.bookstack.bookstack.borrow.mapper.BorrowMapper;
 import com.bookstack.bookstack.borrow.model.Borrow;
 import com.bookstack.bookstack.borrow.model.BorrowStatus;
+import com.bookstack.bookstack.borrow.repository.BorrowArchiveRepository;
 import com.bookstack.bookstack.borrow.repository.BorrowRepository;
+import com.bookstack.bookstack.borrow.repository.BorrowRepositoryCustom.LockedBorrow;
+import com.bookstack.bookstack.common.cache.ResourceVersions;
 import com.bookstack.bookstack.common.exception.BadRequestException;
 import com.bookstack.bookstack.common.exception.NotFoundException;
+import com.bookstack.bookstack.common.metrics.Monitored;
+import com.bookstack.bookstack.hold.service.HoldService;
 import com.bookstack.bookstack.user.model.User;
 import com.bookstack.bookstack.user.service.UserService;
 
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
 @Service
+@Monitored("borrow")
 @Transactional
 public class BorrowService {
     private final BorrowRepository borrowRepository;
+    private final BorrowArchiveRepository borrowArchiveRepository;
     private final UserService userService;
     private final BookService bookService;
     private final BorrowMapper borrowMapper;
+    private final ResourceVersions resourceVersions;
+    private final HoldService holdService;
+    private final MeterRegistry meterRegistry;
     
     private static final int DEFAULT_BORROW_DAYS = 14;
+    // Largest cart a single batch call may check out or return
+    static final int MAX_BATCH_SIZE = 100;
+
+    // borrows.notes is VARCHAR(255); longer notes are refused rather than left to fail the insert
+    static final int MAX_NOTES_LENGTH = 255;
+    private static final String NOTES_TOO_LONG = "Notes must be at most " + MAX_NOTES_LENGTH + " characters";
+    private static final String RETURN_NOTES_TOO_LONG =
+            "Return notes would make the borrow's notes longer than " + MAX_NOTES_LENGTH + " characters";
 
-    public BorrowService(BorrowRepository borrowRepository, UserService userService, 
-                        BookService bookService, BorrowMapper borrowMapper) {
+    public BorrowService(BorrowRepository borrowRepository, BorrowArchiveRepository borrowArchiveRepository,
+                        UserService userService, BookService bookService, BorrowMapper borrowMapper, ResourceVersions resourceVersions,
+                        HoldService holdService, MeterRegistry meterRegistry) {
         this.borrowRepository = borrowRepository;
+        this.borrowArchiveRepository = borrowArchiveRepository;
         this.userService = userService;
         this.bookService = bookService;
         this.borrowMapper = borrowMapper;
+        this.resourceVersions = resourceVersions;
+        this.holdService = holdService;
+        this.meterRegistry = meterRegistry;
+
+        // Read from the table on each scrape; past-due borrows count as active until the sweeper flips them
+        for (BorrowStatus status : List.of(BorrowStatus.ACTIVE, BorrowStatus.OVERDUE)) {
+            Gauge.builder("bookstack.borrows.open", borrowRepository, repository -> repository.countByStatus(status))
+                    .description("Borrows not yet returned")
+                    .tag("status", status.name().toLowerCase(Locale.ROOT))
+                    .register(meterRegistry);
+        }
     }
 
     public BorrowResponse borrowBook(Long userId, Long bookId, String notes) {
-        User user = userService.getUserById(userId);
-        Book book = bookService.getBookById(bookId);
-        
-        // Check if book is available
-        if (book.getAvailableCopies() <= 0) {
-            throw new BadRequestException("Book is not available for borrowing");
+        if (!fitsNotesColumn(notes)) {
+            throw new BadRequestException(NOTES_TOO_LONG);
         }
+        User user = userService.getUserById(userId);
         
         // Check if user already has this book borrowed
         List<Borrow> activeBorrows = borrowRepository.findActiveBorrowByUserAndBook(userId, bookId);
@@ -52,52 +96,231 @@ public class BorrowService {
             throw new BadRequestException("User already has this book borrowed");
         }
         
+        // A copy set aside for the member's hold is already off the shelf; otherwise take one
+        // with a conditional UPDATE instead of read-check-write in Java
+        if (!holdService.pickUp(userId, bookId) && !bookService.checkOutCopy(bookId)) {
+            bookService.getBookById(bookId); // Not found takes precedence over not available
+            throw new BadRequestException("Book is not available for borrowing");
+        }
+        Book book = bookService.getBookById(bookId);
+        
         LocalDateTime borrowDate = LocalDateTime.now();
         LocalDateTime dueDate = borrowDate.plusDays(DEFAULT_BORROW_DAYS);
         
         Borrow borrow = new Borrow(user, book, borrowDate, dueDate);
         borrow.setNotes(notes);
         
-        // Update book availability
-        book.setAvailableCopies(book.getAvailableCopies() - 1);
-        bookService.updateBook(bookId, book);
-        
         Borrow savedBorrow = borrowRepository.save(borrow);
+        resourceVersions.changed(ResourceVersions.BORROWS, ResourceVersions.userBorrows(userId));
+        record("borrowed", 1);
         return borrowMapper.toResponse(savedBorrow);
     }
 
     public BorrowResponse returnBook(Long borrowId, String notes) {
         Borrow borrow = getBorrowEntityById(borrowId);
         
-        if (borrow.getStatus() != BorrowStatus.ACTIVE) {
+        if (borrow.getStatus() == BorrowStatus.RETURNED) {
             throw new BadRequestException("Book is already returned");
         }
         
-        borrow.setStatus(BorrowStatus.RETURNED);
-        borrow.setReturnDate(LocalDateTime.now());
         if (notes != null) {
-            borrow.setNotes(borrow.getNotes() + " | Return notes: " + notes);
+            String updated = withReturnNotes(borrow.getNotes(), notes);
+            if (!fitsNotesColumn(updated)) {
+                throw new BadRequestException(RETURN_NOTES_TOO_LONG);
+            }
+            borrow.setNotes(updated);
         }
-        
-        // Update book availability
-        Book book = borrow.getBook();
-        book.setAvailableCopies(book.getAvailableCopies() + 1);
-        bookService.updateBook(book.getId(), book);
+        borrow.setStatus(BorrowStatus.RETURNED);
+        borrow.setReturnDate(LocalDateTime.now());
         
         Borrow savedBorrow = borrowRepository.save(borrow);
+        
+        // The copy goes to the next hold in line, or back on the shelf
+        holdService.releaseCopy(borrow.getBook().getId());
+        resourceVersions.changed(ResourceVersions.BORROWS, ResourceVersions.userBorrows(borrow.getUser().getId()));
+        record("returned", 1);
+        
         return borrowMapper.toResponse(savedBorrow);
     }
 
+    /**
+     * Checks out a cart of books to one member in one transaction: the user is loaded once, the
+     * duplicate check, hold pickup and copy checkout each run once for the whole cart, and the
+     * borrows are inserted in one JDBC batch. A book that can't be borrowed fails on its own entry
+     * with the message borrowBook would have thrown; the rest of the cart still goes through.
+     * Notes too long for the column would fail every borrow, so every entry fails up front.
+     */
+    public BorrowBatchResult borrowBooks(Long userId, List<Long> bookIds, String notes) {
+        checkBatchSize(bookIds);
+        User user = userService.getUserById(userId);
+        if (!fitsNotesColumn(notes)) {
+            return BorrowBatchResult.of(bookIds.stream().map(id -> BorrowBatchItem.failed(id, NOTES_TOO_LONG)).toList());
+        }
+
+        Map<Integer, String> errors = new HashMap<>();
+        Set<Long> requested = new LinkedHashSet<>();
+        for (int i = 0; i < bookIds.size(); i++) {
+            if (!requested.add(bookIds.get(i))) {
+                errors.put(i, "Book appears more than once in the batch");
+            }
+        }
+
+        Set<Long> alreadyBorrowed = new HashSet<>(borrowRepository.findOpenBorrowBookIds(userId, requested));
+        Map<Long, Book> books = bookService.getBooksByIds(requested).stream()
+                .collect(Collectors.toMap(Book::getId, Function.identity()));
+        List<Long> candidates = requested.stream()
+                .filter(id -> !alreadyBorrowed.contains(id) && books.containsKey(id))
+                .toList();
+        // Copies set aside for the member's holds are already off the shelf; the rest are taken in one statement
+        Set<Long> granted = new HashSet<>(holdService.pickUpAll(userId, candidates));
+        granted.addAll(bookService.checkOutCopies(candidates.stream().filter(id -> !granted.contains(id)).toList()));
+
+        LocalDateTime borrowDate = LocalDateTime.now();
+        LocalDateTime dueDate = borrowDate.plusDays(DEFAULT_BORROW_DAYS);
+        List<Borrow> borrows = new ArrayList<>();
+        for (Long bookId : candidates) {
+            if (!granted.contains(bookId)) continue;
+            Borrow borrow = new Borrow(user, books.get(bookId), borrowDate, dueDate);
+            borrow.setNotes(notes);
+            borrows.add(borrow);
+        }
+        List<Long> borrowIds = borrowRepository.insertAll(borrows);
+        Map<Long, BorrowResponse> created = responsesById(borrowIds).values().stream()
+                .collect(Collectors.toMap(BorrowResponse::getBookId, Function.identity()));
+
+        List<BorrowBatchItem> items = new ArrayList<>(bookIds.size());
+        for (int i = 0; i < bookIds.size(); i++) {
+            Long bookId = bookIds.get(i);
+            if (errors.containsKey(i)) {
+                items.add(BorrowBatchItem.failed(bookId, errors.get(i)));
+            } else if (alreadyBorrowed.contains(bookId)) {
+                items.add(BorrowBatchItem.failed(bookId, "User already has this book borrowed"));
+            } else if (!books.containsKey(bookId)) {
+                items.add(BorrowBatchItem.failed(bookId, "Book not found with id: " + bookId));
+            } else if (!created.containsKey(bookId)) {
+                items.add(BorrowBatchItem.failed(bookId, "Book is not available for borrowing"));
+            } else {
+                items.add(BorrowBatchItem.succeeded(bookId, created.get(bookId)));
+            }
+        }
+        if (!borrowIds.isEmpty()) {
+            resourceVersions.changed(ResourceVersions.BORROWS, ResourceVersions.userBorrows(userId));
+            record("borrowed", borrowIds.size());
+        }
+        return BorrowBatchResult.of(items);
+    }
+
+    /**
+     * Returns a stack of borrows in one transaction: the rows are locked and flipped to RETURNED
+     * with one statement, and the copies go to waiting holds or back on the shelf together.
+     * Unknown or already returned borrows fail on their own entry, as do borrows whose member or
+     * book was soft-deleted, which returnBook answers with a 404 as well, and borrows whose notes
+     * would grow past the column with the return notes appended.
+     */
+    public BorrowBatchResult returnBooks(List<Long> borrowIds, String notes) {
+        checkBatchSize(borrowIds);
+        Map<Long, LockedBorrow> locked = borrowRepository.lockAllById(borrowIds).stream()
+                .collect(Collectors.toMap(LockedBorrow::id, Function.identity()));
+        // Read before the update, so every returned borrow has its response: the projection's
+        // inner joins leave out soft-deleted members and books, like returnBook's lookup
+        Map<Long, BorrowResponse> responses = responsesById(locked.keySet());
+
+        Map<Integer, String> errors = new HashMap<>();
+        Set<Long> seen = new HashSet<>();
+        List<Long> returning = new ArrayList<>();
+        Map<Long, String> updatedNotes = new HashMap<>();
+        for (int i = 0; i < borrowIds.size(); i++) {
+            Long borrowId = borrowIds.get(i);
+            LockedBorrow borrow = locked.get(borrowId);
+            if (!seen.add(borrowId)) {
+                errors.put(i, "Borrow appears more than once in the batch");
+            } else if (borrow == null || !responses.containsKey(borrowId)) {
+                errors.put(i, "Borrow record not found with id: " + borrowId);
+            } else if (borrow.status() == BorrowStatus.RETURNED) {
+                errors.put(i, "Book is already returned");
+            } else if (notes != null && !fitsNotesColumn(withReturnNotes(responses.get(borrowId).getNotes(), notes))) {
+                errors.put(i, RETURN_NOTES_TOO_LONG);
+            } else {
+                returning.add(borrowId);
+                if (notes != null) {
+                    updatedNotes.put(borrowId, withReturnNotes(responses.get(borrowId).getNotes(), notes));
+                }
+            }
+        }
+
+        if (!returning.isEmpty()) {
+            LocalDateTime returnDate = LocalDateTime.now();
+            borrowRepository.markReturned(returning, returnDate);
+            borrowRepository.updateNotes(updatedNotes);
+            // The responses read above get the same changes as the rows
+            for (Long id : returning) {
+                BorrowResponse response = responses.get(id);
+                response.setStatus(BorrowStatus.RETURNED);
+                response.setReturnDate(returnDate);
+                if (updatedNotes.containsKey(id)) {
+                    response.setNotes(updatedNotes.get(id));
+                }
+            }
+            // The copies go to the next holds in line, or back on the shelf
+            holdService.releaseCopies(returning.stream().map(id -> locked.get(id).bookId()).toList());
+            Set<String> changed = new LinkedHashSet<>();
+            changed.add(ResourceVersions.BORROWS);
+            returning.forEach(id -> changed.add(ResourceVersions.userBorrows(locked.get(id).userId())));
+            resourceVersions.changed(changed.toArray(String[]::new));
+            record("returned", returning.size());
+        }
+
+        List<BorrowBatchItem> items = new ArrayList<>(borrowIds.size());
+        for (int i = 0; i < borrowIds.size(); i++) {
+            Long borrowId = borrowIds.get(i);
+            items.add(errors.containsKey(i)
+                    ? BorrowBatchItem.failed(borrowId, errors.get(i))
+                    : BorrowBatchItem.succeeded(borrowId, responses.get(borrowId)));
+        }
+        return BorrowBatchResult.of(items);
+    }
+
+    @Transactional(readOnly = true)
     public List<BorrowResponse> getAllBorrows() {
-        return borrowRepository.findAllWithUserAndBook()
-                .stream()
-                .map(borrowMapper::toResponse)
-                .collect(Collectors.toList());
+        return borrowRepository.findAllResponses();
     }
 
+    @Transactional(readOnly = true)
     public BorrowResponse getBorrowById(Long id) {
-        Borrow borrow = getBorrowEntityById(id);
-        return borrowMapper.toResponse(borrow);
+        return borrowRepository.findResponseById(id)
+            .orElseThrow(() -> new NotFoundException("Borrow record not found with id: " + id));
+    }
+    
+    private Map<Long, BorrowResponse> responsesById(Collection<Long> ids) {
+        if (ids.isEmpty()) return Map.of();
+        return borrowRepository.findResponsesByIdIn(ids).stream()
+                .collect(Collectors.toMap(BorrowResponse::getId, Function.identity()));
+    }
+
+    private void record(String event, int count) {
+        Counter.builder("bookstack.borrows")
+                .description("Books borrowed and returned, batches counted per book")
+                .tag("event", event)
+                .register(meterRegistry)
+                .increment(count);
+    }
+
+    // The borrow's own notes (if any) followed by the return notes, for single and batch returns alike
+    private static String withReturnNotes(String notes, String returnNotes) {
+        return Objects.toString(notes, "") + " | Return notes: " + returnNotes;
+    }
+
+    private static boolean fitsNotesColumn(String notes) {
+        return notes == null || notes.length() <= MAX_NOTES_LENGTH;
+    }
+
+    private static void checkBatchSize(List<Long> ids) {
+        if (ids == null || ids.isEmpty()) {
+            throw new BadRequestException("At least one entry is required");
+        }
+        if (ids.size() > MAX_BATCH_SIZE) {
+            throw new BadRequestException("At most " + MAX_BATCH_SIZE + " entries per batch");
+        }
     }
     
     private Borrow getBorrowEntityById(Long id) {
@@ -105,58 +328,86 @@ public class BorrowService {
             .orElseThrow(() -> new NotFoundException("Borrow record not found with id: " + id));
     }
 
-    public List<BorrowResponse> getBorrowsByUserId(Long userId) {
-        return borrowRepository.findByUserIdWithUserAndBook(userId)
-                .stream()
-                .map(borrowMapper::toResponse)
-                .collect(Collectors.toList());
+    // Entity lookups for the GraphQL Borrow type; associations are resolved by batch loaders
+    @Transactional(readOnly = true)
+    public Borrow getBorrowEntity(Long id) {
+        return borrowRepository.findById(id)
+            .orElseThrow(() -> new NotFoundException("Borrow record not found with id: " + id));
+    }
+
+    @Transactional(readOnly = true)
+    public List<Borrow> getBorrowEntitiesByUserId(Long userId) {
+        return borrowRepository.findByUserId(userId);
     }
 
-    public List<BorrowResponse> getBorrowsByBookId(Long bookId) {
-        return borrowRepository.findByBookIdWithUserAndBook(bookId)
-                .stream()
-                .map(borrowMapper::toResponse)
-                .collect(Collectors.toList());
+    @Transactional(readOnly = true)
+    public List<Borrow> getBorrowEntitiesByBookId(Long bookId) {
+        return borrowRepository.findByBookId(bookId);
     }
 
+    @Transactional(readOnly = true)
+    public List<Borrow> getBorrowEntitiesByStatus(BorrowStatus status) {
+        return borrowRepository.findByStatus(status);
+    }
+
+    @Transactional(readOnly = true)
+    public Map<Long, List<Borrow>> getBorrowEntitiesGroupedByUserIds(Collection<Long> userIds) {
+        return borrowRepository.findByUserIdIn(userIds).stream()
+                .collect(Collectors.groupingBy(borrow -> borrow.getUser().getId()));
+    }
+
+    @Transactional(readOnly = true)
+    public Map<Long, List<Borrow>> getBorrowEntitiesGroupedByBookIds(Collection<Long> bookIds) {
+        return borrowRepository.findByBookIdIn(bookIds).stream()
+                .collect(Collectors.groupingBy(borrow -> borrow.getBook().getId()));
+    }
+
+    // Archived (long-returned) borrows are only read when history is asked for
+    @Transactional(readOnly = true)
+    public List<BorrowResponse> getBorrowsByUserId(Long userId, boolean includeArchived) {
+        List<BorrowResponse> borrows = borrowRepository.findResponsesByUserId(userId);
+        if (!includeArchived) return borrows;
+        List<BorrowResponse> history = new ArrayList<>(borrows);
+        history.addAll(borrowArchiveRepository.findResponsesByUserId(userId));
+        return history;
+    }
+
+    @Transactional(readOnly = true)
+    public List<BorrowResponse> getBorrowsByBookId(Long bookId, boolean includeArchived) {
+        List<BorrowResponse> borrows = borrowRepository.findResponsesByBookId(bookId);
+        if (!includeArchived) return borrows;
+        List<BorrowResponse> history = new ArrayList<>(borrows);
+        history.addAll(borrowArchiveRepository.findResponsesByBookId(bookId));
+        return history;
+    }
+
+    @Transactional(readOnly = true)
     public List<BorrowResponse> getBorrowsByStatus(BorrowStatus status) {
-        return borrowRepository.findByStatusWithUserAndBook(status)
-                .stream()
-                .map(borrowMapper::toResponse)
-                .collect(Collectors.toList());
+        return borrowRepository.findResponsesByStatus(status);
     }
 
+    @Transactional(readOnly = true)
     public List<BorrowResponse> getActiveBorrowsByUserId(Long userId) {
-        return borrowRepository.findByUserIdAndStatusWithUserAndBook(userId, BorrowStatus.ACTIVE)
-                .stream()
-                .map(borrowMapper::toResponse)
-                .collect(Collectors.toList());
+        return borrowRepository.findResponsesByUserIdAndStatus(userId, BorrowStatus.ACTIVE);
     }
 
+    // Read-only: statuses are flipped in bulk by OverdueBorrowSweeper
+    @Transactional(readOnly = true)
     public List<BorrowResponse> getOverdueBorrows() {
-        List<Borrow> overdueBorrows = borrowRepository.findOverdueBorrowsWithUserAndBook(LocalDateTime.now());
-        // Update status to OVERDUE
-        for (Borrow borrow : overdueBorrows) {
-            if (borrow.getStatus() == BorrowStatus.ACTIVE) {
-                borrow.setStatus(BorrowStatus.OVERDUE);
-                borrowRepository.save(borrow);
-            }
-        }
-        return overdueBorrows.stream()
-                .map(borrowMapper::toResponse)
-                .collect(Collectors.toList());
+        List<BorrowResponse> overdue = borrowRepository.findOverdueResponses(LocalDateTime.now());
+        overdue.forEach(response -> response.setStatus(BorrowStatus.OVERDUE));
+        return overdue;
     }
 
     public void deleteBorrow(Long id) {
         Borrow borrow = getBorrowEntityById(id);
         
-        // If deleting an active borrow, restore book availability
-        if (borrow.getStatus() == BorrowStatus.ACTIVE) {
-            Book book = borrow.getBook();
-            book.setAvailableCopies(book.getAvailableCopies() + 1);
-            bookService.updateBook(book.getId(), book);
+        // If deleting an active (or overdue) borrow, the copy is back
+        if (borrow.getStatus() != BorrowStatus.RETURNED) {
+            holdService.releaseCopy(borrow.getBook().getId());
         }
         
         borrowRepository.deleteById(id);
+        resourceVersions.changed(ResourceVersions.BORROWS, ResourceVersions.userBorrows(borrow.getUser().getId()));
     }
 }
\ No newline at end of file
@@ -1,13 +1,16 @@
 package com.bookstack.bookstack.common;
 
+import com.bookstack.bookstack.common.ratelimit.RateLimitBucketProvider;
 import io.github.bucket4j.Bandwidth;
 import io.github.bucket4j.Bucket;
+import io.github.bucket4j.BucketConfiguration;
 import io.github.bucket4j.ConsumptionProbe;
 import io.github.bucket4j.Refill;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.DispatcherType;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
-import org.springframework.cache.Cache;
-import org.springframework.cache.CacheManager;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Component;
 import org.springframework.beans.factory.annotation.Value;
@@ -15,16 +18,14 @@ import org.springframework.web.servlet.HandlerInterceptor;
 import org.springframework.lang.NonNull;
 
 import java.time.Duration;
-import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
 
 @Component
 public class RateLimitInterceptor implements HandlerInterceptor {
 
-    private final CacheManager cacheManager;
-    
-    // In-memory fallback cache if the CacheManager is not available
-    private final Map<String, Bucket> buckets = new ConcurrentHashMap<>();
+    // Local or shared (rate.limit.backend) storage for the per-client buckets
+    private final RateLimitBucketProvider bucketProvider;
+    private final Counter allowed;
+    private final Counter rejected;
     
     @Value("${rate.limit.enabled:true}")
     private boolean enabled;
@@ -32,37 +33,44 @@ public class RateLimitInterceptor implements HandlerInterceptor {
     @Value("${rate.limit.requests-per-minute:20}")
     private int requestsPerMinute;
     
-    public RateLimitInterceptor(CacheManager cacheManager) {
-        this.cacheManager = cacheManager;
+    public RateLimitInterceptor(RateLimitBucketProvider bucketProvider, MeterRegistry meterRegistry) {
+        this.bucketProvider = bucketProvider;
+        // Registered once: this runs on every request
+        this.allowed = decisions(meterRegistry, "allowed");
+        this.rejected = decisions(meterRegistry, "rejected");
     }
 
     @Override
     public boolean preHandle(@NonNull HttpServletRequest request, @NonNull HttpServletResponse response, @NonNull Object handler) throws Exception {
-        if (!enabled) return true;
+        // Async requests (streamed exports, GraphQL over GET) are dispatched a second time to
+        // finish; that dispatch is the same request and was already counted
+        if (!enabled || request.getDispatcherType() == DispatcherType.ASYNC) return true;
 
-        String clientIp = getClientIp(request);
+        String clientIp = clientIp(request);
         
         // Get or create a rate limit bucket for this client
-        Bucket bucket = resolveBucket(clientIp);
+        Bucket bucket = bucketProvider.resolveBucket(clientIp, this::bucketConfiguration);
 
         // Try to consume a token from the bucket
         ConsumptionProbe probe = bucket.tryConsumeAndReturnRemaining(1);
         
         // If successful, add rate limit headers to the response
         if (probe.isConsumed()) {
+            allowed.increment();
             response.addHeader("X-Rate-Limit-Remaining", String.valueOf(probe.getRemainingTokens()));
             response.addHeader("X-Rate-Limit-Reset", String.valueOf(probe.getNanosToWaitForRefill() / 1_000_000_000));
             return true;
         }
 
         // If rate limit exceeded, return 429 Too Many Requests
+        rejected.increment();
         response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
         response.addHeader("X-Rate-Limit-Retry-After-Seconds", String.valueOf(probe.getNanosToWaitForRefill() / 1_000_000_000));
         response.getWriter().write("Rate limit exceeded. Try again later.");
         return false;
     }
     
-    private String getClientIp(HttpServletRequest request) {
+    public static String clientIp(HttpServletRequest request) {
         String xForwardedFor = request.getHeader("X-Forwarded-For");
         if (xForwardedFor != null && !xForwardedFor.isEmpty()) {
             // Take first IP if X-Forwarded-For contains multiple IPs
@@ -71,20 +79,16 @@ public class RateLimitInterceptor implements HandlerInterceptor {
         return request.getRemoteAddr();
     }
     
-    private Bucket resolveBucket(String key) {
-        // Try to get the bucket from the cache first
-        Cache cache = cacheManager.getCache("rate-limit-buckets");
-        if (cache != null) {
-            return cache.get(key, () -> createNewBucket());
-        }
-        
-        // Fall back to in-memory map if cache is not available
-        return buckets.computeIfAbsent(key, k -> createNewBucket());
+    private static Counter decisions(MeterRegistry meterRegistry, String outcome) {
+        return Counter.builder("bookstack.ratelimit.requests")
+                .description("Requests checked against the per-client rate limit")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
     }
-    
-    private Bucket createNewBucket() {
+
+    private BucketConfiguration bucketConfiguration() {
         Bandwidth limit = Bandwidth.classic(requestsPerMinute, 
                 Refill.greedy(requestsPerMinute, Duration.ofMinutes(1)));
-        return Bucket.builder().addLimit(limit).build();
+        return BucketConfiguration.builder().addLimit(limit).build();
     }
 }
\ No newline at end of file
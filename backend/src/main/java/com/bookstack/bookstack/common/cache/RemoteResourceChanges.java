@@ -0,0 +1,27 @@
+package com.bookstack.bookstack.common.cache;
+
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Resource keys that other replicas changed, as seen by one {@link ResourceVersions#sync()}.
+ * Published after their transactions committed, so listeners reading the rows see the change.
+ */
+public record RemoteResourceChanges(Set<String> keys) {
+
+    // Ids of the keys built as type + ":" + id, e.g. the book ids of ResourceVersions.book(id)
+    public Set<Long> ids(String type) {
+        String prefix = type + ":";
+        Set<Long> ids = new HashSet<>();
+        for (String key : keys) {
+            if (key.startsWith(prefix)) {
+                try {
+                    ids.add(Long.valueOf(key.substring(prefix.length())));
+                } catch (NumberFormatException e) {
+                    // Another key family under the same prefix
+                }
+            }
+        }
+        return ids;
+    }
+}
@@ -0,0 +1,257 @@
+package com.bookstack.bookstack.common.cache;
+
+import java.sql.Timestamp;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.context.request.WebRequest;
+
+import com.bookstack.bookstack.common.transaction.AfterCommit;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Versions of the data behind cacheable reads, used to answer conditional GETs with 304 before
+ * running any query. A read's ETag is the versions of every resource it depends on.
+ *
+ * Versions live in the shared {@code resource_changes} table, one counter per key, so every
+ * replica builds the same ETag for the same state and a poll can be revalidated by any of them.
+ * Rows are never deleted, so a key's version never goes back to a value already issued.
+ *
+ * Writers call {@link #changed} inside their transaction; the counters are incremented once it
+ * has committed (after the search index and second-level cache callbacks), and readers take the
+ * ETag before loading data, so an ETag never describes older data than the response it was sent
+ * with. A key whose increment failed gets no ETag until a later sync writes it.
+ *
+ * Each instance keeps the versions it has seen in memory, and the sync reads the rows changed
+ * since the previous one, so another replica's write shows up within the sync interval. Changes
+ * written by other replicas are also published as a {@link RemoteResourceChanges} event, for
+ * per-instance state (search index, caches) that has to follow them, before their versions are
+ * taken up.
+ */
+@Component
+public class ResourceVersions {
+    private static final Logger log = LoggerFactory.getLogger(ResourceVersions.class);
+
+    static final String TABLE = "resource_changes";
+
+    // Any book row (copies included), and the book/user fields shown in borrow records
+    public static final String CATALOG = "catalog";
+    public static final String BOOK_DETAILS = "book-details";
+    public static final String USER_DETAILS = "user-details";
+    // Any borrow record, and bulk changes (overdue sweep, archiving) that don't name the affected users
+    public static final String BORROWS = "borrows";
+    public static final String OVERDUE_SWEEP = "overdue-sweep";
+    // A single book or user row, for instance-local state (caches, search index) that must follow it
+    public static final String BOOK = "book";
+    public static final String USER = "user";
+    // A book's open holds, for the hold queue and expiry wheel of every instance
+    public static final String BOOK_HOLDS = "book-holds";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    // Marks this instance's rows in the shared table; not part of any ETag
+    private final String origin = UUID.randomUUID().toString().substring(0, 8);
+    // Shared version per key, as last read or written by this instance
+    private final Cache<String, Long> versions;
+    // Committed locally, not yet counted in the shared table
+    private final Set<String> unpublished = ConcurrentHashMap.newKeySet();
+    private volatile Timestamp lastSeen;
+
+    private final Counter notModifiedCounter;
+    private final Counter syncFailures;
+
+    @Value("${app.etag.enabled:true}")
+    private boolean enabled;
+
+    // Rows are re-read for this long to cover changes that committed late
+    @Value("${app.etag.sync-overlap-ms:30000}")
+    private long syncOverlapMillis;
+
+    public ResourceVersions(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                            ApplicationEventPublisher eventPublisher, MeterRegistry meterRegistry,
+                            @Value("${app.etag.max-tracked-resources:100000}") long maxTrackedResources) {
+        this.jdbcTemplate = jdbcTemplate;
+        // Increments run after the writer's transaction has completed, so they need one of their own
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.eventPublisher = eventPublisher;
+        this.versions = Caffeine.newBuilder()
+                .maximumSize(maxTrackedResources)
+                .build();
+        this.notModifiedCounter = Counter.builder("bookstack.http.not.modified")
+                .description("Conditional GETs answered with 304 from resource versions")
+                .register(meterRegistry);
+        this.syncFailures = Counter.builder("bookstack.etag.sync.failures")
+                .description("Resource version syncs with the shared table that failed")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    void init() {
+        lastSeen = jdbcTemplate.queryForObject("SELECT LOCALTIMESTAMP", Timestamp.class);
+    }
+
+    public static String userBorrows(Long userId) {
+        return BORROWS + ":user:" + userId;
+    }
+
+    public static String book(Long bookId) {
+        return BOOK + ":" + bookId;
+    }
+
+    public static String bookHolds(Long bookId) {
+        return BOOK_HOLDS + ":" + bookId;
+    }
+
+    public static String user(Long userId) {
+        return USER + ":" + userId;
+    }
+
+    // Null while one of the keys has a change this instance can't put a shared version on yet
+    public String etag(String... keys) {
+        StringBuilder etag = new StringBuilder("\"");
+        for (String key : keys) {
+            Long version = unpublished.contains(key) ? null : version(key);
+            if (version == null) {
+                return null;
+            }
+            if (etag.length() > 1) {
+                etag.append('-');
+            }
+            etag.append(Long.toString(version, 36));
+        }
+        return etag.append('"').toString();
+    }
+
+    /**
+     * Sets the ETag for the given resources on the response and returns true when the request's
+     * {@code If-None-Match} already matches it, in which case the response is a 304 and the caller
+     * should return without loading anything.
+     */
+    public boolean checkNotModified(WebRequest request, String... keys) {
+        if (!enabled) return false;
+        String etag = etag(keys);
+        if (etag != null && request.checkNotModified(etag)) {
+            notModifiedCounter.increment();
+            return true;
+        }
+        return false;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void recordNotModified() {
+        notModifiedCounter.increment();
+    }
+
+    // Increments the keys once the current transaction has committed (immediately outside of one)
+    public void changed(String... keys) {
+        AfterCommit.run(() -> publish(List.of(keys)));
+    }
+
+    // Retries increments that failed and picks up changes made by other replicas
+    @Scheduled(initialDelayString = "${app.etag.sync-interval-ms:2000}",
+               fixedDelayString = "${app.etag.sync-interval-ms:2000}")
+    public void sync() {
+        if (!unpublished.isEmpty()) {
+            publish(List.copyOf(unpublished));
+        }
+        Map<String, Long> changed = new HashMap<>();
+        Set<String> remote = new HashSet<>();
+        try {
+            Timestamp since = new Timestamp(lastSeen.getTime() - syncOverlapMillis);
+            jdbcTemplate.query("SELECT resource_key, version, changed_at, origin FROM " + TABLE + " WHERE changed_at >= ?", rs -> {
+                String key = rs.getString(1);
+                long version = rs.getLong(2);
+                Timestamp changedAt = rs.getTimestamp(3);
+                if (!Long.valueOf(version).equals(versions.getIfPresent(key))) {
+                    changed.put(key, version);
+                    if (!origin.equals(rs.getString(4))) {
+                        remote.add(key);
+                    }
+                }
+                if (changedAt.after(lastSeen)) {
+                    lastSeen = changedAt;
+                }
+            }, since);
+        } catch (RuntimeException e) {
+            syncFailures.increment();
+            log.warn("Resource version sync failed, will retry: {}", e.getMessage());
+        }
+        apply(changed, remote);
+    }
+
+    // A key missing from memory is read from the table, unless the sync hasn't passed its last change yet
+    private Long version(String key) {
+        return versions.get(key, k -> {
+            Timestamp horizon = new Timestamp(lastSeen.getTime() - syncOverlapMillis);
+            List<Long> stored = jdbcTemplate.query("SELECT version, changed_at FROM " + TABLE + " WHERE resource_key = ?",
+                    (rs, row) -> rs.getTimestamp(2).before(horizon) ? rs.getLong(1) : null, k);
+            // Boxed on both sides: a row too recent to use maps to null, which must not be unboxed
+            return stored.isEmpty() ? Long.valueOf(0) : stored.get(0);
+        });
+    }
+
+    private void publish(Collection<String> keys) {
+        Map<String, Long> published = new HashMap<>();
+        Set<String> remote = new HashSet<>();
+        for (String key : keys) {
+            try {
+                published.put(key, transactionTemplate.execute(status -> increment(key, remote)));
+                unpublished.remove(key);
+            } catch (RuntimeException e) {
+                unpublished.add(key);
+                syncFailures.increment();
+                log.warn("Resource version increment for {} failed, will retry: {}", key, e.getMessage());
+            }
+        }
+        apply(published, remote);
+    }
+
+    private long increment(String key, Set<String> remote) {
+        // Incrementing past a change another replica made since this instance last read the key would
+        // hide it, so such a change is reported as remote first
+        if (jdbcTemplate.update("UPDATE " + TABLE + " SET version = version + 1, changed_at = LOCALTIMESTAMP, origin = ? "
+                + "WHERE resource_key = ? AND (origin = ? OR version = ?)", origin, key, origin, versions.getIfPresent(key)) == 0
+                && jdbcTemplate.update("INSERT INTO " + TABLE + " (resource_key, version, changed_at, origin) "
+                + "VALUES (?, 1, LOCALTIMESTAMP, ?) ON CONFLICT DO NOTHING", key, origin) == 0) {
+            remote.add(key);
+            jdbcTemplate.update("UPDATE " + TABLE + " SET version = version + 1, changed_at = LOCALTIMESTAMP, origin = ? "
+                    + "WHERE resource_key = ?", origin, key);
+        }
+        return jdbcTemplate.queryForObject("SELECT version FROM " + TABLE + " WHERE resource_key = ?", Long.class, key);
+    }
+
+    // Remote changes are applied to local state before readers can get an ETag that covers them
+    private void apply(Map<String, Long> changed, Set<String> remote) {
+        if (!remote.isEmpty()) {
+            eventPublisher.publishEvent(new RemoteResourceChanges(remote));
+        }
+        changed.forEach((key, version) -> versions.asMap().merge(key, version, Math::max));
+    }
+}
@@ -0,0 +1,74 @@
+package com.bookstack.bookstack.common.cache;
+
+import java.util.Set;
+
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.bookstack.bookstack.book.model.Book;
+import com.bookstack.bookstack.user.model.User;
+
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * Targeted eviction from the Hibernate second-level cache for changes Hibernate can't track on its
+ * own: soft deletes (the cached row would otherwise be served by id with {@code deleted_at} set),
+ * updates issued over plain JDBC, and writes made by other replicas.
+ *
+ * Each instance has its own cache, so a write on another replica is only seen here once
+ * {@link ResourceVersions#sync()} reports it; until then (one sync interval) this instance may
+ * serve the previous state of that book or user.
+ */
+@Component
+public class SecondLevelCacheEvictor {
+    private final Cache cache;
+
+    public SecondLevelCacheEvictor(EntityManagerFactory entityManagerFactory) {
+        this.cache = entityManagerFactory.unwrap(SessionFactory.class).getCache();
+    }
+
+    // Evict now, so this transaction re-reads the row, and again once it completes, dropping anything
+    // cached in between from state that was not yet committed (or got rolled back)
+    public void evict(Class<?> entityClass, Object id) {
+        cache.evictEntityData(entityClass, id);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    cache.evictEntityData(entityClass, id);
+                }
+            });
+        }
+    }
+
+    // Drop cached query results after rows were inserted or removed behind Hibernate's back
+    public void evictQueryResults() {
+        cache.evictQueryRegions();
+    }
+
+    // Runs before other listeners of the same event, so they load the rows again rather than the cached state
+    @EventListener
+    @Order(0)
+    public void onRemoteChanges(RemoteResourceChanges changes) {
+        Set<Long> books = changes.ids(ResourceVersions.BOOK);
+        Set<Long> users = changes.ids(ResourceVersions.USER);
+        books.forEach(id -> cache.evictEntityData(Book.class, id));
+        users.forEach(id -> cache.evictEntityData(User.class, id));
+        // ISBNs and usernames may have changed; only detail changes can do that, not copy counts
+        if (changes.keys().contains(ResourceVersions.BOOK_DETAILS)) {
+            cache.evictNaturalIdData(Book.class);
+        }
+        if (changes.keys().contains(ResourceVersions.USER_DETAILS)) {
+            cache.evictNaturalIdData(User.class);
+        }
+        // Cached lists may have gained or lost rows
+        if (!books.isEmpty() || !users.isEmpty()) {
+            cache.evictQueryRegions();
+        }
+    }
+}
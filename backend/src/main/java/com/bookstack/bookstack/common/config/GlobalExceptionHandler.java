@@ -3,6 +3,7 @@ package com.bookstack.bookstack.common.config;
 import java.util.HashMap;
 import java.util.Map;
 
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.HttpRequestMethodNotSupportedException;
@@ -12,6 +13,7 @@ import org.springframework.web.bind.annotation.RestControllerAdvice;
 import org.springframework.web.servlet.resource.NoResourceFoundException;
 
 import com.bookstack.bookstack.common.exception.BaseException;
+import com.bookstack.bookstack.common.exception.ServiceUnavailableException;
 
 @RestControllerAdvice
 public class GlobalExceptionHandler {
@@ -46,6 +48,19 @@ public class GlobalExceptionHandler {
                 ));
     }
 
+    // Overload shedding: same body as other business errors, plus a hint on when to retry
+    @ExceptionHandler(ServiceUnavailableException.class)
+    public ResponseEntity<Map<String, Object>> handleServiceUnavailable(ServiceUnavailableException ex) {
+        return ResponseEntity.status(ex.getStatus())
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSeconds()))
+                .body(Map.of(
+                        "status", ex.getStatus().value(),
+                        "error", ex.getStatus().getReasonPhrase(),
+                        "message", ex.getMessage(),
+                        "timestamp", System.currentTimeMillis()
+                ));
+    }
+
     // Handle HTTP method not supported
     @ExceptionHandler(HttpRequestMethodNotSupportedException.class)
     public ResponseEntity<Map<String, Object>> handleMethodNotSupported(HttpRequestMethodNotSupportedException ex) {
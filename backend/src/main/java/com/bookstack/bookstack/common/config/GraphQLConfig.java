@@ -0,0 +1,35 @@
+package com.bookstack.bookstack.common.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.graphql.GraphQlSourceBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.web.servlet.function.RouterFunction;
+import org.springframework.web.servlet.function.RouterFunctions;
+import org.springframework.web.servlet.function.ServerResponse;
+
+import com.bookstack.bookstack.common.graphql.GraphQLGetHandler;
+import com.bookstack.bookstack.common.graphql.PersistedQueryDocumentProvider;
+
+@Configuration
+public class GraphQLConfig {
+
+    // Boot picks up Instrumentation beans on its own, but not a PreparsedDocumentProvider
+    @Bean
+    public GraphQlSourceBuilderCustomizer persistedQueryCustomizer(PersistedQueryDocumentProvider documentProvider) {
+        return builder -> builder.configureGraphQl(graphQl -> graphQl.preparsedDocumentProvider(documentProvider));
+    }
+
+    // Ahead of Boot's GraphQL routes, which answer any GET with a query with 405
+    @Bean
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public RouterFunction<ServerResponse> graphQlGetRoute(GraphQLGetHandler getHandler,
+                                                          @Value("${spring.graphql.http.path:/graphql}") String path) {
+        return RouterFunctions.route()
+                .GET(path, request -> request.param("query").isPresent() || request.param("extensions").isPresent(),
+                        getHandler::handle)
+                .build();
+    }
+}
@@ -0,0 +1,96 @@
+package com.bookstack.bookstack.common.config;
+
+import java.net.URI;
+import java.util.List;
+import java.util.OptionalLong;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import javax.cache.spi.CachingProvider;
+
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+/**
+ * Hibernate second-level cache backed by bounded Caffeine caches (through JCache).
+ *
+ * Every region is created here up front so sizes and expiry are explicit; Hibernate is told to fail
+ * rather than silently create an unbounded region for an entity cached without one. Each region
+ * publishes Caffeine's hit/miss/eviction statistics as {@code cache.*} meters tagged with the region.
+ */
+@Configuration
+public class HibernateCacheConfig {
+    public static final String BOOK_REGION = "books";
+    public static final String BOOK_ISBN_REGION = "books-by-isbn";
+    public static final String USER_REGION = "users";
+    public static final String USER_USERNAME_REGION = "users-by-username";
+
+    // Hibernate's built-in query cache regions
+    private static final String QUERY_RESULTS_REGION = "default-query-results-region";
+    private static final String UPDATE_TIMESTAMPS_REGION = "default-update-timestamps-region";
+
+    private static final List<String> BOUNDED_REGIONS =
+            List.of(BOOK_REGION, BOOK_ISBN_REGION, USER_REGION, USER_USERNAME_REGION, QUERY_RESULTS_REGION);
+
+    @Value("${app.cache.second-level.max-size:10000}")
+    private long maxSize;
+
+    @Value("${app.cache.second-level.ttl-minutes:30}")
+    private long ttlMinutes;
+
+    @Bean(destroyMethod = "close")
+    public CacheManager hibernateCacheManager(MeterRegistry meterRegistry) {
+        // A private manager per application context, so parallel contexts (e.g. in tests) never share regions
+        CachingProvider provider = Caching.getCachingProvider(CaffeineCachingProvider.class.getName());
+        CacheManager cacheManager = provider.getCacheManager(
+                URI.create("bookstack-hibernate-" + UUID.randomUUID()), provider.getDefaultClassLoader());
+
+        for (String region : BOUNDED_REGIONS) {
+            createRegion(cacheManager, meterRegistry, region, regionConfiguration()
+                    .setMaximumSize(OptionalLong.of(maxSize))
+                    .setExpireAfterWrite(OptionalLong.of(TimeUnit.MINUTES.toNanos(ttlMinutes))));
+        }
+        // Update timestamps must outlive every cached query result, so this region is never evicted
+        createRegion(cacheManager, meterRegistry, UPDATE_TIMESTAMPS_REGION, regionConfiguration());
+        return cacheManager;
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer secondLevelCacheCustomizer(CacheManager hibernateCacheManager) {
+        return properties -> {
+            properties.put(AvailableSettings.USE_SECOND_LEVEL_CACHE, true);
+            properties.put(AvailableSettings.USE_QUERY_CACHE, true);
+            properties.put(AvailableSettings.CACHE_REGION_FACTORY, "jcache");
+            properties.put(ConfigSettings.CACHE_MANAGER, hibernateCacheManager);
+            properties.put(ConfigSettings.MISSING_CACHE_STRATEGY, "fail");
+        };
+    }
+
+    private static CaffeineConfiguration<Object, Object> regionConfiguration() {
+        // Hibernate caches immutable disassembled state, so copying entries on every read is wasted work
+        return new CaffeineConfiguration<>()
+                .setStoreByValue(false)
+                .setNativeStatisticsEnabled(true);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static void createRegion(CacheManager cacheManager, MeterRegistry meterRegistry, String region,
+                                     CaffeineConfiguration<Object, Object> configuration) {
+        javax.cache.Cache<Object, Object> cache = cacheManager.createCache(region, configuration);
+        CaffeineCacheMetrics.monitor(meterRegistry, cache.unwrap(com.github.benmanes.caffeine.cache.Cache.class),
+                region, Tags.of("cache.manager", "hibernate"));
+    }
+}
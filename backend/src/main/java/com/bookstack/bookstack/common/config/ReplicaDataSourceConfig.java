@@ -0,0 +1,72 @@
+package com.bookstack.bookstack.common.config;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.util.StringUtils;
+
+import com.bookstack.bookstack.common.datasource.ReplicaRoutingDataSource;
+import com.zaxxer.hikari.HikariDataSource;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Replaces Boot's single pool with a primary and a read-only replica pool behind
+ * {@link ReplicaRoutingDataSource}. Everything that injects a {@code DataSource} (JPA, Flyway,
+ * JdbcTemplate) gets the lazy routing proxy; only read-only transactions reach the replica.
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.datasource.replica.enabled", havingValue = "true")
+public class ReplicaDataSourceConfig {
+
+    // Same properties Boot's own pool would have been built from
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("primary");
+        return dataSource;
+    }
+
+    @Bean
+    @ConfigurationProperties("app.datasource.replica.hikari")
+    public HikariDataSource replicaDataSource(DataSourceProperties properties,
+                                              @Value("${app.datasource.replica.url}") String url,
+                                              @Value("${app.datasource.replica.username:}") String username,
+                                              @Value("${app.datasource.replica.password:}") String password) {
+        // Credentials default to the primary's
+        HikariDataSource dataSource = DataSourceBuilder.create()
+                .type(HikariDataSource.class)
+                .url(url)
+                .username(StringUtils.hasText(username) ? username : properties.determineUsername())
+                .password(StringUtils.hasText(username) ? password : properties.determinePassword())
+                .build();
+        dataSource.setPoolName("replica");
+        dataSource.setReadOnly(true);
+        return dataSource;
+    }
+
+    @Bean
+    public ReplicaRoutingDataSource routingDataSource(HikariDataSource primaryDataSource, HikariDataSource replicaDataSource,
+                                                      MeterRegistry meterRegistry,
+                                                      @Value("${app.datasource.replica.lag-query}") String lagQuery,
+                                                      @Value("${app.datasource.replica.max-lag-ms:1000}") long maxLagMillis,
+                                                      @Value("${app.datasource.replica.lag-check-interval-ms:1000}") long checkIntervalMillis) {
+        return new ReplicaRoutingDataSource(primaryDataSource, replicaDataSource, lagQuery, maxLagMillis,
+                checkIntervalMillis, meterRegistry);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(ReplicaRoutingDataSource routingDataSource) {
+        return new LazyConnectionDataSourceProxy(routingDataSource);
+    }
+}
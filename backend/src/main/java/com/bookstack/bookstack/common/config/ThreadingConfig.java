@@ -0,0 +1,32 @@
+package com.bookstack.bookstack.common.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.context.request.RequestAttributesThreadLocalAccessor;
+
+import io.micrometer.context.ContextRegistry;
+
+/**
+ * Threading mode is chosen with {@code spring.threads.virtual.enabled}. When it is on, Tomcat,
+ * the application task executor ({@code @Async}), scheduled jobs and GraphQL controller methods
+ * all run on virtual threads.
+ *
+ * GraphQL then invokes blocking controller methods on the task executor rather than the servlet
+ * thread, so the current request is registered for context propagation: without it
+ * {@code RequestContextHolder} is empty in data fetchers and every {@code @RequireRole} check fails.
+ * With platform threads the controller methods run on the servlet thread and nothing is registered.
+ */
+@Configuration
+public class ThreadingConfig {
+
+    // The registry is process-wide; registering it from this bean keeps platform mode untouched
+    @Bean
+    @ConditionalOnThreading(Threading.VIRTUAL)
+    public RequestAttributesThreadLocalAccessor requestAttributesThreadLocalAccessor() {
+        RequestAttributesThreadLocalAccessor accessor = new RequestAttributesThreadLocalAccessor();
+        ContextRegistry.getInstance().registerThreadLocalAccessor(accessor);
+        return accessor;
+    }
+}
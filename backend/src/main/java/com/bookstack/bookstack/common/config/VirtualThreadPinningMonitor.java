@@ -0,0 +1,91 @@
+package com.bookstack.bookstack.common.config;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordingStream;
+
+/**
+ * Watches for virtual threads that block while pinned to their carrier thread (blocking inside
+ * {@code synchronized} or a native frame), using the JDK's {@code jdk.VirtualThreadPinned} event.
+ *
+ * Pinned blocking turns a virtual thread back into a platform thread for its duration, so a hot
+ * pinned path (typically a JDBC driver or pool guarding I/O with a monitor) silently caps
+ * concurrency at the number of carriers. Every occurrence is timed under
+ * {@code bookstack.virtual.threads.pinned}, and each distinct call site is logged once with its stack.
+ */
+@Component
+@ConditionalOnThreading(Threading.VIRTUAL)
+@ConditionalOnProperty(name = "app.threads.pinning-monitor.enabled", havingValue = "true", matchIfMissing = true)
+public class VirtualThreadPinningMonitor {
+    private static final Logger log = LoggerFactory.getLogger(VirtualThreadPinningMonitor.class);
+    private static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+    private static final int LOGGED_FRAMES = 8;
+    private static final int MAX_LOGGED_SITES = 100;
+
+    private final Timer pinnedTimer;
+    private final Set<String> loggedSites = ConcurrentHashMap.newKeySet();
+
+    @Value("${app.threads.pinning-monitor.threshold-ms:20}")
+    private long thresholdMillis;
+
+    private RecordingStream stream;
+
+    public VirtualThreadPinningMonitor(MeterRegistry meterRegistry) {
+        this.pinnedTimer = Timer.builder("bookstack.virtual.threads.pinned")
+                .description("Time virtual threads spent blocked while pinned to a carrier thread")
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        try {
+            stream = new RecordingStream();
+            stream.enable(PINNED_EVENT).withThreshold(Duration.ofMillis(thresholdMillis)).withStackTrace();
+            stream.onEvent(PINNED_EVENT, this::onPinned);
+            stream.startAsync();
+        } catch (RuntimeException | LinkageError e) {
+            // JFR may be unavailable (e.g. a stripped-down runtime image); the app runs fine without it
+            log.warn("Virtual thread pinning monitor not started: {}", e.toString());
+            stream = null;
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (stream != null) {
+            stream.close();
+        }
+    }
+
+    void onPinned(RecordedEvent event) {
+        pinnedTimer.record(event.getDuration());
+
+        List<RecordedFrame> frames = event.getStackTrace() == null ? List.of() : event.getStackTrace().getFrames();
+        String site = frames.stream()
+                .limit(LOGGED_FRAMES)
+                .map(frame -> frame.getMethod().getType().getName() + "." + frame.getMethod().getName() + ":" + frame.getLineNumber())
+                .collect(Collectors.joining("\n\tat "));
+        if (loggedSites.size() < MAX_LOGGED_SITES && loggedSites.add(site)) {
+            log.warn("Virtual thread pinned for {} ms\n\tat {}", event.getDuration().toMillis(), site);
+        }
+    }
+}
@@ -0,0 +1,153 @@
+package com.bookstack.bookstack.common.datasource;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import javax.sql.DataSource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Sends read-only transactions to a replica and everything else to the primary. Must sit behind
+ * a {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy}: the transaction's
+ * read-only flag is only known once it has begun, after Hibernate asked for a connection.
+ *
+ * Reads fall back to the primary when the last lag check failed or found the replica further
+ * behind than {@code maxLag}, and for {@code maxLag} plus one check interval after this instance
+ * committed a write, so rows this instance just wrote never come back stale from the replica
+ * into its second-level cache or behind a fresh ETag. If the replica refuses a connection the
+ * read goes to the primary and the replica is treated as down until the next successful check.
+ *
+ * The write window is tracked per instance, not per client: one write sends every read on this
+ * instance to the primary for the window, and a client whose next request reaches another
+ * instance may read from the replica there, up to {@code maxLag} behind its own write. Clients
+ * only read their own writes while requests stick to one instance.
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+    private static final Logger log = LoggerFactory.getLogger(ReplicaRoutingDataSource.class);
+
+    enum Route { PRIMARY, REPLICA }
+
+    private final DataSource primary;
+    private final JdbcTemplate replicaJdbcTemplate;
+    private final String lagQuery;
+    private final long maxLagNanos;
+    private final long stickyNanos;
+    private final MeterRegistry meterRegistry;
+
+    private volatile boolean replicaUsable;
+    private volatile double lagSeconds = Double.NaN;
+    // nanoTime of the last write committed on this instance (by any client), or of startup
+    private volatile long lastWriteNanos = System.nanoTime();
+
+    public ReplicaRoutingDataSource(DataSource primary, DataSource replica, String lagQuery, long maxLagMillis,
+                                    long checkIntervalMillis, MeterRegistry meterRegistry) {
+        this.primary = primary;
+        this.replicaJdbcTemplate = new JdbcTemplate(replica);
+        this.lagQuery = lagQuery;
+        this.maxLagNanos = TimeUnit.MILLISECONDS.toNanos(maxLagMillis);
+        this.stickyNanos = TimeUnit.MILLISECONDS.toNanos(maxLagMillis + checkIntervalMillis);
+        this.meterRegistry = meterRegistry;
+        setTargetDataSources(Map.of(Route.PRIMARY, primary, Route.REPLICA, replica));
+        setDefaultTargetDataSource(primary);
+
+        Gauge.builder("bookstack.datasource.replica.lag", this, routing -> routing.lagSeconds)
+                .description("Replica lag in seconds at the last check (NaN when the check failed)")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            if (TransactionSynchronizationManager.isSynchronizationActive()) {
+                recordWriteOnCommit();
+            }
+            return route(Route.PRIMARY, "read-write");
+        }
+        if (!replicaUsable) {
+            return route(Route.PRIMARY, "replica-unavailable");
+        }
+        if (System.nanoTime() - lastWriteNanos < stickyNanos) {
+            return route(Route.PRIMARY, "recent-write");
+        }
+        return route(Route.REPLICA, "read-only");
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        try {
+            return super.getConnection();
+        } catch (SQLException e) {
+            if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly() || !replicaUsable) throw e;
+            markReplicaDown(e);
+            route(Route.PRIMARY, "replica-down");
+            return primary.getConnection();
+        }
+    }
+
+    /**
+     * Measures the replica's lag with the configured query (seconds behind the primary, null
+     * meaning caught up) and decides whether reads may use it until the next check.
+     */
+    @Scheduled(fixedDelayString = "${app.datasource.replica.lag-check-interval-ms:1000}")
+    public void checkReplicaLag() {
+        try {
+            Double lag = replicaJdbcTemplate.queryForObject(lagQuery, Double.class);
+            lagSeconds = lag != null ? lag : 0.0;
+            boolean usable = TimeUnit.MILLISECONDS.toNanos((long) (lagSeconds * 1000)) <= maxLagNanos;
+            if (usable != replicaUsable) {
+                log.info("Replica {} for reads (lag {}s)", usable ? "enabled" : "disabled", lagSeconds);
+            }
+            replicaUsable = usable;
+        } catch (RuntimeException e) {
+            lagSeconds = Double.NaN;
+            markReplicaDown(e);
+        }
+    }
+
+    boolean isReplicaUsable() {
+        return replicaUsable;
+    }
+
+    private void recordWriteOnCommit() {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_COMMITTED) {
+                    lastWriteNanos = System.nanoTime();
+                }
+            }
+        });
+    }
+
+    private void markReplicaDown(Exception e) {
+        if (replicaUsable) {
+            log.warn("Replica disabled for reads: {}", e.getMessage());
+        }
+        replicaUsable = false;
+    }
+
+    private Route route(Route route, String reason) {
+        Counter.builder("bookstack.datasource.route")
+                .description("Connections handed out by route and the reason for it")
+                .tag("route", route.name().toLowerCase(Locale.ROOT))
+                .tag("reason", reason)
+                .register(meterRegistry)
+                .increment();
+        return route;
+    }
+}
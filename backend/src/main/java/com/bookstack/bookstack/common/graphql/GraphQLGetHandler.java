@@ -0,0 +1,196 @@
+package com.bookstack.bookstack.common.graphql;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+
+import org.springframework.context.i18n.LocaleContextHolder;
+import org.springframework.graphql.server.WebGraphQlHandler;
+import org.springframework.graphql.server.WebGraphQlRequest;
+import org.springframework.graphql.server.support.SerializableGraphQlRequest;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpCookie;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.util.LinkedMultiValueMap;
+import org.springframework.util.MultiValueMap;
+import org.springframework.web.servlet.function.ServerRequest;
+import org.springframework.web.servlet.function.ServerResponse;
+
+import com.bookstack.bookstack.auth.service.AuthenticationContext;
+import com.bookstack.bookstack.common.cache.ResourceVersions;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import graphql.language.Document;
+import graphql.language.Field;
+import graphql.language.OperationDefinition;
+import graphql.language.Selection;
+import graphql.language.SelectionSet;
+import graphql.parser.InvalidSyntaxException;
+import graphql.parser.Parser;
+
+/**
+ * Serves GraphQL queries over HTTP GET ({@code query}, {@code operationName}, {@code variables}
+ * and {@code extensions} as URL parameters), which Spring GraphQL only routes over POST.
+ *
+ * Mutations and subscriptions are refused with 405 before anything executes. Queries that read
+ * nothing but catalog fields get an ETag from the catalog version: a matching
+ * {@code If-None-Match} is answered with 304 without executing the query, and a successful
+ * response carries the ETag for the client to revalidate with. Anything else executes as it
+ * would over POST, without an ETag.
+ */
+@Component
+public class GraphQLGetHandler {
+    // Root fields whose result depends only on the catalog, as long as the selection stays on scalars
+    static final Set<String> CATALOG_FIELDS = Set.of("allBooks", "availableBooks", "bookById", "bookByIsbn",
+            "searchBooks", "booksByTitle", "booksByAuthor", "booksByCategory", "booksByLanguage");
+
+    private static final TypeReference<Map<String, Object>> JSON_OBJECT = new TypeReference<>() {};
+
+    enum Classification { CACHEABLE, UNCACHED, NOT_ALLOWED }
+
+    private final WebGraphQlHandler graphQlHandler;
+    private final PersistedQueryDocumentProvider documentProvider;
+    private final ResourceVersions resourceVersions;
+    private final AuthenticationContext authenticationContext;
+    private final ObjectMapper objectMapper;
+    // document hash + operation name -> classification
+    private final Cache<String, Classification> classifications = Caffeine.newBuilder()
+            .maximumSize(1000)
+            .build();
+
+    public GraphQLGetHandler(WebGraphQlHandler graphQlHandler, PersistedQueryDocumentProvider documentProvider,
+                             ResourceVersions resourceVersions, AuthenticationContext authenticationContext,
+                             ObjectMapper objectMapper) {
+        this.graphQlHandler = graphQlHandler;
+        this.documentProvider = documentProvider;
+        this.resourceVersions = resourceVersions;
+        this.authenticationContext = authenticationContext;
+        this.objectMapper = objectMapper;
+    }
+
+    public ServerResponse handle(ServerRequest request) {
+        SerializableGraphQlRequest body = new SerializableGraphQlRequest();
+        try {
+            body.setQuery(request.param("query").filter(query -> !query.isEmpty()).orElse(null));
+            body.setOperationName(request.param("operationName").filter(name -> !name.isEmpty()).orElse(null));
+            body.setVariables(jsonParam(request, "variables"));
+            body.setExtensions(jsonParam(request, "extensions"));
+        } catch (JsonProcessingException e) {
+            return errorResponse(HttpStatus.BAD_REQUEST, Map.of("message", "Invalid JSON in request parameters"));
+        }
+
+        String requestedHash = PersistedQueryDocumentProvider.requestedHash(body.getExtensions());
+        String text = body.getQuery();
+        if (text == null && requestedHash == null) {
+            return errorResponse(HttpStatus.BAD_REQUEST, Map.of("message", "No query or persisted query hash given"));
+        }
+        String hash = text != null ? PersistedQueryDocumentProvider.sha256(text) : requestedHash;
+        Document document = documentProvider.document(hash);
+        if (document == null && text == null) {
+            // Unknown hash: the client retries with the text, as it would over POST
+            return errorResponse(HttpStatus.OK, PersistedQueryDocumentProvider.notFoundError(hash).toSpecification());
+        }
+
+        Classification classification = classifications.get(hash + "#" + body.getOperationName(),
+                key -> classify(document != null ? document : parse(text), body.getOperationName()));
+        if (classification == Classification.NOT_ALLOWED) {
+            return ServerResponse.status(HttpStatus.METHOD_NOT_ALLOWED)
+                    .allow(HttpMethod.POST)
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .body(Map.of("errors", List.of(Map.of("message", "Only queries can be sent over GET"))));
+        }
+
+        String etag = classification == Classification.CACHEABLE && resourceVersions.isEnabled()
+                && authenticationContext.currentPrincipal().isPresent()
+                ? resourceVersions.etag(ResourceVersions.CATALOG) : null;
+        if (etag != null) {
+            Optional<ServerResponse> notModified = request.checkNotModified(etag);
+            if (notModified.isPresent()) {
+                resourceVersions.recordNotModified();
+                return notModified.get();
+            }
+        }
+
+        WebGraphQlRequest graphQlRequest = new WebGraphQlRequest(request.uri(), request.headers().asHttpHeaders(),
+                cookies(request), request.remoteAddress().orElse(null), request.attributes(), body,
+                UUID.randomUUID().toString(), LocaleContextHolder.getLocale());
+        return ServerResponse.async(graphQlHandler.handleRequest(graphQlRequest)
+                .map(response -> {
+                    ServerResponse.BodyBuilder builder = ServerResponse.ok()
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .headers(headers -> headers.putAll(response.getResponseHeaders()));
+                    // Errors (a spent query budget, say) may not repeat, so they are never revalidated
+                    if (etag != null && response.getErrors().isEmpty()) {
+                        builder.eTag(etag)
+                                .cacheControl(CacheControl.noCache().cachePrivate())
+                                .varyBy(HttpHeaders.AUTHORIZATION);
+                    }
+                    return builder.body(response.toMap());
+                })
+                .toFuture());
+    }
+
+    static Classification classify(Document document, String operationName) {
+        if (document == null) return Classification.UNCACHED;
+        List<OperationDefinition> operations = document.getDefinitionsOfType(OperationDefinition.class);
+        OperationDefinition operation = operations.stream()
+                .filter(definition -> operationName == null ? operations.size() == 1 : operationName.equals(definition.getName()))
+                .findFirst()
+                .orElse(null);
+        // No matching operation fails during execution without running anything
+        if (operation == null) return Classification.UNCACHED;
+        if (operation.getOperation() != OperationDefinition.Operation.QUERY) return Classification.NOT_ALLOWED;
+
+        for (Selection<?> selection : operation.getSelectionSet().getSelections()) {
+            if (!(selection instanceof Field field)) return Classification.UNCACHED;
+            if (field.getName().equals("__typename")) continue;
+            if (!CATALOG_FIELDS.contains(field.getName()) || !scalarsOnly(field.getSelectionSet())) {
+                return Classification.UNCACHED;
+            }
+        }
+        return Classification.CACHEABLE;
+    }
+
+    private static boolean scalarsOnly(SelectionSet selectionSet) {
+        if (selectionSet == null) return true;
+        return selectionSet.getSelections().stream()
+                .allMatch(selection -> selection instanceof Field field && field.getSelectionSet() == null);
+    }
+
+    // Null for text that doesn't parse; execution then reports the syntax error
+    private static Document parse(String text) {
+        try {
+            return Parser.parse(text);
+        } catch (InvalidSyntaxException e) {
+            return null;
+        }
+    }
+
+    private Map<String, Object> jsonParam(ServerRequest request, String name) throws JsonProcessingException {
+        Optional<String> value = request.param(name).filter(json -> !json.isEmpty());
+        return value.isPresent() ? objectMapper.readValue(value.get(), JSON_OBJECT) : null;
+    }
+
+    private static MultiValueMap<String, HttpCookie> cookies(ServerRequest request) {
+        MultiValueMap<String, HttpCookie> cookies = new LinkedMultiValueMap<>();
+        request.cookies().values().forEach(list -> list.forEach(cookie ->
+                cookies.add(cookie.getName(), new HttpCookie(cookie.getName(), cookie.getValue()))));
+        return cookies;
+    }
+
+    private static ServerResponse errorResponse(HttpStatus status, Map<String, Object> error) {
+        return ServerResponse.status(status)
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(Map.of("errors", List.of(error)));
+    }
+}
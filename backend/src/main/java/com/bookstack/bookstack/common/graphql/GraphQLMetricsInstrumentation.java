@@ -0,0 +1,96 @@
+package com.bookstack.bookstack.common.graphql;
+
+import java.util.Locale;
+import java.util.Optional;
+import java.util.concurrent.CompletionStage;
+
+import org.springframework.stereotype.Component;
+
+import com.bookstack.bookstack.auth.model.AuthenticatedPrincipal;
+import com.bookstack.bookstack.auth.service.AuthenticationContext;
+import com.bookstack.bookstack.common.metrics.MetricTags;
+
+import graphql.ExecutionResult;
+import graphql.execution.DataFetcherResult;
+import graphql.execution.instrumentation.InstrumentationContext;
+import graphql.execution.instrumentation.InstrumentationState;
+import graphql.execution.instrumentation.SimpleInstrumentationContext;
+import graphql.execution.instrumentation.SimplePerformantInstrumentation;
+import graphql.execution.instrumentation.parameters.InstrumentationExecuteOperationParameters;
+import graphql.execution.instrumentation.parameters.InstrumentationFieldFetchParameters;
+import graphql.schema.DataFetcher;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Times GraphQL operations ({@code bookstack.graphql.request}, by operation type, outcome and
+ * caller role) and the fields resolved by our own data fetchers ({@code bookstack.graphql.field},
+ * by {@code Type.field} and outcome). Fields read straight off a property are not timed; a
+ * field resolved asynchronously (a batch mapping, say) is timed until its value is there.
+ *
+ * Operations rejected by QueryCostInstrumentation never execute and are counted there instead.
+ */
+@Component
+public class GraphQLMetricsInstrumentation extends SimplePerformantInstrumentation {
+    private final MeterRegistry meterRegistry;
+    private final AuthenticationContext authenticationContext;
+
+    public GraphQLMetricsInstrumentation(MeterRegistry meterRegistry, AuthenticationContext authenticationContext) {
+        this.meterRegistry = meterRegistry;
+        this.authenticationContext = authenticationContext;
+    }
+
+    @Override
+    public InstrumentationContext<ExecutionResult> beginExecuteOperation(InstrumentationExecuteOperationParameters parameters,
+                                                                         InstrumentationState state) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String operation = parameters.getExecutionContext().getOperationDefinition().getOperation().name()
+                .toLowerCase(Locale.ROOT);
+        // Operations over WebSocket carry their principal in the GraphQL context instead of a request
+        AuthenticatedPrincipal webSocketPrincipal = parameters.getExecutionContext().getGraphQLContext()
+                .get(WebSocketAuthenticationInterceptor.PRINCIPAL);
+        String role = MetricTags.role(Optional.ofNullable(webSocketPrincipal)
+                .or(authenticationContext::currentPrincipal)
+                .orElse(null));
+        return SimpleInstrumentationContext.whenCompleted((result, error) -> sample.stop(Timer.builder("bookstack.graphql.request")
+                .description("Executed GraphQL operations")
+                .tag("operation", operation)
+                .tag("outcome", error == null && result.getErrors().isEmpty() ? MetricTags.SUCCESS : MetricTags.ERROR)
+                .tag("role", role)
+                .publishPercentileHistogram()
+                .register(meterRegistry)));
+    }
+
+    @Override
+    public DataFetcher<?> instrumentDataFetcher(DataFetcher<?> dataFetcher, InstrumentationFieldFetchParameters parameters,
+                                                InstrumentationState state) {
+        if (parameters.isTrivialDataFetcher()) return dataFetcher;
+        String field = parameters.getExecutionStepInfo().getObjectType().getName() + "."
+                + parameters.getExecutionStepInfo().getFieldDefinition().getName();
+        return environment -> {
+            Timer.Sample sample = Timer.start(meterRegistry);
+            Object value;
+            try {
+                value = dataFetcher.get(environment);
+            } catch (Exception e) {
+                stop(sample, field, e, null);
+                throw e;
+            }
+            if (value instanceof CompletionStage<?> stage) {
+                stage.whenComplete((result, error) -> stop(sample, field, error, result));
+            } else {
+                stop(sample, field, null, value);
+            }
+            return value;
+        };
+    }
+
+    private void stop(Timer.Sample sample, String field, Throwable error, Object value) {
+        boolean failed = error != null || value instanceof DataFetcherResult<?> result && result.hasErrors();
+        sample.stop(Timer.builder("bookstack.graphql.field")
+                .description("GraphQL fields resolved by application data fetchers")
+                .tag("field", field)
+                .tag("outcome", failed ? MetricTags.ERROR : MetricTags.SUCCESS)
+                .register(meterRegistry));
+    }
+}
@@ -0,0 +1,187 @@
+package com.bookstack.bookstack.common.graphql;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.ResourcePatternResolver;
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import graphql.ExecutionInput;
+import graphql.GraphQLError;
+import graphql.GraphqlErrorBuilder;
+import graphql.execution.preparsed.PreparsedDocumentEntry;
+import graphql.execution.preparsed.PreparsedDocumentProvider;
+import graphql.execution.preparsed.persisted.PersistedQuerySupport;
+import graphql.language.Document;
+import graphql.parser.Parser;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+/**
+ * Caches parsed and validated GraphQL documents by the SHA-256 of their text, and implements
+ * automatic persisted queries (the Apollo {@code extensions.persistedQuery} protocol) on top.
+ *
+ * A client may send only {@code sha256Hash}; if the document is not cached it gets a
+ * {@code PersistedQueryNotFound} error and retries once with the full text, which is then parsed,
+ * validated and cached under that hash. Plain requests without a hash go through the same cache,
+ * so a repeated document is never parsed or validated twice. Documents with errors are not cached.
+ *
+ * In allow-list mode only the operations registered under {@code location} execute, whether
+ * they arrive by hash or as text; anything else is rejected before parsing.
+ */
+@Component
+public class PersistedQueryDocumentProvider implements PreparsedDocumentProvider {
+    private static final Logger log = LoggerFactory.getLogger(PersistedQueryDocumentProvider.class);
+
+    private static final String PERSISTED_QUERY_EXTENSION = "persistedQuery";
+    private static final String HASH_KEY = "sha256Hash";
+
+    private final Cache<String, PreparsedDocumentEntry> documents;
+    // hash -> text of the operations registered for allow-list mode
+    private final Map<String, String> registered;
+    private final boolean allowListOnly;
+    private final MeterRegistry meterRegistry;
+
+    public PersistedQueryDocumentProvider(ResourcePatternResolver resourceResolver, MeterRegistry meterRegistry,
+                                          @Value("${app.graphql.persisted-queries.cache-max-size:1000}") long maxSize,
+                                          @Value("${app.graphql.persisted-queries.allow-list-only:false}") boolean allowListOnly,
+                                          @Value("${app.graphql.persisted-queries.location:classpath*:persisted-queries/*.graphql}") String location)
+            throws IOException {
+        this.meterRegistry = meterRegistry;
+        this.allowListOnly = allowListOnly;
+        this.documents = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, documents, "graphql-documents");
+
+        this.registered = new HashMap<>();
+        for (Resource resource : resourceResolver.getResources(location)) {
+            try (InputStream in = resource.getInputStream()) {
+                String text = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+                registered.put(sha256(text), text);
+            }
+        }
+        if (allowListOnly) {
+            log.info("GraphQL allow-list mode: {} registered operations from {}", registered.size(), location);
+        }
+    }
+
+    @Override
+    public CompletableFuture<PreparsedDocumentEntry> getDocumentAsync(ExecutionInput executionInput,
+                                                                     Function<ExecutionInput, PreparsedDocumentEntry> parseAndValidate) {
+        String query = executionInput.getQuery();
+        boolean textSent = query != null && !query.isEmpty() && !PersistedQuerySupport.PERSISTED_QUERY_MARKER.equals(query);
+        String requestedHash = requestedHash(executionInput.getExtensions());
+
+        String hash;
+        if (requestedHash == null) {
+            if (!textSent) {
+                return reject("invalid", PersistedQueryErrorType.PERSISTED_QUERY_ID_INVALID,
+                        "PersistedQueryIdInvalid", "");
+            }
+            hash = sha256(query);
+        } else if (textSent && !requestedHash.equals(sha256(query))) {
+            return reject("invalid", PersistedQueryErrorType.PERSISTED_QUERY_ID_INVALID,
+                    "PersistedQueryIdInvalid", requestedHash);
+        } else {
+            hash = requestedHash;
+        }
+
+        PreparsedDocumentEntry cached = documents.getIfPresent(hash);
+        if (cached != null) {
+            record("hit");
+            return CompletableFuture.completedFuture(cached);
+        }
+
+        if (allowListOnly && !registered.containsKey(hash)) {
+            return reject("rejected", PersistedQueryErrorType.PERSISTED_QUERY_NOT_ALLOWED,
+                    "Operation is not on the allow-list", hash);
+        }
+        String text = textSent ? query : registered.get(hash);
+        if (text == null) {
+            record("not_found");
+            return CompletableFuture.completedFuture(new PreparsedDocumentEntry(notFoundError(hash)));
+        }
+
+        record("miss");
+        PreparsedDocumentEntry entry = parseAndValidate.apply(textSent ? executionInput
+                : executionInput.transform(builder -> builder.query(text)));
+        if (!entry.hasErrors()) {
+            documents.put(hash, entry);
+        }
+        return CompletableFuture.completedFuture(entry);
+    }
+
+    /**
+     * The parsed document for a hash without executing anything: the cached one, or a registered
+     * operation parsed (but not validated) on the spot. Null when the hash is unknown.
+     */
+    public Document document(String hash) {
+        PreparsedDocumentEntry cached = documents.getIfPresent(hash);
+        if (cached != null) return cached.getDocument();
+        String text = registered.get(hash);
+        return text != null ? Parser.parse(text) : null;
+    }
+
+    // The persisted query hash a request asked for, if any
+    public static String requestedHash(Map<String, Object> extensions) {
+        if (extensions != null && extensions.get(PERSISTED_QUERY_EXTENSION) instanceof Map<?, ?> persistedQuery
+                && persistedQuery.get(HASH_KEY) instanceof String hash && !hash.isBlank()) {
+            return hash.toLowerCase(Locale.ROOT);
+        }
+        return null;
+    }
+
+    public static GraphQLError notFoundError(String hash) {
+        return error(PersistedQueryErrorType.PERSISTED_QUERY_NOT_FOUND, "PersistedQueryNotFound", hash);
+    }
+
+    private CompletableFuture<PreparsedDocumentEntry> reject(String outcome, PersistedQueryErrorType type,
+                                                             String message, String hash) {
+        record(outcome);
+        return CompletableFuture.completedFuture(new PreparsedDocumentEntry(error(type, message, hash)));
+    }
+
+    private static GraphQLError error(PersistedQueryErrorType type, String message, String hash) {
+        return GraphqlErrorBuilder.newError()
+                .errorType(type)
+                .message(message)
+                .extensions(Map.of("code", type.name(), "persistedQueryId", hash))
+                .build();
+    }
+
+    private void record(String outcome) {
+        Counter.builder("bookstack.graphql.documents")
+                .description("GraphQL document lookups by outcome")
+                .tag("outcome", outcome)
+                .register(meterRegistry)
+                .increment();
+    }
+
+    public static String sha256(String text) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(text.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
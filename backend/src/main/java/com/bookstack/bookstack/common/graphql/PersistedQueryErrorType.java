@@ -0,0 +1,10 @@
+package com.bookstack.bookstack.common.graphql;
+
+import graphql.ErrorClassification;
+
+// Classifications reported in errors[].extensions.classification for persisted query failures
+public enum PersistedQueryErrorType implements ErrorClassification {
+    PERSISTED_QUERY_NOT_FOUND,
+    PERSISTED_QUERY_ID_INVALID,
+    PERSISTED_QUERY_NOT_ALLOWED
+}
@@ -0,0 +1,147 @@
+package com.bookstack.bookstack.common.graphql;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.bookstack.bookstack.common.pagination.Cursors;
+
+import graphql.language.OperationDefinition;
+import graphql.normalized.ExecutableNormalizedField;
+import graphql.normalized.ExecutableNormalizedOperation;
+import graphql.schema.GraphQLAppliedDirective;
+import graphql.schema.GraphQLFieldDefinition;
+import graphql.schema.GraphQLSchema;
+import graphql.schema.GraphQLType;
+import graphql.schema.GraphQLTypeUtil;
+
+/**
+ * Static cost of a GraphQL operation, computed from the normalized operation (aliases expanded,
+ * fragments merged) before anything executes.
+ *
+ * A field costs its weight ({@code @cost}, 0 by default, mutation root fields default to
+ * {@code mutation-weight}) plus, for each item it returns, 1 for an object and the cost of its
+ * selected sub-fields. Lists multiply by their expected size: the slicing argument when given
+ * ({@code first}), else {@code @listSize(assumedSize)}, else {@code default-list-size}. Connections
+ * declare {@code sizedFields} so the page size multiplies {@code edges} rather than the connection.
+ */
+@Component
+public class QueryCostAnalyzer {
+    private static final String COST_DIRECTIVE = "cost";
+    private static final String LIST_SIZE_DIRECTIVE = "listSize";
+
+    private final Map<String, FieldCost> fieldCosts = new ConcurrentHashMap<>();
+
+    @Value("${app.graphql.cost.default-list-size:10}")
+    private int defaultListSize;
+
+    @Value("${app.graphql.cost.mutation-weight:10}")
+    private int mutationWeight;
+
+    public record QueryCost(long cost, int depth, int aliases) {
+    }
+
+    public QueryCost analyze(ExecutableNormalizedOperation operation, GraphQLSchema schema) {
+        boolean mutation = operation.getOperation() == OperationDefinition.Operation.MUTATION;
+        Totals totals = new Totals();
+        long cost = 0;
+        for (ExecutableNormalizedField field : operation.getTopLevelFields()) {
+            cost = saturatedAdd(cost, fieldCost(field, schema, null, mutation, totals));
+        }
+        return new QueryCost(cost, totals.depth, totals.aliases);
+    }
+
+    private long fieldCost(ExecutableNormalizedField field, GraphQLSchema schema, Long sizeFromParent,
+                           boolean mutation, Totals totals) {
+        // Introspection is bounded by graphql-java's own introspection checks
+        if (field.getName().startsWith("__")) return 0;
+
+        totals.depth = Math.max(totals.depth, field.getLevel());
+        if (field.getAlias() != null) totals.aliases++;
+
+        GraphQLFieldDefinition definition = field.getFieldDefinitions(schema).get(0);
+        String typeName = field.getObjectTypeNames().iterator().next();
+        FieldCost fieldCost = fieldCosts.computeIfAbsent(typeName + "." + field.getName(), key -> describe(definition));
+
+        long weight = fieldCost.weight() != null ? fieldCost.weight()
+                : mutation && field.getLevel() == 1 ? mutationWeight : 0;
+        long size = fieldCost.size(field);
+        boolean sizesChildren = !fieldCost.sizedFields().isEmpty();
+
+        long multiplier = 1;
+        if (sizeFromParent != null) {
+            multiplier = sizeFromParent;
+        } else if (fieldCost.list() && !sizesChildren) {
+            multiplier = size;
+        }
+
+        long perItem = fieldCost.composite() ? 1 : 0;
+        for (ExecutableNormalizedField child : field.getChildren()) {
+            Long childSize = sizesChildren && fieldCost.sizedFields().contains(child.getName()) ? size : null;
+            perItem = saturatedAdd(perItem, fieldCost(child, schema, childSize, mutation, totals));
+        }
+        return saturatedAdd(weight, saturatedMultiply(multiplier, perItem));
+    }
+
+    private FieldCost describe(GraphQLFieldDefinition definition) {
+        Integer weight = null;
+        GraphQLAppliedDirective cost = definition.getAppliedDirective(COST_DIRECTIVE);
+        if (cost != null) {
+            weight = cost.getArgument("weight").getValue();
+        }
+
+        Integer assumedSize = null;
+        List<String> slicingArguments = List.of();
+        List<String> sizedFields = List.of();
+        GraphQLAppliedDirective listSize = definition.getAppliedDirective(LIST_SIZE_DIRECTIVE);
+        if (listSize != null) {
+            assumedSize = listSize.getArgument("assumedSize").getValue();
+            slicingArguments = valueOrEmpty(listSize.getArgument("slicingArguments").getValue());
+            sizedFields = valueOrEmpty(listSize.getArgument("sizedFields").getValue());
+        }
+
+        GraphQLType type = GraphQLTypeUtil.unwrapNonNull(definition.getType());
+        return new FieldCost(weight, GraphQLTypeUtil.isList(type), !GraphQLTypeUtil.isLeaf(GraphQLTypeUtil.unwrapAll(type)),
+                assumedSize != null ? assumedSize : defaultListSize, slicingArguments, Set.copyOf(sizedFields));
+    }
+
+    private static List<String> valueOrEmpty(List<String> value) {
+        return value != null ? value : List.of();
+    }
+
+    private static long saturatedAdd(long a, long b) {
+        long sum = a + b;
+        return sum < 0 ? Long.MAX_VALUE : sum;
+    }
+
+    private static long saturatedMultiply(long a, long b) {
+        try {
+            return Math.multiplyExact(a, b);
+        } catch (ArithmeticException e) {
+            return Long.MAX_VALUE;
+        }
+    }
+
+    private record FieldCost(Integer weight, boolean list, boolean composite, int assumedSize,
+                             List<String> slicingArguments, Set<String> sizedFields) {
+
+        // Page-size arguments follow the connection rules: default when absent, capped at the maximum
+        long size(ExecutableNormalizedField field) {
+            for (String argument : slicingArguments) {
+                if (field.getResolvedArguments().get(argument) instanceof Number requested) {
+                    return Math.max(0, Math.min(requested.longValue(), Cursors.MAX_PAGE_SIZE));
+                }
+            }
+            return slicingArguments.isEmpty() ? assumedSize : Cursors.DEFAULT_PAGE_SIZE;
+        }
+    }
+
+    private static final class Totals {
+        int depth;
+        int aliases;
+    }
+}
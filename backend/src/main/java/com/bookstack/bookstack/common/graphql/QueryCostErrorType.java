@@ -0,0 +1,9 @@
+package com.bookstack.bookstack.common.graphql;
+
+import graphql.ErrorClassification;
+
+// Classifications reported in errors[].extensions.classification for rejected operations
+public enum QueryCostErrorType implements ErrorClassification {
+    QUERY_TOO_COMPLEX,
+    QUERY_BUDGET_EXCEEDED
+}
@@ -0,0 +1,157 @@
+package com.bookstack.bookstack.common.graphql;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import com.bookstack.bookstack.auth.model.AuthenticatedPrincipal;
+import com.bookstack.bookstack.auth.service.AuthenticationContext;
+import com.bookstack.bookstack.common.RateLimitInterceptor;
+import com.bookstack.bookstack.common.graphql.QueryCostAnalyzer.QueryCost;
+import com.bookstack.bookstack.common.ratelimit.RateLimitBucketProvider;
+
+import graphql.ExecutionResult;
+import graphql.GraphQLContext;
+import graphql.GraphQLError;
+import graphql.GraphqlErrorBuilder;
+import graphql.execution.AbortExecutionException;
+import graphql.execution.instrumentation.InstrumentationContext;
+import graphql.execution.instrumentation.InstrumentationState;
+import graphql.execution.instrumentation.SimplePerformantInstrumentation;
+import graphql.execution.instrumentation.parameters.InstrumentationExecuteOperationParameters;
+import graphql.normalized.ExecutableNormalizedOperation;
+import io.github.bucket4j.Bandwidth;
+import io.github.bucket4j.BucketConfiguration;
+import io.github.bucket4j.ConsumptionProbe;
+import io.github.bucket4j.Refill;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Rejects GraphQL operations that are too deep, use too many aliases or cost more than
+ * {@code max-cost} before any data fetcher runs, then charges the cost of accepted operations to
+ * a per-user (or, without a valid token, per-client IP) budget that refills every minute.
+ *
+ * The HTTP rate limiter counts a document as one request no matter what it selects; this is the
+ * part that accounts for what it actually asks the server to do.
+ */
+@Component
+public class QueryCostInstrumentation extends SimplePerformantInstrumentation {
+    private static final String BUDGET_KEY_PREFIX = "graphql-cost:";
+
+    private final QueryCostAnalyzer analyzer;
+    private final RateLimitBucketProvider bucketProvider;
+    private final AuthenticationContext authenticationContext;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${app.graphql.cost.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.graphql.cost.max-cost:5000}")
+    private long maxCost;
+
+    @Value("${app.graphql.cost.max-depth:8}")
+    private int maxDepth;
+
+    @Value("${app.graphql.cost.max-aliases:20}")
+    private int maxAliases;
+
+    // 0 disables the per-user budget, leaving only the per-operation limits
+    @Value("${app.graphql.cost.budget-per-minute:20000}")
+    private long budgetPerMinute;
+
+    public QueryCostInstrumentation(QueryCostAnalyzer analyzer, RateLimitBucketProvider bucketProvider,
+                                    AuthenticationContext authenticationContext, MeterRegistry meterRegistry) {
+        this.analyzer = analyzer;
+        this.bucketProvider = bucketProvider;
+        this.authenticationContext = authenticationContext;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public InstrumentationContext<ExecutionResult> beginExecuteOperation(InstrumentationExecuteOperationParameters parameters,
+                                                                         InstrumentationState state) {
+        if (!enabled) return null;
+
+        ExecutableNormalizedOperation operation = parameters.getExecutionContext().getNormalizedQueryTree().get();
+        QueryCost cost = analyzer.analyze(operation, parameters.getExecutionContext().getGraphQLSchema());
+        String operationType = operation.getOperation().name().toLowerCase(Locale.ROOT);
+
+        if (cost.depth() > maxDepth) {
+            throw reject("depth", QueryCostErrorType.QUERY_TOO_COMPLEX,
+                    "Query depth " + cost.depth() + " exceeds the maximum of " + maxDepth,
+                    Map.of("depth", cost.depth(), "maxDepth", maxDepth));
+        }
+        if (cost.aliases() > maxAliases) {
+            throw reject("aliases", QueryCostErrorType.QUERY_TOO_COMPLEX,
+                    "Query uses " + cost.aliases() + " aliases, the maximum is " + maxAliases,
+                    Map.of("aliases", cost.aliases(), "maxAliases", maxAliases));
+        }
+        if (cost.cost() > maxCost) {
+            throw reject("cost", QueryCostErrorType.QUERY_TOO_COMPLEX,
+                    "Query cost " + cost.cost() + " exceeds the maximum of " + maxCost,
+                    Map.of("cost", cost.cost(), "maxCost", maxCost));
+        }
+        if (budgetPerMinute > 0 && cost.cost() > 0) {
+            ConsumptionProbe probe = bucketProvider.resolveBucket(budgetKey(parameters.getExecutionContext().getGraphQLContext()),
+                            this::budgetConfiguration)
+                    .tryConsumeAndReturnRemaining(cost.cost());
+            if (!probe.isConsumed()) {
+                long retryAfterSeconds = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(probe.getNanosToWaitForRefill()));
+                throw reject("budget", QueryCostErrorType.QUERY_BUDGET_EXCEEDED,
+                        "Query cost budget exhausted, retry in " + retryAfterSeconds + " seconds",
+                        Map.of("cost", cost.cost(), "remainingBudget", probe.getRemainingTokens(),
+                                "retryAfterSeconds", retryAfterSeconds));
+            }
+        }
+
+        DistributionSummary.builder("bookstack.graphql.query.cost")
+                .description("Static cost of executed GraphQL operations")
+                .tag("operation", operationType)
+                .publishPercentileHistogram()
+                .register(meterRegistry)
+                .record(cost.cost());
+        return null;
+    }
+
+    private AbortExecutionException reject(String reason, QueryCostErrorType type, String message,
+                                           Map<String, Object> extensions) {
+        Counter.builder("bookstack.graphql.query.rejected")
+                .description("GraphQL operations rejected by static cost analysis")
+                .tag("reason", reason)
+                .register(meterRegistry)
+                .increment();
+        GraphQLError error = GraphqlErrorBuilder.newError()
+                .errorType(type)
+                .message(message)
+                .extensions(extensions)
+                .build();
+        return new AbortExecutionException(List.of(error));
+    }
+
+    // Operations over WebSocket carry their principal in the GraphQL context instead of a request
+    private String budgetKey(GraphQLContext graphQLContext) {
+        AuthenticatedPrincipal webSocketPrincipal = graphQLContext.get(WebSocketAuthenticationInterceptor.PRINCIPAL);
+        return Optional.ofNullable(webSocketPrincipal)
+                .or(authenticationContext::currentPrincipal)
+                .filter(principal -> principal.userId() != null)
+                .map(principal -> BUDGET_KEY_PREFIX + "user:" + principal.userId())
+                .orElseGet(() -> RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes attributes
+                        ? BUDGET_KEY_PREFIX + "ip:" + RateLimitInterceptor.clientIp(attributes.getRequest())
+                        : BUDGET_KEY_PREFIX + "anonymous");
+    }
+
+    private BucketConfiguration budgetConfiguration() {
+        Bandwidth limit = Bandwidth.classic(budgetPerMinute, Refill.greedy(budgetPerMinute, Duration.ofMinutes(1)));
+        return BucketConfiguration.builder().addLimit(limit).build();
+    }
+}
@@ -0,0 +1,61 @@
+package com.bookstack.bookstack.common.graphql;
+
+import java.util.Map;
+
+import org.springframework.graphql.server.WebGraphQlInterceptor;
+import org.springframework.graphql.server.WebGraphQlRequest;
+import org.springframework.graphql.server.WebGraphQlResponse;
+import org.springframework.graphql.server.WebSocketGraphQlInterceptor;
+import org.springframework.graphql.server.WebSocketGraphQlRequest;
+import org.springframework.graphql.server.WebSocketSessionInfo;
+import org.springframework.stereotype.Component;
+
+import com.bookstack.bookstack.auth.model.AuthenticatedPrincipal;
+import com.bookstack.bookstack.auth.service.AuthenticationContext;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * Authenticates GraphQL WebSocket connections. Browsers can't set headers on a WebSocket
+ * handshake, so the token travels in the {@code connection_init} payload as
+ * {@code {"Authorization": "Bearer <token>"}}; without a valid one the connection is closed
+ * with 4401 before anything executes.
+ *
+ * The principal is kept with the session and handed to each operation in the GraphQL context
+ * under {@link #PRINCIPAL}, after re-checking revocation, since there is no servlet request for
+ * {@link AuthenticationContext} to read it from.
+ */
+@Component
+public class WebSocketAuthenticationInterceptor implements WebSocketGraphQlInterceptor {
+    public static final String PRINCIPAL = "bookstack.webSocketPrincipal";
+
+    private final AuthenticationContext authenticationContext;
+
+    public WebSocketAuthenticationInterceptor(AuthenticationContext authenticationContext) {
+        this.authenticationContext = authenticationContext;
+    }
+
+    @Override
+    public Mono<Object> handleConnectionInitialization(WebSocketSessionInfo sessionInfo,
+                                                       Map<String, Object> connectionInitPayload) {
+        Object authorization = connectionInitPayload.getOrDefault("Authorization", connectionInitPayload.get("authorization"));
+        return Mono.fromCallable(() -> {
+            AuthenticatedPrincipal principal = authenticationContext.authenticate(
+                    authorization instanceof String value ? value : null);
+            sessionInfo.getAttributes().put(PRINCIPAL, principal);
+            // Empty: connection_ack without a payload
+            return null;
+        });
+    }
+
+    @Override
+    public Mono<WebGraphQlResponse> intercept(WebGraphQlRequest request, WebGraphQlInterceptor.Chain chain) {
+        if (request instanceof WebSocketGraphQlRequest webSocketRequest
+                && webSocketRequest.getSessionInfo().getAttributes().get(PRINCIPAL) instanceof AuthenticatedPrincipal principal) {
+            authenticationContext.requireNotRevoked(principal);
+            request.configureExecutionInput((input, builder) ->
+                    builder.graphQLContext(Map.of(PRINCIPAL, principal)).build());
+        }
+        return chain.next(request);
+    }
+}
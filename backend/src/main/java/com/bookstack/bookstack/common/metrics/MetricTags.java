@@ -0,0 +1,35 @@
+package com.bookstack.bookstack.common.metrics;
+
+import java.util.Locale;
+import java.util.Set;
+
+import com.bookstack.bookstack.auth.model.AuthenticatedPrincipal;
+import com.bookstack.bookstack.common.exception.BaseException;
+
+/**
+ * Tag values shared by the domain meters. Every value comes from a small fixed set, so no tag can
+ * grow a series per user, book or request.
+ */
+public final class MetricTags {
+    public static final String SUCCESS = "success";
+    // A 4xx BaseException: the caller asked for something the domain refused
+    public static final String REJECTED = "rejected";
+    public static final String ERROR = "error";
+
+    public static final String ANONYMOUS = "anonymous";
+    private static final Set<String> ROLES = Set.of("ADMIN", "LIBRARIAN", "MEMBER");
+
+    private MetricTags() {
+    }
+
+    public static String outcome(Throwable error) {
+        if (error == null) return SUCCESS;
+        if (error instanceof BaseException e && e.getStatus().is4xxClientError()) return REJECTED;
+        return ERROR;
+    }
+
+    public static String role(AuthenticatedPrincipal principal) {
+        if (principal == null || principal.role() == null) return ANONYMOUS;
+        return ROLES.contains(principal.role()) ? principal.role().toLowerCase(Locale.ROOT) : "other";
+    }
+}
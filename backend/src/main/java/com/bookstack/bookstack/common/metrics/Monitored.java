@@ -0,0 +1,18 @@
+package com.bookstack.bookstack.common.metrics;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Times every public method of the annotated service as {@code bookstack.service}, tagged with
+ * the domain given here, the method name, the outcome and the caller's role. Calls a service
+ * makes to itself don't go through the proxy and are not timed separately.
+ */
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface Monitored {
+    // Domain tag, e.g. "catalog" or "borrow"
+    String value();
+}
@@ -0,0 +1,49 @@
+package com.bookstack.bookstack.common.metrics;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import com.bookstack.bookstack.auth.service.AuthenticationContext;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+// Outside the transaction advice (lowest precedence), so the timing includes the commit and a
+// failed commit counts as an error; not at the highest precedence, where argument binding fails
+@Aspect
+@Component
+@Order(0)
+public class ServiceMetricsAspect {
+
+    private final MeterRegistry meterRegistry;
+    private final AuthenticationContext authenticationContext;
+
+    public ServiceMetricsAspect(MeterRegistry meterRegistry, AuthenticationContext authenticationContext) {
+        this.meterRegistry = meterRegistry;
+        this.authenticationContext = authenticationContext;
+    }
+
+    @Around("@within(monitored) && execution(public * *(..))")
+    public Object time(ProceedingJoinPoint joinPoint, Monitored monitored) throws Throwable {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        Throwable failure = null;
+        try {
+            return joinPoint.proceed();
+        } catch (Throwable e) {
+            failure = e;
+            throw e;
+        } finally {
+            sample.stop(Timer.builder("bookstack.service")
+                    .description("Service method calls by domain, operation, outcome and caller role")
+                    .tag("domain", monitored.value())
+                    .tag("operation", joinPoint.getSignature().getName())
+                    .tag("outcome", MetricTags.outcome(failure))
+                    // Only a principal this request already verified; scheduled work has none
+                    .tag("role", MetricTags.role(authenticationContext.resolvedPrincipal().orElse(null)))
+                    .register(meterRegistry));
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package com.bookstack.bookstack.common.pagination;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * Relay-style connection over rows ordered by id. Pages are fetched with a keyset predicate
+ * ({@code id > cursor}) and one extra row to detect whether another page follows.
+ */
+@Data
+@AllArgsConstructor
+public class Connection<T> {
+    private List<Edge<T>> edges;
+    private PageInfo pageInfo;
+
+    /**
+     * Builds a connection from a keyset query that fetched up to {@code pageSize + 1} rows.
+     */
+    public static <T> Connection<T> of(List<T> rows, int pageSize, Long afterId, Function<T, Long> idOf) {
+        boolean hasNextPage = rows.size() > pageSize;
+        List<T> page = hasNextPage ? rows.subList(0, pageSize) : rows;
+
+        List<Edge<T>> edges = new ArrayList<>(page.size());
+        for (T row : page) {
+            edges.add(new Edge<>(Cursors.encode(idOf.apply(row)), row));
+        }
+
+        String startCursor = edges.isEmpty() ? null : edges.get(0).getCursor();
+        String endCursor = edges.isEmpty() ? null : edges.get(edges.size() - 1).getCursor();
+        return new Connection<>(edges, new PageInfo(hasNextPage, afterId > 0, startCursor, endCursor));
+    }
+}
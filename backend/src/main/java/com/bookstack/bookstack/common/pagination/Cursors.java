@@ -0,0 +1,50 @@
+package com.bookstack.bookstack.common.pagination;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import com.bookstack.bookstack.common.exception.BadRequestException;
+
+/**
+ * Opaque cursor encoding for keyset pagination on numeric ids.
+ */
+public final class Cursors {
+    public static final int DEFAULT_PAGE_SIZE = 20;
+    public static final int MAX_PAGE_SIZE = 100;
+
+    private static final String PREFIX = "id:";
+
+    private Cursors() {
+    }
+
+    public static String encode(Long id) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((PREFIX + id).getBytes(StandardCharsets.UTF_8));
+    }
+
+    // Returns the id to seek after; a missing cursor starts from the beginning
+    public static long decode(String cursor) {
+        if (cursor == null || cursor.isEmpty()) {
+            return 0L;
+        }
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            if (!decoded.startsWith(PREFIX)) {
+                throw new BadRequestException("Invalid cursor");
+            }
+            return Long.parseLong(decoded.substring(PREFIX.length()));
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException("Invalid cursor");
+        }
+    }
+
+    public static int pageSize(Integer first) {
+        if (first == null) {
+            return DEFAULT_PAGE_SIZE;
+        }
+        if (first < 1 || first > MAX_PAGE_SIZE) {
+            throw new BadRequestException("first must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        return first;
+    }
+}
@@ -0,0 +1,11 @@
+package com.bookstack.bookstack.common.pagination;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class Edge<T> {
+    private String cursor;
+    private T node;
+}
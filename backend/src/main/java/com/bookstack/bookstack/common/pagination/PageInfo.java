@@ -0,0 +1,13 @@
+package com.bookstack.bookstack.common.pagination;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class PageInfo {
+    private boolean hasNextPage;
+    private boolean hasPreviousPage;
+    private String startCursor;
+    private String endCursor;
+}
@@ -0,0 +1,119 @@
+package com.bookstack.bookstack.common.ratelimit;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import io.github.bucket4j.distributed.proxy.ClientSideConfig;
+import io.github.bucket4j.distributed.proxy.generic.compare_and_swap.AbstractCompareAndSwapBasedProxyManager;
+import io.github.bucket4j.distributed.proxy.generic.compare_and_swap.AsyncCompareAndSwapOperation;
+import io.github.bucket4j.distributed.proxy.generic.compare_and_swap.CompareAndSwapOperation;
+import io.github.bucket4j.distributed.remote.RemoteBucketState;
+
+/**
+ * Bucket4j proxy manager that keeps serialized bucket state in the {@code rate_limit_buckets} table.
+ *
+ * Updates are optimistic: a state change is written with {@code UPDATE ... WHERE state = <state read>}
+ * (or an INSERT for a new bucket) and Bucket4j retries the command when another replica won the race.
+ * Each row records when its bucket will be full again; after that point the row carries no
+ * information and {@link #purgeExpired()} may delete it.
+ */
+public class JdbcBucketProxyManager extends AbstractCompareAndSwapBasedProxyManager<String> {
+    static final String TABLE = "rate_limit_buckets";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public JdbcBucketProxyManager(JdbcTemplate jdbcTemplate) {
+        super(ClientSideConfig.getDefault());
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    // Delete buckets that have refilled completely; recreating them later yields the same state
+    public int purgeExpired() {
+        return jdbcTemplate.update("DELETE FROM " + TABLE + " WHERE expires_at < ?", System.currentTimeMillis());
+    }
+
+    @Override
+    protected CompareAndSwapOperation beginCompareAndSwapOperation(String key) {
+        return new CompareAndSwapOperation() {
+            @Override
+            public Optional<byte[]> getStateData() {
+                List<byte[]> rows = jdbcTemplate.query("SELECT state FROM " + TABLE + " WHERE id = ?",
+                        (rs, rowNum) -> rs.getBytes(1), key);
+                return rows.stream().findFirst();
+            }
+
+            @Override
+            public boolean compareAndSwap(byte[] originalData, byte[] newData, RemoteBucketState newState) {
+                long expiresAt = expiresAt(newState);
+                if (originalData == null) {
+                    try {
+                        jdbcTemplate.update("INSERT INTO " + TABLE + " (id, state, expires_at) VALUES (?, ?, ?)",
+                                key, newData, expiresAt);
+                        return true;
+                    } catch (DuplicateKeyException e) {
+                        // Another replica created the bucket first; Bucket4j re-reads and retries
+                        return false;
+                    }
+                }
+                return jdbcTemplate.update("UPDATE " + TABLE + " SET state = ?, expires_at = ? WHERE id = ? AND state = ?",
+                        newData, expiresAt, key, originalData) == 1;
+            }
+        };
+    }
+
+    // JDBC has no async driver; the futures run the blocking statements on the calling thread
+    @Override
+    protected AsyncCompareAndSwapOperation beginAsyncCompareAndSwapOperation(String key) {
+        CompareAndSwapOperation operation = beginCompareAndSwapOperation(key);
+        return new AsyncCompareAndSwapOperation() {
+            @Override
+            public CompletableFuture<Optional<byte[]>> getStateData() {
+                return completed(operation::getStateData);
+            }
+
+            @Override
+            public CompletableFuture<Boolean> compareAndSwap(byte[] originalData, byte[] newData, RemoteBucketState newState) {
+                return completed(() -> operation.compareAndSwap(originalData, newData, newState));
+            }
+        };
+    }
+
+    @Override
+    public void removeProxy(String key) {
+        jdbcTemplate.update("DELETE FROM " + TABLE + " WHERE id = ?", key);
+    }
+
+    @Override
+    protected CompletableFuture<Void> removeAsync(String key) {
+        return completed(() -> {
+            removeProxy(key);
+            return null;
+        });
+    }
+
+    // The async methods above block, so callers should not pick async mode for throughput
+    @Override
+    public boolean isAsyncModeSupported() {
+        return false;
+    }
+
+    private static <T> CompletableFuture<T> completed(Supplier<T> call) {
+        try {
+            return CompletableFuture.completedFuture(call.get());
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    private static long expiresAt(RemoteBucketState state) {
+        long nowMillis = System.currentTimeMillis();
+        long refillNanos = state.calculateFullRefillingTime(TimeUnit.MILLISECONDS.toNanos(nowMillis));
+        return nowMillis + TimeUnit.NANOSECONDS.toMillis(refillNanos) + 1;
+    }
+}
@@ -0,0 +1,71 @@
+package com.bookstack.bookstack.common.ratelimit;
+
+import java.time.Duration;
+import java.util.function.Supplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.github.bucket4j.Bucket;
+import io.github.bucket4j.BucketConfiguration;
+import io.github.bucket4j.distributed.proxy.optimization.DelayParameters;
+import io.github.bucket4j.distributed.proxy.optimization.Optimization;
+import io.github.bucket4j.distributed.proxy.optimization.Optimizations;
+
+/**
+ * Buckets shared by all replicas through the {@code rate_limit_buckets} table.
+ *
+ * Bucket proxies are kept in a local near-cache and use Bucket4j's delaying optimization: each
+ * replica consumes locally and writes its consumption back once it has taken {@code sync-tokens}
+ * tokens or {@code sync-interval-ms} has passed, whichever comes first. A client can therefore
+ * exceed its quota by at most {@code sync-tokens} per replica, in exchange for most requests never
+ * touching the database. Set {@code sync-tokens=0} to synchronize on every request.
+ */
+@Component
+@ConditionalOnProperty(name = "rate.limit.backend", havingValue = "jdbc")
+public class JdbcRateLimitBucketProvider implements RateLimitBucketProvider {
+    private static final Logger log = LoggerFactory.getLogger(JdbcRateLimitBucketProvider.class);
+
+    private final JdbcBucketProxyManager proxyManager;
+    private final Optimization optimization;
+    private final Cache<String, Bucket> nearCache;
+
+    public JdbcRateLimitBucketProvider(JdbcTemplate jdbcTemplate,
+                                       @Value("${rate.limit.jdbc.sync-tokens:5}") long syncTokens,
+                                       @Value("${rate.limit.jdbc.sync-interval-ms:1000}") long syncIntervalMillis,
+                                       @Value("${rate.limit.jdbc.near-cache-size:100000}") long nearCacheSize) {
+        this.proxyManager = new JdbcBucketProxyManager(jdbcTemplate);
+        this.optimization = syncTokens > 0
+                ? Optimizations.delaying(new DelayParameters(syncTokens, Duration.ofMillis(syncIntervalMillis)))
+                : Optimization.NONE_OPTIMIZED;
+        // Evicting a proxy only drops its unsynchronized tokens; the authoritative state is in the table
+        this.nearCache = Caffeine.newBuilder()
+                .maximumSize(nearCacheSize)
+                .expireAfterAccess(Duration.ofMinutes(5))
+                .build();
+    }
+
+    @Override
+    public Bucket resolveBucket(String key, Supplier<BucketConfiguration> configuration) {
+        return nearCache.get(key, k -> proxyManager.builder()
+                .withOptimization(optimization)
+                .build(k, configuration));
+    }
+
+    @Scheduled(initialDelayString = "${rate.limit.jdbc.purge-interval-ms:300000}",
+               fixedDelayString = "${rate.limit.jdbc.purge-interval-ms:300000}")
+    public void purgeExpiredBuckets() {
+        int purged = proxyManager.purgeExpired();
+        if (purged > 0) {
+            log.debug("Purged {} refilled rate limit buckets", purged);
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.bookstack.bookstack.common.ratelimit;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+
+import io.github.bucket4j.Bandwidth;
+import io.github.bucket4j.Bucket;
+import io.github.bucket4j.BucketConfiguration;
+import io.github.bucket4j.local.LocalBucketBuilder;
+
+/**
+ * Per-JVM buckets kept in the {@code rate-limit-buckets} cache. Every replica enforces the limit on
+ * its own, so only suitable for single-instance deployments.
+ */
+@Component
+@ConditionalOnProperty(name = "rate.limit.backend", havingValue = "local", matchIfMissing = true)
+public class LocalRateLimitBucketProvider implements RateLimitBucketProvider {
+
+    private final CacheManager cacheManager;
+
+    // In-memory fallback cache if the CacheManager is not available
+    private final Map<String, Bucket> buckets = new ConcurrentHashMap<>();
+
+    public LocalRateLimitBucketProvider(CacheManager cacheManager) {
+        this.cacheManager = cacheManager;
+    }
+
+    @Override
+    public Bucket resolveBucket(String key, Supplier<BucketConfiguration> configuration) {
+        // Try to get the bucket from the cache first
+        Cache cache = cacheManager.getCache("rate-limit-buckets");
+        if (cache != null) {
+            return cache.get(key, () -> createBucket(configuration.get()));
+        }
+
+        // Fall back to in-memory map if cache is not available
+        return buckets.computeIfAbsent(key, k -> createBucket(configuration.get()));
+    }
+
+    private static Bucket createBucket(BucketConfiguration configuration) {
+        LocalBucketBuilder builder = Bucket.builder();
+        for (Bandwidth bandwidth : configuration.getBandwidths()) {
+            builder.addLimit(bandwidth);
+        }
+        return builder.build();
+    }
+}
@@ -0,0 +1,20 @@
+package com.bookstack.bookstack.common.ratelimit;
+
+import java.util.function.Supplier;
+
+import io.github.bucket4j.Bucket;
+import io.github.bucket4j.BucketConfiguration;
+
+/**
+ * Source of the per-client token buckets used by {@link com.bookstack.bookstack.common.RateLimitInterceptor}.
+ *
+ * Selected with {@code rate.limit.backend}: {@code local} keeps buckets in this JVM only, {@code jdbc}
+ * shares them between replicas through the database.
+ */
+public interface RateLimitBucketProvider {
+
+    /**
+     * Returns the bucket for the given client key, creating it from the configuration on first use.
+     */
+    Bucket resolveBucket(String key, Supplier<BucketConfiguration> configuration);
+}
@@ -0,0 +1,83 @@
+package com.bookstack.bookstack.hold.controller;
+
+import java.util.List;
+
+import jakarta.validation.Valid;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.bookstack.bookstack.auth.annotation.RequireRole;
+import com.bookstack.bookstack.auth.model.AuthenticatedPrincipal;
+import com.bookstack.bookstack.auth.service.AuthenticationContext;
+import com.bookstack.bookstack.common.exception.ForbiddenException;
+import com.bookstack.bookstack.hold.dto.HoldRequest;
+import com.bookstack.bookstack.hold.dto.HoldResponse;
+import com.bookstack.bookstack.hold.service.HoldService;
+
+@RestController
+@RequestMapping("/api/holds")
+public class HoldController {
+    private final HoldService holdService;
+    private final AuthenticationContext authenticationContext;
+
+    public HoldController(HoldService holdService, AuthenticationContext authenticationContext) {
+        this.holdService = holdService;
+        this.authenticationContext = authenticationContext;
+    }
+
+    // Members place holds for themselves; staff for anyone
+    @PostMapping
+    @RequireRole({"LIBRARIAN", "ADMIN", "MEMBER"})
+    public ResponseEntity<HoldResponse> placeHold(@Valid @RequestBody HoldRequest request) {
+        AuthenticatedPrincipal principal = authenticationContext.requirePrincipal();
+        Long userId = request.getUserId() != null ? request.getUserId() : principal.userId();
+        requireOwnRecords(principal, userId);
+        HoldResponse hold = holdService.placeHold(userId, request.getBookId());
+        return ResponseEntity.status(HttpStatus.CREATED).body(hold);
+    }
+
+    @DeleteMapping("/{id}")
+    @RequireRole({"LIBRARIAN", "ADMIN", "MEMBER"})
+    public ResponseEntity<HoldResponse> cancelHold(@PathVariable Long id) {
+        requireOwnRecords(authenticationContext.requirePrincipal(), holdService.getHold(id).getUserId());
+        HoldResponse hold = holdService.cancelHold(id);
+        return ResponseEntity.ok(hold);
+    }
+
+    @GetMapping("/{id}")
+    @RequireRole({"LIBRARIAN", "ADMIN", "MEMBER"})
+    public ResponseEntity<HoldResponse> getHold(@PathVariable Long id) {
+        HoldResponse hold = holdService.getHold(id);
+        requireOwnRecords(authenticationContext.requirePrincipal(), hold.getUserId());
+        return ResponseEntity.ok(hold);
+    }
+
+    @GetMapping("/user/{userId}")
+    @RequireRole({"LIBRARIAN", "ADMIN", "MEMBER"})
+    public ResponseEntity<List<HoldResponse>> getHoldsByUser(@PathVariable Long userId) {
+        requireOwnRecords(authenticationContext.requirePrincipal(), userId);
+        List<HoldResponse> holds = holdService.getOpenHoldsByUserId(userId);
+        return ResponseEntity.ok(holds);
+    }
+
+    @GetMapping("/book/{bookId}")
+    @RequireRole({"LIBRARIAN", "ADMIN"})
+    public ResponseEntity<List<HoldResponse>> getHoldsByBook(@PathVariable Long bookId) {
+        List<HoldResponse> holds = holdService.getOpenHoldsByBookId(bookId);
+        return ResponseEntity.ok(holds);
+    }
+
+    // If user is a MEMBER, verify they're only touching their own holds
+    private static void requireOwnRecords(AuthenticatedPrincipal principal, Long userId) {
+        if (principal.hasRole("MEMBER") && !userId.equals(principal.userId())) {
+            throw new ForbiddenException("Members can only access their own holds");
+        }
+    }
+}
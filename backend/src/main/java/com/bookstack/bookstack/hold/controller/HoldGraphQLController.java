@@ -0,0 +1,71 @@
+package com.bookstack.bookstack.hold.controller;
+
+import java.util.List;
+
+import org.springframework.graphql.data.method.annotation.Argument;
+import org.springframework.graphql.data.method.annotation.MutationMapping;
+import org.springframework.graphql.data.method.annotation.QueryMapping;
+import org.springframework.stereotype.Controller;
+
+import com.bookstack.bookstack.auth.annotation.RequireRole;
+import com.bookstack.bookstack.auth.model.AuthenticatedPrincipal;
+import com.bookstack.bookstack.auth.service.AuthenticationContext;
+import com.bookstack.bookstack.common.exception.ForbiddenException;
+import com.bookstack.bookstack.hold.dto.HoldResponse;
+import com.bookstack.bookstack.hold.service.HoldService;
+
+@Controller
+public class HoldGraphQLController {
+    private final HoldService holdService;
+    private final AuthenticationContext authenticationContext;
+
+    public HoldGraphQLController(HoldService holdService, AuthenticationContext authenticationContext) {
+        this.holdService = holdService;
+        this.authenticationContext = authenticationContext;
+    }
+
+    @QueryMapping
+    @RequireRole({"LIBRARIAN", "ADMIN", "MEMBER"})
+    public HoldResponse holdById(@Argument Long id) {
+        HoldResponse hold = holdService.getHold(id);
+        requireOwnRecords(hold.getUserId());
+        return hold;
+    }
+
+    @QueryMapping
+    @RequireRole({"LIBRARIAN", "ADMIN", "MEMBER"})
+    public List<HoldResponse> holdsByUser(@Argument Long userId) {
+        requireOwnRecords(userId);
+        return holdService.getOpenHoldsByUserId(userId);
+    }
+
+    @QueryMapping
+    @RequireRole({"LIBRARIAN", "ADMIN"})
+    public List<HoldResponse> holdsByBook(@Argument Long bookId) {
+        return holdService.getOpenHoldsByBookId(bookId);
+    }
+
+    // Members place holds for themselves; staff for anyone
+    @MutationMapping
+    @RequireRole({"LIBRARIAN", "ADMIN", "MEMBER"})
+    public HoldResponse placeHold(@Argument Long bookId, @Argument Long userId) {
+        Long holder = userId != null ? userId : authenticationContext.requirePrincipal().userId();
+        requireOwnRecords(holder);
+        return holdService.placeHold(holder, bookId);
+    }
+
+    @MutationMapping
+    @RequireRole({"LIBRARIAN", "ADMIN", "MEMBER"})
+    public HoldResponse cancelHold(@Argument Long id) {
+        requireOwnRecords(holdService.getHold(id).getUserId());
+        return holdService.cancelHold(id);
+    }
+
+    // If user is a MEMBER, verify they're only touching their own holds
+    private void requireOwnRecords(Long userId) {
+        AuthenticatedPrincipal principal = authenticationContext.requirePrincipal();
+        if (principal.hasRole("MEMBER") && !userId.equals(principal.userId())) {
+            throw new ForbiddenException("Members can only access their own holds");
+        }
+    }
+}
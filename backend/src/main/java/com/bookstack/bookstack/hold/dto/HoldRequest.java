@@ -0,0 +1,16 @@
+package com.bookstack.bookstack.hold.dto;
+
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import lombok.Data;
+
+@Data
+public class HoldRequest {
+    // Defaults to the caller; staff may place holds for any member
+    @Positive(message = "User ID must be positive")
+    private Long userId;
+
+    @NotNull(message = "Book ID is required")
+    @Positive(message = "Book ID must be positive")
+    private Long bookId;
+}
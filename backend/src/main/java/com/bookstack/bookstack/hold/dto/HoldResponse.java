@@ -0,0 +1,38 @@
+package com.bookstack.bookstack.hold.dto;
+
+import java.time.LocalDateTime;
+
+import com.bookstack.bookstack.hold.model.HoldStatus;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+public class HoldResponse {
+    private Long id;
+    private Long userId;
+    private Long bookId;
+    private String userName;
+    private String bookTitle;
+    private HoldStatus status;
+    private LocalDateTime createdAt;
+    private LocalDateTime readyAt;
+    private LocalDateTime expiresAt;
+    // 1-based place in the book's queue while WAITING, null otherwise
+    private Integer position;
+
+    // Argument order is used by the HoldRepository projections; position is filled in afterwards
+    public HoldResponse(Long id, Long userId, Long bookId, String userName, String bookTitle, HoldStatus status,
+                        LocalDateTime createdAt, LocalDateTime readyAt, LocalDateTime expiresAt) {
+        this.id = id;
+        this.userId = userId;
+        this.bookId = bookId;
+        this.userName = userName;
+        this.bookTitle = bookTitle;
+        this.status = status;
+        this.createdAt = createdAt;
+        this.readyAt = readyAt;
+        this.expiresAt = expiresAt;
+    }
+}
@@ -0,0 +1,70 @@
+package com.bookstack.bookstack.hold.model;
+
+import java.time.LocalDateTime;
+
+import com.bookstack.bookstack.book.model.Book;
+import com.bookstack.bookstack.user.model.User;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.FetchType;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.ManyToOne;
+import jakarta.persistence.Table;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+
+@Entity
+@Table(name = "holds")
+@Data
+@NoArgsConstructor
+// Identity by id only: equals/hashCode/toString must not initialize the lazy associations
+@EqualsAndHashCode(onlyExplicitlyIncluded = true)
+public class Hold {
+    @Id
+    @EqualsAndHashCode.Include
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_id", nullable = false)
+    @ToString.Exclude
+    private User user;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "book_id", nullable = false)
+    @ToString.Exclude
+    private Book book;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private HoldStatus status;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    // Set when a returned copy is allocated to the hold
+    @Column(name = "ready_at")
+    private LocalDateTime readyAt;
+
+    @Column(name = "expires_at")
+    private LocalDateTime expiresAt;
+
+    // Fulfilled, cancelled or expired
+    @Column(name = "closed_at")
+    private LocalDateTime closedAt;
+
+    public Hold(User user, Book book, LocalDateTime createdAt) {
+        this.user = user;
+        this.book = book;
+        this.status = HoldStatus.WAITING;
+        this.createdAt = createdAt;
+    }
+}
@@ -0,0 +1,11 @@
+package com.bookstack.bookstack.hold.model;
+
+public enum HoldStatus {
+    // In the queue for the next returned copy
+    WAITING,
+    // A returned copy is set aside for the holder until the hold expires
+    READY,
+    FULFILLED,
+    CANCELLED,
+    EXPIRED
+}
@@ -0,0 +1,95 @@
+package com.bookstack.bookstack.hold.repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.bookstack.bookstack.hold.dto.HoldResponse;
+import com.bookstack.bookstack.hold.model.Hold;
+import com.bookstack.bookstack.hold.model.HoldStatus;
+
+@Repository
+public interface HoldRepository extends JpaRepository<Hold, Long> {
+
+    // Open holds as HoldQueues and the expiry wheel rebuild them at startup
+    interface OpenHold {
+        Long getId();
+        Long getBookId();
+        LocalDateTime getExpiresAt();
+    }
+
+    @Query("SELECT h.id AS id, h.book.id AS bookId, h.expiresAt AS expiresAt FROM Hold h "
+            + "WHERE h.status = :status ORDER BY h.createdAt, h.id")
+    List<OpenHold> findOpenHolds(@Param("status") HoldStatus status);
+
+    // The same for some books, to follow changes another replica made to their holds
+    @Query("SELECT h.id AS id, h.book.id AS bookId, h.expiresAt AS expiresAt FROM Hold h "
+            + "WHERE h.status = :status AND h.book.id IN :bookIds ORDER BY h.createdAt, h.id")
+    List<OpenHold> findOpenHolds(@Param("status") HoldStatus status, @Param("bookIds") Collection<Long> bookIds);
+
+    long countByBookIdAndStatus(Long bookId, HoldStatus status);
+
+    // Queue order straight from the table, where holds placed on every replica are in line
+    @Query("SELECT h.id FROM Hold h WHERE h.book.id = :bookId AND h.status = 'WAITING' ORDER BY h.createdAt, h.id")
+    List<Long> findWaitingIds(@Param("bookId") Long bookId, Limit limit);
+
+    // READY holds past their pickup window, for holds the local expiry wheel doesn't know about
+    @Query("SELECT h.id AS id, h.book.id AS bookId, h.expiresAt AS expiresAt FROM Hold h "
+            + "WHERE h.status = 'READY' AND h.expiresAt < :now ORDER BY h.expiresAt, h.id")
+    List<OpenHold> findLapsedHolds(@Param("now") LocalDateTime now, Limit limit);
+
+    // Which of the books anyone is waiting for, so a batch of returns only allocates where needed
+    @Query("SELECT DISTINCT h.book.id FROM Hold h WHERE h.book.id IN :bookIds AND h.status = 'WAITING'")
+    List<Long> findBookIdsWithWaitingHolds(@Param("bookIds") Collection<Long> bookIds);
+
+    @Query("SELECT h.id AS id, h.book.id AS bookId, h.expiresAt AS expiresAt FROM Hold h "
+            + "WHERE h.user.id = :userId AND h.book.id IN :bookIds AND h.status = 'READY'")
+    List<OpenHold> findReadyHolds(@Param("userId") Long userId, @Param("bookIds") Collection<Long> bookIds);
+
+    boolean existsByUserIdAndBookIdAndStatusIn(Long userId, Long bookId, Collection<HoldStatus> statuses);
+
+    @Query("SELECT h.id FROM Hold h WHERE h.user.id = :userId AND h.book.id = :bookId AND h.status = 'READY'")
+    Optional<Long> findReadyHoldId(@Param("userId") Long userId, @Param("bookId") Long bookId);
+
+    // State changes are conditional on the current status, so the request that loses a race
+    // (an expiry against a pickup, a cancel against an allocation) changes nothing
+
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Hold h SET h.status = 'READY', h.readyAt = :now, h.expiresAt = :expiresAt "
+            + "WHERE h.id = :id AND h.status = 'WAITING'")
+    int markReady(@Param("id") Long id, @Param("now") LocalDateTime now, @Param("expiresAt") LocalDateTime expiresAt);
+
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Hold h SET h.status = :to, h.closedAt = :now WHERE h.id = :id AND h.status IN :from")
+    int close(@Param("id") Long id, @Param("from") Collection<HoldStatus> from, @Param("to") HoldStatus to,
+              @Param("now") LocalDateTime now);
+
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Hold h SET h.status = 'EXPIRED', h.closedAt = :now "
+            + "WHERE h.id = :id AND h.status = 'READY' AND h.expiresAt <= :now")
+    int expire(@Param("id") Long id, @Param("now") LocalDateTime now);
+
+    // Reads for the API select straight into HoldResponse, like the borrow lists
+    String RESPONSE_SELECT = "SELECT new com.bookstack.bookstack.hold.dto.HoldResponse("
+            + "h.id, u.id, bk.id, u.username, bk.title, h.status, h.createdAt, h.readyAt, h.expiresAt) "
+            + "FROM Hold h JOIN h.user u JOIN h.book bk";
+
+    @Query(RESPONSE_SELECT + " WHERE h.id = :id")
+    Optional<HoldResponse> findResponseById(@Param("id") Long id);
+
+    @Query(RESPONSE_SELECT + " WHERE u.id = :userId AND h.status IN :statuses ORDER BY h.createdAt, h.id")
+    List<HoldResponse> findResponsesByUserId(@Param("userId") Long userId,
+                                             @Param("statuses") Collection<HoldStatus> statuses);
+
+    @Query(RESPONSE_SELECT + " WHERE bk.id = :bookId AND h.status IN :statuses ORDER BY h.createdAt, h.id")
+    List<HoldResponse> findResponsesByBookId(@Param("bookId") Long bookId,
+                                             @Param("statuses") Collection<HoldStatus> statuses);
+}
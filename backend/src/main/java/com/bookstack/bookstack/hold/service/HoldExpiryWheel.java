@@ -0,0 +1,155 @@
+package com.bookstack.bookstack.hold.service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Hashed timer wheel for READY holds: each deadline lands in the slot for its tick, and every
+ * tick only looks at the one slot that came due, so expiring holds costs nothing in between and
+ * never scans the holds table. A deadline more than one revolution out simply stays in its slot
+ * until a later pass finds it due. Scheduling and cancelling are O(1).
+ *
+ * Holds made READY, picked up or cancelled on another replica are brought in by {@link #reload}
+ * when the resource version sync reports their book.
+ */
+@Component
+public class HoldExpiryWheel {
+    private static final int SLOTS = 512;
+
+    record Due(long holdId, long bookId) {
+    }
+
+    record Deadline(long holdId, long bookId, long deadlineMillis) {
+    }
+
+    private record Entry(long holdId, long bookId, long deadlineTick) {
+    }
+
+    private final long tickMillis;
+    private final List<List<Entry>> slots = new ArrayList<>(SLOTS);
+    private final Map<Long, Entry> entries = new HashMap<>();
+    // Not synchronized: reload holds it across a query, which would pin a virtual thread
+    private final ReentrantLock lock = new ReentrantLock();
+    private long lastTick;
+
+    public HoldExpiryWheel(@Value("${app.holds.expiry-tick-ms:1000}") long tickMillis) {
+        this.tickMillis = tickMillis;
+        for (int i = 0; i < SLOTS; i++) {
+            slots.add(new ArrayList<>());
+        }
+        this.lastTick = Math.floorDiv(System.currentTimeMillis(), tickMillis);
+    }
+
+    // Fires on the first tick at or after the deadline; deadlines already past fire on the next tick
+    public void schedule(long holdId, long bookId, long deadlineMillis) {
+        lock.lock();
+        try {
+            add(holdId, bookId, deadlineMillis);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void cancel(long holdId) {
+        lock.lock();
+        try {
+            remove(holdId);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Replaces the deadlines of the given books' holds with the table's READY holds. The table is
+     * read under the lock, so a local change committing after the read is applied on top of it.
+     * Finding the books' current entries walks every scheduled hold.
+     */
+    void reload(Collection<Long> bookIds, Function<Collection<Long>, List<Deadline>> readyHolds) {
+        lock.lock();
+        try {
+            List<Deadline> ready = readyHolds.apply(bookIds);
+            Set<Long> books = new HashSet<>(bookIds);
+            List<Long> stale = new ArrayList<>();
+            for (Entry entry : entries.values()) {
+                if (books.contains(entry.bookId())) stale.add(entry.holdId());
+            }
+            stale.forEach(this::remove);
+            ready.forEach(hold -> add(hold.holdId(), hold.bookId(), hold.deadlineMillis()));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Removes and returns everything due by now, visiting each slot at most once
+    public List<Due> advance(long nowMillis) {
+        lock.lock();
+        try {
+            long nowTick = Math.floorDiv(nowMillis, tickMillis);
+            List<Due> due = new ArrayList<>();
+            for (long tick = lastTick + 1; tick <= nowTick && tick <= lastTick + SLOTS; tick++) {
+                Iterator<Entry> slot = slots.get(slot(tick)).iterator();
+                while (slot.hasNext()) {
+                    Entry entry = slot.next();
+                    if (entry.deadlineTick() <= nowTick) {
+                        slot.remove();
+                        entries.remove(entry.holdId());
+                        due.add(new Due(entry.holdId(), entry.bookId()));
+                    }
+                }
+            }
+            lastTick = Math.max(lastTick, nowTick);
+            return due;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int size() {
+        lock.lock();
+        try {
+            return entries.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    void clear() {
+        lock.lock();
+        try {
+            slots.forEach(List::clear);
+            entries.clear();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void add(long holdId, long bookId, long deadlineMillis) {
+        remove(holdId);
+        long deadlineTick = Math.max(Math.floorDiv(deadlineMillis + tickMillis - 1, tickMillis), lastTick + 1);
+        Entry entry = new Entry(holdId, bookId, deadlineTick);
+        entries.put(holdId, entry);
+        slots.get(slot(deadlineTick)).add(entry);
+    }
+
+    private void remove(long holdId) {
+        Entry entry = entries.remove(holdId);
+        if (entry != null) {
+            slots.get(slot(entry.deadlineTick())).remove(entry);
+        }
+    }
+
+    private static int slot(long tick) {
+        return (int) Math.floorMod(tick, (long) SLOTS);
+    }
+}
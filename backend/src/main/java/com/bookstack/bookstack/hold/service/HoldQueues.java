@@ -0,0 +1,132 @@
+package com.bookstack.bookstack.hold.service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+import org.springframework.stereotype.Component;
+
+import com.bookstack.bookstack.common.transaction.AfterCommit;
+
+/**
+ * In-memory FIFO of WAITING holds per book, so reporting a queue position never queries the
+ * holds table. Changes made on this instance are applied once their transaction commits; books
+ * whose holds another replica changed are reloaded from the table when the resource version sync
+ * reports them, so every instance converges on the table's order within one sync interval.
+ *
+ * The table stays the authority: allocation takes the next holder from it, since a hold placed
+ * on another replica may not have reached this queue yet.
+ */
+@Component
+public class HoldQueues {
+    // book id -> hold ids in the order they were placed
+    private final Map<Long, LinkedHashSet<Long>> queues = new HashMap<>();
+    // Not synchronized: reload holds it across a query, which would pin a virtual thread
+    private final ReentrantLock lock = new ReentrantLock();
+    private int size;
+
+    void load(Map<Long, List<Long>> waitingByBook) {
+        lock.lock();
+        try {
+            queues.clear();
+            size = 0;
+            waitingByBook.forEach(this::replace);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Replaces the queues of the given books with the table's. The table is read under the lock,
+     * so a local change committing after the read is applied on top of it rather than overwritten.
+     */
+    void reload(Collection<Long> bookIds, Function<Collection<Long>, Map<Long, List<Long>>> waitingByBook) {
+        lock.lock();
+        try {
+            Map<Long, List<Long>> waiting = waitingByBook.apply(bookIds);
+            bookIds.forEach(bookId -> replace(bookId, waiting.getOrDefault(bookId, List.of())));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void enqueue(Long bookId, Long holdId) {
+        AfterCommit.run(() -> {
+            lock.lock();
+            try {
+                add(bookId, holdId);
+            } finally {
+                lock.unlock();
+            }
+        });
+    }
+
+    public void remove(Long bookId, Long holdId) {
+        AfterCommit.run(() -> {
+            lock.lock();
+            try {
+                Set<Long> queue = queues.get(bookId);
+                if (queue == null || !queue.remove(holdId)) return;
+                size--;
+                if (queue.isEmpty()) queues.remove(bookId);
+            } finally {
+                lock.unlock();
+            }
+        });
+    }
+
+    // Snapshot of a book's queue, first in line first
+    public List<Long> waiting(Long bookId) {
+        lock.lock();
+        try {
+            Set<Long> queue = queues.get(bookId);
+            return queue != null ? new ArrayList<>(queue) : List.of();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // 1-based place in the book's queue, or null when the hold isn't queued
+    public Integer position(Long bookId, Long holdId) {
+        lock.lock();
+        try {
+            Set<Long> queue = queues.get(bookId);
+            if (queue == null) return null;
+            int position = 1;
+            for (Long queued : queue) {
+                if (queued.equals(holdId)) return position;
+                position++;
+            }
+            return null;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int size() {
+        lock.lock();
+        try {
+            return size;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void add(Long bookId, Long holdId) {
+        if (queues.computeIfAbsent(bookId, id -> new LinkedHashSet<>()).add(holdId)) {
+            size++;
+        }
+    }
+
+    private void replace(Long bookId, List<Long> holdIds) {
+        Set<Long> previous = queues.remove(bookId);
+        if (previous != null) size -= previous.size();
+        holdIds.forEach(holdId -> add(bookId, holdId));
+    }
+}
@@ -0,0 +1,376 @@
+package com.bookstack.bookstack.hold.service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.bookstack.bookstack.book.model.Book;
+import com.bookstack.bookstack.book.service.BookService;
+import com.bookstack.bookstack.borrow.repository.BorrowRepository;
+import com.bookstack.bookstack.common.cache.RemoteResourceChanges;
+import com.bookstack.bookstack.common.cache.ResourceVersions;
+import com.bookstack.bookstack.common.exception.BadRequestException;
+import com.bookstack.bookstack.common.exception.ConflictException;
+import com.bookstack.bookstack.common.exception.NotFoundException;
+import com.bookstack.bookstack.common.metrics.Monitored;
+import com.bookstack.bookstack.common.transaction.AfterCommit;
+import com.bookstack.bookstack.hold.dto.HoldResponse;
+import com.bookstack.bookstack.hold.model.Hold;
+import com.bookstack.bookstack.hold.model.HoldStatus;
+import com.bookstack.bookstack.hold.repository.HoldRepository;
+import com.bookstack.bookstack.hold.repository.HoldRepository.OpenHold;
+import com.bookstack.bookstack.user.model.User;
+import com.bookstack.bookstack.user.service.UserService;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Waitlist for fully borrowed books. A member places a hold instead of retrying the borrow; when
+ * a copy comes back it goes to the first WAITING hold in the same transaction as the return and
+ * stays off the shelf (available copies don't change) until the holder borrows it or the hold
+ * expires after the pickup window, at which point it passes to the next in line.
+ *
+ * The table is the authority for both order and expiry: the next holder is always the oldest
+ * WAITING row, and every state change is a conditional update on the row. HoldQueues (queue
+ * positions) and HoldExpiryWheel (pickup deadlines) are in-memory views, rebuilt at startup and
+ * kept in step with other replicas through the resource version sync: every change records the
+ * book's {@link ResourceVersions#bookHolds} key, and books changed elsewhere are reloaded from the
+ * table. Until that sync runs (or if a replica goes away before its wheel fires), a lapsed hold is
+ * only in the table, so lapsed holds are also swept from it every {@code expiry-sweep-ms}.
+ */
+@Service
+@Monitored("hold")
+@Transactional
+public class HoldService {
+    private static final Logger log = LoggerFactory.getLogger(HoldService.class);
+
+    static final Set<HoldStatus> OPEN = Set.of(HoldStatus.WAITING, HoldStatus.READY);
+
+    // Upper bound on lapsed holds expired per sweep; the rest wait for the next one
+    private static final int EXPIRY_SWEEP_BATCH_SIZE = 500;
+
+    private final HoldRepository holdRepository;
+    private final BorrowRepository borrowRepository;
+    private final UserService userService;
+    private final BookService bookService;
+    private final HoldQueues queues;
+    private final HoldExpiryWheel expiryWheel;
+    private final ResourceVersions resourceVersions;
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${app.holds.pickup-window:72h}")
+    private Duration pickupWindow;
+
+    public HoldService(HoldRepository holdRepository, BorrowRepository borrowRepository, UserService userService,
+                       BookService bookService, HoldQueues queues, HoldExpiryWheel expiryWheel,
+                       ResourceVersions resourceVersions, PlatformTransactionManager transactionManager,
+                       MeterRegistry meterRegistry) {
+        this.holdRepository = holdRepository;
+        this.borrowRepository = borrowRepository;
+        this.userService = userService;
+        this.bookService = bookService;
+        this.queues = queues;
+        this.expiryWheel = expiryWheel;
+        this.resourceVersions = resourceVersions;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.meterRegistry = meterRegistry;
+
+        Gauge.builder("bookstack.holds.waiting", queues, HoldQueues::size)
+                .description("Holds queued for a copy")
+                .register(meterRegistry);
+        Gauge.builder("bookstack.holds.ready", expiryWheel, HoldExpiryWheel::size)
+                .description("Holds with a copy set aside, awaiting pickup")
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void rebuild() {
+        Map<Long, List<Long>> waiting = new LinkedHashMap<>();
+        for (OpenHold hold : holdRepository.findOpenHolds(HoldStatus.WAITING)) {
+            waiting.computeIfAbsent(hold.getBookId(), id -> new ArrayList<>()).add(hold.getId());
+        }
+        queues.load(waiting);
+
+        List<OpenHold> ready = holdRepository.findOpenHolds(HoldStatus.READY);
+        expiryWheel.clear();
+        ready.forEach(hold -> expiryWheel.schedule(hold.getId(), hold.getBookId(), toMillis(hold.getExpiresAt())));
+        log.info("Loaded {} waiting and {} ready holds", queues.size(), ready.size());
+    }
+
+    // Read-write so the reads go to the primary, which the replica may still be catching up with
+    @EventListener
+    public void onRemoteChanges(RemoteResourceChanges changes) {
+        List<Long> bookIds = new ArrayList<>(changes.ids(ResourceVersions.BOOK_HOLDS));
+        if (bookIds.isEmpty()) return;
+
+        queues.reload(bookIds, books -> {
+            Map<Long, List<Long>> waiting = new HashMap<>();
+            for (OpenHold hold : holdRepository.findOpenHolds(HoldStatus.WAITING, books)) {
+                waiting.computeIfAbsent(hold.getBookId(), id -> new ArrayList<>()).add(hold.getId());
+            }
+            return waiting;
+        });
+        expiryWheel.reload(bookIds, books -> holdRepository.findOpenHolds(HoldStatus.READY, books).stream()
+                .map(hold -> new HoldExpiryWheel.Deadline(hold.getId(), hold.getBookId(), toMillis(hold.getExpiresAt())))
+                .toList());
+    }
+
+    public HoldResponse placeHold(Long userId, Long bookId) {
+        User user = userService.getUserById(userId);
+        Book book = bookService.getBookById(bookId);
+        if (!book.isFullyBorrowed()) {
+            throw new BadRequestException("Book has copies available; borrow it instead");
+        }
+        if (!borrowRepository.findActiveBorrowByUserAndBook(userId, bookId).isEmpty()) {
+            throw new BadRequestException("User already has this book borrowed");
+        }
+        if (holdRepository.existsByUserIdAndBookIdAndStatusIn(userId, bookId, OPEN)) {
+            throw new ConflictException("User already has an open hold on this book");
+        }
+
+        Hold hold;
+        try {
+            hold = holdRepository.save(new Hold(user, book, LocalDateTime.now()));
+        } catch (DataIntegrityViolationException e) {
+            // Lost a race with a concurrent request for the same member and book
+            throw new ConflictException("User already has an open hold on this book");
+        }
+        queues.enqueue(bookId, hold.getId());
+        holdsChanged(bookId);
+        record("placed");
+
+        HoldResponse response = getHold(hold.getId());
+        // Not in the queue until commit, and holds placed elsewhere may not be either: the table
+        // has everyone in line, and this hold is the newest of them
+        response.setPosition((int) holdRepository.countByBookIdAndStatus(bookId, HoldStatus.WAITING));
+        return response;
+    }
+
+    public HoldResponse cancelHold(Long holdId) {
+        Long bookId = getHold(holdId).getBookId();
+        LocalDateTime now = LocalDateTime.now();
+        // One status at a time: a copy may be allocated to the hold while it is being cancelled
+        if (holdRepository.close(holdId, Set.of(HoldStatus.WAITING), HoldStatus.CANCELLED, now) == 1) {
+            queues.remove(bookId, holdId);
+        } else if (holdRepository.close(holdId, Set.of(HoldStatus.READY), HoldStatus.CANCELLED, now) == 1) {
+            // The copy set aside for this hold goes to the next in line
+            AfterCommit.run(() -> expiryWheel.cancel(holdId));
+            releaseCopy(bookId);
+        } else {
+            throw new BadRequestException("Hold is no longer open");
+        }
+        holdsChanged(bookId);
+        record("cancelled");
+        return getHold(holdId);
+    }
+
+    /**
+     * A copy came back (a return, a deleted borrow, a lapsed hold): it goes to the next WAITING
+     * hold for the book, or back on the shelf when nobody is waiting.
+     */
+    public void releaseCopy(Long bookId) {
+        if (!allocate(bookId)) {
+            bookService.checkInCopy(bookId);
+        }
+    }
+
+    /**
+     * Closes the member's READY hold on the book, if there is one. The copy was already taken
+     * off the shelf when the hold became ready, so the borrow must not check out another.
+     */
+    public boolean pickUp(Long userId, Long bookId) {
+        Long holdId = holdRepository.findReadyHoldId(userId, bookId).orElse(null);
+        if (holdId == null || holdRepository.close(holdId, Set.of(HoldStatus.READY), HoldStatus.FULFILLED,
+                LocalDateTime.now()) == 0) {
+            return false;
+        }
+        AfterCommit.run(() -> expiryWheel.cancel(holdId));
+        holdsChanged(bookId);
+        record("fulfilled");
+        return true;
+    }
+
+    // Batch form of releaseCopy: one lookup for which books have anyone waiting, and the rest go
+    // back on the shelf in one batch
+    public void releaseCopies(List<Long> bookIds) {
+        if (bookIds.isEmpty()) return;
+        Set<Long> waitedFor = new HashSet<>(holdRepository.findBookIdsWithWaitingHolds(bookIds));
+        List<Long> shelf = new ArrayList<>();
+        for (Long bookId : bookIds) {
+            if (!waitedFor.contains(bookId) || !allocate(bookId)) {
+                shelf.add(bookId);
+            }
+        }
+        if (!shelf.isEmpty()) {
+            bookService.checkInCopies(shelf);
+        }
+    }
+
+    // Batch form of pickUp; returns the books whose copy was waiting for the member
+    public Set<Long> pickUpAll(Long userId, Collection<Long> bookIds) {
+        if (bookIds.isEmpty()) return Set.of();
+        Set<Long> pickedUp = new HashSet<>();
+        LocalDateTime now = LocalDateTime.now();
+        for (OpenHold hold : holdRepository.findReadyHolds(userId, bookIds)) {
+            if (holdRepository.close(hold.getId(), Set.of(HoldStatus.READY), HoldStatus.FULFILLED, now) == 1) {
+                Long holdId = hold.getId();
+                AfterCommit.run(() -> expiryWheel.cancel(holdId));
+                holdsChanged(hold.getBookId());
+                record("fulfilled");
+                pickedUp.add(hold.getBookId());
+            }
+        }
+        return pickedUp;
+    }
+
+    @Scheduled(fixedDelayString = "${app.holds.expiry-tick-ms:1000}")
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void expireDue() {
+        expireDue(System.currentTimeMillis());
+    }
+
+    // Each lapsed hold is its own transaction; returns how many expired
+    int expireDue(long nowMillis) {
+        int expired = 0;
+        LocalDateTime now = toLocalDateTime(nowMillis);
+        for (HoldExpiryWheel.Due due : expiryWheel.advance(nowMillis)) {
+            if (expire(due.holdId(), due.bookId(), now)) expired++;
+        }
+        return expired;
+    }
+
+    // Fallback for the wheel: holds made READY on another replica (or whose replica went away)
+    // are only in the table
+    @Scheduled(initialDelayString = "${app.holds.expiry-sweep-ms:60000}",
+               fixedDelayString = "${app.holds.expiry-sweep-ms:60000}")
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void sweepLapsed() {
+        sweepLapsed(System.currentTimeMillis());
+    }
+
+    int sweepLapsed(long nowMillis) {
+        LocalDateTime now = toLocalDateTime(nowMillis);
+        // Read-write, so the primary is asked rather than a replica that may not have the holds yet
+        List<OpenHold> lapsed = transactionTemplate.execute(status ->
+                holdRepository.findLapsedHolds(now, Limit.of(EXPIRY_SWEEP_BATCH_SIZE)));
+        int expired = 0;
+        for (OpenHold hold : lapsed) {
+            expiryWheel.cancel(hold.getId());
+            if (expire(hold.getId(), hold.getBookId(), now)) expired++;
+        }
+        return expired;
+    }
+
+    @Transactional(readOnly = true)
+    public HoldResponse getHold(Long holdId) {
+        HoldResponse hold = holdRepository.findResponseById(holdId)
+                .orElseThrow(() -> new NotFoundException("Hold not found with id: " + holdId));
+        return withPosition(hold);
+    }
+
+    // Open holds, oldest first
+    @Transactional(readOnly = true)
+    public List<HoldResponse> getOpenHoldsByUserId(Long userId) {
+        return holdRepository.findResponsesByUserId(userId, OPEN).stream().map(this::withPosition).toList();
+    }
+
+    // The book's queue: copies set aside first, then the waitlist in order
+    @Transactional(readOnly = true)
+    public List<HoldResponse> getOpenHoldsByBookId(Long bookId) {
+        return holdRepository.findResponsesByBookId(bookId, OPEN).stream()
+                .map(this::withPosition)
+                .sorted((a, b) -> Boolean.compare(a.getStatus() == HoldStatus.WAITING, b.getStatus() == HoldStatus.WAITING))
+                .toList();
+    }
+
+    // The head comes from the table, not the local queue: holds placed on other replicas are
+    // only there, and may be older than anything queued here
+    private boolean allocate(Long bookId) {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime expiresAt = now.plus(pickupWindow);
+        while (true) {
+            List<Long> head = holdRepository.findWaitingIds(bookId, Limit.of(1));
+            if (head.isEmpty()) return false;
+            Long holdId = head.get(0);
+            if (markReady(holdId, bookId, now, expiresAt)) return true;
+            // Cancelled or allocated by a concurrent request since the read; the next read skips it
+            queues.remove(bookId, holdId);
+        }
+    }
+
+    private boolean expire(long holdId, long bookId, LocalDateTime now) {
+        Boolean lapsed = transactionTemplate.execute(status -> {
+            if (holdRepository.expire(holdId, now) == 0) return false;
+            holdsChanged(bookId);
+            releaseCopy(bookId);
+            return true;
+        });
+        if (!Boolean.TRUE.equals(lapsed)) return false;
+        record("expired");
+        return true;
+    }
+
+    private boolean markReady(Long holdId, Long bookId, LocalDateTime now, LocalDateTime expiresAt) {
+        if (holdRepository.markReady(holdId, now, expiresAt) == 0) return false;
+        queues.remove(bookId, holdId);
+        long deadline = toMillis(expiresAt);
+        AfterCommit.run(() -> expiryWheel.schedule(holdId, bookId, deadline));
+        holdsChanged(bookId);
+        record("allocated");
+        return true;
+    }
+
+    private HoldResponse withPosition(HoldResponse hold) {
+        if (hold.getStatus() == HoldStatus.WAITING) {
+            hold.setPosition(queues.position(hold.getBookId(), hold.getId()));
+        }
+        return hold;
+    }
+
+    private void holdsChanged(Long bookId) {
+        resourceVersions.changed(ResourceVersions.bookHolds(bookId));
+    }
+
+    private void record(String event) {
+        Counter.builder("bookstack.holds")
+                .description("Hold lifecycle events")
+                .tag("event", event)
+                .register(meterRegistry)
+                .increment();
+    }
+
+    private static LocalDateTime toLocalDateTime(long millis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(millis), ZoneId.systemDefault());
+    }
+
+    private static long toMillis(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+}
@@ -4,6 +4,8 @@ import com.bookstack.bookstack.user.dto.UserInput;
 import com.bookstack.bookstack.user.model.User;
 import com.bookstack.bookstack.user.service.UserService;
 import com.bookstack.bookstack.auth.annotation.RequireRole;
+import com.bookstack.bookstack.common.pagination.Connection;
+import com.bookstack.bookstack.common.pagination.Cursors;
 
 import org.springframework.graphql.data.method.annotation.Argument;
 import org.springframework.graphql.data.method.annotation.MutationMapping;
@@ -27,6 +29,23 @@ public class UserGraphQLController {
         return userService.getAllUsers();
     }
 
+    // Paginated variants - keyset pages fetch one extra row to detect the next page
+    @QueryMapping
+    @RequireRole({"ADMIN"})
+    public Connection<User> usersConnection(@Argument Integer first, @Argument String after) {
+        int pageSize = Cursors.pageSize(first);
+        long afterId = Cursors.decode(after);
+        return Connection.of(userService.getUsersPage(afterId, pageSize + 1), pageSize, afterId, User::getId);
+    }
+
+    @QueryMapping
+    @RequireRole({"ADMIN"})
+    public Connection<User> usersByRoleConnection(@Argument String role, @Argument Integer first, @Argument String after) {
+        int pageSize = Cursors.pageSize(first);
+        long afterId = Cursors.decode(after);
+        return Connection.of(userService.getUsersByRolePage(role, afterId, pageSize + 1), pageSize, afterId, User::getId);
+    }
+
     @QueryMapping
     @RequireRole({"ADMIN"})
     public List<User> allUsersIncludingDeleted() {
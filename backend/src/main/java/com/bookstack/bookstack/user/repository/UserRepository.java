@@ -3,28 +3,41 @@ package com.bookstack.bookstack.user.repository;
 import java.util.List;
 import java.util.Optional;
 
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import com.bookstack.bookstack.user.model.User;
 
+import jakarta.persistence.QueryHint;
+
 @Repository
-public interface UserRepository extends JpaRepository<User, Long> {
+public interface UserRepository extends JpaRepository<User, Long>, UserRepositoryCustom {
     Optional<User> findByUsername(String username);
     boolean existsByUsername(String username);
     List<User> findByRole(String role);
     List<User> findByUsernameContainingIgnoreCase(String username);
     
     // Soft delete specific queries
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     @Query("SELECT u FROM User u WHERE u.deletedAt IS NULL")
     List<User> findAllActive();
     
     @Query("SELECT u FROM User u WHERE u.deletedAt IS NOT NULL")
     List<User> findAllDeleted();
     
+    // Keyset pagination (seek on the primary key, cost independent of page depth)
+    @Query("SELECT u FROM User u WHERE u.id > :afterId AND u.deletedAt IS NULL ORDER BY u.id")
+    List<User> findActivePage(@Param("afterId") Long afterId, Limit limit);
+    
+    @Query("SELECT u FROM User u WHERE u.id > :afterId AND u.role = :role AND u.deletedAt IS NULL ORDER BY u.id")
+    List<User> findActivePageByRole(@Param("role") String role, @Param("afterId") Long afterId, Limit limit);
+    
     @Query("SELECT u FROM User u WHERE u.id = :id AND u.deletedAt IS NULL")
     Optional<User> findActiveById(@Param("id") Long id);
     
@@ -40,9 +53,9 @@ public interface UserRepository extends JpaRepository<User, Long> {
     @Query("SELECT u FROM User u WHERE LOWER(u.username) LIKE LOWER(CONCAT('%', :username, '%')) AND u.deletedAt IS NULL")
     List<User> findActiveByUsernameContainingIgnoreCase(@Param("username") String username);
     
-    // Hard delete (physical deletion) - for admin use only
+    // Hard delete (physical deletion) - for admin use only; native, so soft-deleted rows are removed too
     @Modifying
-    @Query("DELETE FROM User u WHERE u.id = :id")
+    @Query(value = "DELETE FROM users WHERE id = :id", nativeQuery = true)
     void hardDeleteById(@Param("id") Long id);
     
     // Restore deleted user
@@ -50,8 +63,12 @@ public interface UserRepository extends JpaRepository<User, Long> {
     @Query("UPDATE User u SET u.deletedAt = NULL WHERE u.id = :id")
     void restoreById(@Param("id") Long id);
     
-    // Check if user exists (including deleted)
-    @Query("SELECT CASE WHEN COUNT(u) > 0 THEN true ELSE false END FROM User u WHERE u.id = :id")
+    // Native, so the @SQLRestriction on User doesn't hide soft-deleted rows
+    @Query(value = "SELECT * FROM users WHERE id = :id", nativeQuery = true)
+    Optional<User> findByIdIncludingDeleted(@Param("id") Long id);
+    
+    // Check if user exists (including deleted); native for the same reason
+    @Query(value = "SELECT COUNT(*) > 0 FROM users WHERE id = :id", nativeQuery = true)
     boolean existsByIdIncludingDeleted(@Param("id") Long id);
     
     @Query("SELECT CASE WHEN COUNT(u) > 0 THEN true ELSE false END FROM User u WHERE u.username = :username")
@@ -0,0 +1,17 @@
+package com.bookstack.bookstack.user.repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+import com.bookstack.bookstack.user.model.User;
+
+// Lookups that go through the second-level cache
+public interface UserRepositoryCustom {
+
+    // Username lookup via the natural-id cache; may return a soft-deleted user
+    Optional<User> findByNaturalId(String username);
+
+    // Batch load by id, serving cached users from the second-level cache; missing ids are skipped
+    List<User> loadAllById(Collection<Long> ids);
+}
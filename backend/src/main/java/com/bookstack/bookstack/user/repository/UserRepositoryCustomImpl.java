@@ -0,0 +1,34 @@
+package com.bookstack.bookstack.user.repository;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+
+import org.hibernate.Session;
+
+import com.bookstack.bookstack.user.model.User;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+
+public class UserRepositoryCustomImpl implements UserRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public Optional<User> findByNaturalId(String username) {
+        return entityManager.unwrap(Session.class).bySimpleNaturalId(User.class).loadOptional(username);
+    }
+
+    @Override
+    public List<User> loadAllById(Collection<Long> ids) {
+        if (ids.isEmpty()) return List.of();
+        List<User> users = entityManager.unwrap(Session.class)
+                .byMultipleIds(User.class)
+                .multiLoad(new ArrayList<>(ids));
+        return users.stream().filter(Objects::nonNull).toList();
+    }
+}
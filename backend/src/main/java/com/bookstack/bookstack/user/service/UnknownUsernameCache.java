@@ -0,0 +1,81 @@
+package com.bookstack.bookstack.user.service;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.bookstack.bookstack.common.cache.RemoteResourceChanges;
+import com.bookstack.bookstack.common.cache.ResourceVersions;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+/**
+ * Remembers usernames that recently resolved to no active user, so repeated logins for unknown
+ * names (typos, credential stuffing) are answered without a database round trip.
+ *
+ * Any change that can make a name resolvable invalidates it, both immediately and once the
+ * transaction completes. A generation counter also stops a lookup that overlapped such a change
+ * from caching its (possibly stale) miss. User changes made on other replicas don't name the
+ * username, so they clear the whole cache once {@link ResourceVersions#sync()} reports them.
+ */
+@Component
+public class UnknownUsernameCache {
+    private final Cache<String, Boolean> unknown;
+    private final AtomicLong generation = new AtomicLong();
+
+    public UnknownUsernameCache(MeterRegistry meterRegistry,
+                                @Value("${app.user.unknown-username-cache.max-size:100000}") long maxSize,
+                                @Value("${app.user.unknown-username-cache.ttl-seconds:300}") long ttlSeconds) {
+        this.unknown = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, unknown, "unknown-usernames");
+    }
+
+    public boolean isKnownUnknown(String username) {
+        return unknown.getIfPresent(username) != null;
+    }
+
+    // Read before the lookup and pass to recordUnknown afterwards
+    public long generation() {
+        return generation.get();
+    }
+
+    public void recordUnknown(String username, long lookupGeneration) {
+        if (generation.get() == lookupGeneration) {
+            unknown.put(username, Boolean.TRUE);
+        }
+    }
+
+    @EventListener
+    public void onRemoteChanges(RemoteResourceChanges changes) {
+        if (!changes.ids(ResourceVersions.USER).isEmpty()) {
+            generation.incrementAndGet();
+            unknown.invalidateAll();
+        }
+    }
+
+    public void invalidate(String username) {
+        generation.incrementAndGet();
+        unknown.invalidate(username);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    generation.incrementAndGet();
+                    unknown.invalidate(username);
+                }
+            });
+        }
+    }
+}
@@ -1,113 +1,230 @@
 package com.bookstack.bookstack.user.service;
 
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
-import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import com.bookstack.bookstack.auth.service.PasswordHashingService;
+import com.bookstack.bookstack.auth.service.TokenRevocationService;
+import com.bookstack.bookstack.common.cache.ResourceVersions;
+import com.bookstack.bookstack.common.cache.SecondLevelCacheEvictor;
 import com.bookstack.bookstack.common.exception.BadRequestException;
 import com.bookstack.bookstack.common.exception.ConflictException;
 import com.bookstack.bookstack.common.exception.NotFoundException;
+import com.bookstack.bookstack.common.metrics.Monitored;
 import com.bookstack.bookstack.user.model.User;
 import com.bookstack.bookstack.user.repository.UserRepository;
 
 @Service
+@Monitored("user")
 @Transactional
 public class UserService {
     private final UserRepository userRepository;
-    private final PasswordEncoder passwordEncoder;
+    private final PasswordHashingService passwordHashingService;
+    private final SecondLevelCacheEvictor cacheEvictor;
+    private final UnknownUsernameCache unknownUsernames;
+    private final TokenRevocationService tokenRevocationService;
+    private final ResourceVersions resourceVersions;
+    private final TransactionTemplate transactionTemplate;
 
     private static final List<String> VALID_ROLES = Arrays.asList("ADMIN", "LIBRARIAN", "MEMBER");
     private static final String DEFAULT_ROLE = "MEMBER";
 
-    public UserService(UserRepository userRepository, PasswordEncoder passwordEncoder) {
+    public UserService(UserRepository userRepository, PasswordHashingService passwordHashingService,
+                       SecondLevelCacheEvictor cacheEvictor, UnknownUsernameCache unknownUsernames,
+                       TokenRevocationService tokenRevocationService, ResourceVersions resourceVersions,
+                       PlatformTransactionManager transactionManager) {
         this.userRepository = userRepository;
-        this.passwordEncoder = passwordEncoder;
+        this.passwordHashingService = passwordHashingService;
+        this.cacheEvictor = cacheEvictor;
+        this.unknownUsernames = unknownUsernames;
+        this.tokenRevocationService = tokenRevocationService;
+        this.resourceVersions = resourceVersions;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
     }
 
+    // Hashing takes tens of milliseconds, so it runs before the transaction rather than holding a
+    // connection; the same goes for updateUser and updateUserPassword
+    @Transactional(propagation = Propagation.SUPPORTS)
     public User createUser(String username, String password, String role) {
-        // Check if username exists (including soft-deleted users)
+        // Check if username exists (including soft-deleted users); checked again once the hash is ready
         if (userRepository.existsByUsernameIncludingDeleted(username)) {
             throw new ConflictException("Username is already taken");
         }
         
         String validatedRole = validateRole(role);
+        String hash = passwordHashingService.encode(password);
         
-        User user = new User();
-        user.setUsername(username);
-        user.setPassword(passwordEncoder.encode(password));
-        user.setRole(validatedRole);
-        return userRepository.save(user);
+        return transactionTemplate.execute(status -> {
+            if (userRepository.existsByUsernameIncludingDeleted(username)) {
+                throw new ConflictException("Username is already taken");
+            }
+            User user = new User();
+            user.setUsername(username);
+            user.setPassword(hash);
+            user.setRole(validatedRole);
+            User saved = userRepository.save(user);
+            unknownUsernames.invalidate(username);
+            resourceVersions.changed(ResourceVersions.user(saved.getId()));
+            return saved;
+        });
     }
 
+    @Transactional(readOnly = true)
     public List<User> getAllUsers() {
         return userRepository.findAllActive();
     }
 
+    // Keyset pages return up to limit rows with id > afterId, ordered by id
+    @Transactional(readOnly = true)
+    public List<User> getUsersPage(long afterId, int limit) {
+        return userRepository.findActivePage(afterId, Limit.of(limit));
+    }
+
+    @Transactional(readOnly = true)
+    public List<User> getUsersByRolePage(String role, long afterId, int limit) {
+        return userRepository.findActivePageByRole(validateRole(role), afterId, Limit.of(limit));
+    }
+
+    @Transactional(readOnly = true)
     public List<User> getAllUsersIncludingDeleted() {
         return userRepository.findAll();
     }
 
+    @Transactional(readOnly = true)
     public List<User> getDeletedUsers() {
         return userRepository.findAllDeleted();
     }
 
+    // Served from the second-level cache when possible; soft-deleted rows are filtered out here
+    @Transactional(readOnly = true)
     public User getUserById(Long id) {
-        return userRepository.findActiveById(id)
+        return userRepository.findById(id)
+            .filter(user -> !user.isDeleted())
             .orElseThrow(() -> new NotFoundException("User not found with id: " + id));
     }
 
+    @Transactional(readOnly = true)
     public User getUserByIdIncludingDeleted(Long id) {
-        return userRepository.findById(id)
+        return userRepository.findByIdIncludingDeleted(id)
             .orElseThrow(() -> new NotFoundException("User not found with id: " + id));
     }
 
+    // Batch lookup by id (cache first, one IN query for the rest); soft-deleted users are not returned
+    @Transactional(readOnly = true)
+    public List<User> getUsersByIds(Collection<Long> ids) {
+        return userRepository.loadAllById(ids).stream()
+            .filter(user -> !user.isDeleted())
+            .toList();
+    }
+
+    // Misses are remembered for a while, so unknown names don't reach the database every time.
+    // Not read-only on purpose: a replica that hasn't caught up with a new user would get the
+    // name remembered as unknown and the first login rejected.
     public Optional<User> getUserByUsername(String username) {
-        return userRepository.findActiveByUsername(username);
+        if (unknownUsernames.isKnownUnknown(username)) {
+            return Optional.empty();
+        }
+        long generation = unknownUsernames.generation();
+        Optional<User> user = userRepository.findByNaturalId(username)
+            .filter(found -> !found.isDeleted());
+        if (user.isEmpty()) {
+            unknownUsernames.recordUnknown(username, generation);
+        }
+        return user;
     }
 
+    @Transactional(readOnly = true)
     public List<User> searchUsersByUsername(String username) {
         return userRepository.findActiveByUsernameContainingIgnoreCase(username);
     }
 
+    @Transactional(readOnly = true)
     public List<User> getUsersByRole(String role) {
         String validatedRole = validateRole(role);
         return userRepository.findActiveByRole(validatedRole);
     }
 
+    @Transactional(propagation = Propagation.SUPPORTS)
     public User updateUser(Long id, String username, String password, String role) {
-        User user = getUserById(id);
-        
-        // Check if username is being changed and if new username is taken
-        if (!user.getUsername().equals(username) && userRepository.existsByUsernameIncludingDeleted(username)) {
-            throw new ConflictException("Username is already taken");
-        }
+        String validatedRole = validateRole(role);
+        boolean passwordChanged = password != null && !password.trim().isEmpty();
+        String hash = passwordChanged ? passwordHashingService.encode(password) : null;
         
-        user.setUsername(username);
-        if (password != null && !password.trim().isEmpty()) {
-            user.setPassword(passwordEncoder.encode(password));
-        }
-        user.setRole(validateRole(role));
-        return userRepository.save(user);
+        return transactionTemplate.execute(status -> {
+            User user = getUserById(id);
+            
+            // Check if username is being changed and if new username is taken
+            if (!user.getUsername().equals(username) && userRepository.existsByUsernameIncludingDeleted(username)) {
+                throw new ConflictException("Username is already taken");
+            }
+            
+            String previousUsername = user.getUsername();
+            String previousRole = user.getRole();
+            
+            user.setUsername(username);
+            if (passwordChanged) {
+                user.setPassword(hash);
+            }
+            user.setRole(validatedRole);
+            User saved = userRepository.save(user);
+            unknownUsernames.invalidate(username);
+            // Existing tokens carry the old username and role claims
+            if (passwordChanged || !previousUsername.equals(username) || !previousRole.equals(saved.getRole())) {
+                tokenRevocationService.revokeTokensIssuedBefore(id);
+            }
+            // Borrow records show the username
+            if (!previousUsername.equals(username)) {
+                resourceVersions.changed(ResourceVersions.USER_DETAILS, ResourceVersions.userBorrows(id));
+            }
+            resourceVersions.changed(ResourceVersions.user(id));
+            return saved;
+        });
     }
 
     public User updateUserRole(Long id, String role) {
         User user = getUserById(id);
         user.setRole(validateRole(role));
-        return userRepository.save(user);
+        User saved = userRepository.save(user);
+        tokenRevocationService.revokeTokensIssuedBefore(id);
+        resourceVersions.changed(ResourceVersions.user(id));
+        return saved;
     }
 
+    @Transactional(propagation = Propagation.SUPPORTS)
     public User updateUserPassword(Long id, String newPassword) {
         if (newPassword == null || newPassword.trim().isEmpty()) {
             throw new BadRequestException("Password cannot be empty");
         }
+        String hash = passwordHashingService.encode(newPassword);
         
-        User user = getUserById(id);
-        user.setPassword(passwordEncoder.encode(newPassword));
-        return userRepository.save(user);
+        return transactionTemplate.execute(status -> {
+            User user = getUserById(id);
+            user.setPassword(hash);
+            User saved = userRepository.save(user);
+            tokenRevocationService.revokeTokensIssuedBefore(id);
+            resourceVersions.changed(ResourceVersions.user(id));
+            return saved;
+        });
+    }
+
+    // Replaces a hash with one produced at the current cost, unless the password changed meanwhile
+    public void rehashPassword(Long id, String previousHash, String newHash) {
+        userRepository.findById(id)
+            .filter(user -> !user.isDeleted() && previousHash.equals(user.getPassword()))
+            .ifPresent(user -> {
+                user.setPassword(newHash);
+                userRepository.save(user);
+                resourceVersions.changed(ResourceVersions.user(id));
+            });
     }
 
     // Soft delete
@@ -115,6 +232,9 @@ public class UserService {
         User user = getUserById(id);
         user.markAsDeleted();
         userRepository.save(user);
+        cacheEvictor.evict(User.class, id);
+        tokenRevocationService.revokeTokensIssuedBefore(id);
+        resourceVersions.changed(ResourceVersions.USER_DETAILS, ResourceVersions.userBorrows(id), ResourceVersions.user(id));
     }
 
     // Hard delete (physical deletion) - for admin use only
@@ -123,11 +243,14 @@ public class UserService {
             throw new NotFoundException("User not found with id: " + id);
         }
         userRepository.hardDeleteById(id);
+        tokenRevocationService.revokeTokensIssuedBefore(id);
+        resourceVersions.changed(ResourceVersions.USER_DETAILS, ResourceVersions.BORROWS, ResourceVersions.userBorrows(id),
+                ResourceVersions.user(id));
     }
 
     // Restore soft-deleted user
     public User restoreUser(Long id) {
-        User user = userRepository.findById(id)
+        User user = userRepository.findByIdIncludingDeleted(id)
             .orElseThrow(() -> new NotFoundException("User not found with id: " + id));
         
         if (!user.isDeleted()) {
@@ -140,21 +263,29 @@ public class UserService {
         }
         
         user.restore();
-        return userRepository.save(user);
+        User saved = userRepository.save(user);
+        cacheEvictor.evict(User.class, id);
+        unknownUsernames.invalidate(user.getUsername());
+        resourceVersions.changed(ResourceVersions.USER_DETAILS, ResourceVersions.userBorrows(id), ResourceVersions.user(id));
+        return saved;
     }
 
+    @Transactional(readOnly = true)
     public boolean userExists(Long id) {
         return userRepository.existsById(id); // This will use the @Where clause
     }
 
+    @Transactional(readOnly = true)
     public boolean userExistsIncludingDeleted(Long id) {
         return userRepository.existsByIdIncludingDeleted(id);
     }
 
+    @Transactional(readOnly = true)
     public boolean usernameExists(String username) {
         return userRepository.existsActiveByUsername(username);
     }
 
+    @Transactional(readOnly = true)
     public boolean usernameExistsIncludingDeleted(String username) {
         return userRepository.existsByUsernameIncludingDeleted(username);
     }
@@ -0,0 +1,39 @@
+-- Schema as it stood when Hibernate's ddl-auto still managed it. Databases created that way are
+-- baselined at this version (spring.flyway.baseline-on-migrate) and only get later migrations, so
+-- nothing may be added here: new tables go in a later version that those databases also run.
+
+CREATE TABLE users (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    username VARCHAR(255) NOT NULL,
+    password VARCHAR(255) NOT NULL,
+    role VARCHAR(255) NOT NULL,
+    deleted_at TIMESTAMP(6),
+    CONSTRAINT uk_users_username UNIQUE (username)
+);
+
+CREATE TABLE books (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    title VARCHAR(200) NOT NULL,
+    author VARCHAR(100) NOT NULL,
+    isbn VARCHAR(20) NOT NULL,
+    category VARCHAR(50),
+    language VARCHAR(30),
+    total_copies INTEGER NOT NULL,
+    available_copies INTEGER NOT NULL,
+    deleted_at TIMESTAMP(6),
+    CONSTRAINT uk_books_isbn UNIQUE (isbn)
+);
+
+CREATE TABLE borrows (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    user_id BIGINT NOT NULL,
+    book_id BIGINT NOT NULL,
+    status VARCHAR(255) NOT NULL,
+    borrow_date TIMESTAMP(6) NOT NULL,
+    due_date TIMESTAMP(6) NOT NULL,
+    return_date TIMESTAMP(6),
+    notes VARCHAR(255),
+    CONSTRAINT ck_borrows_status CHECK (status IN ('ACTIVE', 'RETURNED', 'OVERDUE')),
+    CONSTRAINT fk_borrows_user FOREIGN KEY (user_id) REFERENCES users (id),
+    CONSTRAINT fk_borrows_book FOREIGN KEY (book_id) REFERENCES books (id)
+);
@@ -0,0 +1,31 @@
+-- Tables for token revocation, shared rate limiting and resource versions. Builds before the
+-- migrations created some of these at startup, hence IF NOT EXISTS.
+
+CREATE TABLE IF NOT EXISTS revoked_tokens (
+    jti VARCHAR(64) PRIMARY KEY,
+    user_id BIGINT,
+    expires_at TIMESTAMP(6) WITH TIME ZONE NOT NULL,
+    revoked_at TIMESTAMP(6) WITH TIME ZONE NOT NULL
+);
+CREATE INDEX IF NOT EXISTS idx_revoked_tokens_revoked_at ON revoked_tokens (revoked_at);
+
+CREATE TABLE IF NOT EXISTS token_watermarks (
+    user_id BIGINT PRIMARY KEY,
+    not_before TIMESTAMP(6) WITH TIME ZONE NOT NULL,
+    updated_at TIMESTAMP(6) WITH TIME ZONE NOT NULL
+);
+CREATE INDEX IF NOT EXISTS idx_token_watermarks_updated_at ON token_watermarks (updated_at);
+
+-- Shared rate limit buckets (JdbcBucketProxyManager)
+CREATE TABLE IF NOT EXISTS rate_limit_buckets (
+    id VARCHAR(255) PRIMARY KEY,
+    state BYTEA NOT NULL,
+    expires_at BIGINT NOT NULL
+);
+
+-- Resource versions shared between replicas (ResourceVersions)
+CREATE TABLE IF NOT EXISTS resource_changes (
+    resource_key VARCHAR(255) PRIMARY KEY,
+    changed_at TIMESTAMP NOT NULL
+);
+CREATE INDEX IF NOT EXISTS idx_resource_changes_changed_at ON resource_changes (changed_at);
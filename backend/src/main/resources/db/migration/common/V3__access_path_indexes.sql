@@ -0,0 +1,12 @@
+-- Indexes for the lookups in BorrowRepository and the periodic purges. Foreign keys are not
+-- indexed automatically in PostgreSQL, so these also serve joins and deletes from books/users.
+
+-- findByUserIdAndStatus*, findByUserId*, findActiveBorrowByUserAndBook
+CREATE INDEX idx_borrows_user_status ON borrows (user_id, status);
+-- findByBookId*, countActiveBorrowsByBookId
+CREATE INDEX idx_borrows_book_status ON borrows (book_id, status);
+-- findByStatus*, the overdue sweep and findOverdueBorrowsWithUserAndBook
+CREATE INDEX idx_borrows_status_due_date ON borrows (status, due_date);
+
+-- JdbcBucketProxyManager.purgeExpired
+CREATE INDEX idx_rate_limit_buckets_expires_at ON rate_limit_buckets (expires_at);
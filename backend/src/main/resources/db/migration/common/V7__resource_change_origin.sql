@@ -0,0 +1,3 @@
+-- Which replica last wrote each resource change (ResourceVersions), so a replica can tell the
+-- changes it has to apply to its own search index and caches from the ones it made itself
+ALTER TABLE resource_changes ADD COLUMN origin VARCHAR(36);
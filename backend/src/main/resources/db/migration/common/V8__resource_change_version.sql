@@ -0,0 +1,3 @@
+-- A counter per resource key (ResourceVersions), so every replica builds the same ETag for the
+-- same state. Rows are no longer purged, so a key's version never repeats.
+ALTER TABLE resource_changes ADD COLUMN version BIGINT NOT NULL DEFAULT 1;
@@ -0,0 +1,9 @@
+-- H2 has no partial, expression or trigram indexes; these keep the same names as the PostgreSQL
+-- migration with deleted_at/status leading instead of a predicate.
+
+CREATE INDEX idx_books_active_id ON books (deleted_at, id);
+CREATE INDEX idx_books_available_id ON books (deleted_at, available_copies, id);
+CREATE INDEX idx_books_active_category ON books (deleted_at, category);
+CREATE INDEX idx_books_active_language ON books (deleted_at, language);
+
+CREATE INDEX idx_borrows_open_user_book ON borrows (user_id, book_id, status);
@@ -0,0 +1,20 @@
+-- H2 has no table partitioning; the archive is one table with the same columns, keys and index
+-- names as the PostgreSQL migration.
+CREATE TABLE borrows_archive (
+    id BIGINT NOT NULL,
+    user_id BIGINT NOT NULL,
+    book_id BIGINT NOT NULL,
+    borrow_date TIMESTAMP(6) NOT NULL,
+    due_date TIMESTAMP(6) NOT NULL,
+    return_date TIMESTAMP(6) NOT NULL,
+    notes VARCHAR(255),
+    archived_at TIMESTAMP(6) NOT NULL,
+    CONSTRAINT pk_borrows_archive PRIMARY KEY (id, return_date),
+    CONSTRAINT fk_borrows_archive_user FOREIGN KEY (user_id) REFERENCES users (id),
+    CONSTRAINT fk_borrows_archive_book FOREIGN KEY (book_id) REFERENCES books (id)
+);
+
+CREATE INDEX idx_borrows_archive_user ON borrows_archive (user_id);
+CREATE INDEX idx_borrows_archive_book ON borrows_archive (book_id);
+
+CREATE INDEX idx_borrows_returned_return_date ON borrows (status, return_date);
@@ -0,0 +1,20 @@
+-- H2 has no partial indexes: same index names as the PostgreSQL migration with the status
+-- leading instead, and the one-open-hold-per-member rule enforced by HoldService alone.
+CREATE TABLE holds (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    user_id BIGINT NOT NULL,
+    book_id BIGINT NOT NULL,
+    status VARCHAR(20) NOT NULL,
+    created_at TIMESTAMP(6) NOT NULL,
+    ready_at TIMESTAMP(6),
+    expires_at TIMESTAMP(6),
+    closed_at TIMESTAMP(6),
+    CONSTRAINT ck_holds_status CHECK (status IN ('WAITING', 'READY', 'FULFILLED', 'CANCELLED', 'EXPIRED')),
+    CONSTRAINT fk_holds_user FOREIGN KEY (user_id) REFERENCES users (id),
+    CONSTRAINT fk_holds_book FOREIGN KEY (book_id) REFERENCES books (id)
+);
+
+CREATE INDEX idx_holds_open_user_book ON holds (user_id, book_id, status);
+CREATE INDEX idx_holds_book_waiting ON holds (status, book_id, created_at, id);
+CREATE INDEX idx_holds_ready_expires_at ON holds (status, expires_at);
+CREATE INDEX idx_holds_user ON holds (user_id);
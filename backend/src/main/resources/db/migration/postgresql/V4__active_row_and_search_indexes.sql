@@ -0,0 +1,20 @@
+-- Almost every book query filters on deleted_at IS NULL, so these indexes only cover active rows.
+-- The expressions match the UPPER(...) comparisons BookRepository generates.
+
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+-- findAllActive, findActivePage (keyset pages ordered by id)
+CREATE INDEX idx_books_active_id ON books (id) WHERE deleted_at IS NULL;
+-- findAvailableBooks, findAvailablePage
+CREATE INDEX idx_books_available_id ON books (id) WHERE available_copies > 0 AND deleted_at IS NULL;
+-- findActiveByCategoryIgnoreCase, findActiveByLanguageIgnoreCase and the filter queries
+CREATE INDEX idx_books_active_category ON books (UPPER(category)) WHERE deleted_at IS NULL;
+CREATE INDEX idx_books_active_language ON books (UPPER(language)) WHERE deleted_at IS NULL;
+
+-- Trigram indexes let UPPER(title) LIKE '%x%' and UPPER(author) LIKE '%x%' use an index
+CREATE INDEX idx_books_active_title_trgm ON books USING gin (UPPER(title) gin_trgm_ops) WHERE deleted_at IS NULL;
+CREATE INDEX idx_books_active_author_trgm ON books USING gin (UPPER(author) gin_trgm_ops) WHERE deleted_at IS NULL;
+
+-- Open borrows only: the overdue sweep and the one-open-borrow-per-book check
+CREATE INDEX idx_borrows_open_due_date ON borrows (due_date) WHERE status = 'ACTIVE';
+CREATE INDEX idx_borrows_open_user_book ON borrows (user_id, book_id) WHERE status <> 'RETURNED';
@@ -0,0 +1,22 @@
+-- Returned borrows moved out of the hot borrows table by BorrowArchiver, partitioned by the month
+-- they were returned. The archiver creates each month's partition before moving rows into it,
+-- so there is no default partition to split later.
+CREATE TABLE borrows_archive (
+    id BIGINT NOT NULL,
+    user_id BIGINT NOT NULL,
+    book_id BIGINT NOT NULL,
+    borrow_date TIMESTAMP(6) NOT NULL,
+    due_date TIMESTAMP(6) NOT NULL,
+    return_date TIMESTAMP(6) NOT NULL,
+    notes VARCHAR(255),
+    archived_at TIMESTAMP(6) NOT NULL,
+    CONSTRAINT pk_borrows_archive PRIMARY KEY (id, return_date),
+    CONSTRAINT fk_borrows_archive_user FOREIGN KEY (user_id) REFERENCES users (id),
+    CONSTRAINT fk_borrows_archive_book FOREIGN KEY (book_id) REFERENCES books (id)
+) PARTITION BY RANGE (return_date);
+
+CREATE INDEX idx_borrows_archive_user ON borrows_archive (user_id);
+CREATE INDEX idx_borrows_archive_book ON borrows_archive (book_id);
+
+-- What the archiver scans for: old returned rows, a small and shrinking slice of the hot table
+CREATE INDEX idx_borrows_returned_return_date ON borrows (return_date) WHERE status = 'RETURNED';
@@ -0,0 +1,21 @@
+-- Holds (waitlist) on fully borrowed books. The open queue per book is served from memory by
+-- HoldQueues; these indexes back its rebuild at startup, the per-book fallback lookup and the
+-- one-open-hold-per-member rule.
+CREATE TABLE holds (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    user_id BIGINT NOT NULL,
+    book_id BIGINT NOT NULL,
+    status VARCHAR(20) NOT NULL,
+    created_at TIMESTAMP(6) NOT NULL,
+    ready_at TIMESTAMP(6),
+    expires_at TIMESTAMP(6),
+    closed_at TIMESTAMP(6),
+    CONSTRAINT ck_holds_status CHECK (status IN ('WAITING', 'READY', 'FULFILLED', 'CANCELLED', 'EXPIRED')),
+    CONSTRAINT fk_holds_user FOREIGN KEY (user_id) REFERENCES users (id),
+    CONSTRAINT fk_holds_book FOREIGN KEY (book_id) REFERENCES books (id)
+);
+
+CREATE UNIQUE INDEX idx_holds_open_user_book ON holds (user_id, book_id) WHERE status IN ('WAITING', 'READY');
+CREATE INDEX idx_holds_book_waiting ON holds (book_id, created_at, id) WHERE status = 'WAITING';
+CREATE INDEX idx_holds_ready_expires_at ON holds (expires_at) WHERE status = 'READY';
+CREATE INDEX idx_holds_user ON holds (user_id);
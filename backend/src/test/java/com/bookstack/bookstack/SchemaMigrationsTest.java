@@ -0,0 +1,105 @@
+package com.bookstack.bookstack;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Set;
+import java.util.UUID;
+
+import javax.sql.DataSource;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.springframework.test.context.ActiveProfiles;
+
+// The context only starts if Hibernate's validation agrees with the migrated schema
+@SpringBootTest
+@ActiveProfiles("test")
+class SchemaMigrationsTest {
+
+    @Autowired
+    private Flyway flyway;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Test
+    void allMigrationsAreApplied() {
+        assertThat(flyway.info().pending()).isEmpty();
+        assertThat(flyway.info().current().getVersion().getVersion()).isEqualTo("8");
+    }
+
+    @Test
+    void schemaFromBeforeTheMigrationsIsBaselinedAndMigrated() throws SQLException {
+        // What ddl-auto=update left behind: the entity tables, no Flyway history
+        DriverManagerDataSource existing = new DriverManagerDataSource(
+                "jdbc:h2:mem:preexisting-" + UUID.randomUUID() + ";MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+                "sa", "");
+        new ResourceDatabasePopulator(new ClassPathResource("db/migration/common/V1__baseline_schema.sql"))
+                .execute(existing);
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(existing);
+        jdbcTemplate.update("INSERT INTO users (username, password, role) VALUES ('existing', 'x', 'USER')");
+
+        Flyway.configure()
+                .dataSource(existing)
+                .locations("classpath:db/migration/common", "classpath:db/migration/h2")
+                .baselineOnMigrate(true)
+                .baselineVersion("1")
+                .load()
+                .migrate();
+
+        Set<String> tables = new HashSet<>();
+        try (Connection connection = existing.getConnection();
+             ResultSet rs = connection.getMetaData().getTables(null, null, null, new String[] {"TABLE"})) {
+            while (rs.next()) {
+                tables.add(rs.getString("TABLE_NAME").toLowerCase(Locale.ROOT));
+            }
+        }
+        assertThat(tables).contains("revoked_tokens", "token_watermarks", "rate_limit_buckets",
+                "resource_changes", "borrows_archive", "holds");
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM users", Integer.class)).isEqualTo(1);
+    }
+
+    @Test
+    void accessPathIndexesExist() throws SQLException {
+        assertThat(indexes("borrows")).contains(
+                "idx_borrows_user_status", "idx_borrows_book_status", "idx_borrows_status_due_date",
+                "idx_borrows_open_user_book", "idx_borrows_returned_return_date");
+        assertThat(indexes("borrows_archive")).contains("idx_borrows_archive_user", "idx_borrows_archive_book");
+        assertThat(indexes("holds")).contains("idx_holds_open_user_book", "idx_holds_book_waiting",
+                "idx_holds_ready_expires_at", "idx_holds_user");
+        assertThat(indexes("books")).contains(
+                "idx_books_active_id", "idx_books_available_id", "idx_books_active_category",
+                "idx_books_active_language");
+        assertThat(indexes("rate_limit_buckets")).contains("idx_rate_limit_buckets_expires_at");
+        assertThat(indexes("resource_changes")).contains("idx_resource_changes_changed_at");
+        assertThat(indexes("revoked_tokens")).contains("idx_revoked_tokens_revoked_at");
+        assertThat(indexes("token_watermarks")).contains("idx_token_watermarks_updated_at");
+    }
+
+    private Set<String> indexes(String table) throws SQLException {
+        Set<String> names = new HashSet<>();
+        try (Connection connection = dataSource.getConnection()) {
+            DatabaseMetaData metaData = connection.getMetaData();
+            try (ResultSet rs = metaData.getIndexInfo(null, null, table, false, false)) {
+                while (rs.next()) {
+                    if (rs.getString("INDEX_NAME") != null) {
+                        names.add(rs.getString("INDEX_NAME").toLowerCase(Locale.ROOT));
+                    }
+                }
+            }
+        }
+        return names;
+    }
+}
@@ -0,0 +1,152 @@
+package com.bookstack.bookstack.auth.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.bookstack.bookstack.common.cache.ResourceVersions;
+import com.bookstack.bookstack.common.cache.SecondLevelCacheEvictor;
+import com.bookstack.bookstack.common.exception.NotFoundException;
+import com.bookstack.bookstack.common.exception.ServiceUnavailableException;
+import com.bookstack.bookstack.user.model.User;
+import com.bookstack.bookstack.user.service.UserService;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class AuthServiceTest {
+
+    @Autowired
+    private AuthService authService;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private SecondLevelCacheEvictor cacheEvictor;
+
+    @Autowired
+    private ResourceVersions resourceVersions;
+
+    @MockitoSpyBean
+    private PasswordHashingService passwordHashingService;
+
+    @Test
+    void loginRehashesPasswordsStoredWithAnotherCost() {
+        String username = "rehash-" + UUID.randomUUID();
+        User user = authService.register(username, "secret-password");
+        jdbcTemplate.update("UPDATE users SET password = ? WHERE id = ?",
+                new BCryptPasswordEncoder(4).encode("secret-password"), user.getId());
+        cacheEvictor.evict(User.class, user.getId());
+
+        authService.login(username, "secret-password");
+
+        String stored = userService.getUserById(user.getId()).getPassword();
+        assertThat(stored).startsWith("$2a$10$");
+        assertThat(new BCryptPasswordEncoder().matches("secret-password", stored)).isTrue();
+    }
+
+    @Test
+    void unknownUsernameBecomesLoggableOnceRegistered() {
+        String username = "late-" + UUID.randomUUID();
+        assertThatThrownBy(() -> authService.login(username, "secret-password"))
+                .isInstanceOf(NotFoundException.class);
+        assertThatThrownBy(() -> authService.login(username, "secret-password"))
+                .isInstanceOf(NotFoundException.class);
+
+        authService.register(username, "secret-password");
+
+        assertThat(authService.login(username, "secret-password").getToken()).isNotBlank();
+    }
+
+    @Test
+    void passwordsAreHashedBeforeTheTransactionOpens() {
+        List<Boolean> inTransaction = new CopyOnWriteArrayList<>();
+        doAnswer(invocation -> {
+            inTransaction.add(TransactionSynchronizationManager.isActualTransactionActive());
+            return invocation.callRealMethod();
+        }).when(passwordHashingService).encode(anyString());
+
+        User user = authService.register("hash-" + UUID.randomUUID(), "secret-password");
+        userService.updateUserPassword(user.getId(), "another-password");
+        userService.updateUser(user.getId(), user.getUsername(), "third-password", "MEMBER");
+
+        assertThat(inTransaction).containsExactly(false, false, false);
+        assertThat(authService.login(user.getUsername(), "third-password").getToken()).isNotBlank();
+    }
+
+    @Test
+    void usersCreatedOnAnotherReplicaClearTheUnknownUsernames() throws InterruptedException {
+        String username = "remote-" + UUID.randomUUID();
+        assertThat(userService.getUserByUsername(username)).isEmpty();
+
+        // Another replica registers the name; the miss stays cached until its change is synced
+        jdbcTemplate.update("INSERT INTO users (username, password, role) VALUES (?, 'x', 'MEMBER')", username);
+        Long id = jdbcTemplate.queryForObject("SELECT id FROM users WHERE username = ?", Long.class, username);
+        assertThat(userService.getUserByUsername(username)).isEmpty();
+        jdbcTemplate.update("INSERT INTO resource_changes (resource_key, changed_at, origin) VALUES (?, LOCALTIMESTAMP, 'other')",
+                ResourceVersions.user(id));
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (userService.getUserByUsername(username).isEmpty() && System.nanoTime() < deadline) {
+            resourceVersions.sync();
+            Thread.sleep(50);
+        }
+        assertThat(userService.getUserByUsername(username)).map(User::getId).contains(id);
+    }
+
+    @Test
+    void saturatedHashingPoolFailsFast() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        PasswordEncoder blockingEncoder = new BCryptPasswordEncoder(4) {
+            @Override
+            public String encode(CharSequence rawPassword) {
+                started.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return super.encode(rawPassword);
+            }
+        };
+        PasswordHashingService hashing = new PasswordHashingService(blockingEncoder, new SimpleMeterRegistry(),
+                4, 1, 0, 5000);
+        ExecutorService caller = Executors.newSingleThreadExecutor();
+        try {
+            caller.submit(() -> hashing.encode("first"));
+            assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+
+            assertThatThrownBy(() -> hashing.encode("second"))
+                    .isInstanceOf(ServiceUnavailableException.class);
+        } finally {
+            release.countDown();
+            caller.shutdown();
+            hashing.shutdown();
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package com.bookstack.bookstack.auth.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.bookstack.bookstack.auth.model.AuthenticatedPrincipal;
+import com.github.benmanes.caffeine.cache.Cache;
+
+import io.jsonwebtoken.Claims;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class JwtServiceTest {
+
+    @MockitoSpyBean
+    private JwtService jwtService;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    void verifiedClaimsAreCachedUntilTheTokenExpires() throws Exception {
+        String token = jwtService.generateToken(Map.of("role", "MEMBER", "userId", 8_000_001L), "cache-member");
+
+        AuthenticatedPrincipal principal = jwtService.authenticate(token).orElseThrow();
+
+        long expiresAfterMillis = verifiedTokens().policy().expireVariably().orElseThrow()
+                .getExpiresAfter(sha256(token), TimeUnit.MILLISECONDS).orElseThrow();
+        long untilExpMillis = principal.expiresAt().toEpochMilli() - System.currentTimeMillis();
+        assertThat(expiresAfterMillis).isBetween(untilExpMillis - 1000, untilExpMillis + 1000);
+    }
+
+    @Test
+    void aTamperedTokenIsVerifiedAgainAndRejected() throws Exception {
+        String token = jwtService.generateToken(Map.of("role", "MEMBER", "userId", 8_000_002L), "tamper-member");
+        assertThat(jwtService.authenticate(token)).isPresent();
+
+        String[] parts = token.split("\\.");
+        String forgedPayload = parts[0] + "." + parts[1].substring(0, parts[1].length() - 2) + "AA." + parts[2];
+        char last = parts[2].charAt(parts[2].length() - 2);
+        String forgedSignature = parts[0] + "." + parts[1] + "."
+                + parts[2].substring(0, parts[2].length() - 2) + (last == 'A' ? 'B' : 'A') + parts[2].charAt(parts[2].length() - 1);
+
+        assertThat(jwtService.authenticate(forgedPayload)).isEmpty();
+        assertThat(jwtService.authenticate(forgedSignature)).isEmpty();
+        assertThat(verifiedTokens().getIfPresent(sha256(forgedPayload))).isNull();
+        assertThat(verifiedTokens().getIfPresent(sha256(forgedSignature))).isNull();
+    }
+
+    @Test
+    void theRoleCheckAndTheControllerShareOneVerificationPerRequest() throws Exception {
+        long userId = 8_000_003L;
+        String token = jwtService.generateToken(Map.of("role", "MEMBER", "userId", userId), "request-member");
+        clearInvocations(jwtService);
+
+        // @RequireRole verifies the token, then the controller asks for the principal again
+        mockMvc.perform(get("/api/borrows/user/{userId}/active", userId)
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + token))
+                .andExpect(status().isOk());
+        verify(jwtService, times(1)).authenticate(anyString());
+
+        mockMvc.perform(get("/api/borrows/user/{userId}/active", userId)
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + token))
+                .andExpect(status().isOk());
+        verify(jwtService, times(2)).authenticate(anyString());
+    }
+
+    @SuppressWarnings("unchecked")
+    private Cache<String, Claims> verifiedTokens() {
+        return (Cache<String, Claims>) ReflectionTestUtils.getField(jwtService, "verifiedTokens");
+    }
+
+    private static String sha256(String token) throws NoSuchAlgorithmException {
+        return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8)));
+    }
+}
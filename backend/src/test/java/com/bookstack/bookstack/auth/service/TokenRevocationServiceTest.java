@@ -0,0 +1,127 @@
+package com.bookstack.bookstack.auth.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.temporal.ChronoField;
+import java.time.temporal.ChronoUnit;
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.bookstack.bookstack.auth.model.AuthenticatedPrincipal;
+import com.bookstack.bookstack.user.model.User;
+import com.bookstack.bookstack.user.service.UserService;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class TokenRevocationServiceTest {
+
+    @Autowired
+    private TokenRevocationService revocationService;
+
+    @Autowired
+    private AuthService authService;
+
+    @Autowired
+    private JwtService jwtService;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void logoutRevokesOnlyThePresentedToken() {
+        String username = "logout-" + UUID.randomUUID();
+        authService.register(username, "secret-password");
+        AuthenticatedPrincipal first = principal(authService.login(username, "secret-password").getToken());
+        AuthenticatedPrincipal second = principal(authService.login(username, "secret-password").getToken());
+
+        authService.logout(first);
+
+        assertThat(revocationService.isRevoked(first)).isTrue();
+        assertThat(revocationService.isRevoked(second)).isFalse();
+    }
+
+    @Test
+    void roleChangeRevokesTokensIssuedBeforeIt() {
+        User user = authService.register("role-" + UUID.randomUUID(), "secret-password");
+        AuthenticatedPrincipal earlier = issuedAt(user.getId(), Instant.now().minusSeconds(5));
+        assertThat(revocationService.isRevoked(earlier)).isFalse();
+
+        userService.updateUserRole(user.getId(), "LIBRARIAN");
+
+        assertThat(revocationService.isRevoked(earlier)).isTrue();
+        // A fresh login right after the change must work
+        assertThat(revocationService.isRevoked(principal(jwtService.generateToken(userService.getUserById(user.getId())))))
+                .isFalse();
+    }
+
+    @Test
+    void aTokenIssuedEarlierInTheSameSecondAsTheChangeIsRevoked() throws InterruptedException {
+        User user = authService.register("same-second-" + UUID.randomUUID(), "secret-password");
+        // Start just after a second boundary, so the token and the change share their iat second
+        while (Instant.now().get(ChronoField.MILLI_OF_SECOND) > 100) {
+            Thread.sleep(10);
+        }
+        AuthenticatedPrincipal beforeChange = principal(jwtService.generateToken(user));
+        Thread.sleep(5);
+
+        userService.updateUserRole(user.getId(), "LIBRARIAN");
+
+        Instant notBefore = jdbcTemplate.queryForObject("SELECT not_before FROM token_watermarks WHERE user_id = ?",
+                Timestamp.class, user.getId()).toInstant();
+        assertThat(beforeChange.issuedAt().truncatedTo(ChronoUnit.SECONDS)).isEqualTo(notBefore.truncatedTo(ChronoUnit.SECONDS));
+        assertThat(beforeChange.issuedAt()).isBefore(notBefore);
+        assertThat(beforeChange.role()).isEqualTo("MEMBER");
+        assertThat(revocationService.isRevoked(beforeChange)).isTrue();
+
+        // Past the change's millisecond, a new token is accepted again
+        Thread.sleep(2);
+        assertThat(revocationService.isRevoked(principal(jwtService.generateToken(userService.getUserById(user.getId())))))
+                .isFalse();
+    }
+
+    @Test
+    void watermarksWrittenByAnotherReplicaArePickedUpOnRefresh() {
+        long userId = 900_000L + (System.nanoTime() % 100_000);
+        Instant now = Instant.now();
+        jdbcTemplate.update("INSERT INTO token_watermarks (user_id, not_before, updated_at) VALUES (?, ?, ?)",
+                userId, Timestamp.from(now.truncatedTo(ChronoUnit.SECONDS)), Timestamp.from(now));
+        AuthenticatedPrincipal earlier = issuedAt(userId, now.minusSeconds(5));
+
+        revocationService.refresh();
+
+        assertThat(revocationService.isRevoked(earlier)).isTrue();
+    }
+
+    @Test
+    void bloomFilterHasNoFalseNegativesAndFewFalsePositives() {
+        BloomFilter filter = new BloomFilter(10_000, 0.001);
+        for (int i = 0; i < 10_000; i++) {
+            filter.add("revoked-" + i);
+        }
+        int falsePositives = 0;
+        for (int i = 0; i < 10_000; i++) {
+            assertThat(filter.mightContain("revoked-" + i)).isTrue();
+            if (filter.mightContain(UUID.randomUUID().toString())) falsePositives++;
+        }
+        assertThat(falsePositives).isLessThan(50);
+    }
+
+    private AuthenticatedPrincipal principal(String token) {
+        return jwtService.authenticate(token).orElseThrow();
+    }
+
+    private static AuthenticatedPrincipal issuedAt(Long userId, Instant issuedAt) {
+        return new AuthenticatedPrincipal(userId, "user", "MEMBER", issuedAt.truncatedTo(ChronoUnit.SECONDS),
+                issuedAt.plusSeconds(3600), UUID.randomUUID().toString());
+    }
+}
@@ -0,0 +1,205 @@
+package com.bookstack.bookstack.book.search;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.bookstack.bookstack.book.model.Book;
+import com.bookstack.bookstack.book.service.BookService;
+import com.bookstack.bookstack.common.cache.ResourceVersions;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class BookSearchIndexTest {
+
+    @Autowired
+    private BookSearchIndex searchIndex;
+
+    @Autowired
+    private BookService bookService;
+
+    @Autowired
+    private ResourceVersions resourceVersions;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void titleAndAuthorMatchCaseInsensitiveSubstrings() {
+        String tag = tag();
+        Book book = bookService.addBook(newBook("The " + tag + " Chronicles", "Ursula " + tag));
+
+        assertThat(searchIndex.isReady()).isTrue();
+        assertThat(searchIndex.search(tag.toUpperCase() + " chron", null, null, null)).containsExactly(book.getId());
+        assertThat(searchIndex.search(null, "ula " + tag, null, null)).containsExactly(book.getId());
+        assertThat(searchIndex.search(tag + " Chronicles", "Ursula", null, null)).containsExactly(book.getId());
+        assertThat(searchIndex.search(tag + " Annals", null, null, null)).isEmpty();
+        assertThat(searchIndex.search(tag, "Tolkien", null, null)).isEmpty();
+    }
+
+    @Test
+    void queriesShorterThanAGramAreVerifiedAgainstEveryBook() {
+        String tag = tag();
+        Book book = newBook("Qz", "Author");
+        book.setCategory(tag);
+        Long id = bookService.addBook(book).getId();
+
+        assertThat(searchIndex.search("qz", null, tag, null)).containsExactly(id);
+        assertThat(searchIndex.search("Z", null, tag, null)).containsExactly(id);
+        assertThat(searchIndex.search("", null, tag, null)).containsExactly(id);
+        assertThat(searchIndex.search("zq", null, tag, null)).isEmpty();
+        assertThat(bookService.searchBooks("q", null, tag, null)).extracting(Book::getId).containsExactly(id);
+    }
+
+    @Test
+    void categoryAndLanguageMatchWholeValuesIgnoringCase() {
+        String tag = tag();
+        Book book = newBook("Category " + tag, "Author");
+        book.setCategory("Poetry-" + tag);
+        book.setLanguage("Lang-" + tag);
+        Long id = bookService.addBook(book).getId();
+
+        assertThat(searchIndex.search(null, null, "POETRY-" + tag, null)).containsExactly(id);
+        assertThat(searchIndex.search(null, null, null, "lang-" + tag)).containsExactly(id);
+        assertThat(searchIndex.search(null, null, "poetry-" + tag, "LANG-" + tag)).containsExactly(id);
+        assertThat(searchIndex.search(null, null, "Poetry", null)).doesNotContain(id);
+        assertThat(searchIndex.search(null, null, "Poetry-" + tag, "Lang")).isEmpty();
+    }
+
+    @Test
+    void keysetPagesWalkTheMatchesInIdOrder() {
+        String tag = tag();
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            Book book = newBook("Paged " + tag + " " + i, "Author");
+            book.setCategory(tag);
+            ids.add(bookService.addBook(book).getId());
+        }
+
+        // Trigram postings narrow the candidates
+        assertThat(searchIndex.search("paged " + tag, null, null, null, 0L, 2)).containsExactlyElementsOf(ids.subList(0, 2));
+        assertThat(searchIndex.search("paged " + tag, null, null, null, ids.get(1), 2)).containsExactlyElementsOf(ids.subList(2, 4));
+        assertThat(searchIndex.search("paged " + tag, null, null, null, ids.get(3), 2)).containsExactly(ids.get(4));
+        // A short query has no postings and walks the documents from the cursor
+        assertThat(searchIndex.search("ed", null, null, null, ids.get(2) - 1, Integer.MAX_VALUE)).startsWith(ids.get(2));
+        assertThat(bookService.searchBooksPage(null, null, tag, null, ids.get(0), 3))
+                .extracting(Book::getId).containsExactlyElementsOf(ids.subList(1, 4));
+    }
+
+    @Test
+    void pagesStayFullWhenIndexedBooksNoLongerLoad() {
+        String tag = tag();
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            jdbcTemplate.update("INSERT INTO books (title, author, isbn, category, total_copies, available_copies) VALUES (?, 'Author', ?, ?, 1, 1)",
+                    "Gap " + tag + " " + i, "GP-" + tag + "-" + i, tag);
+            ids.add(jdbcTemplate.queryForObject("SELECT id FROM books WHERE isbn = ?", Long.class, "GP-" + tag + "-" + i));
+        }
+        searchIndex.rebuild();
+        // Deleted on another replica, and the sync hasn't told the index yet
+        jdbcTemplate.update("UPDATE books SET deleted_at = LOCALTIMESTAMP WHERE id IN (?, ?)", ids.get(1), ids.get(2));
+
+        // A page of two plus the row that shows another page follows
+        assertThat(bookService.searchBooksPage(null, null, tag, null, 0L, 3))
+                .extracting(Book::getId).containsExactly(ids.get(0), ids.get(3), ids.get(4));
+    }
+
+    @Test
+    void indexFollowsWritesThroughBookService() {
+        String tag = tag();
+        Long id = bookService.addBook(newBook("Before " + tag, "Author")).getId();
+        assertThat(searchIndex.search("before " + tag, null, null, null)).containsExactly(id);
+
+        Book update = newBook("After " + tag, "Author");
+        update.setIsbn(bookService.getBookById(id).getIsbn());
+        bookService.updateBook(id, update);
+        assertThat(searchIndex.search("before " + tag, null, null, null)).isEmpty();
+        assertThat(searchIndex.search("after " + tag, null, null, null)).containsExactly(id);
+
+        bookService.deleteBook(id);
+        assertThat(searchIndex.search(tag, null, null, null)).isEmpty();
+        assertThat(bookService.searchBooks(tag, null, null, null)).isEmpty();
+
+        assertThat(bookService.getBookByIdIncludingDeleted(id).isDeleted()).isTrue();
+
+        bookService.restoreBook(id);
+        assertThat(searchIndex.search("after " + tag, null, null, null)).containsExactly(id);
+
+        // A soft-deleted book can still be removed for good
+        bookService.deleteBook(id);
+        bookService.hardDeleteBook(id);
+        assertThat(bookService.bookExistsIncludingDeleted(id)).isFalse();
+        assertThat(searchIndex.search(tag, null, null, null)).isEmpty();
+    }
+
+    @Test
+    void rebuildKeepsTheIndexInStepWithTheTable() {
+        String tag = tag();
+        Long id = bookService.addBook(newBook("Rebuilt " + tag, "Author")).getId();
+
+        searchIndex.rebuild();
+
+        assertThat(searchIndex.isReady()).isTrue();
+        assertThat(searchIndex.search("rebuilt " + tag, null, null, null)).containsExactly(id);
+    }
+
+    @Test
+    void writesFromAnotherReplicaAreAppliedOnSync() throws InterruptedException {
+        String tag = tag();
+        // Another replica inserts a book and records the change, bypassing this instance
+        jdbcTemplate.update("INSERT INTO books (title, author, isbn, total_copies, available_copies) VALUES (?, ?, ?, 1, 1)",
+                "Remote " + tag, "Author", "RM-" + tag);
+        Long id = jdbcTemplate.queryForObject("SELECT id FROM books WHERE isbn = ?", Long.class, "RM-" + tag);
+        recordRemoteChange(id);
+        assertThat(foundOnceSynced("remote " + tag)).isTrue();
+        assertThat(searchIndex.search("remote " + tag, null, null, null)).containsExactly(id);
+
+        jdbcTemplate.update("UPDATE books SET deleted_at = LOCALTIMESTAMP WHERE id = ?", id);
+        recordRemoteChange(id);
+        assertThat(foundOnceSynced("remote " + tag)).isFalse();
+    }
+
+    private void recordRemoteChange(Long bookId) {
+        // The version has to move for the sync to treat the row as a new change
+        String key = ResourceVersions.book(bookId);
+        if (jdbcTemplate.update("UPDATE resource_changes SET version = version + 1, changed_at = LOCALTIMESTAMP, origin = 'other' WHERE resource_key = ?", key) == 0) {
+            jdbcTemplate.update("INSERT INTO resource_changes (resource_key, changed_at, origin) VALUES (?, LOCALTIMESTAMP, 'other')", key);
+        }
+    }
+
+    // Syncs until the search result flips; the scheduled sync may pick the change up first
+    private boolean foundOnceSynced(String title) throws InterruptedException {
+        boolean expectFound = !searchIndex.search(title, null, null, null).isEmpty();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (System.nanoTime() < deadline) {
+            resourceVersions.sync();
+            boolean found = !searchIndex.search(title, null, null, null).isEmpty();
+            if (found != expectFound) return found;
+            Thread.sleep(50);
+        }
+        return expectFound;
+    }
+
+    private static String tag() {
+        return UUID.randomUUID().toString().substring(0, 8);
+    }
+
+    private static Book newBook(String title, String author) {
+        Book book = new Book();
+        book.setTitle(title);
+        book.setAuthor(author);
+        book.setIsbn("IX-" + UUID.randomUUID().toString().substring(0, 12));
+        book.setTotalCopies(1);
+        book.setAvailableCopies(1);
+        return book;
+    }
+}
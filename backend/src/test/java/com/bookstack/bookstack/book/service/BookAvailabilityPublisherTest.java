@@ -0,0 +1,191 @@
+package com.bookstack.bookstack.book.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+import org.reactivestreams.Subscription;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.bookstack.bookstack.book.dto.BookAvailability;
+import com.bookstack.bookstack.book.model.Book;
+import com.bookstack.bookstack.common.cache.ResourceVersions;
+
+import reactor.core.Disposable;
+import reactor.core.publisher.BaseSubscriber;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class BookAvailabilityPublisherTest {
+
+    @Autowired
+    private BookAvailabilityPublisher publisher;
+
+    @Autowired
+    private BookService bookService;
+
+    @Autowired
+    private ResourceVersions resourceVersions;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void changesWithinAnIntervalAreCoalescedPerBook() {
+        Book book = bookService.addBook(newBook(5));
+        Book other = bookService.addBook(newBook(5));
+        Queue<BookAvailability> received = new ConcurrentLinkedQueue<>();
+        Disposable subscription = publisher.updates(List.of(book.getId())).subscribe(received::add);
+        try {
+            bookService.checkOutCopy(book.getId());
+            bookService.checkOutCopy(book.getId());
+            bookService.checkOutCopy(book.getId());
+            bookService.checkOutCopy(other.getId());
+            publisher.flush();
+
+            assertThat(received).singleElement().satisfies(update -> {
+                assertThat(update.getBookId()).isEqualTo(book.getId());
+                assertThat(update.getAvailableCopies()).isEqualTo(2);
+                assertThat(update.getTotalCopies()).isEqualTo(5);
+            });
+        } finally {
+            subscription.dispose();
+        }
+    }
+
+    @Test
+    void aSlowSubscriberKeepsOnlyTheNewestUpdates() {
+        List<Long> bookIds = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            bookIds.add(bookService.addBook(newBook(1)).getId());
+        }
+        List<BookAvailability> received = new ArrayList<>();
+        BaseSubscriber<BookAvailability> stalled = new BaseSubscriber<>() {
+            @Override
+            protected void hookOnSubscribe(Subscription subscription) {
+                // No demand until the test asks for it, like a connection that stopped reading
+            }
+
+            @Override
+            protected void hookOnNext(BookAvailability value) {
+                received.add(value);
+            }
+        };
+        publisher.updates(bookIds).subscribe(stalled);
+        try {
+            // One flush per book so the order of updates is known
+            for (Long bookId : bookIds) {
+                publisher.changed(bookId);
+                publisher.flush();
+            }
+            stalled.request(Long.MAX_VALUE);
+
+            assertThat(received).extracting(BookAvailability::getBookId)
+                    .containsExactlyElementsOf(bookIds.subList(bookIds.size() - 16, bookIds.size()));
+        } finally {
+            stalled.dispose();
+        }
+    }
+
+    @Test
+    void tenThousandSubscribersAllReceiveAnUpdate() throws InterruptedException {
+        Book book = bookService.addBook(newBook(3));
+        int subscribers = 10_000;
+        CountDownLatch delivered = new CountDownLatch(subscribers);
+        AtomicInteger wrongCopies = new AtomicInteger();
+        List<Disposable> subscriptions = new ArrayList<>(subscribers);
+        for (int i = 0; i < subscribers; i++) {
+            // Half follow this book, half follow every book
+            subscriptions.add(publisher.updates(i % 2 == 0 ? List.of(book.getId()) : null)
+                    .filter(update -> update.getBookId().equals(book.getId()))
+                    .subscribe(update -> {
+                        if (update.getAvailableCopies() != 2) wrongCopies.incrementAndGet();
+                        delivered.countDown();
+                    }));
+        }
+        try {
+            assertThat(publisher.subscriberCount()).isGreaterThanOrEqualTo(subscribers);
+            long start = System.nanoTime();
+            bookService.checkOutCopy(book.getId());
+            publisher.flush();
+
+            assertThat(delivered.await(10, TimeUnit.SECONDS)).isTrue();
+            assertThat(wrongCopies).hasValue(0);
+            assertThat(Duration.ofNanos(System.nanoTime() - start)).isLessThan(Duration.ofSeconds(10));
+        } finally {
+            subscriptions.forEach(Disposable::dispose);
+        }
+        assertThat(publisher.subscriberCount()).isZero();
+    }
+
+    @Test
+    void deletedBooksArePublishedWithoutCopies() {
+        Book softDeleted = bookService.addBook(newBook(2));
+        Book hardDeleted = bookService.addBook(newBook(2));
+        Queue<BookAvailability> received = new ConcurrentLinkedQueue<>();
+        Disposable subscription = publisher.updates(List.of(softDeleted.getId(), hardDeleted.getId())).subscribe(received::add);
+        try {
+            bookService.deleteBook(softDeleted.getId());
+            bookService.hardDeleteBook(hardDeleted.getId());
+            publisher.flush();
+
+            assertThat(received).extracting(BookAvailability::getBookId, BookAvailability::getAvailableCopies)
+                    .containsExactlyInAnyOrder(tuple(softDeleted.getId(), 0), tuple(hardDeleted.getId(), 0));
+
+            received.clear();
+            bookService.restoreBook(softDeleted.getId());
+            publisher.flush();
+            assertThat(received).extracting(BookAvailability::getBookId, BookAvailability::getAvailableCopies)
+                    .containsExactly(tuple(softDeleted.getId(), 2));
+        } finally {
+            subscription.dispose();
+        }
+    }
+
+    @Test
+    void changesCommittedOnAnotherReplicaArePublished() throws InterruptedException {
+        Book book = bookService.addBook(newBook(4));
+        Queue<BookAvailability> received = new ConcurrentLinkedQueue<>();
+        Disposable subscription = publisher.updates(List.of(book.getId())).subscribe(received::add);
+        try {
+            // Another replica checks out a copy and records the change
+            jdbcTemplate.update("UPDATE books SET available_copies = 3 WHERE id = ?", book.getId());
+            jdbcTemplate.update("UPDATE resource_changes SET version = version + 1, changed_at = LOCALTIMESTAMP, origin = 'other' WHERE resource_key = ?",
+                    ResourceVersions.book(book.getId()));
+
+            // The scheduled sync and flush may get there first
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+            while (received.isEmpty() && System.nanoTime() < deadline) {
+                resourceVersions.sync();
+                publisher.flush();
+                Thread.sleep(50);
+            }
+            assertThat(received).extracting(BookAvailability::getAvailableCopies).containsExactly(3);
+        } finally {
+            subscription.dispose();
+        }
+    }
+
+    private static Book newBook(int copies) {
+        Book book = new Book();
+        book.setTitle("Availability");
+        book.setAuthor("Test");
+        book.setIsbn("AV-" + UUID.randomUUID().toString().substring(0, 12));
+        book.setTotalCopies(copies);
+        book.setAvailableCopies(copies);
+        return book;
+    }
+}
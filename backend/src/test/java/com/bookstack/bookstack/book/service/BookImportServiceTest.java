@@ -0,0 +1,102 @@
+package com.bookstack.bookstack.book.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.bookstack.bookstack.book.dto.BookImportResult;
+import com.bookstack.bookstack.book.importer.BookImportFormat;
+import com.bookstack.bookstack.book.model.Book;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class BookImportServiceTest {
+
+    @Autowired
+    private BookImportService bookImportService;
+
+    @Autowired
+    private BookService bookService;
+
+    @Test
+    void csvImportInsertsValidRowsAndReportsTheRest() {
+        String prefix = UUID.randomUUID().toString().substring(0, 8);
+        Book existing = new Book();
+        existing.setTitle("Existing");
+        existing.setAuthor("Someone");
+        existing.setIsbn(prefix + "-0");
+        existing.setTotalCopies(1);
+        existing.setAvailableCopies(1);
+        bookService.addBook(existing);
+
+        String csv = String.join("\n",
+                "title,author,isbn,category,language,total_copies,available_copies",
+                "\"Dune, Part One\",Frank Herbert," + prefix + "-1,Fiction,English,3,3",
+                "\"Multi\nline \"\"quoted\"\" title\",Author," + prefix + "-2,,,2,1",
+                "Duplicate,Author," + prefix + "-1,,,1,1",
+                "Conflict,Author," + prefix + "-0,,,1,1",
+                "Too many,Author," + prefix + "-3,,,1,2",
+                ",Author," + prefix + "-4,,,1,1",
+                "Not a number,Author," + prefix + "-5,,,x,1",
+                "");
+
+        BookImportResult result = importBooks(csv, BookImportFormat.CSV);
+
+        assertThat(result.getTotalRows()).isEqualTo(7);
+        assertThat(result.getImportedRows()).isEqualTo(2);
+        assertThat(result.getFailedRows()).isEqualTo(5);
+        assertThat(result.getErrors())
+                .extracting(BookImportResult.RowError::getLine, BookImportResult.RowError::getMessage)
+                .containsExactlyInAnyOrder(
+                        tuple(5L, "Duplicate ISBN in import: " + prefix + "-1"),
+                        tuple(6L, "Book with ISBN " + prefix + "-0 already exists"),
+                        tuple(7L, "Available copies cannot exceed total copies"),
+                        tuple(8L, "Book title is required"),
+                        tuple(9L, "Copy counts must be whole numbers"));
+
+        assertThat(bookService.getBookByIsbn(prefix + "-1")).get()
+                .extracting(Book::getTitle).isEqualTo("Dune, Part One");
+        assertThat(bookService.getBookByIsbn(prefix + "-2")).get()
+                .extracting(Book::getTitle).isEqualTo("Multi\nline \"quoted\" title");
+        // Imported books are searchable straight away
+        assertThat(bookService.getBooksByTitle("part one")).extracting(Book::getIsbn).contains(prefix + "-1");
+    }
+
+    @Test
+    void ndjsonImportSpansSeveralBatches() {
+        ReflectionTestUtils.setField(bookImportService, "batchSize", 3);
+        try {
+            String prefix = UUID.randomUUID().toString().substring(0, 8);
+            StringBuilder body = new StringBuilder();
+            for (int i = 0; i < 10; i++) {
+                body.append("{\"title\":\"Bulk ").append(i).append("\",\"author\":\"Importer\",\"isbn\":\"")
+                        .append(prefix).append('-').append(i).append("\",\"totalCopies\":2,\"availableCopies\":2}\n");
+            }
+            body.append("{not json}\n");
+
+            BookImportResult result = importBooks(body.toString(), BookImportFormat.NDJSON);
+
+            assertThat(result.getImportedRows()).isEqualTo(10);
+            assertThat(result.getFailedRows()).isEqualTo(1);
+            assertThat(result.getErrors()).singleElement()
+                    .extracting(BookImportResult.RowError::getLine).isEqualTo(11L);
+            assertThat(result.getRowsPerSecond()).isPositive();
+            assertThat(bookService.getBookByIsbn(prefix + "-9")).isPresent();
+        } finally {
+            ReflectionTestUtils.setField(bookImportService, "batchSize", 500);
+        }
+    }
+
+    private BookImportResult importBooks(String body, BookImportFormat format) {
+        return bookImportService.importBooks(new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)), format);
+    }
+}
@@ -0,0 +1,152 @@
+package com.bookstack.bookstack.book.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.bookstack.bookstack.book.model.Book;
+import com.bookstack.bookstack.common.cache.ResourceVersions;
+import com.bookstack.bookstack.common.config.HibernateCacheConfig;
+import com.bookstack.bookstack.common.exception.NotFoundException;
+import com.bookstack.bookstack.user.model.User;
+import com.bookstack.bookstack.user.service.UserService;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class BookServiceSecondLevelCacheTest {
+
+    @Autowired
+    private BookService bookService;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private ResourceVersions resourceVersions;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void repeatedLookupsAreServedFromTheCache() {
+        Book book = bookService.addBook(newBook(3));
+
+        bookService.getBookById(book.getId());
+        double hitsBefore = hits(HibernateCacheConfig.BOOK_REGION);
+        bookService.getBookById(book.getId());
+        bookService.getBookByIsbn(book.getIsbn());
+
+        assertThat(hits(HibernateCacheConfig.BOOK_REGION)).isGreaterThan(hitsBefore);
+        assertThat(hits(HibernateCacheConfig.BOOK_ISBN_REGION)).isPositive();
+    }
+
+    @Test
+    void copyAccountingIsVisibleThroughTheCache() {
+        Book book = bookService.addBook(newBook(2));
+        bookService.getBookById(book.getId());
+
+        assertThat(bookService.checkOutCopy(book.getId())).isTrue();
+        assertThat(bookService.getBookById(book.getId()).getAvailableCopies()).isEqualTo(1);
+
+        assertThat(bookService.checkInCopy(book.getId())).isTrue();
+        assertThat(bookService.getBookById(book.getId()).getAvailableCopies()).isEqualTo(2);
+    }
+
+    @Test
+    void softDeletedBooksAreNotServedFromTheCache() {
+        Book book = bookService.addBook(newBook(1));
+        bookService.getBookById(book.getId());
+        bookService.getBookByIsbn(book.getIsbn());
+
+        bookService.deleteBook(book.getId());
+
+        assertThatThrownBy(() -> bookService.getBookById(book.getId())).isInstanceOf(NotFoundException.class);
+        assertThat(bookService.getBookByIsbn(book.getIsbn())).isEmpty();
+        assertThat(bookService.getBooksByIds(List.of(book.getId()))).isEmpty();
+    }
+
+    @Test
+    void softDeletedUsersAreNotServedFromTheCache() {
+        User user = userService.createUser("cache-" + UUID.randomUUID(), "password", "MEMBER");
+        assertThat(userService.getUserByUsername(user.getUsername())).isPresent();
+        userService.getUserById(user.getId());
+
+        userService.deleteUser(user.getId());
+
+        assertThat(userService.getUserByUsername(user.getUsername())).isEmpty();
+        assertThatThrownBy(() -> userService.getUserById(user.getId())).isInstanceOf(NotFoundException.class);
+    }
+
+    @Test
+    void writesFromAnotherReplicaAreEvictedOnSync() throws InterruptedException {
+        Book book = bookService.addBook(newBook(2));
+        User user = userService.createUser("cache-" + UUID.randomUUID(), "password", "MEMBER");
+        bookService.getBookById(book.getId());
+        userService.getUserById(user.getId());
+
+        // Another replica writes both rows; until it records the change this instance keeps its cached copies
+        jdbcTemplate.update("UPDATE books SET available_copies = 0 WHERE id = ?", book.getId());
+        jdbcTemplate.update("UPDATE users SET username = ? WHERE id = ?", user.getUsername() + "-renamed", user.getId());
+        assertThat(bookService.getBookById(book.getId()).getAvailableCopies()).isEqualTo(2);
+        assertThat(userService.getUserById(user.getId()).getUsername()).isEqualTo(user.getUsername());
+
+        recordRemoteChange(ResourceVersions.book(book.getId()));
+        recordRemoteChange(ResourceVersions.user(user.getId()));
+        recordRemoteChange(ResourceVersions.USER_DETAILS);
+
+        assertThat(syncedUntil(() -> bookService.getBookById(book.getId()).getAvailableCopies() == 0)).isTrue();
+        assertThat(syncedUntil(() -> userService.getUserById(user.getId()).getUsername().endsWith("-renamed"))).isTrue();
+        assertThat(userService.getUserByUsername(user.getUsername() + "-renamed")).isPresent();
+    }
+
+    private void recordRemoteChange(String key) {
+        // The version has to move for the sync to treat the row as a new change
+        if (jdbcTemplate.update("UPDATE resource_changes SET version = version + 1, changed_at = LOCALTIMESTAMP, origin = 'other' WHERE resource_key = ?", key) == 0) {
+            jdbcTemplate.update("INSERT INTO resource_changes (resource_key, changed_at, origin) VALUES (?, LOCALTIMESTAMP, 'other')", key);
+        }
+    }
+
+    // Syncs until the condition holds; the scheduled sync may pick the change up first
+    private boolean syncedUntil(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (System.nanoTime() < deadline) {
+            resourceVersions.sync();
+            if (condition.getAsBoolean()) return true;
+            Thread.sleep(50);
+        }
+        return false;
+    }
+
+    private double hits(String region) {
+        FunctionCounter counter = meterRegistry.find("cache.gets")
+                .tags("cache", region, "result", "hit")
+                .functionCounter();
+        return counter == null ? 0 : counter.count();
+    }
+
+    private static Book newBook(int copies) {
+        Book book = new Book();
+        book.setTitle("Cached Title");
+        book.setAuthor("Cached Author");
+        book.setIsbn(UUID.randomUUID().toString().substring(0, 13));
+        book.setTotalCopies(copies);
+        book.setAvailableCopies(copies);
+        return book;
+    }
+}
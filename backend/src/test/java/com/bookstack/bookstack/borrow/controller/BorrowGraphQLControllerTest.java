@@ -0,0 +1,127 @@
+package com.bookstack.bookstack.borrow.controller;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.graphql.ExecutionGraphQlService;
+import org.springframework.graphql.test.tester.ExecutionGraphQlServiceTester;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import com.bookstack.bookstack.auth.service.JwtService;
+
+import jakarta.persistence.EntityManagerFactory;
+
+// Own database so the result size is known; cost limits are off since assumed list sizes would reject the nesting
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:graphql-batching;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+                + "com.bookstack.bookstack.borrow.controller.BorrowGraphQLControllerTest$StatementRecorder",
+        "app.graphql.cost.enabled=false"
+})
+@ActiveProfiles("test")
+class BorrowGraphQLControllerTest {
+    private static final String NESTED_BORROWS = """
+            { borrowsByStatus(status: ACTIVE) { id user { id borrows { id book { id title } } } } }
+            """;
+
+    @Autowired
+    private ExecutionGraphQlService graphQlService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private JwtService jwtService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void authenticate() {
+        String token = jwtService.generateToken(Map.of("role", "LIBRARIAN", "userId", 9_000_001L), "batching-librarian");
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/graphql");
+        request.addHeader("Authorization", "Bearer " + token);
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+    }
+
+    @AfterEach
+    void clearRequest() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    void nestedBorrowFieldsTakeOneQueryPerTypeAndLevel() {
+        // Four members with two active borrows each, on eight different books
+        for (int member = 0; member < 4; member++) {
+            jdbcTemplate.update("INSERT INTO users (username, password, role) VALUES (?, 'x', 'MEMBER')", "batched-" + member);
+            Long userId = jdbcTemplate.queryForObject("SELECT id FROM users WHERE username = ?", Long.class, "batched-" + member);
+            for (int copy = 0; copy < 2; copy++) {
+                String isbn = "BATCH-" + member + "-" + copy;
+                jdbcTemplate.update("INSERT INTO books (title, author, isbn, total_copies, available_copies) VALUES (?, 'A', ?, 1, 0)",
+                        "Batched " + isbn, isbn);
+                Long bookId = jdbcTemplate.queryForObject("SELECT id FROM books WHERE isbn = ?", Long.class, isbn);
+                jdbcTemplate.update("INSERT INTO borrows (user_id, book_id, status, borrow_date, due_date) VALUES (?, ?, 'ACTIVE', ?, ?)",
+                        userId, bookId, LocalDateTime.now(), LocalDateTime.now().plusDays(14));
+            }
+        }
+        // Cold cache, so every user and book has to come from the database
+        entityManagerFactory.unwrap(SessionFactory.class).getCache().evictAllRegions();
+        StatementRecorder.start();
+
+        ExecutionGraphQlServiceTester.create(graphQlService)
+                .document(NESTED_BORROWS)
+                .execute()
+                .errors().verify()
+                .path("borrowsByStatus").entityList(Object.class).hasSize(8)
+                .path("borrowsByStatus[*].user.borrows[*].book.title").entityList(String.class).hasSize(16);
+
+        // borrowsByStatus, then one IN (...) each for Borrow.user, User.borrows and Borrow.book
+        assertThat(StatementRecorder.stop())
+                .hasSize(4)
+                .satisfiesExactly(
+                        sql -> assertThat(sql).contains("from borrows").contains("status=?"),
+                        sql -> assertThat(sql).contains("from users").contains(" in ("),
+                        sql -> assertThat(sql).contains("from borrows").contains(" in ("),
+                        sql -> assertThat(sql).contains("from books").contains(" in ("));
+    }
+
+    // Records the SQL Hibernate prepares on the recording thread; scheduled jobs run on their own threads
+    public static class StatementRecorder implements StatementInspector {
+        private static volatile Thread recordingThread;
+        private static final List<String> statements = new CopyOnWriteArrayList<>();
+
+        static void start() {
+            statements.clear();
+            recordingThread = Thread.currentThread();
+        }
+
+        static List<String> stop() {
+            recordingThread = null;
+            return List.copyOf(statements);
+        }
+
+        @Override
+        public String inspect(String sql) {
+            if (Thread.currentThread() == recordingThread) {
+                statements.add(sql.toLowerCase(Locale.ROOT));
+            }
+            return sql;
+        }
+    }
+}
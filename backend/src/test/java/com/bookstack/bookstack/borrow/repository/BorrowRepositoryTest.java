@@ -0,0 +1,56 @@
+package com.bookstack.bookstack.borrow.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.bookstack.bookstack.borrow.dto.BorrowResponse;
+import com.bookstack.bookstack.borrow.mapper.BorrowMapper;
+import com.bookstack.bookstack.borrow.model.BorrowStatus;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class BorrowRepositoryTest {
+    // Explicit, distinct ids and dates, so a swapped projection argument can't go unnoticed
+    private static final long USER_ID = 7_190_001L;
+    private static final long BOOK_ID = 7_290_001L;
+    private static final long BORROW_ID = 7_390_001L;
+
+    @Autowired
+    private BorrowRepository borrowRepository;
+
+    @Autowired
+    private BorrowMapper borrowMapper;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    @Transactional
+    void projectionMatchesTheMappedEntity() {
+        LocalDateTime borrowed = LocalDateTime.of(2026, 1, 2, 10, 0);
+        jdbcTemplate.update("INSERT INTO users (id, username, password, role) VALUES (?, 'projected-member', 'x', 'MEMBER')",
+                USER_ID);
+        jdbcTemplate.update("INSERT INTO books (id, title, author, isbn, total_copies, available_copies) "
+                + "VALUES (?, 'Projected Title', 'A', 'PROJ-1', 1, 1)", BOOK_ID);
+        jdbcTemplate.update("INSERT INTO borrows (id, user_id, book_id, status, borrow_date, due_date, return_date, notes) "
+                + "VALUES (?, ?, ?, 'RETURNED', ?, ?, ?, 'left on the desk')",
+                BORROW_ID, USER_ID, BOOK_ID, borrowed, borrowed.plusDays(14), borrowed.plusDays(3));
+
+        BorrowResponse projected = borrowRepository.findResponseById(BORROW_ID).orElseThrow();
+        BorrowResponse mapped = borrowMapper.toResponse(borrowRepository.findByIdWithUserAndBook(BORROW_ID).orElseThrow());
+
+        assertThat(projected).isEqualTo(mapped);
+        assertThat(projected).hasNoNullFieldsOrProperties();
+        assertThat(List.of(projected.getUserId(), projected.getBookId(), projected.getStatus(), projected.getReturnDate()))
+                .containsExactly(USER_ID, BOOK_ID, BorrowStatus.RETURNED, borrowed.plusDays(3));
+    }
+}
@@ -0,0 +1,88 @@
+package com.bookstack.bookstack.borrow.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.bookstack.bookstack.borrow.dto.BorrowResponse;
+import com.bookstack.bookstack.borrow.export.BorrowExportFormat;
+import com.bookstack.bookstack.borrow.model.BorrowStatus;
+import com.bookstack.bookstack.common.cache.ResourceVersions;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class BorrowArchiverTest {
+    // Older than anything other tests seed, so the run only moves this test's rows
+    private static final LocalDateTime BASE = LocalDateTime.of(1980, 1, 15, 10, 0);
+
+    @Autowired
+    private BorrowArchiver borrowArchiver;
+
+    @Autowired
+    private BorrowService borrowService;
+
+    @Autowired
+    private BorrowExportService borrowExportService;
+
+    @Autowired
+    private ResourceVersions resourceVersions;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void oldReturnedBorrowsMoveToTheArchiveInChunks() throws Exception {
+        String name = "archive-" + UUID.randomUUID().toString().substring(0, 8);
+        jdbcTemplate.update("INSERT INTO users (username, password, role) VALUES (?, 'x', 'MEMBER')", name);
+        Long userId = jdbcTemplate.queryForObject("SELECT id FROM users WHERE username = ?", Long.class, name);
+        jdbcTemplate.update("INSERT INTO books (title, author, isbn, total_copies, available_copies) VALUES ('Archived', 'A', ?, 5, 5)", name);
+        Long bookId = jdbcTemplate.queryForObject("SELECT id FROM books WHERE isbn = ?", Long.class, name);
+
+        // Three returned in two different months, one returned after the cutoff, one still out
+        insertBorrow(userId, bookId, "RETURNED", BASE, BASE.plusDays(3));
+        insertBorrow(userId, bookId, "RETURNED", BASE.plusDays(1), BASE.plusDays(4));
+        insertBorrow(userId, bookId, "RETURNED", BASE.plusMonths(1), BASE.plusMonths(1).plusDays(2));
+        insertBorrow(userId, bookId, "RETURNED", BASE.plusYears(1), BASE.plusYears(1).plusDays(2));
+        insertBorrow(userId, bookId, "ACTIVE", BASE.plusYears(1), null);
+        String etag = resourceVersions.etag(ResourceVersions.OVERDUE_SWEEP);
+
+        ReflectionTestUtils.setField(borrowArchiver, "batchSize", 2);
+        long moved = borrowArchiver.archiveReturnedBefore(BASE.plusMonths(6));
+
+        assertThat(moved).isEqualTo(3);
+        assertThat(resourceVersions.etag(ResourceVersions.OVERDUE_SWEEP)).isNotEqualTo(etag);
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM borrows WHERE user_id = ?", Long.class, userId))
+                .isEqualTo(2);
+        assertThat(borrowService.getBorrowsByUserId(userId, false)).hasSize(2);
+        assertThat(borrowService.getBorrowsByBookId(bookId, true))
+                .hasSize(5)
+                .filteredOn(borrow -> borrow.getReturnDate() != null && borrow.getReturnDate().isBefore(BASE.plusMonths(6)))
+                .extracting(BorrowResponse::getStatus, BorrowResponse::getUserName)
+                .containsOnly(tuple(BorrowStatus.RETURNED, name));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        long exported = borrowExportService.export(out, BorrowExportFormat.NDJSON, BASE, BASE.plusYears(2),
+                BorrowStatus.RETURNED, true);
+        assertThat(exported).isEqualTo(4);
+        assertThat(out.toString(StandardCharsets.UTF_8)).contains(name);
+
+        // Nothing left to move
+        assertThat(borrowArchiver.archiveReturnedBefore(BASE.plusMonths(6))).isZero();
+    }
+
+    private void insertBorrow(Long userId, Long bookId, String status, LocalDateTime borrowed, LocalDateTime returned) {
+        jdbcTemplate.update("INSERT INTO borrows (user_id, book_id, status, borrow_date, due_date, return_date) "
+                + "VALUES (?, ?, ?, ?, ?, ?)", userId, bookId, status, borrowed, borrowed.plusDays(14), returned);
+    }
+}
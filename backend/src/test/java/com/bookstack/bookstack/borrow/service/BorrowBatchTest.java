@@ -0,0 +1,194 @@
+package com.bookstack.bookstack.borrow.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.bookstack.bookstack.book.model.Book;
+import com.bookstack.bookstack.book.repository.BookRepository;
+import com.bookstack.bookstack.book.service.BookService;
+import com.bookstack.bookstack.borrow.dto.BorrowBatchItem;
+import com.bookstack.bookstack.borrow.dto.BorrowBatchResult;
+import com.bookstack.bookstack.borrow.model.BorrowStatus;
+import com.bookstack.bookstack.common.exception.BadRequestException;
+import com.bookstack.bookstack.common.exception.NotFoundException;
+import com.bookstack.bookstack.hold.dto.HoldResponse;
+import com.bookstack.bookstack.hold.model.HoldStatus;
+import com.bookstack.bookstack.hold.service.HoldService;
+import com.bookstack.bookstack.user.model.User;
+import com.bookstack.bookstack.user.repository.UserRepository;
+import com.bookstack.bookstack.user.service.UserService;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class BorrowBatchTest {
+    @Autowired
+    private BorrowService borrowService;
+
+    @Autowired
+    private HoldService holdService;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private BookService bookService;
+
+    @Autowired
+    private UserService userService;
+
+    @Test
+    void cartIsCheckedOutWithAResultPerBook() {
+        Long member = createUser().getId();
+        Book available = createBook(2);
+        Book lastCopy = createBook(1);
+        Book borrowedOut = createBook(1);
+        Book alreadyHeld = createBook(2);
+        borrowService.borrowBook(createUser().getId(), borrowedOut.getId(), null);
+        borrowService.borrowBook(member, alreadyHeld.getId(), null);
+
+        BorrowBatchResult result = borrowService.borrowBooks(member, List.of(available.getId(), lastCopy.getId(),
+                borrowedOut.getId(), alreadyHeld.getId(), 999_999_999L, available.getId()), "desk 2");
+
+        assertThat(result.getSucceeded()).isEqualTo(2);
+        assertThat(result.getFailed()).isEqualTo(4);
+        List<BorrowBatchItem> items = result.getItems();
+        assertThat(items).extracting(BorrowBatchItem::isSuccess).containsExactly(true, true, false, false, false, false);
+        assertThat(items).extracting(BorrowBatchItem::getError).containsExactly(null, null,
+                "Book is not available for borrowing", "User already has this book borrowed",
+                "Book not found with id: 999999999", "Book appears more than once in the batch");
+        assertThat(items.get(0).getBorrow().getBookId()).isEqualTo(available.getId());
+        assertThat(items.get(0).getBorrow().getUserId()).isEqualTo(member);
+        assertThat(items.get(0).getBorrow().getStatus()).isEqualTo(BorrowStatus.ACTIVE);
+        assertThat(items.get(1).getBorrow().getNotes()).isEqualTo("desk 2");
+
+        assertThat(availableCopies(available)).isEqualTo(1);
+        assertThat(availableCopies(lastCopy)).isZero();
+        assertThat(availableCopies(borrowedOut)).isZero();
+        assertThat(availableCopies(alreadyHeld)).isEqualTo(1);
+    }
+
+    @Test
+    void returnsReleaseCopiesToWaitingHoldsAndTheShelf() {
+        Long member = createUser().getId();
+        Long waiting = createUser().getId();
+        Book held = createBook(1);
+        Book shelved = createBook(1);
+        BorrowBatchResult borrowed = borrowService.borrowBooks(member, List.of(held.getId(), shelved.getId()), null);
+        Long heldBorrow = borrowed.getItems().get(0).getBorrow().getId();
+        Long shelvedBorrow = borrowed.getItems().get(1).getBorrow().getId();
+        HoldResponse hold = holdService.placeHold(waiting, held.getId());
+
+        BorrowBatchResult result = borrowService.returnBooks(
+                List.of(heldBorrow, 999_999_999L, shelvedBorrow, heldBorrow), "all fine");
+
+        assertThat(result.getSucceeded()).isEqualTo(2);
+        assertThat(result.getItems()).extracting(BorrowBatchItem::getError).containsExactly(null,
+                "Borrow record not found with id: 999999999", null, "Borrow appears more than once in the batch");
+        assertThat(result.getItems().get(0).getBorrow().getStatus()).isEqualTo(BorrowStatus.RETURNED);
+        assertThat(result.getItems().get(0).getBorrow().getReturnDate()).isNotNull();
+        assertThat(result.getItems().get(0).getBorrow().getNotes()).isEqualTo(" | Return notes: all fine");
+
+        // The held book's copy stays off the shelf for the holder
+        assertThat(holdService.getHold(hold.getId()).getStatus()).isEqualTo(HoldStatus.READY);
+        assertThat(availableCopies(held)).isZero();
+        assertThat(availableCopies(shelved)).isEqualTo(1);
+
+        BorrowBatchResult again = borrowService.returnBooks(List.of(shelvedBorrow), null);
+        assertThat(again.getItems().get(0).getError()).isEqualTo("Book is already returned");
+        assertThat(availableCopies(shelved)).isEqualTo(1);
+
+        // The holder picks it up through a batch as well
+        BorrowBatchResult pickedUp = borrowService.borrowBooks(waiting, List.of(held.getId()), null);
+        assertThat(pickedUp.getSucceeded()).isEqualTo(1);
+        assertThat(holdService.getHold(hold.getId()).getStatus()).isEqualTo(HoldStatus.FULFILLED);
+        assertThat(availableCopies(held)).isZero();
+    }
+
+    @Test
+    void returnsOfBorrowsWithADeletedBookOrMemberFailLikeReturnBook() {
+        Long member = createUser().getId();
+        Long leaving = createUser().getId();
+        Book kept = createBook(1);
+        Book withdrawn = createBook(2);
+        Long keptBorrow = borrowService.borrowBook(member, kept.getId(), null).getId();
+        Long withdrawnBorrow = borrowService.borrowBook(member, withdrawn.getId(), null).getId();
+        Long leavingBorrow = borrowService.borrowBook(leaving, createBook(1).getId(), null).getId();
+        bookService.deleteBook(withdrawn.getId());
+        userService.deleteUser(leaving);
+
+        BorrowBatchResult result = borrowService.returnBooks(List.of(keptBorrow, withdrawnBorrow, leavingBorrow), null);
+
+        assertThat(result.getSucceeded()).isEqualTo(1);
+        assertThat(result.getItems()).extracting(BorrowBatchItem::getError).containsExactly(null,
+                "Borrow record not found with id: " + withdrawnBorrow, "Borrow record not found with id: " + leavingBorrow);
+        assertThat(result.getItems().get(0).getBorrow().getStatus()).isEqualTo(BorrowStatus.RETURNED);
+        assertThat(result.getItems().get(0).getBorrow().getNotes()).isNull();
+        assertThat(result.getItems().subList(1, 3)).extracting(BorrowBatchItem::getBorrow).containsOnlyNulls();
+        assertThat(availableCopies(kept)).isEqualTo(1);
+        assertThatThrownBy(() -> borrowService.returnBook(withdrawnBorrow, null))
+                .isInstanceOf(NotFoundException.class)
+                .hasMessage("Borrow record not found with id: " + withdrawnBorrow);
+        assertThatThrownBy(() -> borrowService.returnBook(leavingBorrow, null)).isInstanceOf(NotFoundException.class);
+    }
+
+    @Test
+    void notesTooLongForTheColumnFailOnlyTheirEntries() {
+        Long member = createUser().getId();
+        Book book = createBook(1);
+        String tooLong = "x".repeat(BorrowService.MAX_NOTES_LENGTH + 1);
+
+        BorrowBatchResult refused = borrowService.borrowBooks(member, List.of(book.getId()), tooLong);
+        assertThat(refused.getItems()).extracting(BorrowBatchItem::getError)
+                .containsExactly("Notes must be at most 255 characters");
+        assertThat(availableCopies(book)).isEqualTo(1);
+
+        Long full = borrowService.borrowBooks(member, List.of(book.getId()), "y".repeat(250))
+                .getItems().get(0).getBorrow().getId();
+        Long blank = borrowService.borrowBook(member, createBook(1).getId(), null).getId();
+        Long single = borrowService.borrowBook(member, createBook(1).getId(), null).getId();
+
+        BorrowBatchResult result = borrowService.returnBooks(List.of(full, blank), "fine");
+
+        assertThat(result.getItems()).extracting(BorrowBatchItem::getError).containsExactly(
+                "Return notes would make the borrow's notes longer than 255 characters", null);
+        assertThat(result.getItems().get(1).getBorrow().getNotes()).isEqualTo(" | Return notes: fine");
+        assertThat(borrowService.getBorrowById(blank).getNotes()).isEqualTo(" | Return notes: fine");
+        assertThat(borrowService.getBorrowById(full).getStatus()).isEqualTo(BorrowStatus.ACTIVE);
+        // A single return writes the same notes as a batch
+        assertThat(borrowService.returnBook(single, "fine").getNotes()).isEqualTo(" | Return notes: fine");
+        assertThatThrownBy(() -> borrowService.returnBook(full, "fine")).isInstanceOf(BadRequestException.class);
+    }
+
+    private int availableCopies(Book book) {
+        return bookRepository.findById(book.getId()).orElseThrow().getAvailableCopies();
+    }
+
+    private Book createBook(int copies) {
+        Book book = new Book();
+        book.setTitle("Batch " + UUID.randomUUID());
+        book.setAuthor("Test Author");
+        book.setIsbn(UUID.randomUUID().toString().substring(0, 20));
+        book.setTotalCopies(copies);
+        book.setAvailableCopies(copies);
+        return bookRepository.save(book);
+    }
+
+    private User createUser() {
+        User user = new User();
+        user.setUsername("batch-" + UUID.randomUUID());
+        user.setPassword("not-a-real-hash");
+        user.setRole("MEMBER");
+        return userRepository.save(user);
+    }
+}
@@ -0,0 +1,132 @@
+package com.bookstack.bookstack.borrow.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.zip.GZIPInputStream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import com.bookstack.bookstack.auth.service.JwtService;
+import com.bookstack.bookstack.borrow.export.BorrowExportFormat;
+import com.bookstack.bookstack.borrow.model.BorrowStatus;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class BorrowExportServiceTest {
+    // Far enough in the past that rows from other tests fall outside the range
+    private static final LocalDateTime BASE = LocalDateTime.of(1990, 1, 1, 12, 0);
+
+    @Autowired
+    private BorrowExportService borrowExportService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private JwtService jwtService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    private String username;
+    private LocalDateTime from;
+
+    @BeforeEach
+    void seed() {
+        username = "export-" + UUID.randomUUID().toString().substring(0, 8);
+        jdbcTemplate.update("INSERT INTO users (username, password, role) VALUES (?, 'x', 'MEMBER')", username);
+        Long userId = jdbcTemplate.queryForObject("SELECT id FROM users WHERE username = ?", Long.class, username);
+        jdbcTemplate.update("INSERT INTO books (title, author, isbn, total_copies, available_copies) VALUES (?, 'A', ?, 5, 5)",
+                "Commas, \"quotes\"", username);
+        Long bookId = jdbcTemplate.queryForObject("SELECT id FROM books WHERE isbn = ?", Long.class, username);
+
+        // Each run gets its own day so repeated seeding in one context never overlaps
+        from = BASE.plusDays(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM users", Long.class));
+        for (int i = 0; i < 3; i++) {
+            LocalDateTime borrowed = from.plusHours(i);
+            jdbcTemplate.update("INSERT INTO borrows (user_id, book_id, status, borrow_date, due_date, return_date) "
+                            + "VALUES (?, ?, ?, ?, ?, ?)", userId, bookId, i == 2 ? "ACTIVE" : "RETURNED",
+                    borrowed, borrowed.plusDays(14), i == 2 ? null : borrowed.plusDays(1));
+        }
+    }
+
+    @Test
+    void csvExportQuotesFieldsAndAppliesFilters() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        long written = borrowExportService.export(out, BorrowExportFormat.CSV, from, from.plusDays(1), BorrowStatus.RETURNED, false);
+
+        List<String> lines = out.toString(StandardCharsets.UTF_8).lines().toList();
+        assertThat(written).isEqualTo(2);
+        assertThat(lines).hasSize(3);
+        assertThat(lines.get(0)).startsWith("id,user_id,book_id,user_name,book_title,status");
+        assertThat(lines.get(1))
+                .contains("," + username + ",\"Commas, \"\"quotes\"\"\",RETURNED," + from + ",")
+                .endsWith(",");
+    }
+
+    @Test
+    void endpointStreamsGzippedNdjson() throws Exception {
+        String token = jwtService.generateToken(Map.of("role", "ADMIN", "userId", 7_000_002L), "export-admin");
+        MvcResult started = mockMvc.perform(get("/api/borrows/export")
+                        .param("from", from.toLocalDate().toString())
+                        .param("to", from.toLocalDate().toString())
+                        .header(HttpHeaders.ACCEPT, "application/x-ndjson")
+                        .header(HttpHeaders.ACCEPT_ENCODING, "gzip, deflate")
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + token))
+                .andReturn();
+        MvcResult result = mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"))
+                .andReturn();
+
+        byte[] body = new GZIPInputStream(new ByteArrayInputStream(result.getResponse().getContentAsByteArray())).readAllBytes();
+        List<JsonNode> rows = new String(body, StandardCharsets.UTF_8).lines()
+                .map(line -> {
+                    try {
+                        return objectMapper.readTree(line);
+                    } catch (Exception e) {
+                        throw new IllegalStateException(e);
+                    }
+                })
+                .toList();
+        assertThat(rows).hasSize(3);
+        assertThat(rows).allSatisfy(row -> assertThat(row.get("userName").asText()).isEqualTo(username));
+        assertThat(rows.get(2).get("status").asText()).isEqualTo("ACTIVE");
+    }
+
+    @Test
+    void emptyRangeIsRejectedBeforeStreaming() throws Exception {
+        String token = jwtService.generateToken(Map.of("role", "ADMIN", "userId", 7_000_002L), "export-admin");
+        mockMvc.perform(get("/api/borrows/export")
+                        .param("from", "2024-02-01")
+                        .param("to", "2024-01-01")
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + token))
+                .andExpect(status().isBadRequest());
+    }
+}
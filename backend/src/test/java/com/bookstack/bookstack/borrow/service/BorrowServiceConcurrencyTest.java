@@ -0,0 +1,129 @@
+package com.bookstack.bookstack.borrow.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.bookstack.bookstack.book.model.Book;
+import com.bookstack.bookstack.book.repository.BookRepository;
+import com.bookstack.bookstack.borrow.model.BorrowStatus;
+import com.bookstack.bookstack.borrow.repository.BorrowRepository;
+import com.bookstack.bookstack.common.exception.BadRequestException;
+import com.bookstack.bookstack.user.model.User;
+import com.bookstack.bookstack.user.repository.UserRepository;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class BorrowServiceConcurrencyTest {
+    private static final int COPIES = 5;
+    private static final int BORROWERS = 40;
+
+    @Autowired
+    private BorrowService borrowService;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private BorrowRepository borrowRepository;
+
+    @Test
+    void concurrentCheckoutsNeverOversellCopies() throws Exception {
+        Book book = createBook(COPIES);
+        List<User> users = new ArrayList<>();
+        for (int i = 0; i < BORROWERS; i++) {
+            users.add(createUser());
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(BORROWERS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Boolean>> results = new ArrayList<>();
+        for (User user : users) {
+            results.add(executor.submit(() -> {
+                start.await();
+                try {
+                    borrowService.borrowBook(user.getId(), book.getId(), null);
+                    return true;
+                } catch (BadRequestException e) {
+                    return false;
+                }
+            }));
+        }
+        start.countDown();
+
+        int succeeded = 0;
+        for (Future<Boolean> result : results) {
+            if (result.get(30, TimeUnit.SECONDS)) {
+                succeeded++;
+            }
+        }
+        executor.shutdown();
+
+        Book reloaded = bookRepository.findById(book.getId()).orElseThrow();
+        long activeBorrows = borrowRepository.findByBookIdAndStatus(book.getId(), BorrowStatus.ACTIVE).size();
+
+        assertThat(succeeded).isEqualTo(COPIES);
+        assertThat(activeBorrows).isEqualTo(COPIES);
+        assertThat(reloaded.getAvailableCopies()).isZero();
+    }
+
+    @Test
+    void concurrentReturnsNeverExceedTotalCopies() throws Exception {
+        Book book = createBook(COPIES);
+        List<Long> borrowIds = new ArrayList<>();
+        for (int i = 0; i < COPIES; i++) {
+            borrowIds.add(borrowService.borrowBook(createUser().getId(), book.getId(), null).getId());
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(COPIES);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> results = new ArrayList<>();
+        for (Long borrowId : borrowIds) {
+            results.add(executor.submit(() -> {
+                start.await();
+                return borrowService.returnBook(borrowId, null);
+            }));
+        }
+        start.countDown();
+        for (Future<?> result : results) {
+            result.get(30, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        Book reloaded = bookRepository.findById(book.getId()).orElseThrow();
+        assertThat(reloaded.getAvailableCopies()).isEqualTo(COPIES);
+    }
+
+    private Book createBook(int copies) {
+        Book book = new Book();
+        book.setTitle("Concurrency " + UUID.randomUUID());
+        book.setAuthor("Test Author");
+        book.setIsbn(UUID.randomUUID().toString().substring(0, 20));
+        book.setTotalCopies(copies);
+        book.setAvailableCopies(copies);
+        return bookRepository.save(book);
+    }
+
+    private User createUser() {
+        User user = new User();
+        user.setUsername("borrower-" + UUID.randomUUID());
+        user.setPassword("not-a-real-hash");
+        user.setRole("MEMBER");
+        return userRepository.save(user);
+    }
+}
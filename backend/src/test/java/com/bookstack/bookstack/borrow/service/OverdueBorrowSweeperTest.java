@@ -0,0 +1,104 @@
+package com.bookstack.bookstack.borrow.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.bookstack.bookstack.borrow.dto.BorrowResponse;
+import com.bookstack.bookstack.borrow.model.BorrowStatus;
+import com.bookstack.bookstack.borrow.repository.BorrowRepository;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+// Own database and no scheduled run, so the counts below only cover this test's rows
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:overdue-sweep;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+        "app.borrow.overdue-sweep.initial-delay-ms=3600000"
+})
+@ActiveProfiles("test")
+class OverdueBorrowSweeperTest {
+
+    @Autowired
+    private OverdueBorrowSweeper sweeper;
+
+    @Autowired
+    private BorrowService borrowService;
+
+    @MockitoSpyBean
+    private BorrowRepository borrowRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void pastDueBorrowsAreReportedOverdueBeforeTheSweepAndMarkedInChunks() {
+        jdbcTemplate.update("INSERT INTO users (username, password, role) VALUES ('sweep-member', 'x', 'MEMBER')");
+        Long userId = jdbcTemplate.queryForObject("SELECT id FROM users WHERE username = 'sweep-member'", Long.class);
+        jdbcTemplate.update("INSERT INTO books (title, author, isbn, total_copies, available_copies) VALUES ('Swept', 'A', 'SWEEP-1', 9, 0)");
+        Long bookId = jdbcTemplate.queryForObject("SELECT id FROM books WHERE isbn = 'SWEEP-1'", Long.class);
+
+        LocalDateTime now = LocalDateTime.now();
+        List<Long> pastDue = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            pastDue.add(insertBorrow(userId, bookId, now.minusDays(20), now.minusDays(i + 1)));
+        }
+        Long notDue = insertBorrow(userId, bookId, now.minusDays(1), now.plusDays(13));
+
+        // Reads report the effective status without writing it
+        assertThat(borrowService.getOverdueBorrows())
+                .extracting(BorrowResponse::getId, BorrowResponse::getStatus)
+                .containsExactlyInAnyOrderElementsOf(pastDue.stream()
+                        .map(id -> tuple(id, BorrowStatus.OVERDUE)).toList());
+        assertThat(countWithStatus("ACTIVE")).isEqualTo(6);
+
+        double rowsBefore = meterRegistry.get("bookstack.borrow.overdue.sweep.rows").counter().count();
+        ReflectionTestUtils.setField(sweeper, "batchSize", 2);
+        clearInvocations(borrowRepository);
+        sweeper.sweep();
+
+        // Chunks of 2, 2 and 1: the short chunk ends the run
+        verify(borrowRepository, times(3)).markOverdueBatch(any(LocalDateTime.class), anyInt());
+        assertThat(countWithStatus("OVERDUE")).isEqualTo(5);
+        assertThat(jdbcTemplate.queryForObject("SELECT status FROM borrows WHERE id = ?", String.class, notDue))
+                .isEqualTo("ACTIVE");
+        assertThat(meterRegistry.get("bookstack.borrow.overdue.sweep.rows").counter().count() - rowsBefore).isEqualTo(5);
+        assertThat(meterRegistry.get("bookstack.borrow.overdue.sweep.last.rows").gauge().value()).isEqualTo(5);
+        assertThat(meterRegistry.get("bookstack.borrow.overdue.sweep.last.duration").gauge().value()).isNotNegative();
+
+        // A run with nothing to do takes a single, empty chunk
+        clearInvocations(borrowRepository);
+        sweeper.sweep();
+        verify(borrowRepository, times(1)).markOverdueBatch(any(LocalDateTime.class), anyInt());
+        assertThat(meterRegistry.get("bookstack.borrow.overdue.sweep.last.rows").gauge().value()).isZero();
+        assertThat(borrowService.getOverdueBorrows()).hasSize(5);
+    }
+
+    private Long insertBorrow(Long userId, Long bookId, LocalDateTime borrowDate, LocalDateTime dueDate) {
+        jdbcTemplate.update("INSERT INTO borrows (user_id, book_id, status, borrow_date, due_date) VALUES (?, ?, 'ACTIVE', ?, ?)",
+                userId, bookId, borrowDate, dueDate);
+        return jdbcTemplate.queryForObject("SELECT MAX(id) FROM borrows", Long.class);
+    }
+
+    private long countWithStatus(String status) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM borrows WHERE status = ?", Long.class, status);
+    }
+}
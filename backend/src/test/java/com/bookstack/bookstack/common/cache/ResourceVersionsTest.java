@@ -0,0 +1,191 @@
+package com.bookstack.bookstack.common.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.PayloadApplicationEvent;
+import org.springframework.http.HttpHeaders;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.bookstack.bookstack.auth.service.JwtService;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class ResourceVersionsTest {
+    private static final String ALL_BOOKS = "{ allBooks { id title availableCopies } }";
+
+    @Autowired
+    private ResourceVersions resourceVersions;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private JwtService jwtService;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ConfigurableApplicationContext context;
+
+    @Test
+    void versionsChangeOnlyOnceTheWriteCommits() {
+        String key = "test:commit";
+        String before = resourceVersions.etag(key);
+
+        transactionTemplate.executeWithoutResult(status -> {
+            resourceVersions.changed(key);
+            assertThat(resourceVersions.etag(key)).isEqualTo(before);
+        });
+        String committed = resourceVersions.etag(key);
+        assertThat(committed).isNotEqualTo(before);
+
+        transactionTemplate.executeWithoutResult(status -> {
+            resourceVersions.changed(key);
+            status.setRollbackOnly();
+        });
+        assertThat(resourceVersions.etag(key)).isEqualTo(committed);
+    }
+
+    @Test
+    void changesFromAnotherReplicaArePickedUpOnSync() {
+        String key = "test:replica";
+        String before = resourceVersions.etag(key);
+
+        jdbcTemplate.update("INSERT INTO " + ResourceVersions.TABLE + " (resource_key, changed_at) VALUES (?, LOCALTIMESTAMP)", key);
+        resourceVersions.sync();
+
+        assertThat(resourceVersions.etag(key)).isNotEqualTo(before);
+    }
+
+    @Test
+    void replicasSharingTheTableSendTheSameEtagForTheSameState() {
+        String key = "test:shared:" + System.nanoTime();
+        ResourceVersions first = replica();
+        ResourceVersions second = replica();
+        assertThat(first.etag(key)).isEqualTo(second.etag(key));
+
+        first.changed(key);
+        // One that hasn't read the key yet sends no ETag until its sync has passed the change
+        assertThat(replica().etag(key)).isNull();
+        second.sync();
+        String afterFirst = first.etag(key);
+        assertThat(second.etag(key)).isEqualTo(afterFirst);
+
+        second.changed(key);
+        first.sync();
+        assertThat(first.etag(key)).isEqualTo(second.etag(key)).isNotEqualTo(afterFirst);
+    }
+
+    @Test
+    void aRemoteChangeIsReportedBeforeALocalChangeToTheSameKeyOverwritesIt() {
+        String key = "test:overwrite:" + System.nanoTime();
+        Set<String> reported = ConcurrentHashMap.newKeySet();
+        ApplicationListener<PayloadApplicationEvent<RemoteResourceChanges>> listener =
+                ApplicationListener.forPayload(changes -> reported.addAll(changes.keys()));
+        context.addApplicationListener(listener);
+        try {
+            // Another replica changed the key; this instance changes it too before reading the row
+            jdbcTemplate.update("INSERT INTO " + ResourceVersions.TABLE + " (resource_key, changed_at, origin) "
+                    + "VALUES (?, LOCALTIMESTAMP, 'other')", key);
+            resourceVersions.changed(key);
+            resourceVersions.sync();
+
+            assertThat(reported).contains(key);
+            assertThat(jdbcTemplate.queryForObject("SELECT origin FROM " + ResourceVersions.TABLE + " WHERE resource_key = ?",
+                    String.class, key)).isNotEqualTo("other");
+        } finally {
+            context.removeApplicationListener(listener);
+        }
+    }
+
+    @Test
+    void catalogQueriesOverGetAreRevalidatedAgainstTheCatalogVersion() throws Exception {
+        String etag = executeGet(ALL_BOOKS, null)
+                .andExpect(status().isOk())
+                .andExpect(header().exists(HttpHeaders.ETAG))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        mockMvc.perform(graphQlGet(ALL_BOOKS).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified());
+
+        resourceVersions.changed(ResourceVersions.CATALOG);
+        String changed = executeGet(ALL_BOOKS, etag)
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertThat(changed).isNotEqualTo(etag);
+    }
+
+    @Test
+    void queriesOutsideTheCatalogGetNoEtag() throws Exception {
+        executeGet("{ allUsers { id username } }", null)
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(HttpHeaders.ETAG));
+    }
+
+    @Test
+    void mutationsAreNotAcceptedOverGet() throws Exception {
+        mockMvc.perform(graphQlGet("mutation { deleteBook(id: 1) }"))
+                .andExpect(status().isMethodNotAllowed())
+                .andExpect(header().string(HttpHeaders.ALLOW, "POST"));
+    }
+
+    // Another instance on the same table, as a second replica would be
+    private ResourceVersions replica() {
+        ResourceVersions replica = new ResourceVersions(jdbcTemplate, transactionManager, event -> { },
+                new SimpleMeterRegistry(), 1000);
+        ReflectionTestUtils.setField(replica, "enabled", true);
+        ReflectionTestUtils.setField(replica, "syncOverlapMillis", 30_000L);
+        replica.init();
+        return replica;
+    }
+
+    // Execution completes asynchronously unless the result was already there when the handler returned
+    private ResultActions executeGet(String query, String ifNoneMatch) throws Exception {
+        MockHttpServletRequestBuilder request = graphQlGet(query);
+        if (ifNoneMatch != null) {
+            request.header(HttpHeaders.IF_NONE_MATCH, ifNoneMatch);
+        }
+        ResultActions actions = mockMvc.perform(request);
+        MvcResult result = actions.andReturn();
+        return result.getRequest().isAsyncStarted() ? mockMvc.perform(asyncDispatch(result)) : actions;
+    }
+
+    private MockHttpServletRequestBuilder graphQlGet(String query) {
+        String token = jwtService.generateToken(Map.of("role", "ADMIN", "userId", 7_000_001L), "etag-admin");
+        return get("/api/graphql")
+                .param("query", query)
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + token);
+    }
+}
@@ -0,0 +1,20 @@
+package com.bookstack.bookstack.common.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.web.context.request.RequestAttributesThreadLocalAccessor;
+
+class ThreadingConfigTest {
+    private final ApplicationContextRunner contextRunner = new ApplicationContextRunner()
+            .withUserConfiguration(ThreadingConfig.class);
+
+    @Test
+    void requestAttributesArePropagatedOnlyWithVirtualThreads() {
+        contextRunner.withPropertyValues("spring.threads.virtual.enabled=false")
+                .run(context -> assertThat(context).doesNotHaveBean(RequestAttributesThreadLocalAccessor.class));
+        contextRunner.withPropertyValues("spring.threads.virtual.enabled=true")
+                .run(context -> assertThat(context).hasSingleBean(RequestAttributesThreadLocalAccessor.class));
+    }
+}
@@ -0,0 +1,48 @@
+package com.bookstack.bookstack.common.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class VirtualThreadPinningMonitorTest {
+    private final Object monitor = new Object();
+
+    @Test
+    void recordsVirtualThreadsBlockedInsideSynchronized() throws Exception {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        VirtualThreadPinningMonitor pinningMonitor = new VirtualThreadPinningMonitor(registry);
+        ReflectionTestUtils.setField(pinningMonitor, "thresholdMillis", 10L);
+        pinningMonitor.start();
+        try {
+            Timer pinned = registry.get("bookstack.virtual.threads.pinned").timer();
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(15);
+            // The JFR stream starts asynchronously and is JVM-wide: keep pinning until this test's
+            // event (not some other thread's) shows up
+            while (pinned.max(TimeUnit.MILLISECONDS) < 40 && System.nanoTime() < deadline) {
+                Thread.ofVirtual().start(this::sleepWhileHoldingMonitor).join();
+                Thread.sleep(100);
+            }
+
+            assertThat(pinned.count()).isGreaterThanOrEqualTo(1);
+            assertThat(pinned.max(TimeUnit.MILLISECONDS)).isGreaterThanOrEqualTo(40);
+        } finally {
+            pinningMonitor.stop();
+        }
+    }
+
+    private void sleepWhileHoldingMonitor() {
+        synchronized (monitor) {
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
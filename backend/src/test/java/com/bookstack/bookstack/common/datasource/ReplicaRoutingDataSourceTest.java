@@ -0,0 +1,150 @@
+package com.bookstack.bookstack.common.datasource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.UUID;
+import java.util.function.BooleanSupplier;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import com.bookstack.bookstack.book.model.Book;
+import com.bookstack.bookstack.book.service.BookService;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Two embedded databases stand in for a primary and its replica; nothing replicates between
+ * them, so which one a read went to shows in what it returns.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class ReplicaRoutingDataSourceTest {
+    private static final String REPLICA_URL = "jdbc:h2:mem:replica-" + UUID.randomUUID()
+            + ";MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1";
+    private static final JdbcTemplate REPLICA = new JdbcTemplate(new DriverManagerDataSource(REPLICA_URL, "sa", ""));
+
+    @DynamicPropertySource
+    static void replica(DynamicPropertyRegistry registry) {
+        Flyway.configure()
+                .dataSource(REPLICA.getDataSource())
+                .locations("classpath:db/migration/common", "classpath:db/migration/h2")
+                .load()
+                .migrate();
+        REPLICA.execute("CREATE TABLE IF NOT EXISTS replica_lag (seconds DOUBLE PRECISION)");
+        REPLICA.update("DELETE FROM replica_lag");
+        REPLICA.update("INSERT INTO replica_lag VALUES (0)");
+
+        registry.add("app.datasource.replica.enabled", () -> "true");
+        registry.add("app.datasource.replica.url", () -> REPLICA_URL);
+        registry.add("app.datasource.replica.lag-query", () -> "SELECT seconds FROM replica_lag");
+        registry.add("app.datasource.replica.max-lag-ms", () -> "100");
+        registry.add("app.datasource.replica.lag-check-interval-ms", () -> "50");
+    }
+
+    @Autowired
+    private BookService bookService;
+
+    @Autowired
+    private ReplicaRoutingDataSource routingDataSource;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @BeforeEach
+    void replicaCaughtUp() {
+        REPLICA.update("UPDATE replica_lag SET seconds = 0");
+        routingDataSource.checkReplicaLag();
+    }
+
+    @AfterEach
+    void tearDown() {
+        REPLICA.update("UPDATE replica_lag SET seconds = 0");
+    }
+
+    @Test
+    void readOnlyTransactionsGoToTheReplica() {
+        String isbn = insertIntoReplicaOnly();
+
+        assertThat(eventually(() -> activeBooksContain(isbn))).isTrue();
+        assertThat(routes("replica", "read-only")).isPositive();
+    }
+
+    @Test
+    void readsStayOnThePrimaryRightAfterAWrite() {
+        Book book = bookService.addBook(newBook());
+
+        // The replica never receives the row, so seeing it means the read went to the primary
+        assertThat(activeBooksContain(book.getIsbn())).isTrue();
+        assertThat(routes("primary", "recent-write")).isPositive();
+        assertThat(eventually(() -> !activeBooksContain(book.getIsbn()))).isTrue();
+    }
+
+    @Test
+    void laggingReplicaFallsBackToThePrimary() {
+        String isbn = insertIntoReplicaOnly();
+        assertThat(eventually(() -> activeBooksContain(isbn))).isTrue();
+
+        REPLICA.update("UPDATE replica_lag SET seconds = 5");
+        routingDataSource.checkReplicaLag();
+
+        assertThat(routingDataSource.isReplicaUsable()).isFalse();
+        assertThat(activeBooksContain(isbn)).isFalse();
+        assertThat(routes("primary", "replica-unavailable")).isPositive();
+    }
+
+    private boolean activeBooksContain(String isbn) {
+        return bookService.getBooksPage(0, Integer.MAX_VALUE).stream().anyMatch(book -> book.getIsbn().equals(isbn));
+    }
+
+    private String insertIntoReplicaOnly() {
+        String isbn = uniqueIsbn();
+        REPLICA.update("INSERT INTO books (title, author, isbn, total_copies, available_copies) VALUES (?, ?, ?, 1, 1)",
+                "Replica Only", "Test", isbn);
+        return isbn;
+    }
+
+    private static Book newBook() {
+        Book book = new Book();
+        book.setTitle("Primary Only");
+        book.setAuthor("Test");
+        book.setIsbn(uniqueIsbn());
+        book.setTotalCopies(1);
+        book.setAvailableCopies(1);
+        return book;
+    }
+
+    private static String uniqueIsbn() {
+        return "R-" + UUID.randomUUID().toString().substring(0, 12);
+    }
+
+    private double routes(String route, String reason) {
+        Counter counter = meterRegistry.find("bookstack.datasource.route").tag("route", route).tag("reason", reason).counter();
+        return counter != null ? counter.count() : 0;
+    }
+
+    // Reads move to the replica once the window after the last write has passed
+    private static boolean eventually(BooleanSupplier condition) {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (System.currentTimeMillis() < deadline) {
+            if (condition.getAsBoolean()) return true;
+            try {
+                Thread.sleep(20);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+        return false;
+    }
+}
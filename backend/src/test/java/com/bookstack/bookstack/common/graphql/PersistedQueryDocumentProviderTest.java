@@ -0,0 +1,130 @@
+package com.bookstack.bookstack.common.graphql;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.graphql.ExecutionGraphQlResponse;
+import org.springframework.graphql.ExecutionGraphQlService;
+import org.springframework.graphql.support.DefaultExecutionGraphQlRequest;
+import org.springframework.test.context.ActiveProfiles;
+
+import graphql.ExecutionInput;
+import graphql.execution.preparsed.PreparsedDocumentEntry;
+import graphql.execution.preparsed.persisted.PersistedQuerySupport;
+import graphql.parser.Parser;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class PersistedQueryDocumentProviderTest {
+
+    @Autowired
+    private ExecutionGraphQlService graphQlService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void unknownHashIsAnsweredWithNotFoundUntilTheTextIsSentOnce() {
+        String query = uniqueQuery();
+        String hash = PersistedQueryDocumentProvider.sha256(query);
+
+        ExecutionGraphQlResponse notFound = execute(PersistedQuerySupport.PERSISTED_QUERY_MARKER, hash);
+        assertThat(notFound.getErrors()).singleElement().satisfies(error -> {
+            assertThat(error.getMessage()).isEqualTo("PersistedQueryNotFound");
+            assertThat(error.getErrorType()).isEqualTo(PersistedQueryErrorType.PERSISTED_QUERY_NOT_FOUND);
+        });
+
+        assertThat(execute(query, hash).getErrors()).isEmpty();
+
+        ExecutionGraphQlResponse byHash = execute(PersistedQuerySupport.PERSISTED_QUERY_MARKER, hash);
+        assertThat(byHash.getErrors()).isEmpty();
+        String typename = byHash.field("__typename").getValue();
+        assertThat(typename).isEqualTo("Query");
+    }
+
+    @Test
+    void hashThatDoesNotMatchTheTextIsRejected() {
+        ExecutionGraphQlResponse response = execute(uniqueQuery(), PersistedQueryDocumentProvider.sha256("{ other }"));
+
+        assertThat(response.getErrors()).singleElement().satisfies(error ->
+                assertThat(error.getErrorType()).isEqualTo(PersistedQueryErrorType.PERSISTED_QUERY_ID_INVALID));
+    }
+
+    @Test
+    void repeatedPlainDocumentsAreParsedOnce() {
+        String query = uniqueQuery();
+        double missesBefore = lookups("miss");
+        double hitsBefore = lookups("hit");
+
+        for (int i = 0; i < 3; i++) {
+            assertThat(execute(query, null).getErrors()).isEmpty();
+        }
+
+        assertThat(lookups("miss")).isEqualTo(missesBefore + 1);
+        assertThat(lookups("hit")).isEqualTo(hitsBefore + 2);
+    }
+
+    @Test
+    void allowListModeOnlyRunsRegisteredOperations() throws Exception {
+        PersistedQueryDocumentProvider provider = new PersistedQueryDocumentProvider(
+                new PathMatchingResourcePatternResolver(), new SimpleMeterRegistry(), 100, true,
+                "classpath*:persisted-queries/*.graphql");
+        String registered = new PathMatchingResourcePatternResolver()
+                .getResource("classpath:persisted-queries/BookTitle.graphql")
+                .getContentAsString(StandardCharsets.UTF_8);
+        AtomicInteger parses = new AtomicInteger();
+
+        PreparsedDocumentEntry byHash = provider.getDocumentAsync(input(PersistedQuerySupport.PERSISTED_QUERY_MARKER,
+                PersistedQueryDocumentProvider.sha256(registered)), parser(parses)).join();
+        PreparsedDocumentEntry byText = provider.getDocumentAsync(input(registered, null), parser(parses)).join();
+        PreparsedDocumentEntry adHoc = provider.getDocumentAsync(input("{ allBooks { id } }", null), parser(parses)).join();
+
+        assertThat(byHash.hasErrors()).isFalse();
+        assertThat(byText.getDocument()).isSameAs(byHash.getDocument());
+        assertThat(adHoc.getErrors()).singleElement().satisfies(error ->
+                assertThat(error.getErrorType()).isEqualTo(PersistedQueryErrorType.PERSISTED_QUERY_NOT_ALLOWED));
+        assertThat(parses).hasValue(1);
+    }
+
+    private ExecutionGraphQlResponse execute(String document, String hash) {
+        Map<String, Object> extensions = hash != null
+                ? Map.of("persistedQuery", Map.of("version", 1, "sha256Hash", hash))
+                : null;
+        return graphQlService.execute(new DefaultExecutionGraphQlRequest(document, null, null, extensions, "test", null))
+                .block();
+    }
+
+    private double lookups(String outcome) {
+        Counter counter = meterRegistry.find("bookstack.graphql.documents").tag("outcome", outcome).counter();
+        return counter != null ? counter.count() : 0;
+    }
+
+    private static String uniqueQuery() {
+        return "query Ping" + UUID.randomUUID().toString().replace("-", "") + " { __typename }";
+    }
+
+    private static ExecutionInput input(String query, String hash) {
+        return ExecutionInput.newExecutionInput(query)
+                .extensions(hash != null ? Map.of("persistedQuery", Map.of("version", 1, "sha256Hash", hash)) : Map.of())
+                .build();
+    }
+
+    private static Function<ExecutionInput, PreparsedDocumentEntry> parser(AtomicInteger parses) {
+        return input -> {
+            parses.incrementAndGet();
+            return new PreparsedDocumentEntry(Parser.parse(input.getQuery()));
+        };
+    }
+}
@@ -0,0 +1,125 @@
+package com.bookstack.bookstack.common.graphql;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.graphql.ExecutionGraphQlResponse;
+import org.springframework.graphql.ExecutionGraphQlService;
+import org.springframework.graphql.ResponseError;
+import org.springframework.graphql.support.DefaultExecutionGraphQlRequest;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import com.bookstack.bookstack.auth.service.JwtService;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class QueryCostInstrumentationTest {
+    // Distinct users per test so budgets never carry over
+    private static final AtomicLong USER_IDS = new AtomicLong(5_000_000);
+
+    @Autowired
+    private ExecutionGraphQlService graphQlService;
+
+    @Autowired
+    private QueryCostInstrumentation instrumentation;
+
+    @Autowired
+    private JwtService jwtService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @AfterEach
+    void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    void aliasedFullCatalogQueriesAreRejectedBeforeExecution() {
+        authenticateAs(USER_IDS.incrementAndGet());
+        StringBuilder query = new StringBuilder("{");
+        for (int i = 0; i < 10; i++) {
+            query.append(" a").append(i).append(": allBooks { id title }");
+        }
+        query.append(" }");
+
+        ResponseError error = singleError(execute(query.toString()));
+
+        assertThat(error.getErrorType()).isEqualTo(QueryCostErrorType.QUERY_TOO_COMPLEX);
+        assertThat(error.getExtensions()).containsEntry("cost", 10_000L);
+    }
+
+    @Test
+    void deepNestingIsRejected() {
+        authenticateAs(USER_IDS.incrementAndGet());
+
+        ResponseError error = singleError(execute(
+                "{ bookById(id: 1) { borrows { user { borrows { book { borrows { user { borrows { book { id } } } } } } } } } }"));
+
+        assertThat(error.getErrorType()).isEqualTo(QueryCostErrorType.QUERY_TOO_COMPLEX);
+        assertThat(error.getMessage()).contains("depth");
+    }
+
+    @Test
+    void connectionsAreChargedByPageSizeAndRecorded() {
+        authenticateAs(USER_IDS.incrementAndGet());
+        long recordedBefore = recordedQueries();
+
+        ExecutionGraphQlResponse response = execute("{ booksConnection(first: 5) { edges { node { id } } } }");
+
+        assertThat(response.getErrors()).isEmpty();
+        assertThat(recordedQueries()).isEqualTo(recordedBefore + 1);
+    }
+
+    @Test
+    void exhaustedBudgetRejectsFurtherQueries() {
+        long budget = (long) ReflectionTestUtils.getField(instrumentation, "budgetPerMinute");
+        ReflectionTestUtils.setField(instrumentation, "budgetPerMinute", 2500L);
+        try {
+            authenticateAs(USER_IDS.incrementAndGet());
+            String query = "{ a: availableBooks { id } b: availableBooks { id } }";
+
+            assertThat(execute(query).getErrors()).isEmpty();
+            ResponseError error = singleError(execute(query));
+
+            assertThat(error.getErrorType()).isEqualTo(QueryCostErrorType.QUERY_BUDGET_EXCEEDED);
+            assertThat(error.getExtensions()).containsKey("retryAfterSeconds");
+        } finally {
+            ReflectionTestUtils.setField(instrumentation, "budgetPerMinute", budget);
+        }
+    }
+
+    private long recordedQueries() {
+        DistributionSummary summary = meterRegistry.find("bookstack.graphql.query.cost").tag("operation", "query").summary();
+        return summary != null ? summary.count() : 0;
+    }
+
+    private void authenticateAs(long userId) {
+        String token = jwtService.generateToken(Map.of("role", "ADMIN", "userId", userId), "cost-" + userId);
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/graphql");
+        request.addHeader("Authorization", "Bearer " + token);
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+    }
+
+    private ExecutionGraphQlResponse execute(String query) {
+        return graphQlService.execute(new DefaultExecutionGraphQlRequest(query, null, null, null, "test", null)).block();
+    }
+
+    private static ResponseError singleError(ExecutionGraphQlResponse response) {
+        assertThat(response.getErrors()).hasSize(1);
+        return response.getErrors().get(0);
+    }
+}
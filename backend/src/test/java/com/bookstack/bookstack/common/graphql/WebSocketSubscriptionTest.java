@@ -0,0 +1,155 @@
+package com.bookstack.bookstack.common.graphql;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.WebSocket;
+import java.time.Duration;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.bookstack.bookstack.auth.service.JwtService;
+import com.bookstack.bookstack.book.model.Book;
+import com.bookstack.bookstack.book.service.BookAvailabilityPublisher;
+import com.bookstack.bookstack.book.service.BookService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("test")
+class WebSocketSubscriptionTest {
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private JwtService jwtService;
+
+    @Autowired
+    private BookService bookService;
+
+    @Autowired
+    private BookAvailabilityPublisher publisher;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private HttpClient client;
+
+    @BeforeEach
+    void setUp() {
+        client = HttpClient.newHttpClient();
+    }
+
+    @AfterEach
+    void tearDown() {
+        client.close();
+    }
+
+    @Test
+    void signedInSubscriberReceivesAvailabilityChanges() throws Exception {
+        Book book = bookService.addBook(newBook());
+        Connection connection = connect();
+        String token = jwtService.generateToken(Map.of("role", "MEMBER", "userId", 7_000_101L), "ws-member");
+        connection.send(Map.of("type", "connection_init", "payload", Map.of("Authorization", "Bearer " + token)));
+        assertThat(connection.next().path("type").asText()).isEqualTo("connection_ack");
+
+        connection.send(Map.of("id", "1", "type", "subscribe", "payload", Map.of("query",
+                "subscription { bookAvailabilityChanged(bookIds: [\"" + book.getId() + "\"]) { bookId availableCopies totalCopies } }")));
+        awaitSubscribers(1);
+        bookService.checkOutCopy(book.getId());
+        publisher.flush();
+
+        JsonNode message = connection.next();
+        assertThat(message.path("type").asText()).isEqualTo("next");
+        JsonNode update = message.path("payload").path("data").path("bookAvailabilityChanged");
+        assertThat(update.path("bookId").asText()).isEqualTo(book.getId().toString());
+        assertThat(update.path("availableCopies").asInt()).isEqualTo(1);
+        assertThat(update.path("totalCopies").asInt()).isEqualTo(2);
+        connection.socket.sendClose(WebSocket.NORMAL_CLOSURE, "");
+    }
+
+    @Test
+    void connectionWithoutTokenIsClosed() throws Exception {
+        Connection connection = connect();
+        connection.send(Map.of("type", "connection_init", "payload", Map.of()));
+
+        assertThat(connection.closeCode.get(10, TimeUnit.SECONDS)).isEqualTo(4401);
+    }
+
+    private void awaitSubscribers(int count) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (publisher.subscriberCount() < count && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+        assertThat(publisher.subscriberCount()).isGreaterThanOrEqualTo(count);
+    }
+
+    private Connection connect() {
+        Connection connection = new Connection();
+        connection.socket = client.newWebSocketBuilder()
+                .subprotocols("graphql-transport-ws")
+                .buildAsync(URI.create("ws://localhost:" + port + "/api/graphql-ws"), connection)
+                .join();
+        return connection;
+    }
+
+    private static Book newBook() {
+        Book book = new Book();
+        book.setTitle("Live Availability");
+        book.setAuthor("Test");
+        book.setIsbn("WS-" + UUID.randomUUID().toString().substring(0, 12));
+        book.setTotalCopies(2);
+        book.setAvailableCopies(2);
+        return book;
+    }
+
+    // Collects text frames (one graphql-transport-ws message each) and the close code
+    private class Connection implements WebSocket.Listener {
+        private final BlockingQueue<String> messages = new LinkedBlockingQueue<>();
+        private final CompletableFuture<Integer> closeCode = new CompletableFuture<>();
+        private final StringBuilder partial = new StringBuilder();
+        private WebSocket socket;
+
+        void send(Map<String, Object> message) throws Exception {
+            socket.sendText(objectMapper.writeValueAsString(message), true).join();
+        }
+
+        JsonNode next() throws Exception {
+            String message = messages.poll(Duration.ofSeconds(10).toMillis(), TimeUnit.MILLISECONDS);
+            assertThat(message).as("message within 10s").isNotNull();
+            return objectMapper.readTree(message);
+        }
+
+        @Override
+        public CompletionStage<?> onText(WebSocket webSocket, CharSequence data, boolean last) {
+            partial.append(data);
+            if (last) {
+                messages.add(partial.toString());
+                partial.setLength(0);
+            }
+            webSocket.request(1);
+            return null;
+        }
+
+        @Override
+        public CompletionStage<?> onClose(WebSocket webSocket, int statusCode, String reason) {
+            closeCode.complete(statusCode);
+            return null;
+        }
+    }
+}
@@ -0,0 +1,174 @@
+package com.bookstack.bookstack.common.metrics;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.Map;
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import com.bookstack.bookstack.auth.service.JwtService;
+import com.bookstack.bookstack.book.model.Book;
+import com.bookstack.bookstack.book.repository.BookRepository;
+import com.bookstack.bookstack.borrow.service.BorrowService;
+import com.bookstack.bookstack.common.RateLimitInterceptor;
+import com.bookstack.bookstack.common.ratelimit.LocalRateLimitBucketProvider;
+import com.bookstack.bookstack.user.model.User;
+import com.bookstack.bookstack.user.repository.UserRepository;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.search.Search;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class DomainMetricsTest {
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private BorrowService borrowService;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JwtService jwtService;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    void borrowsAreCountedAndTimedByOutcome() {
+        Long userId = createUser().getId();
+        Long bookId = createBook().getId();
+        double borrowed = count(meterRegistry.find("bookstack.borrows").tag("event", "borrowed"));
+        long rejected = timed(service("borrowBook", "rejected"));
+
+        Long borrowId = borrowService.borrowBook(userId, bookId, null).getId();
+        try {
+            borrowService.borrowBook(userId, bookId, null);
+        } catch (RuntimeException expected) {
+            // Already borrowed
+        }
+        borrowService.returnBook(borrowId, null);
+
+        assertThat(count(meterRegistry.find("bookstack.borrows").tag("event", "borrowed"))).isEqualTo(borrowed + 1);
+        assertThat(count(meterRegistry.find("bookstack.borrows").tag("event", "returned"))).isPositive();
+        assertThat(timed(service("borrowBook", "rejected"))).isEqualTo(rejected + 1);
+        // No request, so nobody to attribute the calls to
+        assertThat(timed(service("returnBook", "success").tag("role", "anonymous"))).isPositive();
+        assertThat(meterRegistry.find("bookstack.borrows.open").tag("status", "active").gauge()).isNotNull();
+    }
+
+    @Test
+    void graphQlOperationsAndFieldsAreTimedWithTheCallersRole() throws Exception {
+        execute("{ allBooks { id title } }", "ADMIN");
+
+        assertThat(timed(meterRegistry.find("bookstack.graphql.request")
+                .tags("operation", "query", "outcome", "success", "role", "admin"))).isPositive();
+        assertThat(timed(meterRegistry.find("bookstack.graphql.field").tags("field", "Query.allBooks", "outcome", "success")))
+                .isPositive();
+        // Property reads are not timed
+        assertThat(meterRegistry.find("bookstack.graphql.field").tag("field", "Book.title").timer()).isNull();
+        assertThat(timed(meterRegistry.find("bookstack.service")
+                .tags("domain", "catalog", "operation", "getAllBooks", "role", "admin"))).isPositive();
+        assertThat(count(meterRegistry.find("bookstack.auth.checks").tags("outcome", "granted", "role", "admin")))
+                .isPositive();
+    }
+
+    @Test
+    void failedTokenVerificationIsCounted() throws Exception {
+        double before = count(meterRegistry.find("bookstack.auth.checks").tag("outcome", "unauthenticated"));
+
+        execute("{ allBooks { id } }", null);
+
+        assertThat(count(meterRegistry.find("bookstack.auth.checks").tag("outcome", "unauthenticated")))
+                .isEqualTo(before + 1);
+        assertThat(timed(meterRegistry.find("bookstack.graphql.request")
+                .tags("outcome", "error", "role", "anonymous"))).isPositive();
+    }
+
+    @Test
+    void rateLimitDecisionsAreCounted() throws Exception {
+        MeterRegistry registry = new SimpleMeterRegistry();
+        RateLimitInterceptor interceptor = new RateLimitInterceptor(
+                new LocalRateLimitBucketProvider(new CaffeineCacheManager()), registry);
+        ReflectionTestUtils.setField(interceptor, "enabled", true);
+        ReflectionTestUtils.setField(interceptor, "requestsPerMinute", 2);
+
+        for (int i = 0; i < 3; i++) {
+            MockHttpServletRequest request = new MockHttpServletRequest();
+            request.setRemoteAddr("10.9.8.7");
+            interceptor.preHandle(request, new MockHttpServletResponse(), new Object());
+        }
+
+        assertThat(registry.get("bookstack.ratelimit.requests").tag("outcome", "allowed").counter().count()).isEqualTo(2);
+        assertThat(registry.get("bookstack.ratelimit.requests").tag("outcome", "rejected").counter().count()).isEqualTo(1);
+    }
+
+    private void execute(String query, String role) throws Exception {
+        var request = post("/api/graphql")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"query\": \"" + query + "\"}");
+        if (role != null) {
+            String token = jwtService.generateToken(Map.of("role", role, "userId", 7_000_002L), "metrics-" + role);
+            request.header(HttpHeaders.AUTHORIZATION, "Bearer " + token);
+        }
+        MvcResult result = mockMvc.perform(request).andReturn();
+        if (result.getRequest().isAsyncStarted()) {
+            mockMvc.perform(asyncDispatch(result)).andExpect(status().isOk());
+        }
+    }
+
+    private Search service(String operation, String outcome) {
+        return meterRegistry.find("bookstack.service").tags("domain", "borrow", "operation", operation, "outcome", outcome);
+    }
+
+    private static long timed(Search search) {
+        return search.timers().stream().mapToLong(Timer::count).sum();
+    }
+
+    private static double count(Search search) {
+        return search.counters().stream().mapToDouble(Counter::count).sum();
+    }
+
+    private Book createBook() {
+        Book book = new Book();
+        book.setTitle("Metrics " + UUID.randomUUID());
+        book.setAuthor("Test Author");
+        book.setIsbn(UUID.randomUUID().toString().substring(0, 20));
+        book.setTotalCopies(1);
+        book.setAvailableCopies(1);
+        return bookRepository.save(book);
+    }
+
+    private User createUser() {
+        User user = new User();
+        user.setUsername("metrics-" + UUID.randomUUID());
+        user.setPassword("not-a-real-hash");
+        user.setRole("MEMBER");
+        return userRepository.save(user);
+    }
+}
@@ -0,0 +1,69 @@
+package com.bookstack.bookstack.common.pagination;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.bookstack.bookstack.common.exception.BadRequestException;
+
+class CursorsTest {
+
+    @Test
+    void cursorsRoundTripAndAMissingOneStartsFromTheBeginning() {
+        assertThat(Cursors.decode(Cursors.encode(42L))).isEqualTo(42L);
+        assertThat(Cursors.decode(null)).isZero();
+        assertThat(Cursors.decode("")).isZero();
+    }
+
+    @Test
+    void malformedCursorsAreRejected() {
+        for (String cursor : List.of("not base64!", encode("42"), encode("user:42"), encode("id:"), encode("id:forty-two"))) {
+            assertThatThrownBy(() -> Cursors.decode(cursor))
+                    .as(cursor)
+                    .isInstanceOf(BadRequestException.class)
+                    .hasMessage("Invalid cursor");
+        }
+    }
+
+    @Test
+    void firstDefaultsAndIsBounded() {
+        assertThat(Cursors.pageSize(null)).isEqualTo(Cursors.DEFAULT_PAGE_SIZE);
+        assertThat(Cursors.pageSize(1)).isEqualTo(1);
+        assertThat(Cursors.pageSize(Cursors.MAX_PAGE_SIZE)).isEqualTo(Cursors.MAX_PAGE_SIZE);
+        for (int first : new int[] {0, -1, Cursors.MAX_PAGE_SIZE + 1}) {
+            assertThatThrownBy(() -> Cursors.pageSize(first))
+                    .isInstanceOf(BadRequestException.class)
+                    .hasMessage("first must be between 1 and " + Cursors.MAX_PAGE_SIZE);
+        }
+    }
+
+    @Test
+    void theExtraRowOnlySignalsANextPage() {
+        Connection<Long> full = Connection.of(List.of(3L, 5L, 8L), 2, 0L, id -> id);
+        assertThat(full.getEdges()).extracting(Edge::getNode).containsExactly(3L, 5L);
+        assertThat(full.getPageInfo().isHasNextPage()).isTrue();
+        assertThat(full.getPageInfo().isHasPreviousPage()).isFalse();
+        assertThat(full.getPageInfo().getStartCursor()).isEqualTo(Cursors.encode(3L));
+        assertThat(full.getPageInfo().getEndCursor()).isEqualTo(Cursors.encode(5L));
+
+        Connection<Long> last = Connection.of(List.of(8L), 2, 5L, id -> id);
+        assertThat(last.getEdges()).extracting(Edge::getCursor).containsExactly(Cursors.encode(8L));
+        assertThat(last.getPageInfo().isHasNextPage()).isFalse();
+        assertThat(last.getPageInfo().isHasPreviousPage()).isTrue();
+
+        Connection<Long> empty = Connection.of(List.of(), 2, 8L, id -> id);
+        assertThat(empty.getEdges()).isEmpty();
+        assertThat(empty.getPageInfo().isHasNextPage()).isFalse();
+        assertThat(empty.getPageInfo().getStartCursor()).isNull();
+        assertThat(empty.getPageInfo().getEndCursor()).isNull();
+    }
+
+    private static String encode(String raw) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,127 @@
+package com.bookstack.bookstack.common.ratelimit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import io.github.bucket4j.Bandwidth;
+import io.github.bucket4j.BucketConfiguration;
+import io.github.bucket4j.Refill;
+
+/**
+ * Two providers over the same embedded database stand in for two backend replicas.
+ */
+class JdbcRateLimitBucketProviderTest {
+    private static final int LIMIT = 20;
+    private static final Supplier<BucketConfiguration> CONFIGURATION = () -> BucketConfiguration.builder()
+            .addLimit(Bandwidth.classic(LIMIT, Refill.greedy(LIMIT, Duration.ofMinutes(1))))
+            .build();
+
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:ratelimit-" + UUID.randomUUID() + ";MODE=PostgreSQL;DB_CLOSE_DELAY=-1", "sa", "");
+        Flyway.configure()
+                .dataSource(dataSource)
+                .locations("classpath:db/migration/common", "classpath:db/migration/h2")
+                .load()
+                .migrate();
+        jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    @Test
+    void replicasShareOneQuotaWhenSynchronizingEveryRequest() {
+        JdbcRateLimitBucketProvider replicaA = provider(0);
+        JdbcRateLimitBucketProvider replicaB = provider(0);
+
+        int consumed = 0;
+        for (int i = 0; i < LIMIT * 2; i++) {
+            JdbcRateLimitBucketProvider replica = i % 2 == 0 ? replicaA : replicaB;
+            if (replica.resolveBucket("10.0.0.1", CONFIGURATION).tryConsume(1)) consumed++;
+        }
+
+        assertThat(consumed).isEqualTo(LIMIT);
+        // Other clients are unaffected
+        assertThat(replicaB.resolveBucket("10.0.0.2", CONFIGURATION).tryConsume(1)).isTrue();
+    }
+
+    @Test
+    void delayedSynchronizationOverspendsAtMostSyncTokensPerReplica() throws Exception {
+        int syncTokens = 3;
+        List<JdbcRateLimitBucketProvider> replicas = List.of(provider(syncTokens), provider(syncTokens));
+
+        AtomicInteger consumed = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                JdbcRateLimitBucketProvider replica = replicas.get(t % replicas.size());
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < LIMIT; i++) {
+                        if (replica.resolveBucket("10.0.0.1", CONFIGURATION).tryConsume(1)) consumed.incrementAndGet();
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) future.get(30, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertThat(consumed.get()).isBetween(LIMIT, LIMIT + syncTokens * replicas.size());
+    }
+
+    @Test
+    void purgeKeepsBucketsThatAreStillRefilling() {
+        JdbcRateLimitBucketProvider replica = provider(0);
+        replica.resolveBucket("10.0.0.1", CONFIGURATION).tryConsume(1);
+
+        replica.purgeExpiredBuckets();
+        assertThat(rowCount()).isEqualTo(1);
+
+        jdbcTemplate.update("UPDATE " + JdbcBucketProxyManager.TABLE + " SET expires_at = 0");
+        replica.purgeExpiredBuckets();
+        assertThat(rowCount()).isZero();
+    }
+
+    @Test
+    void asyncOperationsRunTheSameStatements() {
+        provider(0).resolveBucket("10.0.0.1", CONFIGURATION).tryConsume(1);
+        JdbcBucketProxyManager manager = new JdbcBucketProxyManager(jdbcTemplate);
+
+        assertThat(manager.beginAsyncCompareAndSwapOperation("10.0.0.1").getStateData().join()).isPresent();
+        assertThat(manager.beginAsyncCompareAndSwapOperation("10.0.0.2").getStateData().join()).isEmpty();
+
+        manager.removeAsync("10.0.0.1").join();
+        assertThat(rowCount()).isZero();
+    }
+
+    private JdbcRateLimitBucketProvider provider(long syncTokens) {
+        return new JdbcRateLimitBucketProvider(jdbcTemplate, syncTokens, 60_000, 1000);
+    }
+
+    private Integer rowCount() {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + JdbcBucketProxyManager.TABLE, Integer.class);
+    }
+}
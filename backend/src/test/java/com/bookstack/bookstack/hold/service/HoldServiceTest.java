@@ -0,0 +1,219 @@
+package com.bookstack.bookstack.hold.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.bookstack.bookstack.book.service.BookService;
+import com.bookstack.bookstack.borrow.dto.BorrowResponse;
+import com.bookstack.bookstack.borrow.service.BorrowService;
+import com.bookstack.bookstack.common.cache.ResourceVersions;
+import com.bookstack.bookstack.common.exception.BadRequestException;
+import com.bookstack.bookstack.common.exception.ConflictException;
+import com.bookstack.bookstack.hold.dto.HoldResponse;
+import com.bookstack.bookstack.hold.model.HoldStatus;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class HoldServiceTest {
+
+    @Autowired
+    private HoldService holdService;
+
+    @Autowired
+    private BorrowService borrowService;
+
+    @Autowired
+    private BookService bookService;
+
+    @Autowired
+    private HoldQueues holdQueues;
+
+    @Autowired
+    private ResourceVersions resourceVersions;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void aReturnedCopyGoesToTheFirstHolderInLine() {
+        Long bookId = insertBook(1);
+        Long reader = insertUser();
+        Long first = insertUser();
+        Long second = insertUser();
+        BorrowResponse borrow = borrowService.borrowBook(reader, bookId, null);
+
+        HoldResponse firstHold = holdService.placeHold(first, bookId);
+        HoldResponse secondHold = holdService.placeHold(second, bookId);
+        assertThat(holdService.getHold(firstHold.getId()).getPosition()).isEqualTo(1);
+        assertThat(holdService.getHold(secondHold.getId()).getPosition()).isEqualTo(2);
+        assertThatThrownBy(() -> holdService.placeHold(first, bookId)).isInstanceOf(ConflictException.class);
+
+        borrowService.returnBook(borrow.getId(), null);
+
+        HoldResponse ready = holdService.getHold(firstHold.getId());
+        assertThat(ready.getStatus()).isEqualTo(HoldStatus.READY);
+        assertThat(ready.getExpiresAt()).isAfter(ready.getReadyAt());
+        assertThat(holdService.getHold(secondHold.getId()).getPosition()).isEqualTo(1);
+        // Set aside for the holder, not back on the shelf
+        assertThat(bookService.getBookById(bookId).getAvailableCopies()).isZero();
+        assertThatThrownBy(() -> borrowService.borrowBook(second, bookId, null))
+                .isInstanceOf(BadRequestException.class);
+
+        borrowService.borrowBook(first, bookId, null);
+        assertThat(holdService.getHold(firstHold.getId()).getStatus()).isEqualTo(HoldStatus.FULFILLED);
+        assertThat(bookService.getBookById(bookId).getAvailableCopies()).isZero();
+        assertThat(holdService.getOpenHoldsByBookId(bookId)).extracting(HoldResponse::getId)
+                .containsExactly(secondHold.getId());
+    }
+
+    @Test
+    void holdsAreOnlyTakenOnFullyBorrowedBooks() {
+        Long bookId = insertBook(1);
+
+        assertThatThrownBy(() -> holdService.placeHold(insertUser(), bookId))
+                .isInstanceOf(BadRequestException.class)
+                .hasMessageContaining("borrow it instead");
+    }
+
+    @Test
+    void cancellingAReadyHoldPassesTheCopyOn() {
+        Long bookId = insertBook(1);
+        BorrowResponse borrow = borrowService.borrowBook(insertUser(), bookId, null);
+        HoldResponse first = holdService.placeHold(insertUser(), bookId);
+        HoldResponse second = holdService.placeHold(insertUser(), bookId);
+        borrowService.returnBook(borrow.getId(), null);
+
+        holdService.cancelHold(first.getId());
+
+        assertThat(holdService.getHold(first.getId()).getStatus()).isEqualTo(HoldStatus.CANCELLED);
+        assertThat(holdService.getHold(second.getId()).getStatus()).isEqualTo(HoldStatus.READY);
+        holdService.cancelHold(second.getId());
+        assertThat(bookService.getBookById(bookId).getAvailableCopies()).isEqualTo(1);
+        assertThatThrownBy(() -> holdService.cancelHold(second.getId())).isInstanceOf(BadRequestException.class);
+    }
+
+    @Test
+    void anUncollectedHoldExpiresAndTheCopyPassesOn() throws InterruptedException {
+        Long bookId = insertBook(1);
+        BorrowResponse borrow = borrowService.borrowBook(insertUser(), bookId, null);
+        HoldResponse first = holdService.placeHold(insertUser(), bookId);
+        HoldResponse second = holdService.placeHold(insertUser(), bookId);
+        borrowService.returnBook(borrow.getId(), null);
+
+        // The test profile's pickup window is two seconds; the scheduled tick expires the hold
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (holdService.getHold(first.getId()).getStatus() == HoldStatus.READY
+                && System.currentTimeMillis() < deadline) {
+            Thread.sleep(100);
+        }
+
+        assertThat(holdService.getHold(first.getId()).getStatus()).isEqualTo(HoldStatus.EXPIRED);
+        assertThat(holdService.getHold(second.getId()).getStatus()).isEqualTo(HoldStatus.READY);
+        assertThat(bookService.getBookById(bookId).getAvailableCopies()).isZero();
+    }
+
+    @Test
+    void anOlderHoldPlacedOnAnotherReplicaIsServedFirst() {
+        Long bookId = insertBook(1);
+        BorrowResponse borrow = borrowService.borrowBook(insertUser(), bookId, null);
+        HoldResponse local = holdService.placeHold(insertUser(), bookId);
+        // Placed a minute earlier through another instance, so never in this instance's queue
+        Long remote = insertHold(insertUser(), bookId, "WAITING", LocalDateTime.now().minusMinutes(1), null);
+
+        borrowService.returnBook(borrow.getId(), null);
+
+        assertThat(holdService.getHold(remote).getStatus()).isEqualTo(HoldStatus.READY);
+        assertThat(holdService.getHold(local.getId()).getStatus()).isEqualTo(HoldStatus.WAITING);
+    }
+
+    @Test
+    void holdChangesMadeOnAnotherReplicaReachThisInstancesQueue() {
+        Long bookId = insertBook(1);
+        borrowService.borrowBook(insertUser(), bookId, null);
+        HoldResponse local = holdService.placeHold(insertUser(), bookId);
+        Long remote = insertHold(insertUser(), bookId, "WAITING", LocalDateTime.now().minusMinutes(1), null);
+
+        // Counted from the table, so the hold placed elsewhere is in line even before the sync
+        assertThat(holdService.placeHold(insertUser(), bookId).getPosition()).isEqualTo(3);
+
+        recordRemoteChange(bookId);
+        resourceVersions.sync();
+        assertThat(holdService.getHold(remote).getPosition()).isEqualTo(1);
+        assertThat(holdService.getHold(local.getId()).getPosition()).isEqualTo(2);
+
+        jdbcTemplate.update("UPDATE holds SET status = 'CANCELLED', closed_at = ? WHERE id = ?", LocalDateTime.now(), remote);
+        recordRemoteChange(bookId);
+        resourceVersions.sync();
+        assertThat(holdService.getHold(local.getId()).getPosition()).isEqualTo(1);
+        assertThat(holdQueues.waiting(bookId)).hasSize(2).doesNotContain(remote);
+    }
+
+    @Test
+    void lapsedHoldsMadeReadyOnAnotherReplicaAreSweptFromTheTable() {
+        Long bookId = insertBook(1);
+        jdbcTemplate.update("UPDATE books SET available_copies = 0 WHERE id = ?", bookId);
+        LocalDateTime now = LocalDateTime.now();
+        // Set aside by another instance, so this instance's expiry wheel never scheduled it
+        Long lapsed = insertHold(insertUser(), bookId, "READY", now.minusDays(4), now.minusMinutes(1));
+        HoldResponse next = holdService.placeHold(insertUser(), bookId);
+
+        // Other tests' lapsed holds may be swept too
+        assertThat(holdService.sweepLapsed(System.currentTimeMillis())).isPositive();
+
+        assertThat(holdService.getHold(lapsed).getStatus()).isEqualTo(HoldStatus.EXPIRED);
+        assertThat(holdService.getHold(next.getId()).getStatus()).isEqualTo(HoldStatus.READY);
+        assertThat(bookService.getBookById(bookId).getAvailableCopies()).isZero();
+    }
+
+    @Test
+    void wheelFiresDeadlinesOnlyOnceTheyAreDue() {
+        HoldExpiryWheel wheel = new HoldExpiryWheel(1000);
+        long now = System.currentTimeMillis();
+        wheel.schedule(1, 10, now + 3_000);
+        // More than one revolution (512 ticks) out: shares a slot with earlier ticks
+        wheel.schedule(2, 10, now + 600_000);
+        wheel.schedule(3, 10, now + 5_000);
+        wheel.cancel(3);
+
+        assertThat(wheel.advance(now + 1_000)).isEmpty();
+        assertThat(wheel.advance(now + 4_000)).extracting(HoldExpiryWheel.Due::holdId).containsExactly(1L);
+        assertThat(wheel.advance(now + 590_000)).isEmpty();
+        assertThat(wheel.advance(now + 601_000)).extracting(HoldExpiryWheel.Due::holdId).containsExactly(2L);
+        assertThat(wheel.size()).isZero();
+    }
+
+    private void recordRemoteChange(Long bookId) {
+        String key = ResourceVersions.bookHolds(bookId);
+        if (jdbcTemplate.update("UPDATE resource_changes SET version = version + 1, changed_at = LOCALTIMESTAMP, origin = 'other' WHERE resource_key = ?", key) == 0) {
+            jdbcTemplate.update("INSERT INTO resource_changes (resource_key, changed_at, origin) VALUES (?, LOCALTIMESTAMP, 'other')", key);
+        }
+    }
+
+    private Long insertBook(int copies) {
+        String isbn = "H-" + UUID.randomUUID().toString().substring(0, 12);
+        jdbcTemplate.update("INSERT INTO books (title, author, isbn, total_copies, available_copies) VALUES ('Held', 'A', ?, ?, ?)",
+                isbn, copies, copies);
+        return jdbcTemplate.queryForObject("SELECT id FROM books WHERE isbn = ?", Long.class, isbn);
+    }
+
+    private Long insertHold(Long userId, Long bookId, String status, LocalDateTime createdAt, LocalDateTime expiresAt) {
+        jdbcTemplate.update("INSERT INTO holds (user_id, book_id, status, created_at, ready_at, expires_at) VALUES (?, ?, ?, ?, ?, ?)",
+                userId, bookId, status, createdAt, expiresAt != null ? createdAt : null, expiresAt);
+        return jdbcTemplate.queryForObject("SELECT MAX(id) FROM holds WHERE user_id = ?", Long.class, userId);
+    }
+
+    private Long insertUser() {
+        String name = "holder-" + UUID.randomUUID().toString().substring(0, 8);
+        jdbcTemplate.update("INSERT INTO users (username, password, role) VALUES (?, 'x', 'MEMBER')", name);
+        return jdbcTemplate.queryForObject("SELECT id FROM users WHERE username = ?", Long.class, name);
+    }
+}
@@ -0,0 +1,42 @@
+package com.bookstack.bookstack.user.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.bookstack.bookstack.common.exception.BadRequestException;
+import com.bookstack.bookstack.common.exception.NotFoundException;
+import com.bookstack.bookstack.user.model.User;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class UserServiceTest {
+
+    @Autowired
+    private UserService userService;
+
+    @Test
+    void softDeletedUsersCanBeFoundRestoredAndHardDeleted() {
+        Long id = userService.createUser("restore-" + UUID.randomUUID(), "password123", "MEMBER").getId();
+
+        userService.deleteUser(id);
+        assertThatThrownBy(() -> userService.getUserById(id)).isInstanceOf(NotFoundException.class);
+        assertThat(userService.getUserByIdIncludingDeleted(id).isDeleted()).isTrue();
+
+        User restored = userService.restoreUser(id);
+        assertThat(restored.isDeleted()).isFalse();
+        assertThat(userService.getUserById(id).getId()).isEqualTo(id);
+        assertThatThrownBy(() -> userService.restoreUser(id)).isInstanceOf(BadRequestException.class);
+
+        userService.deleteUser(id);
+        userService.hardDeleteUser(id);
+        assertThat(userService.userExistsIncludingDeleted(id)).isFalse();
+        assertThatThrownBy(() -> userService.restoreUser(id)).isInstanceOf(NotFoundException.class);
+    }
+}
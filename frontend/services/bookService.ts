@@ -1,5 +1,6 @@
 import { useNuxtApp } from '#app';
 import { GraphQLError, handleGraphQLResponse } from '@/utils/graphql-errors';
+import { getGraphQL, postGraphQL } from '@/utils/graphql-request';
 
 export async function getAllBooks() {
   const query = `
@@ -19,7 +20,7 @@ export async function getAllBooks() {
   
   try {
     const { $api } = useNuxtApp();
-    const res = await $api.post('/graphql', { query });
+    const res = await getGraphQL($api, query);
     
     return handleGraphQLResponse(res, 'allBooks');
   } catch (error) {
@@ -46,7 +47,7 @@ export async function searchBooks(filters: { title?: string; author?: string; ca
   
   try {
     const { $api } = useNuxtApp();
-    const res = await $api.post('/graphql', { query, variables: filters });
+    const res = await postGraphQL($api, query, filters);
     
     return handleGraphQLResponse(res, 'searchBooks');
   } catch (error) {
@@ -73,7 +74,7 @@ export async function getBookById(id: number) {
   
   try {
     const { $api } = useNuxtApp();
-    const res = await $api.post('/graphql', { query, variables: { id } });
+    const res = await getGraphQL($api, query, { id });
     
     return handleGraphQLResponse(res, 'bookById', `Book with ID ${id} not found`);
   } catch (error) {
@@ -100,7 +101,7 @@ export async function addBook(input: any) {
   
   try {
     const { $api } = useNuxtApp();
-    const res = await $api.post('/graphql', { query: mutation, variables: { input } });
+    const res = await postGraphQL($api, mutation, { input });
     
     const result = handleGraphQLResponse(res, 'addBook');
     
@@ -139,7 +140,7 @@ export async function updateBook(id: number, input: any) {
   
   try {
     const { $api } = useNuxtApp();
-    const res = await $api.post('/graphql', { query: mutation, variables: { id, input } });
+    const res = await postGraphQL($api, mutation, { id, input });
     
     const result = handleGraphQLResponse(res, 'updateBook');
     
@@ -169,7 +170,7 @@ export async function deleteBook(id: number) {
   
   try {
     const { $api } = useNuxtApp();
-    const res = await $api.post('/graphql', { query: mutation, variables: { id } });
+    const res = await postGraphQL($api, mutation, { id });
     
     const result = handleGraphQLResponse(res, 'deleteBook');
     
@@ -1,5 +1,6 @@
 import { useNuxtApp } from '#app';
 import { GraphQLError, handleGraphQLResponse } from '@/utils/graphql-errors';
+import { postGraphQL } from '@/utils/graphql-request';
 
 export async function getAllUsers() {
   const query = `
@@ -14,7 +15,7 @@ export async function getAllUsers() {
   
   try {
     const { $api } = useNuxtApp();
-    const res = await $api.post('/graphql', { query });
+    const res = await postGraphQL($api, query);
     
     return handleGraphQLResponse(res, 'allUsers');
   } catch (error) {
@@ -36,7 +37,7 @@ export async function searchUsersByUsername(username: string) {
   
   try {
     const { $api } = useNuxtApp();
-    const res = await $api.post('/graphql', { query, variables: { username } });
+    const res = await postGraphQL($api, query, { username });
     
     return handleGraphQLResponse(res, 'searchUsersByUsername');
   } catch (error) {
@@ -58,7 +59,7 @@ export async function getUserById(id: number) {
   
   try {
     const { $api } = useNuxtApp();
-    const res = await $api.post('/graphql', { query, variables: { id } });
+    const res = await postGraphQL($api, query, { id });
     
     return handleGraphQLResponse(res, 'userById', `User with ID ${id} not found`);
   } catch (error) {
@@ -80,7 +81,7 @@ export async function updateUser(id: number, input: { username: string; password
   
   try {
     const { $api } = useNuxtApp();
-    const res = await $api.post('/graphql', { query: mutation, variables: { id, input } });
+    const res = await postGraphQL($api, mutation, { id, input });
     
     const result = handleGraphQLResponse(res, 'updateUser');
     
@@ -110,7 +111,7 @@ export async function deleteUser(id: number) {
   
   try {
     const { $api } = useNuxtApp();
-    const res = await $api.post('/graphql', { query: mutation, variables: { id } });
+    const res = await postGraphQL($api, mutation, { id });
     
     const result = handleGraphQLResponse(res, 'deleteUser');
     
@@ -144,7 +145,7 @@ export async function createUser(input: { username: string; password: string; ro
   
   try {
     const { $api } = useNuxtApp();
-    const res = await $api.post('/graphql', { query: mutation, variables: { input } });
+    const res = await postGraphQL($api, mutation, { input });
     
     const result = handleGraphQLResponse(res, 'addUser');
     
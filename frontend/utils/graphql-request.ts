@@ -0,0 +1,61 @@
+import type { AxiosInstance, AxiosResponse } from 'axios';
+
+// SHA-256 hex digests of the operation texts sent so far
+const hashes = new Map<string, string>();
+
+async function sha256(text: string): Promise<string | null> {
+  if (!globalThis.crypto?.subtle) return null;
+
+  let hash = hashes.get(text);
+  if (!hash) {
+    const digest = await globalThis.crypto.subtle.digest('SHA-256', new TextEncoder().encode(text));
+    hash = Array.from(new Uint8Array(digest), (b) => b.toString(16).padStart(2, '0')).join('');
+    hashes.set(text, hash);
+  }
+  return hash;
+}
+
+function isPersistedQueryNotFound(res: AxiosResponse) {
+  return res.data?.errors?.some((err: any) => err.message === 'PersistedQueryNotFound') ?? false;
+}
+
+// Sends the operation by hash (automatic persisted queries) and only falls back to the full
+// text when the server doesn't know it yet. Without WebCrypto (insecure origins) it sends the text.
+export async function postGraphQL(api: AxiosInstance, query: string, variables?: Record<string, any>) {
+  const hash = await sha256(query);
+  if (!hash) {
+    return api.post('/graphql', { query, variables });
+  }
+
+  const extensions = { persistedQuery: { version: 1, sha256Hash: hash } };
+  const res = await api.post('/graphql', { variables, extensions });
+  if (!isPersistedQueryNotFound(res)) {
+    return res;
+  }
+  return api.post('/graphql', { query, variables, extensions });
+}
+
+function getParams(query: string | undefined, variables: Record<string, any> | undefined, extensions?: object) {
+  return {
+    query,
+    variables: variables ? JSON.stringify(variables) : undefined,
+    extensions: extensions ? JSON.stringify(extensions) : undefined,
+  };
+}
+
+// Same as postGraphQL over GET, for catalog queries: the server sends an ETag and the browser
+// revalidates with If-None-Match, getting a 304 instead of the list while the catalog is unchanged.
+// Mutations must keep using postGraphQL.
+export async function getGraphQL(api: AxiosInstance, query: string, variables?: Record<string, any>) {
+  const hash = await sha256(query);
+  if (!hash) {
+    return api.get('/graphql', { params: getParams(query, variables) });
+  }
+
+  const extensions = { persistedQuery: { version: 1, sha256Hash: hash } };
+  const res = await api.get('/graphql', { params: getParams(undefined, variables, extensions) });
+  if (!isPersistedQueryNotFound(res)) {
+    return res;
+  }
+  return api.get('/graphql', { params: getParams(query, variables, extensions) });
+}